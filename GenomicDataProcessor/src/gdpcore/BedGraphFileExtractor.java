@@ -19,7 +19,35 @@ public class BedGraphFileExtractor extends GenomicWindowFileExtractor{
 	 * @throws IOException
 	 */
 	public BedGraphFileExtractor(String logFile, ChromosomeList chromoConfig, String addressBedGraphFile) throws FileNotFoundException, IOException {
-		super(chromoConfig);		
+		this(logFile, chromoConfig, addressBedGraphFile, 1);
+	}
+
+
+	/**
+	 * Extracts a bedGraph file.
+	 * @param addressBedGraphFile Path to a bedGraph file.
+	 * @param chromoConfig A ChromosomeConfiguration.
+	 * @param threadCount Number of threads used to extract the file.
+	 * @throws FileNotFoundException
+	 * @throws IOException
+	 */
+	public BedGraphFileExtractor(String logFile, ChromosomeList chromoConfig, String addressBedGraphFile, int threadCount) throws FileNotFoundException, IOException {
+		this(logFile, chromoConfig, addressBedGraphFile, threadCount, null);
+	}
+
+
+	/**
+	 * Extracts a bedGraph file and notifies a listener during the extraction.
+	 * @param addressBedGraphFile Path to a bedGraph file.
+	 * @param chromoConfig A ChromosomeConfiguration.
+	 * @param threadCount Number of threads used to extract the file.
+	 * @param listener Listener notified during the extraction. Can be null.
+	 * @throws FileNotFoundException
+	 * @throws IOException
+	 */
+	public BedGraphFileExtractor(String logFile, ChromosomeList chromoConfig, String addressBedGraphFile, int threadCount, ExtractionListener listener) throws FileNotFoundException, IOException {
+		super(chromoConfig, threadCount);
+		setExtractionListener(listener);
 		extractFile(addressBedGraphFile);
 		if(logFile != null) {
 			// display statistics
@@ -40,6 +68,24 @@ public class BedGraphFileExtractor extends GenomicWindowFileExtractor{
 	}
 
 
+	/**
+	 * Creates an extractor without extracting any file.
+	 * @param chromoConfig A ChromosomeConfiguration.
+	 */
+	private BedGraphFileExtractor(ChromosomeList chromoConfig) {
+		super(chromoConfig);
+	}
+
+
+	/**
+	 * @see gdpcore.GenomicFileExtractor#createChunkExtractor()
+	 */
+	@Override
+	protected GenomicFileExtractor createChunkExtractor() {
+		return new BedGraphFileExtractor(chromoConfig);
+	}
+
+
 	/**
 	 * Receives one line from the input file and tries
 	 * to extract a chromosome number, a position and an intensity.
@@ -47,15 +93,15 @@ public class BedGraphFileExtractor extends GenomicWindowFileExtractor{
 	 * @param extractedLine Line read from the file being extracted. 
 	 */
 	@Override
-	protected void extractLine(String extractedLine) {
+	protected void extractLine(LineTokenizer line) {
 		int chromosomeNumber;
-		if ((extractedLine.length() != 0) && (extractedLine.charAt(0) == 'c')) {
-			String[] splitedLine = extractedLine.split("\t");
-			chromosomeNumber = chromoConfig.getIndex(splitedLine[0]);
+		if ((line.length() != 0) && (line.charAt(0) == 'c')) {
+			chromosomeNumber = line.getChromosome(chromoConfig, 0);
 			if(chromosomeNumber != -1)  {
-				startList.get(chromosomeNumber).add(Integer.parseInt(splitedLine[1]));
-				stopList.get(chromosomeNumber).add(Integer.parseInt(splitedLine[2]));
-				intensityList.get(chromosomeNumber).add(Double.parseDouble(splitedLine[3]));
+				setCurrentChromosome((short) chromosomeNumber);
+				startList.get(chromosomeNumber).add(line.getInt(1));
+				stopList.get(chromosomeNumber).add(line.getInt(2));
+				intensityList.get(chromosomeNumber).add(line.getDouble(3));
 				lineCount++;
 			}
 		}
@@ -0,0 +1,301 @@
+/**
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+package gdpcore;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * The BgzfInputStream class reads a BGZF file (blocked gzip format used by samtools and tabix).
+ * A BGZF file is a succession of independent gzip blocks of at most 64KB.
+ * The blocks are read in advance and inflated in parallel by several threads.
+ * The uncompressed data are returned in the order of the file.
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+public final class BgzfInputStream extends InputStream {
+	private static final int 	BLOCKS_PER_THREAD = 4;	// number of blocks inflated in advance per thread
+	private static final int 	HEADER_LENGTH = 12;		// length of the gzip header without the extra field
+	private final InputStream 	in;						// compressed input stream
+	private final ExecutorService executor;				// threads inflating the blocks, null if the blocks are inflated by the reading thread
+	private final LinkedList<Future<byte[]>> blockQueue;// blocks being inflated in the order of the file
+	private final int 			maxQueueSize;			// maximum number of blocks inflated in advance
+	private byte[] 				currentBlock;			// uncompressed data of the current block
+	private int 				currentPosition;		// position in the current block
+	private boolean 			endOfFile;				// true when all the blocks of the file have been read
+
+
+	/**
+	 * Creates a BgzfInputStream that inflates the blocks with several threads.
+	 * @param file A BGZF file.
+	 * @param threadCount Number of threads inflating the blocks.
+	 * @throws IOException
+	 */
+	public BgzfInputStream(File file, int threadCount) throws IOException {
+		this(new FileInputStream(file), threadCount);
+	}
+
+
+	/**
+	 * Creates a BgzfInputStream that reads the blocks from a stream and inflates them with several threads.
+	 * @param compressedStream A stream containing BGZF data.
+	 * @param threadCount Number of threads inflating the blocks.
+	 */
+	public BgzfInputStream(InputStream compressedStream, int threadCount) {
+		in = new BufferedInputStream(compressedStream, 65536);
+		if (threadCount > 1) {
+			executor = Executors.newFixedThreadPool(threadCount);
+			maxQueueSize = threadCount * BLOCKS_PER_THREAD;
+		} else {
+			executor = null;
+			maxQueueSize = 1;
+		}
+		blockQueue = new LinkedList<Future<byte[]>>();
+		currentBlock = new byte[0];
+		currentPosition = 0;
+		endOfFile = false;
+	}
+
+
+	/**
+	 * @param file A file.
+	 * @return True if the file starts with a BGZF block header.
+	 * @throws IOException
+	 */
+	public static boolean isBgzfFile(File file) throws IOException {
+		InputStream is = new FileInputStream(file);
+		try {
+			byte[] header = new byte[HEADER_LENGTH + 6];
+			int length = 0;
+			int byteRead;
+			while ((length < header.length) && ((byteRead = is.read(header, length, header.length - length)) != -1)) {
+				length += byteRead;
+			}
+			// gzip magic number, deflate method, FEXTRA flag, and first extra subfield "BC" of length 2
+			return (length == header.length) && ((header[0] & 0xff) == 0x1f) && ((header[1] & 0xff) == 0x8b)
+				&& (header[2] == 8) && ((header[3] & 4) != 0) && (header[12] == 'B') && (header[13] == 'C')
+				&& (header[14] == 2) && (header[15] == 0);
+		} finally {
+			is.close();
+		}
+	}
+
+
+	/**
+	 * Reads exactly <i>length</i> bytes from the compressed stream.
+	 * @param buffer Destination buffer.
+	 * @param offset Offset in the buffer.
+	 * @param length Number of bytes to read.
+	 * @return False if the end of the stream is reached before the first byte.
+	 * @throws IOException if the end of the stream is reached in the middle of the data
+	 */
+	private boolean readFully(byte[] buffer, int offset, int length) throws IOException {
+		int total = 0;
+		while (total < length) {
+			int byteRead = in.read(buffer, offset + total, length - total);
+			if (byteRead == -1) {
+				if (total == 0) {
+					return false;
+				}
+				throw new EOFException("Truncated BGZF block");
+			}
+			total += byteRead;
+		}
+		return true;
+	}
+
+
+	/**
+	 * Reads the next compressed block of the file.
+	 * @return The compressed block (header and trailer included), null if the end of the file is reached.
+	 * @throws IOException
+	 */
+	private byte[] readCompressedBlock() throws IOException {
+		byte[] header = new byte[HEADER_LENGTH];
+		if (!readFully(header, 0, HEADER_LENGTH)) {
+			return null;
+		}
+		if (((header[0] & 0xff) != 0x1f) || ((header[1] & 0xff) != 0x8b) || ((header[3] & 4) == 0)) {
+			throw new IOException("Invalid BGZF block header");
+		}
+		int extraLength = (header[10] & 0xff) | ((header[11] & 0xff) << 8);
+		byte[] extra = new byte[extraLength];
+		if (!readFully(extra, 0, extraLength)) {
+			throw new EOFException("Truncated BGZF block");
+		}
+		// look for the BC subfield containing the size of the block
+		int blockSize = -1;
+		int i = 0;
+		while (i + 4 <= extraLength) {
+			int subfieldLength = (extra[i + 2] & 0xff) | ((extra[i + 3] & 0xff) << 8);
+			if ((extra[i] == 'B') && (extra[i + 1] == 'C') && (subfieldLength == 2)) {
+				blockSize = ((extra[i + 4] & 0xff) | ((extra[i + 5] & 0xff) << 8)) + 1;
+			}
+			i += 4 + subfieldLength;
+		}
+		if (blockSize == -1) {
+			throw new IOException("Invalid BGZF block: no block size");
+		}
+		byte[] block = new byte[blockSize];
+		System.arraycopy(header, 0, block, 0, HEADER_LENGTH);
+		System.arraycopy(extra, 0, block, HEADER_LENGTH, extraLength);
+		if (!readFully(block, HEADER_LENGTH + extraLength, blockSize - HEADER_LENGTH - extraLength)) {
+			throw new EOFException("Truncated BGZF block");
+		}
+		return block;
+	}
+
+
+	/**
+	 * Inflates a BGZF block and checks its CRC.
+	 * @param block A compressed block.
+	 * @return The uncompressed data.
+	 * @throws IOException
+	 */
+	private static byte[] inflateBlock(byte[] block) throws IOException {
+		int extraLength = (block[10] & 0xff) | ((block[11] & 0xff) << 8);
+		int dataStart = HEADER_LENGTH + extraLength;
+		int dataLength = block.length - dataStart - 8;
+		int crc = readInt(block, block.length - 8);
+		int uncompressedLength = readInt(block, block.length - 4);
+		byte[] result = new byte[uncompressedLength];
+		Inflater inflater = new Inflater(true);
+		try {
+			inflater.setInput(block, dataStart, dataLength);
+			int length = 0;
+			while ((length < uncompressedLength) && !inflater.finished()) {
+				int inflated = inflater.inflate(result, length, uncompressedLength - length);
+				if ((inflated == 0) && (inflater.needsInput() || inflater.needsDictionary())) {
+					break;
+				}
+				length += inflated;
+			}
+			if (length != uncompressedLength) {
+				throw new IOException("Invalid BGZF block: wrong uncompressed size");
+			}
+		} catch (DataFormatException e) {
+			throw new IOException("Invalid BGZF block: " + e.getMessage());
+		} finally {
+			inflater.end();
+		}
+		CRC32 crc32 = new CRC32();
+		crc32.update(result, 0, result.length);
+		if ((int) crc32.getValue() != crc) {
+			throw new IOException("Invalid BGZF block: CRC error");
+		}
+		return result;
+	}
+
+
+	/**
+	 * @param buffer A buffer.
+	 * @param offset Offset of the integer.
+	 * @return The little-endian integer at the specified offset.
+	 */
+	private static int readInt(byte[] buffer, int offset) {
+		return (buffer[offset] & 0xff) | ((buffer[offset + 1] & 0xff) << 8)
+			| ((buffer[offset + 2] & 0xff) << 16) | ((buffer[offset + 3] & 0xff) << 24);
+	}
+
+
+	/**
+	 * Loads the next non-empty block in the current block.
+	 * @return False if there is no more data.
+	 * @throws IOException
+	 */
+	private boolean nextBlock() throws IOException {
+		do {
+			// read and schedule the blocks in advance
+			while (!endOfFile && (blockQueue.size() < maxQueueSize)) {
+				final byte[] block = readCompressedBlock();
+				if (block == null) {
+					endOfFile = true;
+				} else if (executor == null) {
+					currentBlock = inflateBlock(block);
+					currentPosition = 0;
+					if (currentBlock.length > 0) {
+						return true;
+					}
+				} else {
+					blockQueue.add(executor.submit(new Callable<byte[]>() {
+						@Override
+						public byte[] call() throws Exception {
+							return inflateBlock(block);
+						}
+					}));
+				}
+			}
+			if (blockQueue.isEmpty()) {
+				return false;
+			}
+			try {
+				currentBlock = blockQueue.removeFirst().get();
+			} catch (InterruptedException e) {
+				throw new IOException("Decompression interrupted");
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof IOException) {
+					throw (IOException) e.getCause();
+				} else {
+					throw new IOException(e.getCause().getMessage());
+				}
+			}
+			currentPosition = 0;
+		} while (currentBlock.length == 0);
+		return true;
+	}
+
+
+	@Override
+	public int read() throws IOException {
+		if ((currentPosition == currentBlock.length) && !nextBlock()) {
+			return -1;
+		}
+		return currentBlock[currentPosition++] & 0xff;
+	}
+
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		if ((currentPosition == currentBlock.length) && !nextBlock()) {
+			return -1;
+		}
+		int length = Math.min(len, currentBlock.length - currentPosition);
+		System.arraycopy(currentBlock, currentPosition, b, off, length);
+		currentPosition += length;
+		return length;
+	}
+
+
+	@Override
+	public int available() throws IOException {
+		return currentBlock.length - currentPosition;
+	}
+
+
+	@Override
+	public void close() throws IOException {
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+		blockQueue.clear();
+		in.close();
+	}
+}
@@ -0,0 +1,823 @@
+/**
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+package gdpcore;
+
+import gdpcore.BinList.Precision;
+import gdpcore.BinList.Storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * The BinArray class stores the bins of a chromosome in an array of primitives of a given {@link Precision}.
+ * The values are always read and written as doubles, so the operations of the BinLists don't depend on the storage.
+ * The integer arrays are used for the counts of reads, the float arrays for the intensities when the
+ * single precision is enough. They use 4 and 2 times less memory than the double arrays.
+ * The values written in an integer array are rounded.
+ * The arrays with less than {@link #SPARSE_DENSITY} non-null bins are stored as sparse arrays (see {@link #compact()}):
+ * only the indexes and the values of the non-null bins are stored. 
+ * The operations iterate on the non-null bins with {@link #nextNonNullIndex(int)}. 
+ * The large arrays can be stored outside of the Java heap (see {@link #setStorage(Storage, String)}) 
+ * so the size of the heap doesn't depend on the size of the bins.
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+public abstract class BinArray {
+	public static final double SPARSE_DENSITY = 0.1;	// greatest proportion of non-null bins of a sparse array
+	public static final int 	PAGE_SHIFT = 24;		// an array stored outside of the heap is split in pages of 2^PAGE_SHIFT bins
+	public static final int 	OFF_HEAP_MIN_SIZE = 65536;	// the arrays with less bins are always stored in the heap
+	private static Storage 		storage = Storage.heap;	// storage of the new arrays
+	private static File 		storageDirectory = new File("storage");	// directory of the memory-mapped files
+
+	/**
+	 * Array of 16-bit integers.
+	 * @author Julien Lajugie
+	 * @version 0.1
+	 */
+	private static final class ShortBinArray extends BinArray {
+		private final short[] data;	// values of the bins
+
+		/**
+		 * @param data Values of the bins. The array is not copied.
+		 */
+		private ShortBinArray(short[] data) {
+			this.data = data;
+		}
+
+		@Override
+		public int size() {
+			return data.length;
+		}
+
+		@Override
+		public double get(int index) {
+			return data[index];
+		}
+
+		@Override
+		void set(int index, double value) {
+			data[index] = (short) Math.round(value);
+		}
+
+		@Override
+		public Precision getPrecision() {
+			return Precision.int16;
+		}
+
+		@Override
+		int nextNonNullValue(int index) {
+			while ((index < data.length) && (data[index] == 0)) {
+				index++;
+			}
+			return index;
+		}
+
+		@Override
+		void get(int start, int stop, double[] values) {
+			for (int i = start; i < stop; i++) {
+				values[i - start] = data[i];
+			}
+		}
+
+		@Override
+		void set(int start, int stop, double[] values) {
+			for (int i = start; i < stop; i++) {
+				data[i] = (short) Math.round(values[i - start]);
+			}
+		}
+	}
+
+
+	/**
+	 * Array of 32-bit integers.
+	 * @author Julien Lajugie
+	 * @version 0.1
+	 */
+	private static final class IntBinArray extends BinArray {
+		private final int[] data;	// values of the bins
+
+		/**
+		 * @param data Values of the bins. The array is not copied.
+		 */
+		private IntBinArray(int[] data) {
+			this.data = data;
+		}
+
+		@Override
+		public int size() {
+			return data.length;
+		}
+
+		@Override
+		public double get(int index) {
+			return data[index];
+		}
+
+		@Override
+		void set(int index, double value) {
+			data[index] = (int) Math.round(value);
+		}
+
+		@Override
+		public Precision getPrecision() {
+			return Precision.int32;
+		}
+
+		@Override
+		int nextNonNullValue(int index) {
+			while ((index < data.length) && (data[index] == 0)) {
+				index++;
+			}
+			return index;
+		}
+
+		@Override
+		void get(int start, int stop, double[] values) {
+			for (int i = start; i < stop; i++) {
+				values[i - start] = data[i];
+			}
+		}
+
+		@Override
+		void set(int start, int stop, double[] values) {
+			for (int i = start; i < stop; i++) {
+				data[i] = (int) Math.round(values[i - start]);
+			}
+		}
+	}
+
+
+	/**
+	 * Array of single precision floats.
+	 * @author Julien Lajugie
+	 * @version 0.1
+	 */
+	private static final class FloatBinArray extends BinArray {
+		private final float[] data;	// values of the bins
+
+		/**
+		 * @param data Values of the bins. The array is not copied.
+		 */
+		private FloatBinArray(float[] data) {
+			this.data = data;
+		}
+
+		@Override
+		public int size() {
+			return data.length;
+		}
+
+		@Override
+		public double get(int index) {
+			return data[index];
+		}
+
+		@Override
+		void set(int index, double value) {
+			data[index] = (float) value;
+		}
+
+		@Override
+		public Precision getPrecision() {
+			return Precision.float32;
+		}
+
+		@Override
+		int nextNonNullValue(int index) {
+			while ((index < data.length) && (data[index] == 0)) {
+				index++;
+			}
+			return index;
+		}
+
+		@Override
+		void get(int start, int stop, double[] values) {
+			for (int i = start; i < stop; i++) {
+				values[i - start] = data[i];
+			}
+		}
+
+		@Override
+		void set(int start, int stop, double[] values) {
+			for (int i = start; i < stop; i++) {
+				data[i] = (float) values[i - start];
+			}
+		}
+	}
+
+
+	/**
+	 * Array of double precision floats.
+	 * @author Julien Lajugie
+	 * @version 0.1
+	 */
+	private static final class DoubleBinArray extends BinArray {
+		private final double[] data;	// values of the bins
+
+		/**
+		 * @param data Values of the bins. The array is not copied.
+		 */
+		private DoubleBinArray(double[] data) {
+			this.data = data;
+		}
+
+		@Override
+		public int size() {
+			return data.length;
+		}
+
+		@Override
+		public double get(int index) {
+			return data[index];
+		}
+
+		@Override
+		void set(int index, double value) {
+			data[index] = value;
+		}
+
+		@Override
+		public Precision getPrecision() {
+			return Precision.float64;
+		}
+
+		@Override
+		int nextNonNullValue(int index) {
+			while ((index < data.length) && (data[index] == 0)) {
+				index++;
+			}
+			return index;
+		}
+
+		@Override
+		void get(int start, int stop, double[] values) {
+			System.arraycopy(data, start, values, 0, stop - start);
+		}
+
+		@Override
+		void set(int start, int stop, double[] values) {
+			System.arraycopy(values, 0, data, start, stop - start);
+		}
+
+		/**
+		 * The array of the bins is returned without copy.
+		 */
+		@Override
+		public double[] toDoubleArray() {
+			return data;
+		}
+	}
+
+
+	/**
+	 * Sparse array: sorted indexes of the bins that can be non-null and their values.
+	 * The values of the other bins are null and can't be set to a non-null value.
+	 * The position of the last bin accessed is kept so the sequential accesses don't need a binary search.
+	 * @author Julien Lajugie
+	 * @version 0.1
+	 */
+	private static final class SparseBinArray extends BinArray {
+		private final int size;			// number of bins
+		private final int[] indexes;	// sorted indexes of the stored bins, shared by the sparse arrays with the same bins
+		private final BinArray values;	// values of the stored bins
+		private int lastPosition = 0;	// position of the last bin accessed. Shared by the threads: it's only a hint
+
+		/**
+		 * @param size Number of bins.
+		 * @param indexes Sorted indexes of the stored bins. The array is not copied.
+		 * @param values Values of the stored bins.
+		 */
+		private SparseBinArray(int size, int[] indexes, BinArray values) {
+			this.size = size;
+			this.indexes = indexes;
+			this.values = values;
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		/**
+		 * @param index Index of a bin.
+		 * @return The position of the bin in the stored bins if it's stored, (-(insertion point) - 1) otherwise 
+		 * (see {@link Arrays#binarySearch(int[], int)}).
+		 */
+		private int search(int index) {
+			// the position of the last access or the next one when the bins are read sequentially
+			int hint = lastPosition;
+			for (int position = hint; position <= hint + 1; position++) {
+				if ((position <= indexes.length) 
+						&& ((position == 0) || (indexes[position - 1] < index)) 
+						&& ((position == indexes.length) || (indexes[position] >= index))) {
+					lastPosition = position;
+					return ((position < indexes.length) && (indexes[position] == index)) ? position : -position - 1;
+				}
+			}
+			int position = Arrays.binarySearch(indexes, index);
+			lastPosition = (position < 0) ? -position - 1 : position;
+			return position;
+		}
+
+		@Override
+		public double get(int index) {
+			int position = search(index);
+			return (position < 0) ? 0 : values.get(position);
+		}
+
+		/**
+		 * @throws IllegalArgumentException if a non-null value is set in a bin that is not stored
+		 */
+		@Override
+		void set(int index, double value) {
+			int position = search(index);
+			if (position >= 0) {
+				values.set(position, value);
+			} else if (value != 0) {
+				throw new IllegalArgumentException("The bin " + index + " of a sparse array can't be set");
+			}
+		}
+
+		@Override
+		public Precision getPrecision() {
+			return values.getPrecision();
+		}
+
+		@Override
+		public int nextNonNullIndex(int index) {
+			int position = search(index);
+			if (position < 0) {
+				position = -position - 1;
+			}
+			return (position < indexes.length) ? indexes[position] : size;
+		}
+
+		@Override
+		public boolean isSparse() {
+			return true;
+		}
+
+		@Override
+		public double[] toDoubleArray() {
+			double[] result = new double[size];
+			for (int i = 0; i < indexes.length; i++) {
+				result[indexes[i]] = values.get(i);
+			}
+			return result;
+		}
+
+		@Override
+		BinArray convert(Precision precision) {
+			if (precision == getPrecision()) {
+				return this;
+			}
+			return new SparseBinArray(size, indexes, values.convert(precision));
+		}
+
+		/**
+		 * Removes the null values stored in the array.
+		 */
+		@Override
+		BinArray compact() {
+			int count = 0;
+			for (int i = 0; i < indexes.length; i++) {
+				if (values.get(i) != 0) {
+					count++;
+				}
+			}
+			if (count == indexes.length) {
+				return this;
+			}
+			int[] newIndexes = new int[count];
+			BinArray newValues = create(getPrecision(), count);
+			int k = 0;
+			for (int i = 0; i < indexes.length; i++) {
+				if (values.get(i) != 0) {
+					newIndexes[k] = indexes[i];
+					newValues.set(k, values.get(i));
+					k++;
+				}
+			}
+			return new SparseBinArray(size, newIndexes, newValues);
+		}
+	}
+
+
+	/**
+	 * Array stored outside of the Java heap: in direct buffers or in memory-mapped files.
+	 * The bins are split in pages of 2^{@link #PAGE_SHIFT} bins because a buffer can't contain more than 2 GB.
+	 * The values are little-endian, like in the binary files of the BinLists.
+	 * @author Julien Lajugie
+	 * @version 0.1
+	 */
+	private static final class BufferBinArray extends BinArray {
+		private static final int PAGE_MASK = (1 << PAGE_SHIFT) - 1;	// mask of the index of a bin in its page
+		private final Precision precision;	// precision of the values
+		private final int size;				// number of bins
+		private final ByteBuffer[] pages;	// pages of bins, the last one can be shorter
+
+		/**
+		 * @param precision Precision of the values.
+		 * @param size Number of bins.
+		 * @param pages Little-endian pages of 2^{@link #PAGE_SHIFT} bins. The buffers are not copied.
+		 */
+		private BufferBinArray(Precision precision, int size, ByteBuffer[] pages) {
+			this.precision = precision;
+			this.size = size;
+			this.pages = pages;
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public double get(int index) {
+			ByteBuffer page = pages[index >>> PAGE_SHIFT];
+			int position = (index & PAGE_MASK) * precision.getByteCount();
+			switch (precision) {
+			case int16:
+				return page.getShort(position);
+			case int32:
+				return page.getInt(position);
+			case float32:
+				return page.getFloat(position);
+			default:
+				return page.getDouble(position);
+			}
+		}
+
+		@Override
+		void set(int index, double value) {
+			ByteBuffer page = pages[index >>> PAGE_SHIFT];
+			int position = (index & PAGE_MASK) * precision.getByteCount();
+			switch (precision) {
+			case int16:
+				page.putShort(position, (short) Math.round(value));
+				break;
+			case int32:
+				page.putInt(position, (int) Math.round(value));
+				break;
+			case float32:
+				page.putFloat(position, (float) value);
+				break;
+			default:
+				page.putDouble(position, value);
+				break;
+			}
+		}
+
+		@Override
+		public Precision getPrecision() {
+			return precision;
+		}
+	}
+
+
+	/**
+	 * Sets where the new arrays are stored. The arrays already created are not moved.
+	 * The direct buffers are limited by the option -XX:MaxDirectMemorySize of the JVM 
+	 * (the maximum size of the heap by default). The memory-mapped files are deleted as soon as they are mapped 
+	 * (when the application exits on the systems that can't delete a mapped file).
+	 * @param aStorage Storage of the new arrays.
+	 * @param directory Directory of the memory-mapped files.
+	 */
+	public static synchronized void setStorage(Storage aStorage, String directory) {
+		storage = aStorage;
+		storageDirectory = new File(directory);
+	}
+
+
+	/**
+	 * @return The storage of the new arrays.
+	 */
+	public static synchronized Storage getStorage() {
+		return storage;
+	}
+
+
+	/**
+	 * Creates the buffers of an array stored outside of the heap.
+	 * @param aStorage Storage of the array, direct buffers or memory-mapped file.
+	 * @param byteCount Number of bytes of a value.
+	 * @param size Number of bins.
+	 * @return Little-endian pages of 2^{@link #PAGE_SHIFT} bins.
+	 * @throws IllegalStateException if the memory-mapped file can't be created
+	 */
+	private static ByteBuffer[] allocatePages(Storage aStorage, int byteCount, int size) {
+		ByteBuffer[] pages = new ByteBuffer[(int) (((long) size + (1 << PAGE_SHIFT) - 1) >>> PAGE_SHIFT)];
+		if (aStorage == Storage.direct) {
+			for (int i = 0; i < pages.length; i++) {
+				int pageSize = Math.min(1 << PAGE_SHIFT, size - (i << PAGE_SHIFT));
+				pages[i] = ByteBuffer.allocateDirect(pageSize * byteCount).order(ByteOrder.LITTLE_ENDIAN);
+			}
+			return pages;
+		}
+		File directory;
+		synchronized (BinArray.class) {
+			directory = storageDirectory;
+		}
+		try {
+			directory.mkdirs();
+			File file = File.createTempFile("binlist", ".tmp", directory);
+			RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+			try {
+				randomAccessFile.setLength((long) size * byteCount);
+				FileChannel channel = randomAccessFile.getChannel();
+				for (int i = 0; i < pages.length; i++) {
+					int pageSize = Math.min(1 << PAGE_SHIFT, size - (i << PAGE_SHIFT));
+					pages[i] = channel.map(FileChannel.MapMode.READ_WRITE, ((long) i << PAGE_SHIFT) * byteCount, (long) pageSize * byteCount);
+					pages[i].order(ByteOrder.LITTLE_ENDIAN);
+				}
+			} finally {
+				// the mapped buffers stay valid after the file is closed
+				randomAccessFile.close();
+				// a mapped file can't be deleted on Windows
+				if (!file.delete()) {
+					file.deleteOnExit();
+				}
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to create a memory-mapped file in " + directory, e);
+		}
+		return pages;
+	}
+
+
+	/**
+	 * Creates a BinArray with all the bins null. 
+	 * The array is stored outside of the heap if the storage is not {@link Storage#heap} 
+	 * and if it has at least {@link #OFF_HEAP_MIN_SIZE} bins.
+	 * @param precision Precision of the values.
+	 * @param size Number of bins.
+	 * @return A new BinArray.
+	 */
+	static BinArray create(Precision precision, int size) {
+		Storage currentStorage = getStorage();
+		if ((currentStorage != Storage.heap) && (size >= OFF_HEAP_MIN_SIZE)) {
+			return new BufferBinArray(precision, size, allocatePages(currentStorage, precision.getByteCount(), size));
+		}
+		switch (precision) {
+		case int16:
+			return new ShortBinArray(new short[size]);
+		case int32:
+			return new IntBinArray(new int[size]);
+		case float32:
+			return new FloatBinArray(new float[size]);
+		default:
+			return new DoubleBinArray(new double[size]);
+		}
+	}
+
+
+	/**
+	 * Creates a BinArray with all the bins null that can store a non-null value in the same bins as another BinArray.
+	 * The result is sparse when the model is sparse. 
+	 * It's used by the operations that give a null bin for each null bin.
+	 * @param model A BinArray.
+	 * @param precision Precision of the values.
+	 * @return A new BinArray.
+	 */
+	static BinArray createLike(BinArray model, Precision precision) {
+		if (model.isSparse()) {
+			SparseBinArray sparseModel = (SparseBinArray) model;
+			return new SparseBinArray(sparseModel.size, sparseModel.indexes, create(precision, sparseModel.indexes.length));
+		}
+		return create(precision, model.size());
+	}
+
+
+	/**
+	 * Creates a BinArray with all the bins null that can store a non-null value in the bins 
+	 * that can be non-null in one of two BinArrays. The result is sparse when the two models are sparse.
+	 * It's used by the operations that give a null bin when the bins of their two operands are null.
+	 * @param model1 A BinArray. The result has the same size.
+	 * @param model2 Another BinArray.
+	 * @param precision Precision of the values.
+	 * @return A new BinArray.
+	 */
+	static BinArray createLike(BinArray model1, BinArray model2, Precision precision) {
+		if (!model1.isSparse() || !model2.isSparse()) {
+			return create(precision, model1.size());
+		}
+		// merge of the stored bins of the two models
+		int[] indexes1 = ((SparseBinArray) model1).indexes;
+		int[] indexes2 = ((SparseBinArray) model2).indexes;
+		int[] indexes = new int[indexes1.length + indexes2.length];
+		int count = 0;
+		int i = 0, j = 0;
+		while ((i < indexes1.length) || (j < indexes2.length)) {
+			int index;
+			if ((j == indexes2.length) || ((i < indexes1.length) && (indexes1[i] < indexes2[j]))) {
+				index = indexes1[i++];
+			} else if ((i == indexes1.length) || (indexes2[j] < indexes1[i])) {
+				index = indexes2[j++];
+			} else {
+				index = indexes1[i++];
+				j++;
+			}
+			if (index < model1.size()) {
+				indexes[count++] = index;
+			}
+		}
+		return new SparseBinArray(model1.size(), Arrays.copyOf(indexes, count), create(precision, count));
+	}
+
+
+	/**
+	 * @param precision Precision of the values.
+	 * @param size Number of bins.
+	 * @param pages Little-endian pages of 2^{@link #PAGE_SHIFT} bins (eg: memory-mapped from a file). 
+	 * The buffers are not copied.
+	 * @return A BinArray stored in the buffers.
+	 */
+	static BinArray wrap(Precision precision, int size, ByteBuffer[] pages) {
+		return new BufferBinArray(precision, size, pages);
+	}
+
+
+	/**
+	 * @param data Values of the bins. The array is not copied.
+	 * @return A BinArray with a {@link Precision#float64} precision.
+	 */
+	static BinArray valueOf(double[] data) {
+		return new DoubleBinArray(data);
+	}
+
+
+	/**
+	 * @param data Values of the bins. The array is not copied.
+	 * @return A BinArray with a {@link Precision#float32} precision.
+	 */
+	static BinArray valueOf(float[] data) {
+		return new FloatBinArray(data);
+	}
+
+
+	/**
+	 * @param data Values of the bins. The array is not copied.
+	 * @return A BinArray with a {@link Precision#int32} precision.
+	 */
+	static BinArray valueOf(int[] data) {
+		return new IntBinArray(data);
+	}
+
+
+	/**
+	 * @param data Values of the bins. The array is not copied.
+	 * @return A BinArray with a {@link Precision#int16} precision.
+	 */
+	static BinArray valueOf(short[] data) {
+		return new ShortBinArray(data);
+	}
+
+
+	/**
+	 * @return The number of bins.
+	 */
+	public abstract int size();
+
+
+	/**
+	 * @param index Index of a bin.
+	 * @return The value of the bin.
+	 */
+	public abstract double get(int index);
+
+
+	/**
+	 * Sets the value of a bin. The value is converted to the precision of the array.
+	 * @param index Index of a bin.
+	 * @param value New value of the bin.
+	 */
+	abstract void set(int index, double value);
+
+
+	/**
+	 * Copies the values of a range of bins in an array. 
+	 * The dense arrays copy their primitive array in a loop that the JIT compiler can vectorize.
+	 * @param start Index of the first bin (included).
+	 * @param stop Index of the last bin (excluded).
+	 * @param values Array receiving the value of the bin <i>start + i</i> at the index <i>i</i>.
+	 */
+	void get(int start, int stop, double[] values) {
+		for (int i = start; i < stop; i++) {
+			values[i - start] = get(i);
+		}
+	}
+
+
+	/**
+	 * Sets the values of a range of bins. The values are converted to the precision of the array.
+	 * @param start Index of the first bin (included).
+	 * @param stop Index of the last bin (excluded).
+	 * @param values Array containing the value of the bin <i>start + i</i> at the index <i>i</i>.
+	 */
+	void set(int start, int stop, double[] values) {
+		for (int i = start; i < stop; i++) {
+			set(i, values[i - start]);
+		}
+	}
+
+
+	/**
+	 * @return The precision of the values.
+	 */
+	public abstract Precision getPrecision();
+
+
+	/**
+	 * Used to iterate on the bins that can be non-null. All the bins of a dense array can be non-null 
+	 * so a dense array returns <i>index</i>. The value of the bin returned can be null.
+	 * @param index Index of a bin.
+	 * @return The smallest index greater or equal to <i>index</i> of a bin that can be non-null, 
+	 * {@link #size()} if all the bins from <i>index</i> are null. All the bins skipped are null.
+	 */
+	public int nextNonNullIndex(int index) {
+		return index;
+	}
+
+
+	/**
+	 * Unlike {@link #nextNonNullIndex(int)}, the values of the bins are read.
+	 * @param index Index of a bin.
+	 * @return The smallest index greater or equal to <i>index</i> of a non-null bin, {@link #size()} if there is none.
+	 */
+	int nextNonNullValue(int index) {
+		while ((index < size()) && (get(index) == 0)) {
+			index++;
+		}
+		return index;
+	}
+
+
+	/**
+	 * @return True if the array is sparse.
+	 */
+	public boolean isSparse() {
+		return false;
+	}
+
+
+	/**
+	 * @return An array of doubles containing the values of the bins.
+	 */
+	public double[] toDoubleArray() {
+		double[] result = new double[size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = get(i);
+		}
+		return result;
+	}
+
+
+	/**
+	 * Converts the BinArray to another precision.
+	 * @param precision A precision.
+	 * @return The current BinArray if it already has the precision, a new BinArray otherwise.
+	 */
+	BinArray convert(Precision precision) {
+		if (precision == getPrecision()) {
+			return this;
+		}
+		BinArray result = create(precision, size());
+		for (int i = 0; i < size(); i++) {
+			result.set(i, get(i));
+		}
+		return result;
+	}
+
+
+	/**
+	 * Converts the array to a sparse array if it has less than {@link #SPARSE_DENSITY} non-null bins.
+	 * @return A sparse BinArray with the same values, or the current BinArray if it's dense enough.
+	 */
+	BinArray compact() {
+		// the count stops as soon as the array is too dense
+		int maxCount = (int) (size() * SPARSE_DENSITY);
+		int count = 0;
+		for (int i = nextNonNullValue(0); i < size(); i = nextNonNullValue(i + 1)) {
+			count++;
+			if (count > maxCount) {
+				return this;
+			}
+		}
+		int[] indexes = new int[count];
+		BinArray values = create(getPrecision(), count);
+		int k = 0;
+		for (int i = nextNonNullValue(0); i < size(); i = nextNonNullValue(i + 1)) {
+			indexes[k] = i;
+			values.set(k, get(i));
+			k++;
+		}
+		return new SparseBinArray(size(), indexes, values);
+	}
+}
@@ -15,6 +15,8 @@ import java.util.Arrays;
  * The BinList class provides a representation of a list of genomic positions grouped by bins for each chromosome of a genome.
  * An intensity is associated to each bin.
  * This class offers some tools allowing to gauss the values or to print a bedgraph file for example.
+ * The element-wise operations (normalize, log, add damper) are computed lazily: 
+ * a chain of element-wise operations is computed in one pass when the bins are accessed (see {@link ElementOperation}).
  * @author Julien Lajugie
  * @version 0.1
  */
@@ -32,11 +34,149 @@ public final class BinList {
 	};
 
 
+	/**
+	 * The enumeration GaussEngine is used to specify how the gaussian filter is computed.
+	 * @author Julien Lajugie
+	 * @version 0.1
+	 */
+	public enum GaussEngine {
+		direct ("Direct"),
+		fft ("FFT"),
+		boxFilter ("Box filter (approximation)");
+
+		private final String name;	// name of the engine
+
+		/**
+		 * @param name Name of the engine.
+		 */
+		private GaussEngine(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	};
+
+
+	/**
+	 * The enumeration Precision is used to specify how the values of the bins are stored (see {@link BinArray}).
+	 * The precisions are sorted from the smallest to the greatest.
+	 * @author Julien Lajugie
+	 * @version 0.1
+	 */
+	public enum Precision {
+		int16 ("16-bit integers", 2),
+		int32 ("32-bit integers", 4),
+		float32 ("Single precision", 4),
+		float64 ("Double precision", 8);
+
+		private final String name;	// name of the precision
+		private final int byteCount;	// number of bytes of a value
+
+		/**
+		 * @param name Name of the precision.
+		 * @param byteCount Number of bytes of a value.
+		 */
+		private Precision(String name, int byteCount) {
+			this.name = name;
+			this.byteCount = byteCount;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+
+		/**
+		 * @return The number of bytes of a value.
+		 */
+		public int getByteCount() {
+			return byteCount;
+		}
+
+		/**
+		 * @return True if the values are stored as integers.
+		 */
+		public boolean isInteger() {
+			return (this == int16) || (this == int32);
+		}
+
+		/**
+		 * @return The precision of the result of an operation that doesn't produce integers:
+		 * single precision for the integers, the current precision otherwise.
+		 */
+		public Precision toFloatingPoint() {
+			return isInteger() ? float32 : this;
+		}
+
+		/**
+		 * @param precision1 A precision.
+		 * @param precision2 A precision.
+		 * @return The greatest of the two precisions.
+		 */
+		public static Precision max(Precision precision1, Precision precision2) {
+			return (precision1.compareTo(precision2) >= 0) ? precision1 : precision2;
+		}
+
+		/**
+		 * @param value A value.
+		 * @return The value as it is stored with this precision.
+		 */
+		public double round(double value) {
+			switch (this) {
+			case int16:
+				return (short) Math.round(value);
+			case int32:
+				return (int) Math.round(value);
+			case float32:
+				return (float) value;
+			default:
+				return value;
+			}
+		}
+	};
+
+
+	/**
+	 * The enumeration Storage is used to specify where the bins are stored (see {@link BinArray#setStorage(Storage, String)}).
+	 * @author Julien Lajugie
+	 * @version 0.1
+	 */
+	public enum Storage {
+		heap ("Java heap"),
+		direct ("Off-heap memory"),
+		mappedFile ("Memory-mapped files");
+
+		private final String name;	// name of the storage
+
+		/**
+		 * @param name Name of the storage.
+		 */
+		private Storage(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	};
+
+
 	private ChromosomeList chromoConfig; // chromosome configuration
 	private short maxChromo; // greatest index of chromosome
-	private double[][] binList; // one list of bins for each chromosome
+	private BinArray[] binList; // one list of bins for each chromosome
+	private Precision precision; // precision of the values of the bins
 	private int windowSize; // size of the window
 	private double intensityCount; // number of matches
+	private volatile BinListBinaryFile binaryFile; // binary file containing the chromosomes not loaded yet, null if all the data are loaded
+	private boolean[] loadedChromosomes; // chromosomes already loaded from the binary file or already computed from the pending operations
+	private volatile BinList pendingSource; // BinList on which the pending element-wise operations are applied, null if the bins are computed
+	private ElementOperation pendingOperation; // pending element-wise operations
+	private volatile BinListStatistics statistics; // statistics of the bins, null until they are computed
+	private BinPyramid[] pyramids; // pyramid of each chromosome, null until the chromosome is displayed at a low resolution or queried
 
 
 	/**
@@ -44,27 +184,99 @@ public final class BinList {
 	 * @param positionList List of positions.
 	 * @param aWindowSize Size of the bins in base pair.
 	 */
-	public BinList(ChromosomeList aChromoConfig, int aWindowSize, ArrayList<ArrayList<Integer>> positionList)  {
+	public BinList(ChromosomeList aChromoConfig, int aWindowSize, ArrayList<IntList> positionList)  {
 		chromoConfig = aChromoConfig;
 		maxChromo = (short) (chromoConfig.size());
 		windowSize = aWindowSize;
 		intensityCount = 0;
-		binList = new double[maxChromo][];
 		createMatchList(positionList);
 	}
 
 
+	/**
+	 * Creates a BinList from the number of matches of each bin.
+	 * The counts are stored as integers (see {@link #setCounts(int[][])}).
+	 * @param aChromoConfig A ChromosomeConfiguration.
+	 * @param aWindowSize Size of the bins in base pair.
+	 * @param countList Number of matches per bin for each chromosome. null for the chromosomes without bin.
+	 */
+	public BinList(ChromosomeList aChromoConfig, int aWindowSize, int[][] countList)  {
+		chromoConfig = aChromoConfig;
+		maxChromo = chromoConfig.size();
+		windowSize = aWindowSize;
+		intensityCount = 0;
+		setCounts(countList);
+	}
+
+
+	/**
+	 * Creates a BinList from the value of each bin.
+	 * @param aChromoConfig A ChromosomeConfiguration.
+	 * @param aWindowSize Size of the bins in base pair.
+	 * @param data Bins of each chromosome. null for the chromosomes without bin. The arrays are not copied.
+	 */
+	public BinList(ChromosomeList aChromoConfig, int aWindowSize, double[][] data)  {
+		chromoConfig = aChromoConfig;
+		maxChromo = chromoConfig.size();
+		windowSize = aWindowSize;
+		intensityCount = 0;
+		precision = Precision.float64;
+		binList = new BinArray[maxChromo];
+		for(int i = 0; i < maxChromo; i++)  {
+			if (data[i] != null) {
+				binList[i] = BinArray.valueOf(data[i]);
+				for(int j = 0; j < data[i].length; j++) {
+					intensityCount += data[i][j];
+				}
+			}
+		}
+	}
+
+
 	/**
 	 * @param aChromoConfig A ChromosomeConfiguration.
 	 * @param aWindowSize Size of the bins in base pair.
 	 * @param anIntensityCount Sum of the intensities.
 	 */
 	public BinList(ChromosomeList aChromoConfig, int aWindowSize, double anIntensityCount)  {
+		this(aChromoConfig, aWindowSize, anIntensityCount, Precision.float64);
+	}
+
+
+	/**
+	 * @param aChromoConfig A ChromosomeConfiguration.
+	 * @param aWindowSize Size of the bins in base pair.
+	 * @param anIntensityCount Sum of the intensities.
+	 * @param aPrecision Precision of the values of the bins.
+	 */
+	private BinList(ChromosomeList aChromoConfig, int aWindowSize, double anIntensityCount, Precision aPrecision)  {
 		chromoConfig = aChromoConfig;
-		maxChromo = (short) (chromoConfig.size());
+		maxChromo = chromoConfig.size();
 		windowSize = aWindowSize;
 		intensityCount = anIntensityCount;
-		binList = new double[maxChromo][];
+		precision = aPrecision;
+		binList = new BinArray[maxChromo];
+	}
+
+
+	/**
+	 * Creates a BinList from a binary file generated by {@link #printBinaryFile(String)}.
+	 * The file is memory-mapped and the data of a chromosome are only loaded 
+	 * the first time they are accessed.
+	 * @param aChromoConfig A ChromosomeConfiguration.
+	 * @param binaryFilePath Address of the binary file.
+	 * @throws IOException
+	 */
+	public BinList(ChromosomeList aChromoConfig, String binaryFilePath) throws IOException {
+		BinListBinaryFile file = new BinListBinaryFile(binaryFilePath);
+		chromoConfig = aChromoConfig;
+		maxChromo = chromoConfig.size();
+		windowSize = file.getWindowSize();
+		intensityCount = file.getIntensityCount();
+		precision = file.getPrecision();
+		binList = new BinArray[maxChromo];
+		loadedChromosomes = new boolean[maxChromo];
+		binaryFile = file;
 	}
 
 
@@ -74,13 +286,15 @@ public final class BinList {
 	 * @param positionList List of positions.
 	 * @param intensityList List of intensities.
 	 */
-	public BinList(ChromosomeList aChromoConfig, int aWindowSize, ArrayList<ArrayList<Integer>> positionList, ArrayList<ArrayList<Double>> intensityList)  {
+	public BinList(ChromosomeList aChromoConfig, int aWindowSize, ArrayList<IntList> positionList, ArrayList<DoubleList> intensityList)  {
 		chromoConfig = aChromoConfig;
 		maxChromo = (short) (chromoConfig.size());
 		windowSize = aWindowSize;
 		intensityCount = 0;
-		binList = new double[maxChromo][];
+		precision = Precision.float64;
+		binList = new BinArray[maxChromo];
 		createIntensityList(positionList, intensityList);
+		compact(binList);
 	}
 
 
@@ -91,12 +305,13 @@ public final class BinList {
 	 * @param intensityList List of intensities.
 	 * @param criterion Specifies how the intensity is calculated.
 	 */
-	public BinList(ChromosomeList aChromoConfig, int aWindowSize, ArrayList<ArrayList<Integer>> positionList, ArrayList<ArrayList<Double>> intensityList, IntensityCalculation criterion)  {
+	public BinList(ChromosomeList aChromoConfig, int aWindowSize, ArrayList<IntList> positionList, ArrayList<DoubleList> intensityList, IntensityCalculation criterion)  {
 		chromoConfig = aChromoConfig;
 		maxChromo = (short) (chromoConfig.size());
 		windowSize = aWindowSize;
 		intensityCount = 0;
-		binList = new double[maxChromo][];
+		precision = Precision.float64;
+		binList = new BinArray[maxChromo];
 		switch (criterion) {
 		case average: 
 			createIntensityListAvg(positionList, intensityList);
@@ -108,6 +323,7 @@ public final class BinList {
 			createIntensityListSum(positionList, intensityList);
 			break;
 		}		
+		compact(binList);
 	}
 
 
@@ -118,53 +334,64 @@ public final class BinList {
 	 * @param intensityList List of intensities.
 	 * @param criterion Specifies how the intensity is calculated.
 	 */
-	public BinList(ChromosomeList aChromoConfig, int aWindowSize, ArrayList<ArrayList<Integer>> startList, ArrayList<ArrayList<Integer>> stopList, ArrayList<ArrayList<Double>> intensityList, IntensityCalculation criterion) {
+	public BinList(ChromosomeList aChromoConfig, int aWindowSize, ArrayList<IntList> startList, ArrayList<IntList> stopList, ArrayList<DoubleList> intensityList, IntensityCalculation criterion) {
 		chromoConfig = aChromoConfig;
 		maxChromo = (short) (chromoConfig.size());
 		windowSize = aWindowSize;
 		intensityCount = 0;
-		binList = new double[maxChromo][];
+		precision = Precision.float64;
+		binList = new BinArray[maxChromo];
 		createIntensityList(startList, stopList, intensityList, criterion);
+		compact(binList);
 	}
 
 
 	/**
-	 * Returns the biggest element of an ArrayList of Integers.
-	 * @param list ArrayList of Integers. 
-	 * @return The biggest element of a list of Integers.
+	 * Returns a list containing how many matches there is for each bin.
+	 * Goes through the list of positions and increment the intensity of 
+	 * a bin every time a new matching sequence in this bin is found.
+	 * @param positionList List of positions.
 	 */
-	private int max(ArrayList<Integer> list) {
-		int currentMax = 0;
-
-		if(list == null)
-			return 0;
-
-		for (int i = 0; i < list.size(); i++) {
-			if (currentMax < list.get(i).intValue())
-				currentMax =  list.get(i).intValue();
+	private void createMatchList(ArrayList<IntList> positionList) {
+		int[][] countList = new int[maxChromo][];
+		for(int i = 0; i < maxChromo; i++)  {
+			IntList positions = positionList.get(i);
+			int tabLength = positions.max() / windowSize + 1;
+			if(tabLength > 1) {
+				countList[i] = new int[tabLength];
+				for(int j = 0; j < positions.size(); j++) {
+					int windowTmp = positions.get(j) / windowSize;
+					countList[i][windowTmp]++;
+				}
+			}
 		}
-		return currentMax;
+		setCounts(countList);
 	}
 
 
 	/**
-	 * Returns a list containing how many matches there is for each bin.
-	 * Goes through the list of positions and increment the intensity of 
-	 * a bin every time a new matching sequence in this bin is found.
-	 * @param positionList List of positions.
+	 * Sets the bins with numbers of matches. The counts are stored with 16-bit integers 
+	 * if the greatest count allows it, with 32-bit integers otherwise.
+	 * @param countList Number of matches per bin for each chromosome. null for the chromosomes without bin.
 	 */
-	private void createMatchList(ArrayList<ArrayList<Integer>> positionList) {
+	private void setCounts(int[][] countList) {
+		int maxCount = 0;
 		for(int i = 0; i < maxChromo; i++)  {
-			int tabLength = max(positionList.get(i)) / windowSize + 1;
-			if(tabLength > 1) {
-				binList[i] = new double[tabLength];
-				for(int j = 0; j < positionList.get(i).size(); j++) {
-					int windowTmp = positionList.get(i).get(j) / windowSize;
-					binList[i][windowTmp]+=1 ;
-					intensityCount+=1;
+			if (countList[i] != null) {
+				for(int j = 0; j < countList[i].length; j++) {
+					maxCount = Math.max(maxCount, countList[i][j]);
+					intensityCount += countList[i][j];
 				}
 			}
 		}
+		precision = (maxCount <= Short.MAX_VALUE) ? Precision.int16 : Precision.int32;
+		binList = new BinArray[maxChromo];
+		for(int i = 0; i < maxChromo; i++)  {
+			if (countList[i] != null) {
+				binList[i] = BinArray.valueOf(countList[i]).convert(precision);
+			}
+		}
+		compact(binList);
 	}
 
 
@@ -175,15 +402,17 @@ public final class BinList {
 	 * @param positionList List of positions.
 	 * @param intensityList List of intensities.
 	 */
-	private void createIntensityList(ArrayList<ArrayList<Integer>> positionList, ArrayList<ArrayList<Double>> intensityList) {
+	private void createIntensityList(ArrayList<IntList> positionList, ArrayList<DoubleList> intensityList) {
 		for(int i = 0; i < maxChromo; i++)  {
-			int tabLength = max(positionList.get(i)) / windowSize + 1;
+			IntList positions = positionList.get(i);
+			DoubleList intensities = intensityList.get(i);
+			int tabLength = positions.max() / windowSize + 1;
 			if(tabLength > 1) {
-				binList[i] = new double[tabLength];
-				for(int j = 0; j < positionList.get(i).size(); j++) {
-					int windowTmp = positionList.get(i).get(j) / windowSize;
-					binList[i][windowTmp] = intensityList.get(i).get(j);
-					intensityCount+=intensityList.get(i).get(j);
+				binList[i] = BinArray.create(Precision.float64, tabLength);
+				for(int j = 0; j < positions.size(); j++) {
+					int windowTmp = positions.get(j) / windowSize;
+					binList[i].set(windowTmp, intensities.get(j));
+					intensityCount+=intensities.get(j);
 				}
 			}
 		}
@@ -199,16 +428,18 @@ public final class BinList {
 	 * @param positionList List of positions.
 	 * @param intensityList List of intensities.
 	 */
-	private void createIntensityListMax(ArrayList<ArrayList<Integer>> positionList, ArrayList<ArrayList<Double>> intensityList) {
+	private void createIntensityListMax(ArrayList<IntList> positionList, ArrayList<DoubleList> intensityList) {
 		for(int i = 0; i < maxChromo; i++)  {
-			int tabLength = max(positionList.get(i)) / windowSize + 1;
+			IntList positions = positionList.get(i);
+			DoubleList intensities = intensityList.get(i);
+			int tabLength = positions.max() / windowSize + 1;
 			if(tabLength > 1) {
-				binList[i] = new double[tabLength];
-				for(int j = 0; j < positionList.get(i).size(); j++) {
-					int windowTmp = positionList.get(i).get(j) / windowSize;
-					if(intensityList.get(i).get(j) > binList[i][windowTmp]) {
-						binList[i][windowTmp] = intensityList.get(i).get(j);
-						intensityCount+=intensityList.get(i).get(j);
+				binList[i] = BinArray.create(Precision.float64, tabLength);
+				for(int j = 0; j < positions.size(); j++) {
+					int windowTmp = positions.get(j) / windowSize;
+					if(intensities.get(j) > binList[i].get(windowTmp)) {
+						binList[i].set(windowTmp, intensities.get(j));
+						intensityCount+=intensities.get(j);
 					}
 				}
 			}
@@ -225,15 +456,17 @@ public final class BinList {
 	 * @param positionList List of positions.
 	 * @param intensityList List of intensities.
 	 */
-	private void createIntensityListSum(ArrayList<ArrayList<Integer>> positionList, ArrayList<ArrayList<Double>> intensityList) {
+	private void createIntensityListSum(ArrayList<IntList> positionList, ArrayList<DoubleList> intensityList) {
 		for(int i = 0; i < maxChromo; i++)  {
-			int tabLength = max(positionList.get(i)) / windowSize + 1;
+			IntList positions = positionList.get(i);
+			DoubleList intensities = intensityList.get(i);
+			int tabLength = positions.max() / windowSize + 1;
 			if(tabLength > 1) {
-				binList[i] = new double[tabLength];
-				for(int j = 0; j < positionList.get(i).size(); j++) {
-					int windowTmp = positionList.get(i).get(j) / windowSize;
-					binList[i][windowTmp]+=intensityList.get(i).get(j);
-					intensityCount+=intensityList.get(i).get(j);
+				binList[i] = BinArray.create(Precision.float64, tabLength);
+				for(int j = 0; j < positions.size(); j++) {
+					int windowTmp = positions.get(j) / windowSize;
+					binList[i].set(windowTmp, binList[i].get(windowTmp) + intensities.get(j));
+					intensityCount+=intensities.get(j);
 				}
 			}
 		}
@@ -247,28 +480,30 @@ public final class BinList {
 	 * @param positionList List of positions.
 	 * @param intensityList List of intensities.
 	 */
-	private void createIntensityListAvg(ArrayList<ArrayList<Integer>> positionList, ArrayList<ArrayList<Double>> intensityList) {
+	private void createIntensityListAvg(ArrayList<IntList> positionList, ArrayList<DoubleList> intensityList) {
 		int[][] countList = new int[maxChromo][];
 		for(int i = 0; i < maxChromo; i++)  {
-			int tabLength = max(positionList.get(i)) / windowSize + 1;
+			IntList positions = positionList.get(i);
+			DoubleList intensities = intensityList.get(i);
+			int tabLength = positions.max() / windowSize + 1;
 			if(tabLength > 1) {
-				binList[i] = new double[tabLength];
+				binList[i] = BinArray.create(Precision.float64, tabLength);
 				countList[i] = new int[tabLength];
-				for(int j = 0; j < positionList.get(i).size(); j++) {
-					int windowTmp = positionList.get(i).get(j) / windowSize;
-					binList[i][windowTmp] = intensityList.get(i).get(j);
+				for(int j = 0; j < positions.size(); j++) {
+					int windowTmp = positions.get(j) / windowSize;
+					binList[i].set(windowTmp, intensities.get(j));
 					countList[i][windowTmp]++;
 				}
 			}
 		}
 		for(int i = 0; i < maxChromo; i++)  {
 			if(binList[i] != null) {
-				for(int j = 0; j < binList[i].length; j++) {
+				for(int j = 0; j < binList[i].size(); j++) {
 					if(countList[i][j] == 0)
-						binList[i][j] = 0;
+						binList[i].set(j, 0);
 					else {
-						binList[i][j]/=countList[i][j];
-						intensityCount+=binList[i][j];
+						binList[i].set(j, binList[i].get(j) / countList[i][j]);
+						intensityCount+=binList[i].get(j);
 					}
 				}
 			}
@@ -280,106 +515,95 @@ public final class BinList {
 	 * Returns a list containing a value of intensity for each bin.
 	 * It goes through the list of start positions, a list of stop 
 	 * positions and a list of intensities and load the BinList from this data. 
+	 * The intensity of a window is split between the bins it overlaps proportionally to the overlap.
+	 * The windows are swept once in the order of their start positions (they are sorted if needed) 
+	 * and their parts are accumulated in the bins, so each window is read once whatever its length.
+	 * The chromosomes are computed in parallel. The bins without windows are null.
 	 * @param startList list of start positions
 	 * @param stopList list of stop positions
 	 * @param intensityList list of intensities
 	 * @param criterion criterion used to create the intensity list 
 	 */
-	private void createIntensityList(ArrayList<ArrayList<Integer>> startList, ArrayList<ArrayList<Integer>> stopList, ArrayList<ArrayList<Double>> intensityList, IntensityCalculation criterion) {
+	private void createIntensityList(final ArrayList<IntList> startList, final ArrayList<IntList> stopList, final ArrayList<DoubleList> intensityList, final IntensityCalculation criterion) {
 		for(int i = 0; i < maxChromo; i++)  {
 			if (startList.get(i) != null) {
-				int tabLength = max(stopList.get(i)) / windowSize + 1;
+				int tabLength = stopList.get(i).max() / windowSize + 1;
 				if(tabLength > 1) {
-					binList[i] = new double[tabLength];
-					int k = 0;
-					int previousStop = 0;
-					for (int j = 0; j < binList[i].length; j++) {
-						k = previousStop;
-						ArrayList<Double> currentBinIntensities = new ArrayList<Double>();
-						while ((k < stopList.get(i).size()) && (stopList.get(i).get(k) < j * windowSize)) {
-							k++;
-						}
-						while ((k < startList.get(i).size()) && (startList.get(i).get(k) < j * windowSize)) {
-							if (stopList.get(i).get(k) > j * windowSize) {
-								double intensity = intensityList.get(i).get(k) * (stopList.get(i).get(k) - (j * windowSize)) / (stopList.get(i).get(k) - startList.get(i).get(k));
-								currentBinIntensities.add(intensity);							
-							}
-							k++;
-						} 
-						while ((k < startList.get(i).size()) && (startList.get(i).get(k) < (j + 1) * windowSize)) {
-							if (stopList.get(i).get(k) > (j + 1) * windowSize) {
-								double intensity = intensityList.get(i).get(k) * (((j + 1) * windowSize) - startList.get(i).get(k)) / (stopList.get(i).get(k) - startList.get(i).get(k));
-								currentBinIntensities.add(intensity);								
-							} else {
-								double intensity = intensityList.get(i).get(k);
-								currentBinIntensities.add(intensity);
-								previousStop = k;
-							}
-							k++;
-						}
-						switch (criterion) {
-						case average: 
-							binList[i][j] = getAverage(currentBinIntensities);
-							break;
-						case maximum:
-							binList[i][j] = getMax(currentBinIntensities);
-							break;
-						case sum:
-							binList[i][j] = getSum(currentBinIntensities);
-							break;
-						}
-						intensityCount += binList[i][j];
-					}
-					startList.get(i).clear();
-					stopList.get(i).clear();
-					intensityList.get(i).clear();					
-					System.gc();
+					binList[i] = BinArray.create(Precision.float64, tabLength);
 				}
 			}
 		}
-	}
-
-
-	/**
-	 * @param list {@link ArrayList} of Double
-	 * @return the average of the list
-	 */
-	private double getAverage(ArrayList<Double> list) {
-		double result = 0;
-		int n = 0; 
-		for (Double currentValue : list) {
-			if (currentValue != 0) {
-				result += currentValue;
-				n++;
+		final double[] intensityCounts = new double[maxChromo];
+		BinListExecutor.executeByChromosome(binList, new BinListExecutor.Operation() {
+			@Override
+			public void compute(short i, int start, int stop) {
+				intensityCounts[i] = sweepWindows(binList[i], startList.get(i), stopList.get(i), intensityList.get(i), criterion);
 			}
+		});
+		for(int i = 0; i < maxChromo; i++)  {
+			intensityCount += intensityCounts[i];
 		}
-		return result / n;
 	}
 
 
 	/**
-	 * @param list {@link ArrayList} of Double 
-	 * @return the greatest value of the list 
+	 * Computes the bins of a chromosome from windows associated with an intensity.
+	 * @param data Bins of the chromosome receiving the result.
+	 * @param starts Start positions of the windows.
+	 * @param stops Stop positions of the windows.
+	 * @param intensities Intensities of the windows.
+	 * @param criterion Criterion used to compute a bin from the parts of the windows it overlaps.
+	 * @return The sum of the bins.
 	 */
-	private double getMax(ArrayList<Double> list) {
-		double max = list.get(0);
-		for (int i = 1; i < list.size(); i++) {
-			max = Math.max(max, list.get(i));
+	private double sweepWindows(BinArray data, IntList starts, IntList stops, DoubleList intensities, IntensityCalculation criterion) {
+		boolean sorted = true;
+		for (int k = 1; (k < starts.size()) && sorted; k++) {
+			sorted = starts.get(k - 1) <= starts.get(k);
 		}
-		return max;
-	}
-
-
-	/**
-	 * @param list {@link ArrayList} of Double
-	 * @return the sum of the values of the list
-	 */
-	private double getSum(ArrayList<Double> list) {
-		double result = 0;
-		for (Double currentValue : list) {
-			result += currentValue;
+		int[] order = sorted ? null : sortRegions(starts);
+		// number of parts of windows in each bin (non-null parts for the average)
+		int[] counts = (criterion == IntensityCalculation.sum) ? null : new int[data.size()];
+		for (int l = 0; l < starts.size(); l++) {
+			int k = sorted ? l : order[l];
+			int windowStart = starts.get(k);
+			int windowStop = stops.get(k);
+			double intensity = intensities.get(k);
+			int firstBin = windowStart / windowSize;
+			int lastBin = (windowStop > windowStart) ? (windowStop - 1) / windowSize : firstBin;
+			for (int j = firstBin; j <= lastBin; j++) {
+				int binStart = j * windowSize;
+				int binStop = binStart + windowSize;
+				double part;
+				if ((windowStart >= binStart) && (windowStop <= binStop)) {
+					part = intensity;
+				} else {
+					part = intensity * (Math.min(windowStop, binStop) - Math.max(windowStart, binStart)) / (windowStop - windowStart);
+				}
+				switch (criterion) {
+				case average:
+					if (part != 0) {
+						data.set(j, data.get(j) + part);
+						counts[j]++;
+					}
+					break;
+				case maximum:
+					data.set(j, (counts[j] == 0) ? part : Math.max(data.get(j), part));
+					counts[j]++;
+					break;
+				case sum:
+					data.set(j, data.get(j) + part);
+					break;
+				}
+			}
 		}
-		return result;
+		double sum = 0;
+		for (int j = 0; j < data.size(); j++) {
+			if ((criterion == IntensityCalculation.average) && (counts[j] > 0)) {
+				data.set(j, data.get(j) / counts[j]);
+			}
+			sum += data.get(j);
+		}
+		return sum;
 	}
 
 
@@ -407,24 +631,351 @@ public final class BinList {
 
 
 	/**
+	 * Loads the data of a chromosome from the binary file if they are not loaded yet.
+	 * @param chromo A chromosome.
+	 */
+	private synchronized void loadChromosome(short chromo) {
+		if ((loadedChromosomes != null) && (chromo >= 0) && (chromo < maxChromo) && !loadedChromosomes[chromo]) {
+			if (binaryFile != null) {
+				BinArray data = binaryFile.getData(chromoConfig.get(chromo).getName());
+				binList[chromo] = (data == null) ? null : data.compact();
+			} else {
+				BinArray source = pendingSource.getBinArray(chromo);
+				if (source != null) {
+					BinArray result = createPendingResult(source);
+					computePending(source, result, 0, source.size());
+					binList[chromo] = result.compact();
+				}
+			}
+			loadedChromosomes[chromo] = true;
+		}
+	}
+
+
+	/**
+	 * @return True if some chromosomes must be loaded from the binary file or computed from the pending operations.
+	 */
+	private boolean hasDataToLoad() {
+		return (binaryFile != null) || (pendingSource != null);
+	}
+
+
+	/**
+	 * Loads the chromosome if needed.
+	 * @param chromo A chromosome.
+	 * @return The bins of the chromosome, null if the chromosome has no data.
+	 */
+	private BinArray getBinArray(short chromo) {
+		if (hasDataToLoad()) {
+			loadChromosome(chromo);
+		}
+		return binList[chromo];
+	}
+
+
+	/**
+	 * Loads all the chromosomes not loaded yet from the binary file.
+	 */
+	private synchronized void loadData() {
+		if (binaryFile != null) {
+			for(short i = 0; i < maxChromo; i++) {
+				loadChromosome(i);
+			}
+			binaryFile = null;
+			loadedChromosomes = null;
+		} else if (pendingSource != null) {
+			// all the pending operations are computed in one pass
+			final BinArray[] sources = new BinArray[maxChromo];
+			final BinArray[] resultTab = new BinArray[maxChromo];
+			boolean complete = true;
+			for(short i = 0; i < maxChromo; i++) {
+				if (!loadedChromosomes[i]) {
+					sources[i] = pendingSource.getBinArray(i);
+					if (sources[i] != null) {
+						resultTab[i] = createPendingResult(sources[i]);
+					}
+				} else if (binList[i] != null) {
+					complete = false;
+				}
+			}
+			// the statistics of the result are computed in the same pass
+			BinListStatistics resultStatistics = computeWithStatistics(resultTab, new BinListExecutor.Operation() {
+				@Override
+				public void compute(short i, int start, int stop) {
+					computePending(sources[i], resultTab[i], start, stop);
+				}
+			});
+			compact(resultTab);
+			for(short i = 0; i < maxChromo; i++) {
+				if (!loadedChromosomes[i]) {
+					binList[i] = resultTab[i];
+				}
+			}
+			// the statistics are not known if some chromosomes have been computed separately
+			if (complete) {
+				statistics = resultStatistics;
+			}
+			pendingSource = null;
+			pendingOperation = null;
+			loadedChromosomes = null;
+		}
+	}
+
+
+	/**
+	 * The ElementOperation class computes the value of a bin from the value of the same bin of another BinList.
+	 * The element-wise operations are not computed when they are applied (see {@link BinList#applyLazily(Precision, ElementOperation)}). 
+	 * They are chained with the pending operations of the BinList and all computed in one pass, 
+	 * without intermediate BinLists, when the bins are accessed. 
+	 * The operations that read several bins (gauss, index...) compute the pending operations first.
+	 * The operations are applied on blocks of values with the kernels of {@link ElementKernels}.
+	 * @author Julien Lajugie
+	 * @version 0.1
+	 */
+	private static abstract class ElementOperation {
+
+		/**
+		 * Applies the operation on a block of values.
+		 * @param values Values of the bins, 0 for the null bins. Receives the results.
+		 * @param length Number of values of the block.
+		 */
+		abstract void apply(double[] values, int length);
+
+		/**
+		 * @param value Value of a bin, 0 if the bin is null.
+		 * @return The result of the operation.
+		 */
+		double apply(double value) {
+			double[] values = new double[] {value};
+			apply(values, 1);
+			return values[0];
+		}
+
+		/**
+		 * @param next An operation.
+		 * @return An operation applying the current operation and then <i>next</i>.
+		 */
+		ElementOperation then(final ElementOperation next) {
+			final ElementOperation first = this;
+			return new ElementOperation() {
+				@Override
+				void apply(double[] values, int length) {
+					first.apply(values, length);
+					next.apply(values, length);
+				}
+			};
+		}
+	}
+
+
+	/**
+	 * Applies an element-wise operation without computing it. 
+	 * The operation is chained with the pending operations of the current BinList.
+	 * @param resultPrecision Precision of the result.
+	 * @param operation An element-wise operation.
+	 * @return A new BinList with the operation pending.
+	 * @throws BinListNoDataException
+	 */
+	private BinList applyLazily(Precision resultPrecision, ElementOperation operation) throws BinListNoDataException {
+		if (binList == null)
+			throw new BinListNoDataException();
+
+		BinList resultList = new BinList(this.chromoConfig, this.windowSize, this.intensityCount, resultPrecision);
+		synchronized (this) {
+			if (pendingSource != null) {
+				// the operation is computed in the same pass as the pending operations
+				resultList.pendingOperation = pendingOperation.then(operation);
+				resultList.loadedChromosomes = new boolean[maxChromo];
+				resultList.pendingSource = pendingSource;
+			} else {
+				resultList.pendingOperation = operation;
+				resultList.loadedChromosomes = new boolean[maxChromo];
+				resultList.pendingSource = this;
+			}
+		}
+		return resultList;
+	}
+
+
+	/**
+	 * @param source Bins of a chromosome of the pending source.
+	 * @return An array receiving the result of the pending operations on the chromosome. 
+	 * The result is sparse if the source is sparse and if the operations keep the null bins null.
+	 */
+	private BinArray createPendingResult(BinArray source) {
+		if (pendingOperation.apply(0) == 0) {
+			return BinArray.createLike(source, precision);
+		} else {
+			return BinArray.create(precision, source.size());
+		}
+	}
+
+
+	/**
+	 * Computes the pending operations on a range of bins.
+	 * @param source Bins of a chromosome of the pending source.
+	 * @param result Array created by {@link #createPendingResult(BinArray)}.
+	 * @param start Index of the first bin computed (included).
+	 * @param stop Index of the last bin computed (excluded).
+	 */
+	private void computePending(BinArray source, BinArray result, int start, int stop) {
+		double[] values = new double[Math.max(0, Math.min(ElementKernels.BLOCK_SIZE, stop - start))];
+		double nullValue = precision.round(pendingOperation.apply(0));
+		if (source.isSparse() && (nullValue == 0)) {
+			// the bins that can be non-null are gathered in blocks
+			int[] indexes = new int[values.length];
+			int j = source.nextNonNullIndex(start);
+			while (j < stop) {
+				int length = 0;
+				for (; (j < stop) && (length < values.length); j = source.nextNonNullIndex(j + 1)) {
+					indexes[length] = j;
+					values[length] = source.get(j);
+					length++;
+				}
+				pendingOperation.apply(values, length);
+				ElementKernels.round(values, length, precision);
+				for (int k = 0; k < length; k++) {
+					result.set(indexes[k], values[k]);
+				}
+			}
+		} else {
+			for (int blockStart = start; blockStart < stop; blockStart += values.length) {
+				int blockStop = Math.min(stop, blockStart + values.length);
+				source.get(blockStart, blockStop, values);
+				pendingOperation.apply(values, blockStop - blockStart);
+				ElementKernels.round(values, blockStop - blockStart, precision);
+				result.set(blockStart, blockStop, values);
+			}
+		}
+	}
+
+
+	/**
+	 * Computes an operation on the chunks of the bins (see {@link BinListExecutor#execute(BinArray[], BinListExecutor.Operation)})
+	 * and the statistics of each chunk just after computing it, while its bins are still in the cache.
+	 * @param data Bins of each chromosome, null for the chromosomes without data.
+	 * @param operation An operation computing the bins of a chunk, null if the bins are already computed.
+	 * @return The statistics of the bins.
+	 */
+	private BinListStatistics computeWithStatistics(final BinArray[] data, final BinListExecutor.Operation operation) {
+		final int chromosomeCount = data.length;
+		BinListStatistics.Accumulator accumulator = BinListExecutor.reduce(data, new BinListExecutor.Reduction<BinListStatistics.Accumulator>() {
+			@Override
+			public BinListStatistics.Accumulator compute(short i, int start, int stop) {
+				if (operation != null) {
+					operation.compute(i, start, stop);
+				}
+				BinListStatistics.Accumulator chunkAccumulator = new BinListStatistics.Accumulator(chromosomeCount);
+				chunkAccumulator.add(i, data[i], start, stop);
+				return chunkAccumulator;
+			}
+
+			@Override
+			public BinListStatistics.Accumulator combine(BinListStatistics.Accumulator accumulator1, BinListStatistics.Accumulator accumulator2) {
+				return accumulator1.merge(accumulator2);
+			}
+		});
+		if (accumulator == null) {
+			accumulator = new BinListStatistics.Accumulator(chromosomeCount);
+		}
+		return new BinListStatistics(accumulator);
+	}
+
+
+	/**
+	 * Returns the statistics of the bins: the smallest and greatest values, the sum, the mean and the variance, 
+	 * for each chromosome and for the genome. The statistics are computed once, 
+	 * during the operation creating the BinList when possible, and kept with the BinList.
+	 * @return The statistics of the current BinList.
+	 * @throws BinListNoDataException
+	 */
+	public BinListStatistics getStatistics() throws BinListNoDataException {
+		loadData();
+		if (binList == null)
+			throw new BinListNoDataException();
+
+		BinListStatistics result = statistics;
+		if (result == null) {
+			result = computeWithStatistics(binList, null);
+			statistics = result;
+		}
+		return result;
+	}
+
+
+	/**
+	 * Converts the chromosomes with few non-null bins to sparse arrays (see {@link BinArray#compact()}).
+	 * @param data Bins of each chromosome, null for the chromosomes without data.
+	 */
+	private static void compact(final BinArray[] data) {
+		BinListExecutor.executeByChromosome(data, new BinListExecutor.Operation() {
+			@Override
+			public void compute(short i, int start, int stop) {
+				data[i] = data[i].compact();
+			}
+		});
+	}
+
+
+	/**
+	 * The arrays are copied when the precision of the BinList is not {@link Precision#float64} or when they are sparse.
 	 * @return The data array associate to the BinList.
 	 */
 	public double[][] getData() {
-		return binList;
+		loadData();
+		double[][] data = new double[maxChromo][];
+		for(short i = 0; i < maxChromo; i++) {
+			if (binList[i] != null) {
+				data[i] = binList[i].toDoubleArray();
+			}
+		}
+		return data;
 	}
 
 	/**
+	 * The array is copied when the precision of the BinList is not {@link Precision#float64} or when it is sparse.
 	 * @param chromo A chromosome.
 	 * @return The data array of the chromosome <i>chromo</i> of the BinList.
 	 */
 	public double[] getData(short chromo) {
+		if (hasDataToLoad()) {
+			loadChromosome(chromo);
+		}
 		if ((binList == null) || (chromo > binList.length) || (binList[chromo] == null)) {
 			return null;
 		}
-		return binList[chromo];
+		return binList[chromo].toDoubleArray();
 	}	
 
 
+	/**
+	 * @param chromo A chromosome.
+	 * @return The number of bins of the chromosome, 0 if the chromosome has no data.
+	 */
+	public int getBinCount(short chromo) {
+		if (hasDataToLoad()) {
+			loadChromosome(chromo);
+		}
+		if ((binList == null) || (chromo < 0) || (chromo >= binList.length) || (binList[chromo] == null)) {
+			return 0;
+		}
+		return binList[chromo].size();
+	}
+
+
+	/**
+	 * @param chromo A chromosome.
+	 * @param index Index of a bin.
+	 * @return The value of the bin, 0 if the bin doesn't exist.
+	 */
+	public double getValue(short chromo, int index) {
+		if ((index < 0) || (index >= getBinCount(chromo))) {
+			return 0;
+		}
+		return binList[chromo].get(index);
+	}
+
+
 	/**
 	 * @param chromo A chromosome.
 	 * @param coeff 
@@ -432,6 +983,9 @@ public final class BinList {
 	 * windowSize has been multiplied by coeff. The data are averaged.
 	 */
 	public double[] getData(short chromo, int coeff) {
+		if (hasDataToLoad()) {
+			loadChromosome(chromo);
+		}
 		if ((binList == null) || (chromo > binList.length) || (binList[chromo] == null)) {
 			return null;
 		}
@@ -439,30 +993,137 @@ public final class BinList {
 		if (coeff == 1) {
 			return getData(chromo);
 		}
+		return getData(chromo, coeff, 0, binList[chromo].size() / coeff + 1);
+	}
 
-		double[] returnArray = new double[binList[chromo].length / coeff + 1];
-		int newIndex = 0;
-		for(int i = 0; i < binList[chromo].length; i+=coeff) {
-			double sum = 0;
-			int n = 0;
-			for(int j = 0; j < coeff; j ++) {
-				if ((i + j < binList[chromo].length) && (binList[chromo][i + j] != 0)){
-					sum += binList[chromo][i + j];
-					n++;					
-				}				
+
+	/**
+	 * Only the bins of the range are read, so a part of a chromosome can be displayed 
+	 * without copying the whole chromosome in the heap.
+	 * When the groups have at least {@link BinPyramid#MIN_LEVEL_SIZE} bins they are aggregated 
+	 * from the pyramid of the chromosome, built the first time it's needed (see {@link BinPyramid}), 
+	 * so the time doesn't depend on <i>coeff</i>.
+	 * @param chromo A chromosome.
+	 * @param coeff Number of bins averaged in each value.
+	 * @param start Index of the first value (included).
+	 * @param stop Index of the last value (excluded). The range is truncated to the end of the chromosome.
+	 * @return The average of the non-null bins of the groups of <i>coeff</i> bins of the range 
+	 * <i>[start, stop[</i> of the chromosome <i>chromo</i>. The value <i>i</i> of the array is the group <i>start + i</i>. 
+	 * Null if the chromosome has no data.
+	 */
+	public double[] getData(short chromo, int coeff, int start, int stop) {
+		if (hasDataToLoad()) {
+			loadChromosome(chromo);
+		}
+		if ((binList == null) || (chromo > binList.length) || (binList[chromo] == null)) {
+			return null;
+		}
+		BinArray data = binList[chromo];
+		start = Math.max(0, start);
+		stop = Math.max(start, Math.min(stop, data.size() / coeff + 1));
+		double[] returnArray = new double[stop - start];
+		if (coeff >= BinPyramid.MIN_LEVEL_SIZE) {
+			BinPyramid pyramid = getPyramid(chromo);
+			double[] aggregate = new double[4];
+			for(int i = 0; i < returnArray.length; i++) {
+				pyramid.aggregate((int) Math.min(data.size(), (long) (start + i) * coeff), (int) Math.min(data.size(), (long) (start + i + 1) * coeff), aggregate);
+				if (aggregate[1] > 0) {
+					returnArray[i] = aggregate[0] / aggregate[1];
+				}
 			}
-			if (n > 0) {
-				returnArray[newIndex] = sum / n;
+			return returnArray;
+		}
+		// sums and numbers of the non-null bins of each group of coeff bins
+		int[] counts = new int[returnArray.length];
+		int binStop = (int) Math.min(data.size(), (long) stop * coeff);
+		for(int i = data.nextNonNullIndex((int) Math.min(data.size(), (long) start * coeff)); i < binStop; i = data.nextNonNullIndex(i + 1)) {
+			if (data.get(i) != 0) {
+				returnArray[i / coeff - start] += data.get(i);
+				counts[i / coeff - start]++;
 			}
-			else {
-				returnArray[newIndex] = 0;
+		}
+		for(int i = 0; i < returnArray.length; i++) {
+			if (counts[i] > 0) {
+				returnArray[i] /= counts[i];
 			}
-			newIndex++;
-		}		
+		}
 		return returnArray;
 	}
 
 
+	/**
+	 * @param chromo A loaded chromosome with data.
+	 * @return The pyramid of the chromosome. The pyramid is built the first time and kept with the BinList: 
+	 * the bins of a BinList don't change once it's created. The pyramids of different chromosomes can be built in parallel.
+	 */
+	private BinPyramid getPyramid(short chromo) {
+		synchronized (this) {
+			if (pyramids == null) {
+				pyramids = new BinPyramid[maxChromo];
+			}
+			if (pyramids[chromo] != null) {
+				return pyramids[chromo];
+			}
+		}
+		BinPyramid pyramid = new BinPyramid(binList[chromo]);
+		synchronized (this) {
+			if (pyramids[chromo] == null) {
+				pyramids[chromo] = pyramid;
+			}
+			return pyramids[chromo];
+		}
+	}
+
+
+	/**
+	 * Builds in parallel the pyramids of the chromosomes that don't have one yet (see {@link BinPyramid}).
+	 * The pyramids are used by the region queries ({@link #getRegionStatistics(short, int, int)}) 
+	 * and by the data at a low resolution, they are built the first time a chromosome is queried otherwise.
+	 * @throws BinListNoDataException
+	 */
+	public void buildPyramids() throws BinListNoDataException {
+		loadData();
+		if (binList == null)
+			throw new BinListNoDataException();
+
+		BinListExecutor.executeByChromosome(binList, new BinListExecutor.Operation() {
+			@Override
+			public void compute(short i, int start, int stop) {
+				getPyramid(i);
+			}
+		});
+	}
+
+
+	/**
+	 * Returns the statistics of the bins of a region without copying the chromosome.
+	 * The statistics are aggregated from the pyramid of the chromosome in O(log(length)) (see {@link BinPyramid}).
+	 * @param chromo A chromosome.
+	 * @param start Position of the start of the region in bp (included).
+	 * @param stop Position of the end of the region in bp (excluded).
+	 * @return The statistics of the bins overlapping the region. The region has no bin 
+	 * if the chromosome has no data or if the region is outside the chromosome.
+	 * @throws BinListNoDataException
+	 */
+	public BinListRegionStatistics getRegionStatistics(short chromo, int start, int stop) throws BinListNoDataException {
+		if (binList == null)
+			throw new BinListNoDataException();
+
+		double[] aggregate = new double[] {0, 0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+		BinArray data = ((chromo >= 0) && (chromo < maxChromo)) ? getBinArray(chromo) : null;
+		if (data == null) {
+			return new BinListRegionStatistics(0, aggregate);
+		}
+		int binStart = Math.max(0, start / windowSize);
+		int binStop = (int) Math.min(data.size(), ((long) stop + windowSize - 1) / windowSize);
+		if (binStart >= binStop) {
+			return new BinListRegionStatistics(0, aggregate);
+		}
+		getPyramid(chromo).aggregate(binStart, binStop, aggregate);
+		return new BinListRegionStatistics(binStop - binStart, aggregate);
+	}
+
+
 	/**
 	 * @return The size of the bins in bp.
 	 */
@@ -471,46 +1132,240 @@ public final class BinList {
 	}
 
 
+	/**
+	 * @return The precision of the values of the bins.
+	 */
+	public Precision getPrecision() {
+		return precision;
+	}
+
+
 	/**
 	 * Clones the current BinList.
 	 * @return A new BinList.
 	 */
 	public BinList clone() {
-		BinList binList = new BinList(this.chromoConfig, this.windowSize, this.intensityCount);
+		loadData();
+		BinList binList = new BinList(this.chromoConfig, this.windowSize, this.intensityCount, this.precision);
 		binList.binList = this.binList.clone();
+		// the bins are shared so the statistics are the same
+		binList.statistics = this.statistics;
 		return binList;
 	}
 
 
+	/**
+	 * Converts the values of the bins to another precision.
+	 * The values are rounded when the precision is an integer precision.
+	 * @param aPrecision A precision.
+	 * @return The current BinList if it already has the precision, a new BinList otherwise.
+	 * @throws BinListNoDataException
+	 */
+	public BinList convert(Precision aPrecision) throws BinListNoDataException {
+		if (aPrecision == precision) {
+			return this;
+		}
+		loadData();
+		if (binList == null)
+			throw new BinListNoDataException();
+
+		BinList resultList = new BinList(this.chromoConfig, this.windowSize, this.intensityCount, aPrecision);
+		for(short i = 0; i < maxChromo; i++) {
+			if (binList[i] != null) {
+				resultList.binList[i] = binList[i].convert(aPrecision);
+			}
+		}
+		return resultList;
+	}
+
+
+	/**
+	 * Changes the size of the bins without extracting the file again, 
+	 * so BinLists extracted with different window sizes can be compared.
+	 * The value of a new bin is computed from the non-null bins overlapping it. 
+	 * A bin overlapping two new bins is weighted by the fraction of the bin in each new bin for the sum and the average.
+	 * When the new window size is a multiple of the current one each bin is in one new bin.
+	 * The number of values of each bin is not kept, so the average of a new bin is the weighted average of its bins,
+	 * not the average of the values extracted in its window.
+	 * The new bins are computed in parallel.
+	 * @param newWindowSize The new size of the bins in bp.
+	 * @param criterion The criterion of calculation of the value of a new bin.
+	 * @return The current BinList if it already has the window size, a new BinList otherwise.
+	 * @throws BinListNoDataException
+	 */
+	public BinList changeWindowSize(final int newWindowSize, final IntensityCalculation criterion) throws BinListNoDataException {
+		if (newWindowSize <= 0) {
+			throw new IllegalArgumentException("The window size must be positive");
+		}
+		if (newWindowSize == windowSize) {
+			return this;
+		}
+		loadData();
+		if (binList == null)
+			throw new BinListNoDataException();
+
+		Precision resultPrecision;
+		if (criterion == IntensityCalculation.maximum) {
+			resultPrecision = precision;
+		} else if ((criterion == IntensityCalculation.sum) && (newWindowSize % windowSize == 0)) {
+			// the values of the bins are not weighted, the sums of integers are stored with 32-bit integers
+			resultPrecision = (precision == Precision.int16) ? Precision.int32 : precision;
+		} else {
+			resultPrecision = precision.toFloatingPoint();
+		}
+		final BinArray[] resultTab = new BinArray[maxChromo];
+		for(short i = 0; i < maxChromo; i++) {
+			if(binList[i] != null) {
+				resultTab[i] = BinArray.create(resultPrecision, (int) (((long) binList[i].size() * windowSize + newWindowSize - 1) / newWindowSize));
+			}
+		}
+		BinListStatistics resultStatistics = computeWithStatistics(resultTab, new BinListExecutor.Operation() {
+			@Override
+			public void compute(short i, int start, int stop) {
+				BinArray data = binList[i];
+				// weighted sums, weights and greatest values of the non-null bins of each new bin
+				double[] sums = new double[stop - start];
+				double[] weights = new double[stop - start];
+				double[] maxs = new double[stop - start];
+				Arrays.fill(maxs, Double.NEGATIVE_INFINITY);
+				int binStart = (int) ((long) start * newWindowSize / windowSize);
+				int binStop = (int) Math.min(data.size(), ((long) stop * newWindowSize + windowSize - 1) / windowSize);
+				for (int j = data.nextNonNullIndex(binStart); j < binStop; j = data.nextNonNullIndex(j + 1)) {
+					double value = data.get(j);
+					if (value != 0) {
+						long position = (long) j * windowSize;
+						long positionStop = position + windowSize;
+						int first = (int) Math.max(start, position / newWindowSize);
+						int last = (int) Math.min(stop - 1, (positionStop - 1) / newWindowSize);
+						for (int k = first; k <= last; k++) {
+							long overlap = Math.min(positionStop, (long) (k + 1) * newWindowSize) - Math.max(position, (long) k * newWindowSize);
+							double fraction = (double) overlap / windowSize;
+							sums[k - start] += fraction * value;
+							weights[k - start] += fraction;
+							maxs[k - start] = Math.max(maxs[k - start], value);
+						}
+					}
+				}
+				for (int k = start; k < stop; k++) {
+					if (weights[k - start] > 0) {
+						switch (criterion) {
+						case sum:
+							resultTab[i].set(k, sums[k - start]);
+							break;
+						case maximum:
+							resultTab[i].set(k, maxs[k - start]);
+							break;
+						case average:
+							resultTab[i].set(k, sums[k - start] / weights[k - start]);
+							break;
+						}
+					}
+				}
+			}
+		});
+		BinList resultList = new BinList(this.chromoConfig, newWindowSize, this.intensityCount, resultPrecision);
+		compact(resultTab);
+		resultList.binList = resultTab;
+		resultList.statistics = resultStatistics;
+		return resultList;
+	}
+
+
 	/**
 	 * Subtracts the current list by the list in parameter.
+	 * The difference of two integer lists is stored with 32-bit integers.
 	 * @param aBinList BinList we are subtracting.
 	 * @return New BinList resulting from the subtraction.
 	 * @throws BinListNullException
 	 * @throws BinListNoDataException
 	 * @throws BinListDifferentWindowSizeException
 	 */
-	public BinList minus(BinList aBinList) throws BinListNullException, BinListNoDataException, BinListDifferentWindowSizeException {
+	public BinList minus(final BinList aBinList) throws BinListNullException, BinListNoDataException, BinListDifferentWindowSizeException {
 		if(aBinList == null)
 			throw new BinListNullException();
+		loadData();
+		aBinList.loadData();
 		if((this.binList == null) || (aBinList.binList == null))
 			throw new BinListNoDataException();
 		if(this.windowSize != aBinList.windowSize)
 			throw new BinListDifferentWindowSizeException();
 
-		BinList listResult = new BinList(this.chromoConfig, this.windowSize, this.intensityCount);
-		for(short i = 0; i < this.maxChromo; i++)  {
-			if((this.binList[i] != null) && (aBinList.binList[i] != null)) {
-				listResult.binList[i] = new double[this.binList[i].length];
-				for(int j = 0; j < this.binList[i].length; j++) {
-					if(j < aBinList.binList[i].length)
-						listResult.binList[i][j] = this.binList[i][j] - aBinList.binList[i][j];
-					else
-						listResult.binList[i][j] = 0;
-				}
-			}
+		Precision resultPrecision;
+		if (this.precision.isInteger() && aBinList.precision.isInteger())
+			resultPrecision = Precision.int32;
+		else
+			resultPrecision = Precision.max(this.precision.toFloatingPoint(), aBinList.precision.toFloatingPoint());
+		final BinList listResult = new BinList(this.chromoConfig, this.windowSize, this.intensityCount, resultPrecision);
+		for(short i = 0; i < this.maxChromo; i++)  {
+			if((this.binList[i] != null) && (aBinList.binList[i] != null)) {
+				listResult.binList[i] = BinArray.createLike(this.binList[i], aBinList.binList[i], resultPrecision);
+			}
+		}
+		listResult.statistics = computeWithStatistics(listResult.binList, new BinListExecutor.Operation() {
+			@Override
+			public void compute(short i, int start, int stop) {
+				// the difference is null when the bins of the two lists are null
+				int commonStop = Math.min(stop, aBinList.binList[i].size());
+				if (!binList[i].isSparse() && !aBinList.binList[i].isSparse()) {
+					subtractBlocks(binList[i], aBinList.binList[i], listResult.binList[i], start, commonStop);
+					return;
+				}
+				for(int j = binList[i].nextNonNullIndex(start); j < commonStop; j = binList[i].nextNonNullIndex(j + 1)) {
+					listResult.binList[i].set(j, binList[i].get(j) - aBinList.binList[i].get(j));
+				}
+				if (binList[i].isSparse()) {
+					for(int j = aBinList.binList[i].nextNonNullIndex(start); j < commonStop; j = aBinList.binList[i].nextNonNullIndex(j + 1)) {
+						listResult.binList[i].set(j, binList[i].get(j) - aBinList.binList[i].get(j));
+					}
+				}
+			}
+		});
+		compact(listResult.binList);
+		return listResult;
+	}
+
+
+	/**
+	 * Subtracts two dense arrays by blocks with {@link ElementKernels#subtract(double[], double[], int)}.
+	 * @param data1 Bins of a chromosome of the current list.
+	 * @param data2 Bins of the same chromosome of the subtracted list.
+	 * @param result Array receiving the difference.
+	 * @param start Index of the first bin computed (included).
+	 * @param stop Index of the last bin computed (excluded).
+	 */
+	private static void subtractBlocks(BinArray data1, BinArray data2, BinArray result, int start, int stop) {
+		double[] values1 = new double[Math.max(0, Math.min(ElementKernels.BLOCK_SIZE, stop - start))];
+		double[] values2 = new double[values1.length];
+		for (int blockStart = start; blockStart < stop; blockStart += values1.length) {
+			int blockStop = Math.min(stop, blockStart + values1.length);
+			data1.get(blockStart, blockStop, values1);
+			data2.get(blockStart, blockStop, values2);
+			ElementKernels.subtract(values1, values2, blockStop - blockStart);
+			result.set(blockStart, blockStop, values1);
+		}
+	}
+
+
+	/**
+	 * Divides two dense arrays by blocks with {@link ElementKernels#divide(double[], double[], int, double, double)}.
+	 * @param data Bins of a chromosome of the current list.
+	 * @param control Bins of the same chromosome of the control list.
+	 * @param result Array receiving the quotient.
+	 * @param start Index of the first bin computed (included).
+	 * @param stop Index of the last bin computed (excluded).
+	 * @param coeff Factor of the quotient.
+	 * @param filter Smallest value of one of the two bins for the quotient to be computed.
+	 */
+	private static void divideBlocks(BinArray data, BinArray control, BinArray result, int start, int stop, double coeff, double filter) {
+		double[] values = new double[Math.max(0, Math.min(ElementKernels.BLOCK_SIZE, stop - start))];
+		double[] controlValues = new double[values.length];
+		for (int blockStart = start; blockStart < stop; blockStart += values.length) {
+			int blockStop = Math.min(stop, blockStart + values.length);
+			data.get(blockStart, blockStop, values);
+			control.get(blockStart, blockStop, controlValues);
+			ElementKernels.divide(values, controlValues, blockStop - blockStart, coeff, filter);
+			result.set(blockStart, blockStop, values);
 		}
-		return listResult;
 	}
 
 
@@ -528,7 +1383,11 @@ public final class BinList {
 	 * @throws BinListNoDataException
 	 * @throws BinListDifferentWindowSizeException
 	 */
-	public BinList divideBy(BinList controlList, int filter, boolean normalized) throws Exception, BinListNullException, BinListNoDataException, BinListDifferentWindowSizeException {
+	public BinList divideBy(final BinList controlList, final int filter, boolean normalized) throws Exception, BinListNullException, BinListNoDataException, BinListDifferentWindowSizeException {
+		loadData();
+		if(controlList != null) {
+			controlList.loadData();
+		}
 		if(controlList == null) {
 			throw new BinListNullException();
 		} else if ((this.binList == null) || (controlList.binList == null)) {
@@ -542,47 +1401,78 @@ public final class BinList {
 		}	
 
 		// 'halfFilter' is used for filtering the chromosomes X and Y 
-		int halfFilter = filter / 2;
+		final int halfFilter = filter / 2;
+		final short chrX = chromoConfig.getIndex("chrX");
+		final short chrY = chromoConfig.getIndex("chrY");
 		// The variable 'coeff' is used for the normalization of the division
-		double coeff;
+		final double coeff;
 		if(normalized)
 			coeff = controlList.intensityCount / this.intensityCount;
 		else 
 			coeff = 1;
 		// Build a new list a compute the normalized division for every values of the control list above the filter 
-		BinList listResult = new BinList(this.chromoConfig, this.windowSize, this.intensityCount);
+		Precision resultPrecision = Precision.max(this.precision.toFloatingPoint(), controlList.precision.toFloatingPoint());
+		final BinList listResult = new BinList(this.chromoConfig, this.windowSize, this.intensityCount, resultPrecision);
 		for(short i = 0; i < this.maxChromo; i++)  {
 			if((this.binList[i] != null) && (controlList.binList[i] != null)) {
-				listResult.binList[i] = new double[this.binList[i].length];
-				for(int j = 0; j < this.binList[i].length; j++) {
-					if((j < controlList.binList[i].length) && (controlList.binList[i][j] > 0)) {
-						if ((controlList.binList[i][j] >= filter) || (binList[i][j] >= filter) 
-								|| (((i == chromoConfig.getIndex("chrX")) || (i == chromoConfig.getIndex("chrY"))) 
-										&& ((controlList.binList[i][j] >= halfFilter) || (binList[i][j] >= halfFilter)))) { 
-							listResult.binList[i][j] = coeff * this.binList[i][j] / controlList.binList[i][j];
+				listResult.binList[i] = BinArray.createLike(this.binList[i], resultPrecision);
+			}
+		}
+		listResult.statistics = computeWithStatistics(listResult.binList, new BinListExecutor.Operation() {
+			@Override
+			public void compute(short i, int start, int stop) {
+				if (!binList[i].isSparse() && !controlList.binList[i].isSparse()) {
+					int commonStop = Math.min(stop, controlList.binList[i].size());
+					double chromoFilter = ((i == chrX) || (i == chrY)) ? halfFilter : filter;
+					divideBlocks(binList[i], controlList.binList[i], listResult.binList[i], start, commonStop, coeff, chromoFilter);
+					return;
+				}
+				// the result is null when the bin of the current list is null
+				for(int j = binList[i].nextNonNullIndex(start); j < stop; j = binList[i].nextNonNullIndex(j + 1)) {
+					if((j < controlList.binList[i].size()) && (controlList.binList[i].get(j) > 0)) {
+						if ((controlList.binList[i].get(j) >= filter) || (binList[i].get(j) >= filter) 
+								|| (((i == chrX) || (i == chrY)) 
+										&& ((controlList.binList[i].get(j) >= halfFilter) || (binList[i].get(j) >= halfFilter)))) { 
+							listResult.binList[i].set(j, coeff * binList[i].get(j) / controlList.binList[i].get(j));
 						} else {
-							listResult.binList[i][j] = 0;
+							listResult.binList[i].set(j, 0);
 						}
 					}
 				}
 			}
-		}
+		});
+		compact(listResult.binList);
 		return listResult;
 	}
 
 
+	/**
+	 * @param chromo A chromosome.
+	 * @param index Index of a bin.
+	 * @return The value of the bin as a string. The single precision values are printed 
+	 * without the digits added by their conversion to double.
+	 */
+	private String getValueString(short chromo, int index) {
+		if (precision == Precision.float32) {
+			return Float.toString((float) binList[chromo].get(index));
+		}
+		return Double.toString(binList[chromo].get(index));
+	}
+
+
 	/**
 	 * Prints the BinList on the standard output.
 	 * @throws BinListNoDataException
 	 */
 	public void print() throws BinListNoDataException {
+		loadData();
 		if (binList == null)
 			throw new BinListNoDataException();
 
 		for(short i = 0; i < maxChromo; i++) {
 			if(binList[i] != null) {
-				for (int j = 0; j < binList[i].length; j++)
-					System.out.println(chromoConfig.get(i).getName() + "\t" + (j * windowSize) + "\t" + ((j + 1) * windowSize) + "\t" + binList[i][j]);
+				for (int j = 0; j < binList[i].size(); j++)
+					System.out.println(chromoConfig.get(i).getName() + "\t" + (j * windowSize) + "\t" + ((j + 1) * windowSize) + "\t" + getValueString(i, j));
 			}
 		}
 	}
@@ -598,6 +1488,7 @@ public final class BinList {
 	public void printWiggleFile(String filePath, String wiggleName) throws IOException, BinListNoDataException {
 		BufferedWriter writer;
 
+		loadData();
 		if (binList == null)
 			throw new BinListNoDataException();
 
@@ -609,8 +1500,8 @@ public final class BinList {
 		// print the data
 		for(short i = 0; i < maxChromo; i++) {
 			if(binList[i] != null) {
-				for (int j = 0; j < binList[i].length; j++) {
-					writer.write(chromoConfig.get(i).getName() + "\t" + (j * windowSize) + "\t" + ((j + 1) * windowSize) + "\t" + binList[i][j]);
+				for (int j = 0; j < binList[i].size(); j++) {
+					writer.write(chromoConfig.get(i).getName() + "\t" + (j * windowSize) + "\t" + ((j + 1) * windowSize) + "\t" + getValueString(i, j));
 					writer.newLine();
 				}
 			}
@@ -628,6 +1519,7 @@ public final class BinList {
 	public void printCSVFile(String filePath) throws IOException, BinListNoDataException {
 		BufferedWriter writer;
 
+		loadData();
 		if (binList == null)
 			throw new BinListNoDataException();
 
@@ -636,8 +1528,8 @@ public final class BinList {
 		// print the data
 		for(short i = 0; i < maxChromo; i++) {
 			if(binList[i] != null) {
-				for (int j = 0; j < binList[i].length; j++) {
-					writer.write(chromoConfig.get(i).getName() + ", " + (j * windowSize) + ", " + ((j + 1) * windowSize) + ", " + binList[i][j]);
+				for (int j = 0; j < binList[i].size(); j++) {
+					writer.write(chromoConfig.get(i).getName() + ", " + (j * windowSize) + ", " + ((j + 1) * windowSize) + ", " + getValueString(i, j));
 					writer.newLine();
 				}
 			}
@@ -647,37 +1539,175 @@ public final class BinList {
 
 
 	/**
-	 * Divides each bin by the total of reads in the file.
-	 * The result is multiply by the parameter 'factor' in order to have values easier to read.
-	 * The result is returned in a new BinList
-	 * @param factor
-	 * @return New BinList resulting from the normalization.
+	 * Prints in a file the statistics of the BinList on each region of a BED file: 
+	 * the mean, the minimum, the maximum and the sum of the bins overlapping the region.
+	 * The chromosomes are computed in parallel. The regions of a chromosome are sorted by start position 
+	 * and computed from the pyramid of the chromosome (see {@link #getRegionStatistics(short, int, int)}), 
+	 * so the time doesn't depend on the length of the regions and no memory is allocated per bin.
+	 * The bins partially overlapping a region are weighted by the fraction of the bin in the region 
+	 * for the sum and the mean. The mean is computed on the non-null bins and the minimum and the maximum 
+	 * take the null bins into account (see {@link BinListRegionStatistics}).
+	 * The four statistics of a region that doesn't overlap any bin (eg: a region on a chromosome without data
+	 * or after the end of the chromosome) are all printed as NaN. The mean of a region overlapping only null bins is 0.
+	 * The regions are printed sorted by chromosome and by start position.
+	 * @param filePath Address of the file.
+	 * @param regions Regions extracted from a BED file.
+	 * @throws IOException
 	 * @throws BinListNoDataException
 	 */
-	public BinList normalize(int factor) throws BinListNoDataException {
-		double[][] resultTab;	
+	public void printRegionStatisticsFile(String filePath, final RegionFileExtractor regions) throws IOException, BinListNoDataException {
+		BufferedWriter writer;
 
+		loadData();
 		if (binList == null)
 			throw new BinListNoDataException();
 
-		// We create a new BinList
-		BinList resultList = new BinList(this.chromoConfig, this.windowSize, this.intensityCount);		
-		resultTab = new double[maxChromo][];
+		// indexes of the regions sorted by start position and mean, min, max and sum of each region
+		final int[][] orders = new int[maxChromo][];
+		final double[][] results = new double[maxChromo][];
 		for(short i = 0; i < maxChromo; i++) {
-			if(binList[i] != null)
-				resultTab[i] = new double[binList[i].length];
+			orders[i] = sortRegions(regions.getStarts(i));
+			// the regions of the chromosomes without data have no bin
+			results[i] = new double[4 * orders[i].length];
+			Arrays.fill(results[i], Double.NaN);
 		}
-		// We normalize
-		double normalizerFactor = (double)factor / intensityCount;
+		BinListExecutor.executeByChromosome(binList, new BinListExecutor.Operation() {
+			@Override
+			public void compute(short i, int start, int stop) {
+				if (orders[i].length > 0) {
+					results[i] = computeRegionStatistics(i, regions.getStarts(i), regions.getStops(i), orders[i]);
+				}
+			}
+		});
+		// try to create a output file
+		writer = new BufferedWriter(new FileWriter(new File(filePath)));
+		writer.write("#chromosome\tstart\tstop\tname\tmean\tmin\tmax\tsum");
+		writer.newLine();
 		for(short i = 0; i < maxChromo; i++) {
-			if(binList[i] != null) {
-				for (int j = 0; j < binList[i].length; j++) {
-					resultTab[i][j] = binList[i][j] * normalizerFactor;
+			for (int j = 0; j < orders[i].length; j++) {
+				int region = orders[i][j];
+				String name = regions.getNames(i).get(region);
+				writer.write(chromoConfig.get(i).getName() + "\t" + regions.getStarts(i).get(region) + "\t" + regions.getStops(i).get(region) 
+						+ "\t" + ((name == null) ? "" : name) + "\t" + results[i][4 * j] + "\t" + results[i][4 * j + 1] 
+						+ "\t" + results[i][4 * j + 2] + "\t" + results[i][4 * j + 3]);
+				writer.newLine();
+			}
+		}
+		writer.close();
+	}
+
+
+	/**
+	 * @param starts Start positions of regions.
+	 * @return The indexes of the regions sorted by start position.
+	 */
+	private static int[] sortRegions(IntList starts) {
+		// the start position and the index of a region are sorted together in a long
+		long[] keys = new long[starts.size()];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = ((long) starts.get(i) << 32) | i;
+		}
+		Arrays.sort(keys);
+		int[] order = new int[keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			order[i] = (int) keys[i];
+		}
+		return order;
+	}
+
+
+	/**
+	 * Computes the mean, the minimum, the maximum and the sum of the bins of regions of a chromosome.
+	 * The bins entirely contained in a region are aggregated by the pyramid of the chromosome 
+	 * and the first and the last bins of the region are added with their fraction in the region.
+	 * @param chromo A loaded chromosome with data.
+	 * @param starts Start positions of the regions.
+	 * @param stops Stop positions of the regions.
+	 * @param order Indexes of the regions sorted by start position.
+	 * @return The mean, the minimum, the maximum and the sum of the region <i>order[j]</i> at the indexes <i>4j</i> to <i>4j + 3</i>.
+	 * NaN for the four values if the region doesn't overlap any bin.
+	 */
+	private double[] computeRegionStatistics(short chromo, IntList starts, IntList stops, int[] order) {
+		BinArray data = binList[chromo];
+		int size = data.size();
+		BinPyramid pyramid = getPyramid(chromo);
+		double[] aggregate = new double[4];
+		double[] result = new double[4 * order.length];
+		for (int k = 0; k < order.length; k++) {
+			long start = Math.max(0, starts.get(order[k]));
+			long stop = Math.min((long) size * windowSize, stops.get(order[k]));
+			if (start >= stop) {
+				// the region doesn't overlap any bin
+				Arrays.fill(result, 4 * k, 4 * k + 4, Double.NaN);
+				continue;
+			}
+			int firstBin = (int) (start / windowSize);
+			int lastBin = (int) ((stop - 1) / windowSize);
+			// bins entirely contained in the region
+			pyramid.aggregate(firstBin + 1, lastBin, aggregate);
+			double regionSum = aggregate[0];
+			double regionWeight = aggregate[1];
+			// the first and the last bins are weighted by their fraction in the region
+			int edgeCount = (firstBin == lastBin) ? 1 : 2;
+			for (int i = 0; i < edgeCount; i++) {
+				int bin = (i == 0) ? firstBin : lastBin;
+				double value = data.get(bin);
+				if (value != 0) {
+					double fraction = (double) (Math.min(stop, (long) (bin + 1) * windowSize) - Math.max(start, (long) bin * windowSize)) / windowSize;
+					regionSum += fraction * value;
+					regionWeight += fraction;
+					aggregate[1]++;
+					aggregate[2] = Math.min(aggregate[2], value);
+					aggregate[3] = Math.max(aggregate[3], value);
 				}
 			}
+			BinListRegionStatistics regionStatistics = new BinListRegionStatistics(lastBin + 1 - firstBin, aggregate);
+			result[4 * k] = (regionWeight == 0) ? 0 : regionSum / regionWeight;
+			result[4 * k + 1] = regionStatistics.getMin();
+			result[4 * k + 2] = regionStatistics.getMax();
+			result[4 * k + 3] = regionSum;
 		}
-		resultList.binList = resultTab;
-		return resultList;
+		return result;
+	}
+
+
+	/**
+	 * Prints the BinList in a binary file that can be reopened with {@link #BinList(ChromosomeList, String)}.
+	 * @param filePath Address of the file.
+	 * @throws IOException
+	 * @throws BinListNoDataException
+	 * @see BinListBinaryFile
+	 */
+	public void printBinaryFile(String filePath) throws IOException, BinListNoDataException {
+		loadData();
+		if (binList == null)
+			throw new BinListNoDataException();
+
+		String[] chromosomeNames = new String[maxChromo];
+		for(short i = 0; i < maxChromo; i++) {
+			chromosomeNames[i] = chromoConfig.get(i).getName();
+		}
+		BinListBinaryFile.write(filePath, windowSize, intensityCount, precision, chromosomeNames, binList);
+	}
+
+
+	/**
+	 * Divides each bin by the total of reads in the file.
+	 * The result is multiply by the parameter 'factor' in order to have values easier to read.
+	 * The result is returned in a new BinList
+	 * @param factor
+	 * @return New BinList resulting from the normalization.
+	 * @throws BinListNoDataException
+	 */
+	public BinList normalize(int factor) throws BinListNoDataException {
+		// We normalize
+		final double normalizerFactor = (double)factor / intensityCount;
+		return applyLazily(precision.toFloatingPoint(), new ElementOperation() {
+			@Override
+			void apply(double[] values, int length) {
+				ElementKernels.multiply(values, length, normalizerFactor);
+			}
+		});
 	}	
 
 
@@ -689,12 +1719,30 @@ public final class BinList {
 	 * @throws BinListNoDataException
 	 */
 	public BinList gauss(int sigma) throws BinListNoDataException {
-		int distance;
-		int halfWidth = 2 * sigma / windowSize;
-		double[] coefTab;
-		double[][] resultTab;
-		double SumCoef, SumNormSignalCoef;
+		return gauss(sigma, GaussEngine.direct);
+	}
+
+
+	/**
+	 * Applies a gaussian filter on the BinList and returns the result in a new BinList.
+	 * The direct engine costs 4 * sigma / windowSize operations per bin. 
+	 * The FFT engine gives the same result with a relative difference smaller than 1e-9.
+	 * The box filter engine costs a constant number of operations per bin but is an approximation:
+	 * its kernel has the same variance as the gaussian but is not truncated at 2 sigma.
+	 * The mean relative difference with the direct engine is smaller than 1%
+	 * but can be greater near isolated bins and at the ends of the chromosomes.
+	 * @param sigma Configure the gaussian filter.
+	 * @param engine Engine computing the filter.
+	 * @return New BinList resulting from the gaussian filter.
+	 * @throws BinListNoDataException
+	 * @see GaussianFilter
+	 */
+	public BinList gauss(int sigma, final GaussEngine engine) throws BinListNoDataException {
+		final int halfWidth = 2 * sigma / windowSize;
+		final double[] coefTab;
+		final BinArray[] resultTab;
 
+		loadData();
 		if (binList == null)
 			throw new BinListNoDataException();	
 
@@ -702,36 +1750,53 @@ public final class BinList {
 		coefTab = new double[halfWidth + 1];
 		for(int i = 0; i <= halfWidth; i++)
 			coefTab[i] = Math.exp(-(Math.pow(((double) (i * windowSize)), 2) / (2.0 * Math.pow((double) sigma, 2))));
+		final GaussianFilter filter = (engine == GaussEngine.direct) ? null : new GaussianFilter(coefTab, (double) sigma / windowSize);
 
-		resultTab = new double[maxChromo][];
+		Precision resultPrecision = precision.toFloatingPoint();
+		resultTab = new BinArray[maxChromo];
 		for(short i = 0; i < maxChromo; i++) {
 			if(binList[i] != null) {
-				resultTab[i] = new double[binList[i].length];
-				for(int j = 0; j < binList[i].length; j++) {
-					if(binList[i][j] != 0)  {
+				resultTab[i] = BinArray.createLike(binList[i], resultPrecision);
+			}
+		}
+		// the bins around a chunk (halo of halfWidth bins) are read directly in the source list
+		BinListStatistics resultStatistics = computeWithStatistics(resultTab, new BinListExecutor.Operation() {
+			@Override
+			public void compute(short i, int start, int stop) {
+				if (engine == GaussEngine.fft) {
+					filter.fftFilter(binList[i], resultTab[i], start, stop);
+					return;
+				} else if (engine == GaussEngine.boxFilter) {
+					filter.boxFilter(binList[i], resultTab[i], start, stop);
+					return;
+				}
+				int distance;
+				double SumCoef, SumNormSignalCoef;
+				// only the non-null bins are computed and read
+				for(int j = binList[i].nextNonNullIndex(start); j < stop; j = binList[i].nextNonNullIndex(j + 1)) {
+					if(binList[i].get(j) != 0)  {
 						SumCoef = 0;
 						SumNormSignalCoef = 0;
-						for(int k = -halfWidth; k <= halfWidth; k++) {
-							if((j + k >= 0) && ((j + k) < binList[i].length))  {
-								distance = Math.abs(k);
-								if(binList[i][j + k] != 0)  {
-									SumCoef+=coefTab[distance];
-									SumNormSignalCoef+=coefTab[distance] * binList[i][j+k];
-								}
+						int kStop = Math.min(j + halfWidth, binList[i].size() - 1);
+						for(int k = binList[i].nextNonNullIndex(Math.max(0, j - halfWidth)); k <= kStop; k = binList[i].nextNonNullIndex(k + 1)) {
+							distance = Math.abs(k - j);
+							if(binList[i].get(k) != 0)  {
+								SumCoef+=coefTab[distance];
+								SumNormSignalCoef+=coefTab[distance] * binList[i].get(k);
 							}
 						}
 						if(SumCoef == 0)
-							resultTab[i][j] = 0;
+							resultTab[i].set(j, 0);
 						else
-							resultTab[i][j] = SumNormSignalCoef / SumCoef;
+							resultTab[i].set(j, SumNormSignalCoef / SumCoef);
 					}
-					else
-						resultTab[i][j] = 0.0;
 				}
 			}
-		}
-		BinList resultList = new BinList(this.chromoConfig, this.windowSize, this.intensityCount);
+		});
+		BinList resultList = new BinList(this.chromoConfig, this.windowSize, this.intensityCount, resultPrecision);
+		compact(resultTab);
 		resultList.binList = resultTab;
+		resultList.statistics = resultStatistics;
 		return resultList;
 	}
 
@@ -745,62 +1810,69 @@ public final class BinList {
 	 * @return New BinList resulting from the indexing.
 	 * @throws BinListNoDataException
 	 */
-	public BinList indexByChromo(double saturation, double indexDown, double indexUp) throws BinListNoDataException {
-		double percentUp = (100 - saturation) / 100;
-		double percentDown = saturation / 100;
-		double[][] resultTab;	
-		double distanceIndexUpDown = indexUp - indexDown;
+	public BinList indexByChromo(double saturation, final double indexDown, final double indexUp) throws BinListNoDataException {
+		final double percentUp = (100 - saturation) / 100;
+		final double percentDown = saturation / 100;
+		final BinArray[] resultTab;	
+		final double distanceIndexUpDown = indexUp - indexDown;
 
+		loadData();
 		if (binList == null) {
 			throw new BinListNoDataException();
 		}
-		resultTab = new double[maxChromo][];
+		Precision resultPrecision = precision.toFloatingPoint();
+		resultTab = new BinArray[maxChromo];
 		for(short i = 0; i < maxChromo; i++) {
 			if(binList[i] != null) {
-				double[] listTmp = new double[binList[i].length];
-				resultTab[i] = new double[binList[i].length];
-				int k = 0;
-				for (int j = 0; j < binList[i].length; j++) {
-					if(binList[i][j] != 0) {
-						listTmp[k] = binList[i][j];
-						k++;
-					}
-				}
-				if(k > 0) {
-
-					// We create a new array containing all the values different from 0 
-					double[] listTmpBis = new double[k];
-					for(int j = 0; j < listTmpBis.length; j++) {
-						listTmpBis[j] = listTmp[j];
-					}
-					// We want to have the values of intensities sorted for each chromosome
-					Arrays.sort(listTmpBis);
-					// We research the highest and the lowest value 
-					int rankUp = (int)(percentUp * (listTmpBis.length - 1)); 
-					int rankDown = (int)(percentDown * (listTmpBis.length - 1));
-
-					double valueUp = listTmpBis[rankUp];
-					double valueDown = listTmpBis[rankDown];
+				resultTab[i] = BinArray.createLike(binList[i], resultPrecision);
+			}
+		}
+		// statistics of each chromosome computed just after the indexing
+		final BinListStatistics.Accumulator[] accumulators = new BinListStatistics.Accumulator[maxChromo];
+		// each chromosome is indexed by one thread because its percentiles are needed
+		BinListExecutor.executeByChromosome(resultTab, new BinListExecutor.Operation() {
+			@Override
+			public void compute(short i, int start, int stop) {
+				// We research the highest and the lowest value of the non-null values of the chromosome
+				double[] percentiles = Percentiles.getValues(binList[i], new double[] {percentUp, percentDown});
+				if(percentiles != null) {
+					double valueUp = percentiles[0];
+					double valueDown = percentiles[1];
 
 					// We calculate the difference between the highest and the lowest value
 					double distanceValueUpDown = valueUp - valueDown;
 					// We index the intensities 
-					for (int j = 0; j < binList[i].length; j++) {
-						if(binList[i][j] == 0) {
-							resultTab[i][j] = 0;
-						} else if(binList[i][j] < valueDown) {
-							resultTab[i][j] = indexDown;
-						} else if(binList[i][j] > valueUp) {
-							resultTab[i][j] = indexUp;
+					for (int j = binList[i].nextNonNullIndex(0); j < binList[i].size(); j = binList[i].nextNonNullIndex(j + 1)) {
+						if(binList[i].get(j) == 0) {
+							resultTab[i].set(j, 0);
+						} else if(binList[i].get(j) < valueDown) {
+							resultTab[i].set(j, indexDown);
+						} else if(binList[i].get(j) > valueUp) {
+							resultTab[i].set(j, indexUp);
 						} else { 
-							resultTab[i][j] = distanceIndexUpDown * (binList[i][j] - valueDown) / distanceValueUpDown + indexDown;
+							resultTab[i].set(j, distanceIndexUpDown * (binList[i].get(j) - valueDown) / distanceValueUpDown + indexDown);
 						}
 					}
 				}
+				// the statistics are accumulated by chunks like in computeWithStatistics
+				BinListStatistics.Accumulator accumulator = new BinListStatistics.Accumulator(maxChromo);
+				for (long chunkStart = start; chunkStart < stop; chunkStart += BinListExecutor.CHUNK_SIZE) {
+					accumulator.add(i, resultTab[i], (int) chunkStart, (int) Math.min(chunkStart + BinListExecutor.CHUNK_SIZE, stop));
+				}
+				accumulators[i] = accumulator;
+			}
+		});
+		// the chromosomes are merged in their order so the statistics don't depend on the number of threads
+		BinListStatistics.Accumulator accumulator = new BinListStatistics.Accumulator(maxChromo);
+		for (short i = 0; i < maxChromo; i++) {
+			if (accumulators[i] != null) {
+				accumulator.merge(accumulators[i]);
 			}
 		}
-		BinList resultList = new BinList(this.chromoConfig, this.windowSize, this.intensityCount);
+		BinList resultList = new BinList(this.chromoConfig, this.windowSize, this.intensityCount, resultPrecision);
+		compact(resultTab);
 		resultList.binList = resultTab;
+		resultList.statistics = new BinListStatistics(accumulator);
 		return resultList;
 	}
 
@@ -815,66 +1887,64 @@ public final class BinList {
 	 * @throws BinListNoDataException
 	 */
 	public BinList index(double saturation, double indexDown, double indexUp) throws BinListNoDataException {
+		return index(saturation, indexDown, indexUp, false);
+	}
+
+
+	/**
+	 * Indexes the intensities between <i>indexDown</i> and <i>indexUp</i> 
+	 * based on the highest and the lowest value of the whole genome.
+	 * @param saturation percentage of the highest and lowest value saturated.
+	 * @param indexDown Smallest value of the indexed data.
+	 * @param indexUp Greatest value of the indexed data.
+	 * @param approximate True to use approximate values of the highest and the lowest value (see {@link Percentiles}).
+	 * @return New BinList resulting from the indexing.
+	 * @throws BinListNoDataException
+	 */
+	public BinList index(double saturation, final double indexDown, final double indexUp, boolean approximate) throws BinListNoDataException {
 		double percentUp = (100 - saturation) / 100;
 		double percentDown = saturation / 100;
-		double[] listTmp;
-		int k = 0, totalLength = 0;
 
+		loadData();
 		if (binList == null)
 			throw new BinListNoDataException();	
 
-		// We create an array containing all the intensities of all chromosomes
-		for (short i = 0; i < maxChromo; i++) {
-			if(binList[i] != null)
-				totalLength+=binList[i].length;
-		}
-		listTmp = new double[totalLength];			
-		for (short i = 0; i < maxChromo; i++) {
-			if(binList[i] != null) {
-				for (int j = 0; j < binList[i].length; j++) {
-					if(binList[i][j] != 0) {
-						listTmp[k] = binList[i][j];
-						k++;
-					}
-				}
-			}
-		}
-		if (k > 0) {
-			// We create a new array containing all the values different from 0 
-			double[] listTmpBis = new double[k];
-			for(int i = 0; i < listTmpBis.length; i++) {
-				listTmpBis[i] = listTmp[i];		
-			}
-			// We want to have the values of intensities sorted for the whole genome
-			Arrays.sort(listTmpBis);
-			// We research the highest and the lowest value 
-			int rankUp = (int)(percentUp * (listTmpBis.length - 1));
-			int rankDown = (int)(percentDown * (listTmpBis.length - 1));
-			double valueUp = listTmpBis[rankUp];
-			double valueDown = listTmpBis[rankDown];
+		// We research the highest and the lowest value of the non-null values of the whole genome
+		double[] percentiles = Percentiles.getValues(binList, new double[] {percentUp, percentDown}, approximate);
+		if (percentiles != null) {
+			final double valueUp = percentiles[0];
+			final double valueDown = percentiles[1];
 			// We calculate the difference between the highest and the lowest value
-			double distanceValueUpDown = valueUp - valueDown;
-			double distanceIndexUpDown = indexUp - indexDown;
-			double[][] resultTab = new double[maxChromo][];
+			final double distanceValueUpDown = valueUp - valueDown;
+			final double distanceIndexUpDown = indexUp - indexDown;
+			Precision resultPrecision = precision.toFloatingPoint();
+			final BinArray[] resultTab = new BinArray[maxChromo];
 			for (short i = 0; i < maxChromo; i++) {
 				if (binList[i] != null) {
+					resultTab[i] = BinArray.createLike(binList[i], resultPrecision);
+				}
+			}
+			BinListStatistics resultStatistics = computeWithStatistics(resultTab, new BinListExecutor.Operation() {
+				@Override
+				public void compute(short i, int start, int stop) {
 					// We index the intensities
-					resultTab[i] = new double[binList[i].length];
-					for (int j = 0; j < binList[i].length; j++) {
-						if (binList[i][j] == 0) {
-							resultTab[i][j] = 0;
-						} else if(binList[i][j] < valueDown) {
-							resultTab[i][j] = indexDown;
-						} else if(binList[i][j] > valueUp) {
-							resultTab[i][j] = indexUp;
+					for (int j = binList[i].nextNonNullIndex(start); j < stop; j = binList[i].nextNonNullIndex(j + 1)) {
+						if (binList[i].get(j) == 0) {
+							resultTab[i].set(j, 0);
+						} else if(binList[i].get(j) < valueDown) {
+							resultTab[i].set(j, indexDown);
+						} else if(binList[i].get(j) > valueUp) {
+							resultTab[i].set(j, indexUp);
 						} else { 
-							resultTab[i][j] = distanceIndexUpDown * (binList[i][j] - valueDown) / distanceValueUpDown + indexDown;
+							resultTab[i].set(j, distanceIndexUpDown * (binList[i].get(j) - valueDown) / distanceValueUpDown + indexDown);
 						}
 					}
 				}
-			}
-			BinList resultList = new BinList(this.chromoConfig, this.windowSize, this.intensityCount);
+			});
+			BinList resultList = new BinList(this.chromoConfig, this.windowSize, this.intensityCount, resultPrecision);
+			compact(resultTab);
 			resultList.binList = resultTab;
+			resultList.statistics = resultStatistics;
 			return resultList;
 		} else {
 			return null;
@@ -897,6 +1967,8 @@ public final class BinList {
 
 		if(list == null)
 			throw new BinListNullException();
+		loadData();
+		list.loadData();
 		if((this.binList == null) || (list.binList == null))
 			throw new BinListNoDataException();
 		if(this.windowSize != list.windowSize)
@@ -905,14 +1977,14 @@ public final class BinList {
 		// We compute means
 		for(short i = 0; i < this.maxChromo; i++)  {
 			if((this.binList[i] != null) && (list.binList[i] != null)) {
-				j = 0;
-				while((j < this.binList[i].length) && (j < list.binList[i].length)) {
-					if((this.binList[i][j] != 0) && (list.binList[i][j] != 0)) {
-						meanX+=this.binList[i][j];
-						meanY+=list.binList[i][j];
+				int size = Math.min(this.binList[i].size(), list.binList[i].size());
+				// only the non-null bins of the current list are read
+				for (j = this.binList[i].nextNonNullIndex(0); j < size; j = this.binList[i].nextNonNullIndex(j + 1)) {
+					if((this.binList[i].get(j) != 0) && (list.binList[i].get(j) != 0)) {
+						meanX+=this.binList[i].get(j);
+						meanY+=list.binList[i].get(j);
 						n++;
 					}
-					j++;
 				}
 			}
 		}
@@ -924,14 +1996,14 @@ public final class BinList {
 		// We compute standard deviations
 		for(short i = 0; i < this.maxChromo; i++) {
 			if((this.binList[i] != null) && (list.binList[i] != null)) {
-				j = 0;
-				while((j < this.binList[i].length) && (j < list.binList[i].length)) {
-					if((this.binList[i][j] != 0) && (list.binList[i][j] != 0)) {
-						stdDevX+=Math.pow(this.binList[i][j] - meanX, 2);
-						stdDevY+=Math.pow(list.binList[i][j] - meanY, 2);
-						correlationCoef+=(this.binList[i][j] * list.binList[i][j]);
+				int size = Math.min(this.binList[i].size(), list.binList[i].size());
+				// only the non-null bins of the current list are read
+				for (j = this.binList[i].nextNonNullIndex(0); j < size; j = this.binList[i].nextNonNullIndex(j + 1)) {
+					if((this.binList[i].get(j) != 0) && (list.binList[i].get(j) != 0)) {
+						stdDevX+=Math.pow(this.binList[i].get(j) - meanX, 2);
+						stdDevY+=Math.pow(list.binList[i].get(j) - meanY, 2);
+						correlationCoef+=(this.binList[i].get(j) * list.binList[i].get(j));
 					}
-					j++;
 				}
 			}
 		}
@@ -960,6 +2032,8 @@ public final class BinList {
 
 		if(list == null)
 			throw new BinListNullException();
+		loadData();
+		list.loadData();
 		if((this.binList == null) || (list.binList == null))
 			throw new BinListNoDataException();
 		if(this.windowSize != list.windowSize)
@@ -969,14 +2043,14 @@ public final class BinList {
 		for(short i = 0; i < this.maxChromo; i++)  {
 			// We want to compute the correlation only for the chromosomes where chromoList is set to true
 			if((i < chromoList.length) && (chromoList[i]) && (this.binList[i] != null) && (list.binList[i] != null)) {
-				j = 0;
-				while((j < this.binList[i].length) && (j < list.binList[i].length)) {
-					if((this.binList[i][j] != 0) && (list.binList[i][j] != 0)) {
-						meanX+=this.binList[i][j];
-						meanY+=list.binList[i][j];
+				int size = Math.min(this.binList[i].size(), list.binList[i].size());
+				// only the non-null bins of the current list are read
+				for (j = this.binList[i].nextNonNullIndex(0); j < size; j = this.binList[i].nextNonNullIndex(j + 1)) {
+					if((this.binList[i].get(j) != 0) && (list.binList[i].get(j) != 0)) {
+						meanX+=this.binList[i].get(j);
+						meanY+=list.binList[i].get(j);
 						n++;
 					}
-					j++;
 				}
 			}
 		}
@@ -989,14 +2063,14 @@ public final class BinList {
 		for(short i = 0; i < this.maxChromo; i++) {
 			// We want to compute the correlation only for the chromosomes where chromoList is set to true
 			if((i < chromoList.length) && (chromoList[i]) && (this.binList[i] != null) && (list.binList[i] != null)) {
-				j = 0;
-				while((j < this.binList[i].length) && (j < list.binList[i].length)) {
-					if((this.binList[i][j] != 0) && (list.binList[i][j] != 0)) {
-						stdDevX+=Math.pow(this.binList[i][j] - meanX, 2);
-						stdDevY+=Math.pow(list.binList[i][j] - meanY, 2);
-						correlationCoef+=(this.binList[i][j] * list.binList[i][j]);
+				int size = Math.min(this.binList[i].size(), list.binList[i].size());
+				// only the non-null bins of the current list are read
+				for (j = this.binList[i].nextNonNullIndex(0); j < size; j = this.binList[i].nextNonNullIndex(j + 1)) {
+					if((this.binList[i].get(j) != 0) && (list.binList[i].get(j) != 0)) {
+						stdDevX+=Math.pow(this.binList[i].get(j) - meanX, 2);
+						stdDevY+=Math.pow(list.binList[i].get(j) - meanY, 2);
+						correlationCoef+=(this.binList[i].get(j) * list.binList[i].get(j));
 					}
-					j++;
 				}
 			}
 		}
@@ -1015,29 +2089,16 @@ public final class BinList {
 	 * @return A new binList resulting of the calculation.
 	 * @throws BinListNoDataException
 	 */
-	public BinList log(double damper) throws BinListNoDataException {
-		double[][] resultTab;
-
-		if (binList == null)
-			throw new BinListNoDataException();
-
-		resultTab = new double[maxChromo][];
-		double mean = Math.log(average() + damper) / Math.log(2);
-		for(short i = 0; i < maxChromo; i++) {
-			if(binList[i] != null) {
-				resultTab[i] = new double[binList[i].length];
+	public BinList log(final double damper) throws BinListNoDataException {
+		// the average computes the pending operations
+		final double mean = Math.log(average() + damper) / ElementKernels.LN2;
+		return applyLazily(precision.toFloatingPoint(), new ElementOperation() {
+			@Override
+			void apply(double[] values, int length) {
 				// We want to calculate the log2 for each element
-				for (int j = 0; j < binList[i].length; j++) {
-					if(this.binList[i][j] != 0)
-						resultTab[i][j] = Math.log(binList[i][j] + damper) / Math.log(2) - mean;
-					else
-						resultTab[i][j] = 0;
-				}
+				ElementKernels.log2(values, length, damper, mean);
 			}
-		}
-		BinList resultList = new BinList(this.chromoConfig, this.windowSize, this.intensityCount);
-		resultList.binList = resultTab;
-		return resultList;
+		});
 	}
 
 
@@ -1047,26 +2108,20 @@ public final class BinList {
 	 * @return A new BinList.
 	 * @throws BinListNoDataException
 	 */
-	public BinList addDumper(double damper) throws BinListNoDataException {
-		double[][] resultTab;
-
-		if (binList == null)
-			throw new BinListNoDataException();
-
-		resultTab = new double[maxChromo][];
-
-		for (int i = 0; i < maxChromo; i++) {
-			if(binList[i] != null) {
-				resultTab[i] = new double[binList[i].length];
+	public BinList addDumper(final double damper) throws BinListNoDataException {
+		// the sum of integers and of an integer damper is an integer
+		Precision resultPrecision;
+		if (precision.isInteger() && (damper == Math.rint(damper)))
+			resultPrecision = Precision.int32;
+		else
+			resultPrecision = precision.toFloatingPoint();
+		return applyLazily(resultPrecision, new ElementOperation() {
+			@Override
+			void apply(double[] values, int length) {
 				// We add dumper to each element
-				for (int j = 0; j < binList[i].length; j++) {
-					resultTab[i][j] = binList[i][j] + damper;
-				}
+				ElementKernels.add(values, length, damper);
 			}
-		}
-		BinList resultList = new BinList(this.chromoConfig, this.windowSize, this.intensityCount);
-		resultList.binList = resultTab;
-		return resultList;		
+		});
 	}
 
 
@@ -1077,27 +2132,13 @@ public final class BinList {
 	 * @throws BinListNoDataException
 	 */
 	public BinList log() throws BinListNoDataException {
-		double[][] resultTab;
-
-		if (binList == null)
-			throw new BinListNoDataException();
-
-		resultTab = new double[maxChromo][];
-		for(short i = 0; i < maxChromo; i++) {
-			if(binList[i] != null) {
-				resultTab[i] = new double[binList[i].length];
+		return applyLazily(precision.toFloatingPoint(), new ElementOperation() {
+			@Override
+			void apply(double[] values, int length) {
 				// We want to calculate the log2 for each element
-				for (int j = 0; j < binList[i].length; j++) {
-					if(this.binList[i][j] != 0)
-						resultTab[i][j] = Math.log(binList[i][j]) / Math.log(2);
-					else
-						resultTab[i][j] = 0;
-				}
+				ElementKernels.log2(values, length, 0, 0);
 			}
-		}
-		BinList resultList = new BinList(this.chromoConfig, this.windowSize, this.intensityCount);
-		resultList.binList = resultTab;
-		return resultList;
+		});
 	}
 
 
@@ -1109,18 +2150,19 @@ public final class BinList {
 	public Double min() throws BinListNoDataException {
 		Double min = null;
 
-		if (binList == null)
-			throw new BinListNoDataException();
-
-		for(short i = 0; i < maxChromo; i++) {
-			if(binList[i] != null) {
-				for (int j = 0; j < binList[i].length; j++) {
-					if((min == null) || (min > binList[i][j]))
-						min = binList[i][j];
-				}
+		BinListBinaryFile file = binaryFile;
+		if (file != null) {
+			// the smallest values are stored in the header of the binary file
+			for(short i = 0; i < maxChromo; i++) {
+				Double chromoMin = file.getMin(chromoConfig.get(i).getName());
+				if((chromoMin != null) && ((min == null) || (min > chromoMin)))
+					min = chromoMin;
 			}
+			return min;
 		}
-		return min;
+		// the smallest value is kept in the statistics
+		BinListStatistics binListStatistics = getStatistics();
+		return (binListStatistics.getBinCount() == 0) ? null : binListStatistics.getMin();
 	}
 
 
@@ -1132,18 +2174,19 @@ public final class BinList {
 	public Double max() throws BinListNoDataException {
 		Double max = null;
 
-		if (binList == null)
-			throw new BinListNoDataException();
-
-		for(short i = 0; i < maxChromo; i++) {
-			if(binList[i] != null) {
-				for (int j = 0; j < binList[i].length; j++) {
-					if((max == null) || (max < binList[i][j]))
-						max = binList[i][j];
-				}
+		BinListBinaryFile file = binaryFile;
+		if (file != null) {
+			// the greatest values are stored in the header of the binary file
+			for(short i = 0; i < maxChromo; i++) {
+				Double chromoMax = file.getMax(chromoConfig.get(i).getName());
+				if((chromoMax != null) && ((max == null) || (max < chromoMax)))
+					max = chromoMax;
 			}
+			return max;
 		}
-		return max;
+		// the greatest value is kept in the statistics
+		BinListStatistics binListStatistics = getStatistics();
+		return (binListStatistics.getBinCount() == 0) ? null : binListStatistics.getMax();
 	}
 
 
@@ -1165,6 +2208,7 @@ public final class BinList {
 		double y1, y2, currentSlope;
 		ArrayList<Double> slopeArray = new ArrayList<Double>();
 
+		loadData();
 		if (binList == null)
 			throw new BinListNoDataException();
 
@@ -1177,11 +2221,11 @@ public final class BinList {
 				KOCount = 0;
 				j = 0;
 				x1 = 0; 
-				y1 = binList[i][0];
-				while (j < binList[i].length - 1) {
+				y1 = binList[i].get(0);
+				while (j < binList[i].size() - 1) {
 					j++;
 					x2 = j;
-					y2 = binList[i][j];
+					y2 = binList[i].get(j);
 					// We calculate the slope
 					currentSlope = Math.abs(0.96 * (x2 - x1) / (y2 - y1));
 					if(slopeLength == 0) {
@@ -1209,7 +2253,7 @@ public final class BinList {
 								}									
 								slopeArray.clear();
 								x1 = firstKOPosition;
-								y1 = binList[i][x1];
+								y1 = binList[i].get(x1);
 								j = x1;
 								slopeLength = 0; 
 								KOCount = 0;								
@@ -1236,6 +2280,7 @@ public final class BinList {
 	 * @throws BinListNoDataException
 	 */
 	public void repartition(double intensityBinsSize, String filePath) throws IOException, BinListNoDataException {
+		loadData();
 		if (binList == null)
 			throw new BinListNoDataException();
 		if(intensityBinsSize <= 0)
@@ -1248,8 +2293,8 @@ public final class BinList {
 		int result[] = new int[(int)(distanceMinMax / intensityBinsSize) + 1];
 		for (short i = 0; i < maxChromo; i++) {
 			if (binList[i] != null) {
-				for(int j = 0; j < binList[i].length; j++) 
-					result[(int)((binList[i][j] - min) / intensityBinsSize)]++;
+				for(int j = 0; j < binList[i].size(); j++) 
+					result[(int)((binList[i].get(j) - min) / intensityBinsSize)]++;
 			}
 		}	
 		BufferedWriter writer;
@@ -1286,6 +2331,8 @@ public final class BinList {
 			return;
 		if(listDistance == null)
 			throw new BinListNullException();
+		loadData();
+		listDistance.loadData();
 		if((this.binList == null) || (listDistance.binList == null))
 			throw new BinListNoDataException();
 		if(this.windowSize != listDistance.windowSize)
@@ -1314,53 +2361,31 @@ public final class BinList {
 	 * @throws BinListNoDataException
 	 */
 	private BinList selectFromThreshold(double thresholdDown, double thresholdUp) throws BinListNoDataException {
-		int totalLength = 0, k = 0;
-
+		loadData();
 		if (binList == null)
 			throw new BinListNoDataException();
 
-		// We create an array containing all the intensities of all chromosomes
-		for(short i = 0; i < maxChromo; i++) {
-			if(binList[i] != null)
-				totalLength+=binList[i].length;
-		}
-		double[] listTmp = new double[totalLength];			
-		for(short i = 0; i < maxChromo; i++) {
-			if(binList[i] != null) {
-				for (int j = 0; j < binList[i].length; j++) {
-					if(binList[i][j] != 0) {
-						listTmp[k] = binList[i][j];
-						k++;
-					}
-				}
-			}
-		}
-		if(k > 0) {
-			// We create a new array containing all the values different from 0 
-			double[] listTmpBis = new double[k];
-			for(int i = 0; i < listTmpBis.length; i++)
-				listTmpBis[i] = listTmp[i];		
-			// We want to have the values of intensities sorted for the whole genome
-			Arrays.sort(listTmpBis);
-			// We research the highest and the lowest value 
-			int rankUp = (int)((thresholdUp / 100) * (listTmpBis.length - 1));
-			int rankDown = (int)((thresholdDown / 100) * (listTmpBis.length - 1));
-			double valueUp = listTmpBis[rankUp];
-			double valueDown = listTmpBis[rankDown];
+		// We research the highest and the lowest value of the non-null values of the whole genome
+		double[] percentiles = Percentiles.getValues(binList, new double[] {thresholdUp / 100, thresholdDown / 100}, false);
+		if(percentiles != null) {
+			double valueUp = percentiles[0];
+			double valueDown = percentiles[1];
 			// We calculate the difference between the highest and the lowest value
-			double[][] resultTab = new double[maxChromo][];
+			Precision resultPrecision = Precision.int16;
+			BinArray[] resultTab = new BinArray[maxChromo];
 			for(short i = 0; i < maxChromo; i++) {
 				if(binList[i] != null) {
-					resultTab[i] = new double[binList[i].length];
-					for (int j = 0; j < binList[i].length; j++) {
-						if((binList[i][j] == 0) || (binList[i][j] < valueDown) || (binList[i][j] > valueUp))
-							resultTab[i][j] = 0;
+					resultTab[i] = BinArray.createLike(binList[i], resultPrecision);
+					for (int j = binList[i].nextNonNullIndex(0); j < binList[i].size(); j = binList[i].nextNonNullIndex(j + 1)) {
+						if((binList[i].get(j) == 0) || (binList[i].get(j) < valueDown) || (binList[i].get(j) > valueUp))
+							resultTab[i].set(j, 0);
 						else
-							resultTab[i][j] = 1;
+							resultTab[i].set(j, 1);
 					}
 				}
 			}
-			BinList resultList = new BinList(this.chromoConfig, this.windowSize, this.intensityCount);
+			BinList resultList = new BinList(this.chromoConfig, this.windowSize, this.intensityCount, resultPrecision);
+			compact(resultTab);
 			resultList.binList = resultTab;
 			return resultList;
 		}
@@ -1376,39 +2401,42 @@ public final class BinList {
 	 */
 	private BinList computeDistance() throws BinListNoDataException {
 
+		loadData();
 		if (binList == null)
 			throw new BinListNoDataException();
 
-		double[][] resultTabA = new double[maxChromo][]; 
-		double[][] resultTabB = new double[maxChromo][]; 
+		Precision resultPrecision = Precision.int32;
+		BinArray[] resultTabA = new BinArray[maxChromo]; 
+		BinArray[] resultTabB = new BinArray[maxChromo]; 
 
 		for(short i = 0; i < maxChromo; i++) {
 			if(this.binList[i] != null) {
-				resultTabA[i] = new double[binList[i].length];
-				resultTabB[i] = new double[binList[i].length];
+				resultTabA[i] = BinArray.create(resultPrecision, binList[i].size());
+				resultTabB[i] = BinArray.create(resultPrecision, binList[i].size());
 				int count = -1;
-				for(int j = 0; j < this.binList[i].length; j++) {
-					if (this.binList[i][j] > 0)
+				for(int j = 0; j < this.binList[i].size(); j++) {
+					if (this.binList[i].get(j) > 0)
 						count = 0;
 					else if(count != -1)
 						count++;
-					resultTabA[i][j] = count;
+					resultTabA[i].set(j, count);
 				}
 				count = -1; 
-				for(int j = this.binList[i].length - 1; j >= 0; j--) {
-					if (binList[i][j] > 0)
+				for(int j = this.binList[i].size() - 1; j >= 0; j--) {
+					if (binList[i].get(j) > 0)
 						count = 0;
 					else if(count != -1)
 						count++;
-					resultTabB[i][j] = count;
+					resultTabB[i].set(j, count);
 				}
-				for(int j = 0; j < this.binList[i].length; j++)  {
-					if (((resultTabA[i][j] > resultTabB[i][j]) && (resultTabB[i][j] != -1)) || (resultTabA[i][j] == -1))
-						resultTabA[i][j] = resultTabB[i][j];
+				for(int j = 0; j < this.binList[i].size(); j++)  {
+					if (((resultTabA[i].get(j) > resultTabB[i].get(j)) && (resultTabB[i].get(j) != -1)) || (resultTabA[i].get(j) == -1))
+						resultTabA[i].set(j, resultTabB[i].get(j));
 				}
 			}
 		}
-		BinList resultList = new BinList(this.chromoConfig, this.windowSize, this.intensityCount);
+		compact(resultTabA);
+		BinList resultList = new BinList(this.chromoConfig, this.windowSize, this.intensityCount, resultPrecision);
 		resultList.binList = resultTabA;
 		return resultList;
 	}
@@ -1431,25 +2459,30 @@ public final class BinList {
 
 		if(listThresholdHighGenes == null)
 			throw new BinListNullException();
+		loadData();
+		listThresholdHighGenes.loadData();
 		if((this.binList == null) || (listThresholdHighGenes.binList == null))
 			throw new BinListNoDataException();
 		if(this.windowSize != listThresholdHighGenes.windowSize)
 			throw new BinListDifferentWindowSizeException();
 
-		double[][] resultTab = new double[maxChromo][];
+		// the values are copied or set to -1
+		Precision resultPrecision = precision.isInteger() ? Precision.int32 : precision;
+		BinArray[] resultTab = new BinArray[maxChromo];
 		for(short i = 0; i < maxChromo; i++) {
 			if(this.binList[i] != null) {
-				resultTab[i] = new double[this.binList[i].length];
-				for (int j = 0; j < this.binList[i].length; j++) {
-					resultTab[i][j] = this.binList[i][j];
+				resultTab[i] = BinArray.create(resultPrecision, this.binList[i].size());
+				for (int j = 0; j < this.binList[i].size(); j++) {
+					resultTab[i].set(j, this.binList[i].get(j));
 					for(int k = j - distanceNoInfluence; k < j + distanceNoInfluence; k++) {
-						if((j - distanceNoInfluence >= 0) && ( j + distanceNoInfluence < this.binList[i].length) && (listThresholdHighGenes.binList[i][k] > 0))
-							resultTab[i][j] = -1.0;
+						if((j - distanceNoInfluence >= 0) && ( j + distanceNoInfluence < this.binList[i].size()) && (listThresholdHighGenes.binList[i].get(k) > 0))
+							resultTab[i].set(j, -1.0);
 					}
 				}
 			}
 		}
-		BinList resultList = new BinList(this.chromoConfig, this.windowSize, this.intensityCount);
+		BinList resultList = new BinList(this.chromoConfig, this.windowSize, this.intensityCount, resultPrecision);
+		compact(resultTab);
 		resultList.binList = resultTab;
 		return resultList;
 	}
@@ -1470,6 +2503,8 @@ public final class BinList {
 
 		if(listDistance == null)
 			throw new BinListNullException();
+		loadData();
+		listDistance.loadData();
 		if((this.binList == null) || (listDistance.binList == null))
 			throw new BinListNoDataException();
 		if(this.windowSize != listDistance.windowSize)
@@ -1483,10 +2518,10 @@ public final class BinList {
 
 		for(short i = 0; i < this.maxChromo; i++) {
 			if((this.binList[i] != null) && (listDistance.binList[i] != null)) {
-				for(int j = 0; j < listDistance.binList[i].length; j++) {
-					if(j < this.binList[i].length) {
-						if((listDistance.binList[i][j] >= 0) && (this.binList[i][j] > 0)) {
-							writer.write(Double.toString(listDistance.binList[i][j]) + ", " + Double.toString(this.binList[i][j]));
+				for(int j = 0; j < listDistance.binList[i].size(); j++) {
+					if(j < this.binList[i].size()) {
+						if((listDistance.binList[i].get(j) >= 0) && (this.binList[i].get(j) > 0)) {
+							writer.write(Double.toString(listDistance.binList[i].get(j)) + ", " + Double.toString(this.binList[i].get(j)));
 							writer.newLine();
 						}
 					}
@@ -1503,133 +2538,219 @@ public final class BinList {
 	 * @throws BinListNoDataException 
 	 */
 	private double average() throws BinListNoDataException {
-		int n = 0;
-		double mean = 0;
+		// the average of the non-null bins is kept in the statistics
+		return getStatistics().getMean();
+	}
+
+
+	/**
+	 * The enumeration MovingStatistic is used to specify the statistic computed on a sliding window.
+	 * @author Julien Lajugie
+	 * @version 0.1
+	 */
+	private enum MovingStatistic {
+		mean,
+		standardDeviation,
+		zScore;
+	};
 
-		if(binList == null) {
+
+	/**
+	 * Computes a statistic of the non-null bins of a window centered on each non-null bin.
+	 * The null bins stay null.
+	 * @param halfWidth Half width (in bp) of the window.
+	 * @param statistic Statistic computed.
+	 * @return A new BinList with the statistic of each bin.
+	 * @throws BinListNoDataException
+	 */
+	private BinList moving(int halfWidth, final MovingStatistic statistic) throws BinListNoDataException {
+		loadData();
+		if (binList == null)
 			throw new BinListNoDataException();
-		}
 
-		// Compute mean
-		for (int i = 0; i < maxChromo; i++) {
-			if (binList[i] != null) {
-				for(int j = 0; j < binList[i].length; j++) {
-					if(binList[i][j] != 0) {
-						mean += binList[i][j];
-						n++;
+		final int halfWidthInBins = halfWidth / windowSize;
+		Precision resultPrecision = precision.toFloatingPoint();
+		final BinArray[] resultTab = new BinArray[maxChromo];
+		for(short i = 0; i < maxChromo; i++) {
+			if(binList[i] != null) {
+				resultTab[i] = BinArray.createLike(binList[i], resultPrecision);
+			}
+		}
+		BinListStatistics resultStatistics = computeWithStatistics(resultTab, new BinListExecutor.Operation() {
+			@Override
+			public void compute(short i, int start, int stop) {
+				double[] mean = new double[stop - start];
+				double[] variance = new double[stop - start];
+				RollingStatistics.compute(binList[i], halfWidthInBins, start, stop, mean, variance);
+				for (int j = binList[i].nextNonNullIndex(start); j < stop; j = binList[i].nextNonNullIndex(j + 1)) {
+					if (binList[i].get(j) != 0) {
+						double sd = Math.sqrt(variance[j - start]);
+						switch (statistic) {
+						case mean:
+							resultTab[i].set(j, mean[j - start]);
+							break;
+						case standardDeviation:
+							resultTab[i].set(j, sd);
+							break;
+						case zScore:
+							resultTab[i].set(j, (sd == 0) ? 0 : (binList[i].get(j) - mean[j - start]) / sd);
+							break;
+						}
 					}
 				}
 			}
-		}
-		if (n == 0) {
-			return 0;
-		} else {
-			return (mean / n);
-		}
+		});
+		BinList resultList = new BinList(this.chromoConfig, this.windowSize, this.intensityCount, resultPrecision);
+		compact(resultTab);
+		resultList.binList = resultTab;
+		resultList.statistics = resultStatistics;
+		return resultList;
 	}
 
 
 	/**
-	 * Computes the average in an array of doubles between indexStart and indexStop.
-	 * @param data Array of double.
-	 * @param indexStart Index where to start in the array.
-	 * @param indexStop Index where to stop in the array.
-	 * @return The average.
+	 * Replaces each non-null bin by the average of the non-null bins 
+	 * at a distance smaller or equal to <i>halfWidth</i>. 
+	 * @param halfWidth Half width (in bp) of the moving window.
+	 * @return A new BinList resulting from the calculation.
+	 * @throws BinListNoDataException
 	 */
-	private double average(double[] data, int indexStart, int indexStop) {
-		int n = 0;
-		double mean = 0;
+	public BinList movingAverage(int halfWidth) throws BinListNoDataException {
+		return moving(halfWidth, MovingStatistic.mean);
+	}
 
-		// Compute mean
-		for (int i = indexStart; i <= indexStop; i++) {
-			if ((i < data.length) && (data[i] != 0)) {
-				mean += data[i];
-				n++;
-			}
-		}
-		if (n == 0) {
-			return 0;
-		} else {
-			mean /= n;
-			return mean;
-		}
-	}	
+
+	/**
+	 * Replaces each non-null bin by the standard deviation of the non-null bins 
+	 * at a distance smaller or equal to <i>halfWidth</i>. 
+	 * @param halfWidth Half width (in bp) of the moving window.
+	 * @return A new BinList resulting from the calculation.
+	 * @throws BinListNoDataException
+	 */
+	public BinList movingStandardDeviation(int halfWidth) throws BinListNoDataException {
+		return moving(halfWidth, MovingStatistic.standardDeviation);
+	}
 
 
 	/**
-	 * Computes the standard deviation in an array of doubles between indexStart and indexStop.
-	 * @param data Array of double.
-	 * @param indexStart Index where to start in the array.
-	 * @param indexStop Index where to stop in the array.
-	 * @return The standard deviation
+	 * Replaces each non-null bin by its z-score (difference with the average divided by the standard deviation) 
+	 * in the non-null bins at a distance smaller or equal to <i>halfWidth</i>. 
+	 * The bins are null when the standard deviation is null.
+	 * @param halfWidth Half width (in bp) of the moving window.
+	 * @return A new BinList resulting from the calculation.
+	 * @throws BinListNoDataException
 	 */
-	private double standardDeviation(double[] data, int indexStart, int indexStop) {
-		int n = 0;
-		double mean = 0;
-		double sd = 0;				
+	public BinList movingZScore(int halfWidth) throws BinListNoDataException {
+		return moving(halfWidth, MovingStatistic.zScore);
+	}
 
-		mean = average(data, indexStart, indexStop);
-		if (mean != 0) {
-			// We compute the standard deviation for the current chromosome				
-			for (int i = indexStart; i < indexStop; i++){
-				if (data[i] != 0) {
-					sd += Math.pow(data[i] - mean, 2);
-					n++;
-				}
-			}
-			// We know n is different from 0 otherwise mean would equal 0 too
-			sd /= n;			
-			return sd;
-		} else {
+
+	/**
+	 * Computes the global variance of a chromosome used by {@link #searchPeaks(int, double)}: the mean is computed
+	 * on all the non-null bins but the squared differences to the mean are summed on the non-null bins
+	 * before the last bin of the chromosome. The value is computed from the statistics of the BinList.
+	 * @param chromo A chromosome.
+	 * @return The variance, 0 if the mean is null, NaN if the last bin is the only non-null bin.
+	 * @throws BinListNoDataException
+	 */
+	private double peakVariance(short chromo) throws BinListNoDataException {
+		BinListStatistics statistics = getStatistics();
+		double mean = statistics.getMean(chromo);
+		if (mean == 0) {
 			return 0;
 		}
+		long count = statistics.getNonNullCount(chromo);
+		double lastBin = binList[chromo].get(binList[chromo].size() - 1);
+		if (lastBin == 0) {
+			return statistics.getVariance(chromo);
+		}
+		if (count == 1) {
+			return Double.NaN;
+		}
+		// the last bin is removed from the sum of squares of the chromosome
+		double partialMean = (statistics.getSum(chromo) - lastBin) / (count - 1);
+		double partialM2 = statistics.getVariance(chromo) * count - (lastBin - partialMean) * (lastBin - mean);
+		return Math.max(0, partialM2) / (count - 1) + (partialMean - mean) * (partialMean - mean);
 	}
 
 
 	/**
 	 * Searches the peaks of a BinList. We consider a point as a peak when the 
 	 * moving standard deviation = <i>nbSDAccepted</i> * global standard deviation.
+	 * The mean of the window of a bin <i>j</i> is computed on the non-null bins between <i>j - halfWidth</i> and <i>j + halfWidth</i>
+	 * (included) but the squared differences to the mean are summed on the non-null bins between <i>j - halfWidth</i>
+	 * and <i>j + halfWidth</i> (excluded), and the last bin of the chromosome is never in the sum.
 	 * @param sizeMovingSD Width (in bp) of the moving standard deviation.
 	 * @param nbSDAccepted  
 	 * @return A BinList with only peaks.
 	 * @throws BinListNoDataException
 	 */
-	public BinList searchPeaks(int sizeMovingSD, double nbSDAccepted) throws BinListNoDataException {
+	public BinList searchPeaks(int sizeMovingSD, final double nbSDAccepted) throws BinListNoDataException {
+		loadData();
 		if (binList == null)
 			throw new BinListNoDataException();
 
-		int halfWidth = sizeMovingSD / windowSize;
-		double[][] resultTab = new double[maxChromo][]; 
-
+		final int halfWidth = sizeMovingSD / windowSize;
+		// the peaks keep their values
+		Precision resultPrecision = precision;
+		final BinArray[] resultTab = new BinArray[maxChromo]; 
+		final double[] sdTab = new double[maxChromo];
+		// first and last non-null bins of each chromosome
+		final int[] firstTab = new int[maxChromo];
+		final int[] lastTab = new int[maxChromo];
 		for(short i = 0; i < maxChromo; i++) {
 			if(binList[i] != null) {
-				double sd = standardDeviation(binList[i], 0, binList[i].length - 1);
-				resultTab[i] = new double[binList[i].length];
-				if (sd != 0) {
+				resultTab[i] = BinArray.createLike(binList[i], resultPrecision);
+				sdTab[i] = peakVariance(i);
+				firstTab[i] = binList[i].nextNonNullIndex(0);
+				while ((firstTab[i] < binList[i].size()) && (binList[i].get(firstTab[i]) == 0)) {
+					firstTab[i] = binList[i].nextNonNullIndex(firstTab[i] + 1);
+				}
+				lastTab[i] = binList[i].size() - 1;
+				while ((lastTab[i] >= 0) && (binList[i].get(lastTab[i]) == 0)) {
+					lastTab[i]--;
+				}
+			}
+		}
+		// the moving variance reads halfWidth bins around each chunk in the source list
+		BinListStatistics resultStatistics = computeWithStatistics(resultTab, new BinListExecutor.Operation() {
+			@Override
+			public void compute(short i, int start, int stop) {
+				double sd = sdTab[i];
+				// the window of the sum of squares is empty when the half width is null
+				if ((sd != 0) && (halfWidth > 0)) {
 					double minAcceptedSD = nbSDAccepted * sd;
-					for (int j = 0; j < binList[i].length; j++) {
-						if (binList[i][j] != 0) {
-							int indexStart = j - halfWidth;
-							int indexStop = j + halfWidth;
-							if (indexStart < 0) {
-								indexStart = 0;
-							}
-							if (indexStop > binList[i].length - 1) {
-								indexStop = binList[i].length - 1;
+					double[] mean = new double[stop - start];
+					double[] partialMean = new double[stop - start];
+					double[] partialVariance = new double[stop - start];
+					RollingStatistics.compute(binList[i], halfWidth, start, stop, mean, null);
+					RollingStatistics.compute(binList[i], binList[i].size() - 1, halfWidth, halfWidth - 1, start, stop, partialMean, partialVariance);
+					for (int j = binList[i].nextNonNullIndex(start); j < stop; j = binList[i].nextNonNullIndex(j + 1)) {
+						if (binList[i].get(j) != 0) {
+							int k = j - start;
+							double localSd = 0;
+							int windowStop = Math.min(j + halfWidth, binList[i].size() - 1);
+							if ((j - halfWidth <= firstTab[i]) && ((windowStop == binList[i].size() - 1) || (lastTab[i] < windowStop))) {
+								// the window contains all the non-null bins of the chromosome
+								localSd = sd;
+							} else if ((mean[k] != 0) && ((partialMean[k] != 0) || (partialVariance[k] != 0))) {
+								// squared differences to the mean of the whole window
+								localSd = partialVariance[k] + (partialMean[k] - mean[k]) * (partialMean[k] - mean[k]);
 							}
-							double localSd = standardDeviation(binList[i], indexStart, indexStop);
 							if ((localSd != 0) && (localSd > minAcceptedSD)) {
-								resultTab[i][j] = binList[i][j];
+								resultTab[i].set(j, binList[i].get(j));
 							} else {
-								resultTab[i][j] = 0;
+								resultTab[i].set(j, 0);
 							}
 						}
 					}
 				}
-			}			
-		}
-		BinList resultList = new BinList(this.chromoConfig, this.windowSize, this.intensityCount);
+			}
+		});
+		BinList resultList = new BinList(this.chromoConfig, this.windowSize, this.intensityCount, resultPrecision);
+		compact(resultTab);
 		resultList.binList = resultTab;
+		resultList.statistics = resultStatistics;
 		return resultList;		
 	}
 }
\ No newline at end of file
@@ -0,0 +1,397 @@
+/**
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+package gdpcore;
+
+import gdpcore.BinList.Precision;
+import gdpcore.BinList.Storage;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+
+/**
+ * The BinListBinaryFile class reads and writes the binary format used to save a BinList.
+ * All the values are little-endian. The file contains:
+ * <ul>
+ * <li>a header: magic number "GDPB", version, window size, intensity count, precision (index of the 
+ * {@link Precision} constant) and number of chromosomes</li>
+ * <li>a table of chromosomes: length and UTF-8 bytes of the name, number of bins (-1 if the chromosome has no data), 
+ * smallest and greatest values and offset of the data</li>
+ * <li>one contiguous array per chromosome, aligned on 8 bytes. The values are stored with the precision of the BinList.</li>
+ * </ul>
+ * The files of the version 1 don't have a precision: the values are doubles.
+ * The arrays are memory-mapped when the file is opened, in pages of 2^{@link BinArray#PAGE_SHIFT} bins.
+ * The data of a chromosome are only copied in memory when {@link #getData(String)} is called. 
+ * They are not copied when the BinLists are stored outside of the heap (see {@link BinArray#setStorage(Storage, String)}).
+ * The mapped file is then used as the storage of the BinList.
+ * The smallest and greatest values of each chromosome are available without reading the data.
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+public final class BinListBinaryFile {
+	public static final int 	MAGIC_NUMBER = 0x42504447;	// "GDPB" read as a little-endian integer
+	public static final int 	VERSION = 2;				// version of the format
+	private static final Charset CHARSET = Charset.forName("UTF-8");	// charset of the chromosome names
+	private static final int 	HEADER_LENGTH = 28;			// length of the header before the chromosome table
+	private static final int 	BUFFER_SIZE = 65536;		// size of the buffer used to write the file
+	private final int 			windowSize;					// size of the bins
+	private final double 		intensityCount;				// intensity count of the BinList
+	private final Precision 	precision;					// precision of the values
+	private final HashMap<String, ByteBuffer[]> dataMap;	// pages of data of each chromosome, null for the chromosomes without data
+	private final HashMap<String, double[]> rangeMap;		// smallest and greatest values of each chromosome with at least one bin
+	private final HashMap<String, Integer> binCounts;		// number of bins of each chromosome with data
+
+
+	/**
+	 * Opens a binary file and maps the data of each chromosome.
+	 * The header and the table of chromosomes are read in small buffers: only the arrays of data are mapped.
+	 * @param filePath Address of the file.
+	 * @throws IOException if the file can't be read or if its format is not valid
+	 */
+	public BinListBinaryFile(String filePath) throws IOException {
+		RandomAccessFile file = new RandomAccessFile(filePath, "r");
+		try {
+			FileChannel channel = file.getChannel();
+			long fileLength = channel.size();
+			if (fileLength < HEADER_LENGTH - 4) {
+				throw new IOException("Invalid binary file: " + filePath);
+			}
+			ByteBuffer header = read(channel, 0, HEADER_LENGTH - 8, filePath);
+			if (header.getInt() != MAGIC_NUMBER) {
+				throw new IOException("Invalid binary file: " + filePath);
+			}
+			int version = header.getInt();
+			if ((version != 1) && (version != VERSION)) {
+				throw new IOException("Unsupported binary file version: " + version);
+			}
+			windowSize = header.getInt();
+			intensityCount = header.getDouble();
+			// the files of the version 1 don't have a precision
+			long position = (version == 1) ? HEADER_LENGTH - 4 : HEADER_LENGTH;
+			header = read(channel, header.limit(), (int) (position - header.limit()), filePath);
+			if (version == 1) {
+				precision = Precision.float64;
+			} else {
+				int precisionIndex = header.getInt();
+				if ((precisionIndex < 0) || (precisionIndex >= Precision.values().length)) {
+					throw new IOException("Invalid binary file: " + filePath);
+				}
+				precision = Precision.values()[precisionIndex];
+			}
+			int byteCount = precision.getByteCount();
+			int chromosomeCount = header.getInt();
+			dataMap = new HashMap<String, ByteBuffer[]>();
+			rangeMap = new HashMap<String, double[]>();
+			binCounts = new HashMap<String, Integer>();
+			for (int i = 0; i < chromosomeCount; i++) {
+				int nameLength = read(channel, position, 2, filePath).getShort() & 0xffff;
+				// name, number of bins, smallest and greatest values and offset of the data
+				ByteBuffer entry = read(channel, position + 2, nameLength + 4 + 8 + 8 + 8, filePath);
+				position += 2 + entry.limit();
+				byte[] name = new byte[nameLength];
+				entry.get(name);
+				int binCount = entry.getInt();
+				double min = entry.getDouble();
+				double max = entry.getDouble();
+				long offset = entry.getLong();
+				String chromosomeName = new String(name, CHARSET);
+				ByteBuffer[] data = null;
+				if (binCount > 0) {
+					rangeMap.put(chromosomeName, new double[] {min, max});
+				}
+				if (binCount >= 0) {
+					if ((offset < 0) || (offset + (long) binCount * byteCount > fileLength)) {
+						throw new IOException("Invalid binary file: " + filePath);
+					}
+					data = new ByteBuffer[(int) (((long) binCount + (1 << BinArray.PAGE_SHIFT) - 1) >>> BinArray.PAGE_SHIFT)];
+					for (int j = 0; j < data.length; j++) {
+						int pageSize = Math.min(1 << BinArray.PAGE_SHIFT, binCount - (j << BinArray.PAGE_SHIFT));
+						data[j] = channel.map(FileChannel.MapMode.READ_ONLY, offset + ((long) j << BinArray.PAGE_SHIFT) * byteCount, (long) pageSize * byteCount);
+						data[j].order(ByteOrder.LITTLE_ENDIAN);
+					}
+					binCounts.put(chromosomeName, binCount);
+				}
+				dataMap.put(chromosomeName, data);
+			}
+		} catch (RuntimeException e) {
+			// BufferUnderflowException if the header is truncated
+			throw new IOException("Invalid binary file: " + filePath);
+		} finally {
+			// the mapped buffers stay valid after the file is closed
+			file.close();
+		}
+	}
+
+
+	/**
+	 * Reads a part of a file in a little-endian buffer.
+	 * @param channel A FileChannel.
+	 * @param position Position of the first byte read.
+	 * @param length Number of bytes read.
+	 * @param filePath Address of the file, used in the error message.
+	 * @return A buffer containing the bytes read, ready to be read.
+	 * @throws IOException if the file ends before the last byte
+	 */
+	private static ByteBuffer read(FileChannel channel, long position, int length, String filePath) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new IOException("Invalid binary file: " + filePath);
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+
+	/**
+	 * Writes the data of a BinList in a binary file.
+	 * @param filePath Address of the file.
+	 * @param windowSize Size of the bins.
+	 * @param intensityCount Intensity count of the BinList.
+	 * @param precision Precision of the values.
+	 * @param chromosomeNames Name of each chromosome.
+	 * @param data Bins of each chromosome, null for the chromosomes without data.
+	 * @throws IOException
+	 */
+	public static void write(String filePath, int windowSize, double intensityCount, Precision precision, String[] chromosomeNames, BinArray[] data) throws IOException {
+		byte[][] names = new byte[chromosomeNames.length][];
+		long tableLength = 0;
+		for (int i = 0; i < chromosomeNames.length; i++) {
+			names[i] = chromosomeNames[i].getBytes(CHARSET);
+			tableLength += 2 + names[i].length + 4 + 8 + 8 + 8;
+		}
+		// the data start on a multiple of 8 bytes
+		long dataOffset = (HEADER_LENGTH + tableLength + 7) & ~7l;
+		// the capacity of the buffer is a multiple of 8 so the position of the buffer stays aligned with the file
+		ByteBuffer buffer = ByteBuffer.allocate((int) Math.max(dataOffset, BUFFER_SIZE));
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(MAGIC_NUMBER);
+		buffer.putInt(VERSION);
+		buffer.putInt(windowSize);
+		buffer.putDouble(intensityCount);
+		buffer.putInt(precision.ordinal());
+		buffer.putInt(chromosomeNames.length);
+		long offset = dataOffset;
+		for (int i = 0; i < chromosomeNames.length; i++) {
+			buffer.putShort((short) names[i].length);
+			buffer.put(names[i]);
+			if (data[i] == null) {
+				buffer.putInt(-1);
+				buffer.putDouble(0);
+				buffer.putDouble(0);
+				buffer.putLong(0);
+			} else {
+				double min = 0, max = 0;
+				// the bins skipped by nextNonNullIndex are null
+				int next = data[i].nextNonNullIndex(0);
+				for (int j = 0; j < data[i].size(); j++) {
+					double value = 0;
+					if (j == next) {
+						value = data[i].get(j);
+						next = data[i].nextNonNullIndex(j + 1);
+					}
+					if ((j == 0) || (value < min)) {
+						min = value;
+					}
+					if ((j == 0) || (value > max)) {
+						max = value;
+					}
+				}
+				buffer.putInt(data[i].size());
+				buffer.putDouble(min);
+				buffer.putDouble(max);
+				buffer.putLong(offset);
+				// the next array starts on a multiple of 8 bytes
+				offset += ((long) data[i].size() * precision.getByteCount() + 7) & ~7l;
+			}
+		}
+		while (buffer.position() < dataOffset) {
+			buffer.put((byte) 0);
+		}
+		RandomAccessFile file = new RandomAccessFile(filePath, "rw");
+		try {
+			file.setLength(0);
+			FileChannel channel = file.getChannel();
+			for (int i = 0; i < data.length; i++) {
+				if (data[i] != null) {
+					int next = data[i].nextNonNullIndex(0);
+					for (int j = 0; j < data[i].size(); j++) {
+						if (!buffer.hasRemaining()) {
+							writeBuffer(channel, buffer);
+						}
+						if (j == next) {
+							putValue(buffer, precision, data[i].get(j));
+							next = data[i].nextNonNullIndex(j + 1);
+						} else {
+							putValue(buffer, precision, 0);
+						}
+					}
+					while (buffer.position() % 8 != 0) {
+						buffer.put((byte) 0);
+					}
+				}
+			}
+			writeBuffer(channel, buffer);
+		} finally {
+			file.close();
+		}
+	}
+
+
+	/**
+	 * Writes a value in a buffer with the specified precision.
+	 * @param buffer A ByteBuffer.
+	 * @param precision Precision of the value.
+	 * @param value A value.
+	 */
+	private static void putValue(ByteBuffer buffer, Precision precision, double value) {
+		switch (precision) {
+		case int16:
+			buffer.putShort((short) Math.round(value));
+			break;
+		case int32:
+			buffer.putInt((int) Math.round(value));
+			break;
+		case float32:
+			buffer.putFloat((float) value);
+			break;
+		default:
+			buffer.putDouble(value);
+			break;
+		}
+	}
+
+
+	/**
+	 * Writes the content of a buffer in a channel and clears the buffer.
+	 * @param channel A FileChannel.
+	 * @param buffer A ByteBuffer.
+	 * @throws IOException
+	 */
+	private static void writeBuffer(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+
+	/**
+	 * @return The size of the bins.
+	 */
+	public int getWindowSize() {
+		return windowSize;
+	}
+
+
+	/**
+	 * @return The intensity count of the BinList.
+	 */
+	public double getIntensityCount() {
+		return intensityCount;
+	}
+
+
+	/**
+	 * @return The precision of the values.
+	 */
+	public Precision getPrecision() {
+		return precision;
+	}
+
+
+	/**
+	 * @param chromosomeName Name of a chromosome.
+	 * @return The smallest value of the chromosome, null if the chromosome has no bin.
+	 */
+	public Double getMin(String chromosomeName) {
+		double[] range = rangeMap.get(chromosomeName);
+		return (range == null) ? null : range[0];
+	}
+
+
+	/**
+	 * @param chromosomeName Name of a chromosome.
+	 * @return The greatest value of the chromosome, null if the chromosome has no bin.
+	 */
+	public Double getMax(String chromosomeName) {
+		double[] range = rangeMap.get(chromosomeName);
+		return (range == null) ? null : range[1];
+	}
+
+
+	/**
+	 * Copies the data of a chromosome from the file. 
+	 * The data are read directly in the mapped file when the BinLists are stored outside of the heap.
+	 * @param chromosomeName Name of a chromosome.
+	 * @return The bins of the chromosome, null if the file doesn't contain data for this chromosome.
+	 */
+	public BinArray getData(String chromosomeName) {
+		ByteBuffer[] pages = dataMap.get(chromosomeName);
+		if (pages == null) {
+			return null;
+		}
+		int binCount = binCounts.get(chromosomeName);
+		if (BinArray.getStorage() != Storage.heap) {
+			// the mapped buffers are read-only: the BinArrays loaded from a file are never modified
+			return BinArray.wrap(precision, binCount, pages);
+		}
+		short[] shortData = null;
+		int[] intData = null;
+		float[] floatData = null;
+		double[] doubleData = null;
+		switch (precision) {
+		case int16:
+			shortData = new short[binCount];
+			break;
+		case int32:
+			intData = new int[binCount];
+			break;
+		case float32:
+			floatData = new float[binCount];
+			break;
+		default:
+			doubleData = new double[binCount];
+			break;
+		}
+		for (int i = 0; i < pages.length; i++) {
+			// duplicate so the position of the shared buffer is not modified
+			ByteBuffer duplicate = pages[i].duplicate().order(ByteOrder.LITTLE_ENDIAN);
+			int pageStart = i << BinArray.PAGE_SHIFT;
+			int pageSize = pages[i].capacity() / precision.getByteCount();
+			switch (precision) {
+			case int16:
+				duplicate.asShortBuffer().get(shortData, pageStart, pageSize);
+				break;
+			case int32:
+				duplicate.asIntBuffer().get(intData, pageStart, pageSize);
+				break;
+			case float32:
+				duplicate.asFloatBuffer().get(floatData, pageStart, pageSize);
+				break;
+			default:
+				duplicate.asDoubleBuffer().get(doubleData, pageStart, pageSize);
+				break;
+			}
+		}
+		switch (precision) {
+		case int16:
+			return BinArray.valueOf(shortData);
+		case int32:
+			return BinArray.valueOf(intData);
+		case float32:
+			return BinArray.valueOf(floatData);
+		default:
+			return BinArray.valueOf(doubleData);
+		}
+	}
+}
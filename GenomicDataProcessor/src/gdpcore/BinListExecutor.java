@@ -0,0 +1,330 @@
+/**
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+package gdpcore;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The BinListExecutor class runs the operations of the BinLists on a ForkJoin pool.
+ * The bins of each chromosome are split in chunks of {@link #CHUNK_SIZE} bins so the large
+ * chromosomes are processed by several threads. An operation reads the source data anywhere
+ * (the bins around a chunk are the halo of the neighborhood operations like the gaussian filter)
+ * but only writes the bins of its chunk.
+ * The chunks only depend on the length of the chromosomes and the partial results of the reductions
+ * are combined in the order of the chunks, so the results are the same with any number of threads.
+ * The number of threads can be changed while operations are running: each operation reads the pool once
+ * and the previous pool is shut down after the new one is published, when the last operation using it is done.
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+public final class BinListExecutor {
+	public static final int 	CHUNK_SIZE = 65536;	// number of bins processed by a task
+	private static volatile SharedPool pool = null;	// pool executing the operations, null if the operations are sequential
+
+
+	/**
+	 * Operation executed on a range of bins of a chromosome.
+	 * @author Julien Lajugie
+	 * @version 0.1
+	 */
+	public interface Operation {
+		/**
+		 * Processes the bins of a chromosome between <i>start</i> and <i>stop</i>.
+		 * @param chromosome A chromosome.
+		 * @param start Index of the first bin (included).
+		 * @param stop Index of the last bin (excluded).
+		 */
+		public void compute(short chromosome, int start, int stop);
+	}
+
+
+	/**
+	 * Reduction computed on a range of bins of a chromosome.
+	 * @author Julien Lajugie
+	 * @version 0.1
+	 * @param <T> Type of the result.
+	 */
+	public interface Reduction<T> {
+		/**
+		 * Computes the partial result of the bins of a chromosome between <i>start</i> and <i>stop</i>.
+		 * @param chromosome A chromosome.
+		 * @param start Index of the first bin (included).
+		 * @param stop Index of the last bin (excluded).
+		 * @return The partial result.
+		 */
+		public T compute(short chromosome, int start, int stop);
+
+		/**
+		 * Combines two partial results. The first result always comes from the bins located before the second one.
+		 * @param result1 A partial result.
+		 * @param result2 A partial result.
+		 * @return The combination of the two results.
+		 */
+		public T combine(T result1, T result2);
+	}
+
+
+	/**
+	 * Operation executed on a chunk identified by its index.
+	 * @author Julien Lajugie
+	 * @version 0.1
+	 */
+	private interface ChunkOperation {
+		/**
+		 * @param chunkIndex Index of a chunk.
+		 */
+		public void compute(int chunkIndex);
+	}
+
+
+	/**
+	 * Task executing an operation on a range of chunks.
+	 * The range is split in two until it contains only one chunk.
+	 * @author Julien Lajugie
+	 * @version 0.1
+	 */
+	private static final class ChunkTask extends RecursiveAction {
+		private static final long 		serialVersionUID = -2254106467452185312L;	// Generated serial number
+		private final int 				first;		// index of the first chunk of the task (included)
+		private final int 				last;		// index of the last chunk of the task (excluded)
+		private final ChunkOperation 	operation;	// operation to execute
+
+
+		/**
+		 * Creates a ChunkTask.
+		 * @param first Index of the first chunk of the task (included).
+		 * @param last Index of the last chunk of the task (excluded).
+		 * @param operation Operation to execute.
+		 */
+		private ChunkTask(int first, int last, ChunkOperation operation) {
+			this.first = first;
+			this.last = last;
+			this.operation = operation;
+		}
+
+
+		@Override
+		protected void compute() {
+			if (last - first == 1) {
+				operation.compute(first);
+			} else {
+				int middle = (first + last) / 2;
+				invokeAll(new ChunkTask(first, middle, operation), new ChunkTask(middle, last, operation));
+			}
+		}
+	}
+
+
+	/**
+	 * ForkJoin pool counting the operations using it.
+	 * The pool is shut down when it has been replaced and the last operation using it is done.
+	 * @author Julien Lajugie
+	 * @version 0.1
+	 */
+	private static final class SharedPool {
+		private final ForkJoinPool 	forkJoinPool;	// pool executing the tasks
+		private final AtomicInteger referenceCount;	// number of operations using the pool, plus one until the pool is replaced
+
+
+		/**
+		 * Creates a SharedPool.
+		 * @param threadCount Number of threads of the pool.
+		 */
+		private SharedPool(int threadCount) {
+			forkJoinPool = new ForkJoinPool(threadCount);
+			referenceCount = new AtomicInteger(1);
+		}
+
+
+		/**
+		 * Registers an operation using the pool.
+		 * @return False if the pool has been shut down.
+		 */
+		private boolean acquire() {
+			int count;
+			do {
+				count = referenceCount.get();
+				if (count == 0) {
+					return false;
+				}
+			} while (!referenceCount.compareAndSet(count, count + 1));
+			return true;
+		}
+
+
+		/**
+		 * Unregisters an operation, or the executor when the pool is replaced.
+		 * The pool is shut down when nothing uses it anymore.
+		 */
+		private void release() {
+			if (referenceCount.decrementAndGet() == 0) {
+				forkJoinPool.shutdown();
+			}
+		}
+	}
+
+
+	/**
+	 * Private constructor. The class only contains static methods.
+	 */
+	private BinListExecutor() {}
+
+
+	/**
+	 * Sets the number of threads executing the operations.
+	 * @param threadCount Number of threads. The operations are sequential if the number is 1 or less.
+	 */
+	public static synchronized void setThreadCount(int threadCount) {
+		if (threadCount == getThreadCount()) {
+			return;
+		}
+		SharedPool oldPool = pool;
+		pool = (threadCount > 1) ? new SharedPool(threadCount) : null;
+		if (oldPool != null) {
+			// the operations already running finish on the old pool
+			oldPool.release();
+		}
+	}
+
+
+	/**
+	 * @return The number of threads executing the operations.
+	 */
+	public static int getThreadCount() {
+		SharedPool currentPool = pool;
+		return (currentPool == null) ? 1 : currentPool.forkJoinPool.getParallelism();
+	}
+
+
+	/**
+	 * Reads the pool executing the operations and registers an operation using it.
+	 * The pool must be released when the operation is done.
+	 * @return The pool executing the operations, null if the operations are sequential.
+	 */
+	private static SharedPool acquirePool() {
+		SharedPool currentPool;
+		do {
+			currentPool = pool;
+			// the pool can be shut down between the read and the registration if it is replaced
+		} while ((currentPool != null) && !currentPool.acquire());
+		return currentPool;
+	}
+
+
+	/**
+	 * Splits the bins of each chromosome in chunks.
+	 * @param data Bins of each chromosome, null for the chromosomes without data.
+	 * @param chunkSize Maximum number of bins of a chunk.
+	 * @return A list of chunks: chromosome, start and stop.
+	 */
+	private static ArrayList<int[]> getChunks(BinArray[] data, int chunkSize) {
+		ArrayList<int[]> chunks = new ArrayList<int[]>();
+		for (int i = 0; i < data.length; i++) {
+			if (data[i] != null) {
+				int start = 0;
+				do {
+					int stop = (int) Math.min((long) start + chunkSize, data[i].size());
+					chunks.add(new int[] {i, start, stop});
+					start = stop;
+				} while (start < data[i].size());
+			}
+		}
+		return chunks;
+	}
+
+
+	/**
+	 * Executes an operation on each chunk of a list.
+	 * @param chunkCount Number of chunks.
+	 * @param operation An operation.
+	 */
+	private static void execute(int chunkCount, ChunkOperation operation) {
+		if (chunkCount == 0) {
+			return;
+		}
+		// the pool is read once: it can be replaced during the operation
+		SharedPool currentPool = (chunkCount == 1) ? null : acquirePool();
+		if (currentPool == null) {
+			for (int i = 0; i < chunkCount; i++) {
+				operation.compute(i);
+			}
+		} else {
+			try {
+				currentPool.forkJoinPool.invoke(new ChunkTask(0, chunkCount, operation));
+			} finally {
+				currentPool.release();
+			}
+		}
+	}
+
+
+	/**
+	 * Executes an operation on a list of chunks.
+	 * @param chunks Chunks: chromosome, start and stop.
+	 * @param operation An operation.
+	 */
+	private static void execute(final ArrayList<int[]> chunks, final Operation operation) {
+		execute(chunks.size(), new ChunkOperation() {
+			@Override
+			public void compute(int chunkIndex) {
+				int[] chunk = chunks.get(chunkIndex);
+				operation.compute((short) chunk[0], chunk[1], chunk[2]);
+			}
+		});
+	}
+
+
+	/**
+	 * Executes an operation on every chunk of bins of every chromosome with data.
+	 * @param data Bins of each chromosome, null for the chromosomes without data.
+	 * @param operation An operation.
+	 */
+	public static void execute(BinArray[] data, Operation operation) {
+		execute(getChunks(data, CHUNK_SIZE), operation);
+	}
+
+
+	/**
+	 * Executes an operation on every chromosome with data.
+	 * Each chromosome is processed by only one thread.
+	 * Used by the operations that need all the bins of a chromosome (eg: sort).
+	 * @param data Bins of each chromosome, null for the chromosomes without data.
+	 * @param operation An operation. The range of bins is always the whole chromosome.
+	 */
+	public static void executeByChromosome(BinArray[] data, Operation operation) {
+		execute(getChunks(data, Integer.MAX_VALUE), operation);
+	}
+
+
+	/**
+	 * Computes a reduction over the bins of every chromosome with data.
+	 * @param <T> Type of the result.
+	 * @param data Bins of each chromosome, null for the chromosomes without data.
+	 * @param reduction A reduction.
+	 * @return The result of the reduction, null if there is no data.
+	 */
+	public static <T> T reduce(BinArray[] data, final Reduction<T> reduction) {
+		final ArrayList<int[]> chunks = getChunks(data, CHUNK_SIZE);
+		final ArrayList<T> results = new ArrayList<T>(chunks.size());
+		for (int i = 0; i < chunks.size(); i++) {
+			results.add(null);
+		}
+		execute(chunks.size(), new ChunkOperation() {
+			@Override
+			public void compute(int chunkIndex) {
+				int[] chunk = chunks.get(chunkIndex);
+				results.set(chunkIndex, reduction.compute((short) chunk[0], chunk[1], chunk[2]));
+			}
+		});
+		T result = null;
+		for (int i = 0; i < results.size(); i++) {
+			result = (i == 0) ? results.get(i) : reduction.combine(result, results.get(i));
+		}
+		return result;
+	}
+}
@@ -0,0 +1,90 @@
+/**
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+package gdpcore;
+
+/**
+ * The BinListRegionStatistics class contains the statistics of the bins of a region of a chromosome of a BinList
+ * (see {@link BinList#getRegionStatistics(short, int, int)}).
+ * The smallest and the greatest values take the null bins into account (their value is 0).
+ * The sum and the mean are computed on the non-null bins.
+ * A BinListRegionStatistics is immutable.
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+public final class BinListRegionStatistics {
+	private final int 		binCount;		// number of bins of the region
+	private final long 		nonNullCount;	// number of non-null bins of the region
+	private final double 	sum;			// sum of the non-null bins of the region
+	private final double 	min;			// smallest non-null bin of the region, +infinity if none
+	private final double 	max;			// greatest non-null bin of the region, -infinity if none
+
+
+	/**
+	 * @param binCount Number of bins of the region.
+	 * @param aggregate Sum, number, smallest and greatest value of the non-null bins of the region
+	 * (see {@link BinPyramid#aggregate(int, int, double[])}).
+	 */
+	BinListRegionStatistics(int binCount, double[] aggregate) {
+		this.binCount = binCount;
+		this.sum = aggregate[0];
+		this.nonNullCount = (long) aggregate[1];
+		this.min = aggregate[2];
+		this.max = aggregate[3];
+	}
+
+
+	/**
+	 * @return The number of bins of the region.
+	 */
+	public int getBinCount() {
+		return binCount;
+	}
+
+
+	/**
+	 * @return The number of non-null bins of the region.
+	 */
+	public long getNonNullCount() {
+		return nonNullCount;
+	}
+
+
+	/**
+	 * @return The sum of the bins of the region.
+	 */
+	public double getSum() {
+		return sum;
+	}
+
+
+	/**
+	 * @return The smallest value of the region, NaN if the region has no bin.
+	 */
+	public double getMin() {
+		if (binCount == 0) {
+			return Double.NaN;
+		}
+		return (nonNullCount < binCount) ? Math.min(0, min) : min;
+	}
+
+
+	/**
+	 * @return The greatest value of the region, NaN if the region has no bin.
+	 */
+	public double getMax() {
+		if (binCount == 0) {
+			return Double.NaN;
+		}
+		return (nonNullCount < binCount) ? Math.max(0, max) : max;
+	}
+
+
+	/**
+	 * @return The mean of the non-null bins of the region, 0 if there is no non-null bin.
+	 */
+	public double getMean() {
+		return (nonNullCount == 0) ? 0 : sum / nonNullCount;
+	}
+}
@@ -0,0 +1,320 @@
+/**
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+package gdpcore;
+
+/**
+ * The BinListStatistics class contains the statistics of the bins of a BinList,
+ * for each chromosome and for the whole genome.
+ * The smallest and the greatest values take the null bins into account (their value is 0).
+ * The sum, the mean and the variance are computed on the non-null bins.
+ * The statistics are computed by chunks (see {@link Accumulator}): the operations of the BinLists compute
+ * the statistics of each chunk of their result just after computing it, so they don't need another pass.
+ * A BinListStatistics is immutable.
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+public final class BinListStatistics {
+	private final long[] 	binCounts;		// number of bins of each chromosome
+	private final long[] 	counts;			// number of non-null bins of each chromosome
+	private final double[] 	sums;			// sum of the non-null bins of each chromosome
+	private final double[] 	mins;			// smallest non-null bin of each chromosome
+	private final double[] 	maxs;			// greatest non-null bin of each chromosome
+	private final double[] 	means;			// mean of the non-null bins of each chromosome
+	private final double[] 	m2s;			// sum of the squared differences to the mean of the non-null bins of each chromosome
+	private final long 		genomeBinCount;	// number of bins of the genome
+	private final long 		genomeCount;	// number of non-null bins of the genome
+	private final double 	genomeSum;		// sum of the non-null bins of the genome
+	private final double 	genomeMin;		// smallest non-null bin of the genome
+	private final double 	genomeMax;		// greatest non-null bin of the genome
+	private final double 	genomeMean;		// mean of the non-null bins of the genome
+	private final double 	genomeM2;		// sum of the squared differences to the mean of the non-null bins of the genome
+
+
+	/**
+	 * The Accumulator class computes the statistics of chunks of bins and merges them.
+	 * The values are shifted by the first non-null value of the chunk before computing the sum of squares,
+	 * and the chunks are merged with the formulas of Chan et al. to limit the loss of precision of the variance.
+	 * The sum of the genome is the sum of the chunks in the order in which they are merged.
+	 * @author Julien Lajugie
+	 * @version 0.1
+	 */
+	static final class Accumulator {
+		private final long[] 	binCounts;		// number of bins of each chromosome
+		private final long[] 	counts;			// number of non-null bins of each chromosome
+		private final double[] 	sums;			// sum of the non-null bins of each chromosome
+		private final double[] 	mins;			// smallest non-null bin of each chromosome
+		private final double[] 	maxs;			// greatest non-null bin of each chromosome
+		private final double[] 	means;			// mean of the non-null bins of each chromosome
+		private final double[] 	m2s;			// sum of the squared differences to the mean of each chromosome
+		private double 			genomeSum = 0;	// sum of the chunks added and merged
+
+		/**
+		 * @param chromosomeCount Number of chromosomes.
+		 */
+		Accumulator(int chromosomeCount) {
+			binCounts = new long[chromosomeCount];
+			counts = new long[chromosomeCount];
+			sums = new double[chromosomeCount];
+			mins = new double[chromosomeCount];
+			maxs = new double[chromosomeCount];
+			means = new double[chromosomeCount];
+			m2s = new double[chromosomeCount];
+			for (int i = 0; i < chromosomeCount; i++) {
+				mins[i] = Double.POSITIVE_INFINITY;
+				maxs[i] = Double.NEGATIVE_INFINITY;
+			}
+		}
+
+		/**
+		 * Adds a chunk of bins.
+		 * @param chromo A chromosome.
+		 * @param data Bins of the chromosome.
+		 * @param start Index of the first bin of the chunk (included).
+		 * @param stop Index of the last bin of the chunk (excluded).
+		 */
+		void add(short chromo, BinArray data, int start, int stop) {
+			long count = 0;
+			double sum = 0;
+			double min = Double.POSITIVE_INFINITY;
+			double max = Double.NEGATIVE_INFINITY;
+			double shift = 0;
+			double shiftedSum = 0;
+			double shiftedSumOfSquares = 0;
+			for (int j = data.nextNonNullIndex(start); j < stop; j = data.nextNonNullIndex(j + 1)) {
+				double value = data.get(j);
+				if (value != 0) {
+					if (count == 0) {
+						shift = value;
+					}
+					count++;
+					sum += value;
+					min = Math.min(min, value);
+					max = Math.max(max, value);
+					shiftedSum += value - shift;
+					shiftedSumOfSquares += (value - shift) * (value - shift);
+				}
+			}
+			genomeSum += sum;
+			binCounts[chromo] += stop - start;
+			if (count > 0) {
+				double mean = shift + shiftedSum / count;
+				double m2 = Math.max(0, shiftedSumOfSquares - shiftedSum * shiftedSum / count);
+				merge(chromo, count, sum, min, max, mean, m2);
+			}
+		}
+
+		/**
+		 * Merges the statistics of non-null bins with the statistics of a chromosome.
+		 */
+		private void merge(int chromo, long count, double sum, double min, double max, double mean, double m2) {
+			if (counts[chromo] == 0) {
+				means[chromo] = mean;
+				m2s[chromo] = m2;
+			} else {
+				long totalCount = counts[chromo] + count;
+				double delta = mean - means[chromo];
+				means[chromo] += delta * count / totalCount;
+				m2s[chromo] += m2 + delta * delta * counts[chromo] * count / totalCount;
+			}
+			counts[chromo] += count;
+			sums[chromo] += sum;
+			mins[chromo] = Math.min(mins[chromo], min);
+			maxs[chromo] = Math.max(maxs[chromo], max);
+		}
+
+		/**
+		 * Merges the chunks of another accumulator. Its chunks follow the chunks of the current accumulator.
+		 * @param other An accumulator with the same number of chromosomes.
+		 * @return The current accumulator.
+		 */
+		Accumulator merge(Accumulator other) {
+			for (int i = 0; i < counts.length; i++) {
+				binCounts[i] += other.binCounts[i];
+				if (other.counts[i] > 0) {
+					merge(i, other.counts[i], other.sums[i], other.mins[i], other.maxs[i], other.means[i], other.m2s[i]);
+				}
+			}
+			genomeSum += other.genomeSum;
+			return this;
+		}
+	}
+
+
+	/**
+	 * Creates the statistics of the chunks of an accumulator.
+	 * @param accumulator An accumulator. The accumulator is copied.
+	 */
+	BinListStatistics(Accumulator accumulator) {
+		binCounts = accumulator.binCounts.clone();
+		counts = accumulator.counts.clone();
+		sums = accumulator.sums.clone();
+		mins = accumulator.mins.clone();
+		maxs = accumulator.maxs.clone();
+		means = accumulator.means.clone();
+		m2s = accumulator.m2s.clone();
+		// the chromosomes are merged like the chunks
+		Accumulator genome = new Accumulator(1);
+		for (int i = 0; i < counts.length; i++) {
+			genome.binCounts[0] += binCounts[i];
+			if (counts[i] > 0) {
+				genome.merge(0, counts[i], sums[i], mins[i], maxs[i], means[i], m2s[i]);
+			}
+		}
+		genomeBinCount = genome.binCounts[0];
+		genomeCount = genome.counts[0];
+		genomeSum = accumulator.genomeSum;
+		genomeMin = genome.mins[0];
+		genomeMax = genome.maxs[0];
+		genomeMean = genome.means[0];
+		genomeM2 = genome.m2s[0];
+	}
+
+
+	/**
+	 * @param min Smallest non-null value.
+	 * @param count Number of non-null bins.
+	 * @param binCount Number of bins.
+	 * @return The smallest value of the bins, NaN if there is no bin.
+	 */
+	private static double getMin(double min, long count, long binCount) {
+		if (binCount == 0) {
+			return Double.NaN;
+		}
+		return (count < binCount) ? Math.min(0, min) : min;
+	}
+
+
+	/**
+	 * @param max Greatest non-null value.
+	 * @param count Number of non-null bins.
+	 * @param binCount Number of bins.
+	 * @return The greatest value of the bins, NaN if there is no bin.
+	 */
+	private static double getMax(double max, long count, long binCount) {
+		if (binCount == 0) {
+			return Double.NaN;
+		}
+		return (count < binCount) ? Math.max(0, max) : max;
+	}
+
+
+	/**
+	 * @return The number of bins of the genome.
+	 */
+	public long getBinCount() {
+		return genomeBinCount;
+	}
+
+
+	/**
+	 * @return The number of non-null bins of the genome.
+	 */
+	public long getNonNullCount() {
+		return genomeCount;
+	}
+
+
+	/**
+	 * @return The sum of the bins of the genome.
+	 */
+	public double getSum() {
+		return genomeSum;
+	}
+
+
+	/**
+	 * @return The smallest value of the genome, NaN if there is no bin.
+	 */
+	public double getMin() {
+		return getMin(genomeMin, genomeCount, genomeBinCount);
+	}
+
+
+	/**
+	 * @return The greatest value of the genome, NaN if there is no bin.
+	 */
+	public double getMax() {
+		return getMax(genomeMax, genomeCount, genomeBinCount);
+	}
+
+
+	/**
+	 * @return The mean of the non-null bins of the genome, 0 if there is no non-null bin.
+	 */
+	public double getMean() {
+		return (genomeCount == 0) ? 0 : genomeSum / genomeCount;
+	}
+
+
+	/**
+	 * @return The variance of the non-null bins of the genome, 0 if there is no non-null bin.
+	 */
+	public double getVariance() {
+		return (genomeCount == 0) ? 0 : genomeM2 / genomeCount;
+	}
+
+
+	/**
+	 * @param chromo A chromosome.
+	 * @return The number of bins of the chromosome.
+	 */
+	public long getBinCount(short chromo) {
+		return binCounts[chromo];
+	}
+
+
+	/**
+	 * @param chromo A chromosome.
+	 * @return The number of non-null bins of the chromosome.
+	 */
+	public long getNonNullCount(short chromo) {
+		return counts[chromo];
+	}
+
+
+	/**
+	 * @param chromo A chromosome.
+	 * @return The sum of the bins of the chromosome.
+	 */
+	public double getSum(short chromo) {
+		return sums[chromo];
+	}
+
+
+	/**
+	 * @param chromo A chromosome.
+	 * @return The smallest value of the chromosome, NaN if the chromosome has no bin.
+	 */
+	public double getMin(short chromo) {
+		return getMin(mins[chromo], counts[chromo], binCounts[chromo]);
+	}
+
+
+	/**
+	 * @param chromo A chromosome.
+	 * @return The greatest value of the chromosome, NaN if the chromosome has no bin.
+	 */
+	public double getMax(short chromo) {
+		return getMax(maxs[chromo], counts[chromo], binCounts[chromo]);
+	}
+
+
+	/**
+	 * @param chromo A chromosome.
+	 * @return The mean of the non-null bins of the chromosome, 0 if there is no non-null bin.
+	 */
+	public double getMean(short chromo) {
+		return (counts[chromo] == 0) ? 0 : sums[chromo] / counts[chromo];
+	}
+
+
+	/**
+	 * @param chromo A chromosome.
+	 * @return The variance of the non-null bins of the chromosome, 0 if there is no non-null bin.
+	 */
+	public double getVariance(short chromo) {
+		return (counts[chromo] == 0) ? 0 : m2s[chromo] / counts[chromo];
+	}
+}
@@ -0,0 +1,156 @@
+/**
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+package gdpcore;
+
+/**
+ * The BinPyramid class summarizes the bins of a chromosome at several resolutions.
+ * The level <i>k</i> of the pyramid groups the bins by 2^(k + {@value #MIN_LEVEL_SHIFT}) and keeps
+ * the sum, the number, the smallest and the greatest value of the non-null bins of each group.
+ * The first level is computed from the bins and each other level from the previous one, in one pass.
+ * The finest level groups {@value #MIN_LEVEL_SIZE} bins so the pyramid uses about 1 byte per bin.
+ * <br/>A range of bins is aggregated from the largest groups of the pyramid aligned in the range,
+ * and from the bins at the ends of the range that don't fill a group of the first level.
+ * The aggregation of a range reads O(log(length) + {@value #MIN_LEVEL_SIZE}) values, whatever its length.
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+final class BinPyramid {
+	static final int 	MIN_LEVEL_SHIFT = 6;					// log2 of the number of bins of a group of the first level
+	static final int 	MIN_LEVEL_SIZE = 1 << MIN_LEVEL_SHIFT;	// number of bins of a group of the first level
+	private final BinArray 		data;		// bins of the chromosome
+	private final double[][] 	sums;		// sum of the non-null bins of each group of each level
+	private final int[][] 		counts;		// number of non-null bins of each group of each level
+	private final double[][] 	mins;		// smallest non-null bin of each group of each level, +infinity if none
+	private final double[][] 	maxs;		// greatest non-null bin of each group of each level, -infinity if none
+
+
+	/**
+	 * Builds the pyramid of a chromosome.
+	 * @param data Bins of the chromosome. The array is not copied and must not be modified.
+	 */
+	BinPyramid(BinArray data) {
+		this.data = data;
+		int levelCount = 0;
+		for (long groupSize = MIN_LEVEL_SIZE; groupSize < 2L * data.size(); groupSize *= 2) {
+			levelCount++;
+		}
+		sums = new double[levelCount][];
+		counts = new int[levelCount][];
+		mins = new double[levelCount][];
+		maxs = new double[levelCount][];
+		for (int level = 0; level < levelCount; level++) {
+			int groupCount = (int) ((data.size() + (1L << (level + MIN_LEVEL_SHIFT)) - 1) >>> (level + MIN_LEVEL_SHIFT));
+			sums[level] = new double[groupCount];
+			counts[level] = new int[groupCount];
+			mins[level] = new double[groupCount];
+			maxs[level] = new double[groupCount];
+			for (int i = 0; i < groupCount; i++) {
+				if (level == 0) {
+					computeGroup(i);
+				} else {
+					mergeGroups(level, i);
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Computes a group of the first level from the bins.
+	 * @param group Index of the group.
+	 */
+	private void computeGroup(int group) {
+		double sum = 0;
+		int count = 0;
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		int stop = (int) Math.min(data.size(), (long) (group + 1) * MIN_LEVEL_SIZE);
+		for (int j = data.nextNonNullIndex(group * MIN_LEVEL_SIZE); j < stop; j = data.nextNonNullIndex(j + 1)) {
+			double value = data.get(j);
+			if (value != 0) {
+				sum += value;
+				count++;
+				min = Math.min(min, value);
+				max = Math.max(max, value);
+			}
+		}
+		sums[0][group] = sum;
+		counts[0][group] = count;
+		mins[0][group] = min;
+		maxs[0][group] = max;
+	}
+
+
+	/**
+	 * Computes a group from the two groups of the previous level that it contains.
+	 * @param level A level greater than 0.
+	 * @param group Index of the group in the level.
+	 */
+	private void mergeGroups(int level, int group) {
+		int first = 2 * group;
+		int second = first + 1;
+		sums[level][group] = sums[level - 1][first];
+		counts[level][group] = counts[level - 1][first];
+		mins[level][group] = mins[level - 1][first];
+		maxs[level][group] = maxs[level - 1][first];
+		if (second < sums[level - 1].length) {
+			sums[level][group] += sums[level - 1][second];
+			counts[level][group] += counts[level - 1][second];
+			mins[level][group] = Math.min(mins[level][group], mins[level - 1][second]);
+			maxs[level][group] = Math.max(maxs[level][group], maxs[level - 1][second]);
+		}
+	}
+
+
+	/**
+	 * Aggregates the non-null bins of a range.
+	 * @param start Index of the first bin (included).
+	 * @param stop Index of the last bin (excluded).
+	 * @param result Array receiving the sum, the number, the smallest and the greatest value of the non-null bins
+	 * of the range. The smallest and greatest values are infinite if the range has no non-null bins.
+	 */
+	void aggregate(int start, int stop, double[] result) {
+		stop = Math.min(stop, data.size());
+		double sum = 0;
+		long count = 0;
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		int j = Math.max(0, start);
+		while (j < stop) {
+			// largest group starting at j and contained in the range
+			int level = -1;
+			while ((level + 1 < sums.length)
+					&& ((j & ((1 << (level + 1 + MIN_LEVEL_SHIFT)) - 1)) == 0)
+					&& (Math.min(data.size(), (long) j + (1L << (level + 1 + MIN_LEVEL_SHIFT))) <= stop)) {
+				level++;
+			}
+			if (level >= 0) {
+				int group = j >>> (level + MIN_LEVEL_SHIFT);
+				sum += sums[level][group];
+				count += counts[level][group];
+				min = Math.min(min, mins[level][group]);
+				max = Math.max(max, maxs[level][group]);
+				j = (int) Math.min(stop, (long) j + (1L << (level + MIN_LEVEL_SHIFT)));
+			} else {
+				// the bins that don't fill a group of the first level are read
+				int groupStop = (int) Math.min(stop, ((long) j + MIN_LEVEL_SIZE) & ~(MIN_LEVEL_SIZE - 1));
+				for (j = data.nextNonNullIndex(j); j < groupStop; j = data.nextNonNullIndex(j + 1)) {
+					double value = data.get(j);
+					if (value != 0) {
+						sum += value;
+						count++;
+						min = Math.min(min, value);
+						max = Math.max(max, value);
+					}
+				}
+				j = groupStop;
+			}
+		}
+		result[0] = sum;
+		result[1] = count;
+		result[2] = min;
+		result[3] = max;
+	}
+}
@@ -14,12 +14,19 @@ import java.util.ArrayList;
 
 /**
  * The ChromosomeList class provides tools to configure the chromosomes.
+ * The chromosomes are indexed in a case insensitive hash table. Each chromosome
+ * can also be found using an alias: the name with or without the "chr" prefix,
+ * M or MT for the mitochondrial chromosome, and the aliases of the optional third 
+ * column of the configuration file (comma separated).
  * @author Julien Lajugie
  * @version 0.1
  */
 public final class ChromosomeList {
 
 	private ArrayList<Chromosome> chromosomeArray;	// List of chromosomes
+	private byte[][] 	hashKeys;		// lower case names and aliases of the chromosomes
+	private short[] 	hashIndexes;	// index of the chromosome associated to each key
+	private int 		hashKeyCount;	// number of keys in the hash table
 
 	/**
 	 * Constructor. Creates a list of chromosomes from a configuration file.
@@ -33,13 +40,128 @@ public final class ChromosomeList {
 		// extract data
 		chromosomeArray = new ArrayList<Chromosome>();
 		String line = null;
+		ArrayList<String[]> aliasList = new ArrayList<String[]>();
 		while((line = reader.readLine()) != null) {
 			String[] splitedLine = line.split("\t");
 			String name = splitedLine[0].trim();
 			int length = Integer.parseInt(splitedLine[1].trim());
 			chromosomeArray.add(new Chromosome(name, length));			
+			aliasList.add((splitedLine.length > 2) ? splitedLine[2].split(",") : null);
 		}
 		reader.close();
+		// the names have priority over the aliases
+		hashKeys = new byte[16][];
+		hashIndexes = new short[16];
+		hashKeyCount = 0;
+		for (short i = 0; i < chromosomeArray.size(); i++) {
+			addAlias(chromosomeArray.get(i).getName(), i);
+		}
+		for (short i = 0; i < chromosomeArray.size(); i++) {
+			if (aliasList.get(i) != null) {
+				for (String alias: aliasList.get(i)) {
+					addAlias(alias, i);
+				}
+			}
+		}
+		for (short i = 0; i < chromosomeArray.size(); i++) {
+			addDefaultAliases(chromosomeArray.get(i).getName(), i);
+		}
+	}
+
+
+	/**
+	 * Adds the aliases with and without "chr" prefix and the M / MT aliases of a chromosome.
+	 * @param name Name of the chromosome.
+	 * @param index Index of the chromosome.
+	 */
+	private void addDefaultAliases(String name, short index) {
+		String shortName = name;
+		if ((name.length() > 3) && name.regionMatches(true, 0, "chr", 0, 3)) {
+			shortName = name.substring(3);
+		} else {
+			addAlias("chr" + name, index);
+		}
+		addAlias(shortName, index);
+		if (shortName.equalsIgnoreCase("M")) {
+			addAlias("MT", index);
+			addAlias("chrMT", index);
+		} else if (shortName.equalsIgnoreCase("MT")) {
+			addAlias("M", index);
+			addAlias("chrM", index);
+		}
+	}
+
+
+	/**
+	 * Adds an alias for a chromosome. 
+	 * Nothing is done if the alias is already used by a chromosome.
+	 * @param alias Alternative name of the chromosome (case insensitive).
+	 * @param index Index of the chromosome.
+	 */
+	public void addAlias(String alias, short index) {
+		alias = alias.trim();
+		if ((alias.length() == 0) || (getIndex(alias) != -1)) {
+			return;
+		}
+		// the table is kept at most half full
+		if ((hashKeyCount + 1) * 2 > hashKeys.length) {
+			byte[][] oldKeys = hashKeys;
+			short[] oldIndexes = hashIndexes;
+			hashKeys = new byte[oldKeys.length * 2][];
+			hashIndexes = new short[oldKeys.length * 2];
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldKeys[i] != null) {
+					insert(oldKeys[i], oldIndexes[i]);
+				}
+			}
+		}
+		byte[] key = new byte[alias.length()];
+		for (int i = 0; i < key.length; i++) {
+			if (alias.charAt(i) > 127) {
+				// only the ASCII names can be indexed
+				return;
+			}
+			key[i] = (byte) toLowerCase(alias.charAt(i));
+		}
+		insert(key, index);
+		hashKeyCount++;
+	}
+
+
+	/**
+	 * Inserts a key in the first free slot of the hash table.
+	 * @param key Lower case key.
+	 * @param index Index of the chromosome.
+	 */
+	private void insert(byte[] key, short index) {
+		int hash = 0;
+		for (byte b: key) {
+			hash = 31 * hash + b;
+		}
+		int slot = mix(hash) & (hashKeys.length - 1);
+		while (hashKeys[slot] != null) {
+			slot = (slot + 1) & (hashKeys.length - 1);
+		}
+		hashKeys[slot] = key;
+		hashIndexes[slot] = index;
+	}
+
+
+	/**
+	 * @param hash A hash code.
+	 * @return The hash code with the high bits spread to the low bits.
+	 */
+	private static int mix(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+
+	/**
+	 * @param c A character.
+	 * @return The lower case of the character if it's an ASCII upper case letter, the character otherwise.
+	 */
+	private static int toLowerCase(int c) {
+		return ((c >= 'A') && (c <= 'Z')) ? c + ('a' - 'A') : c;
 	}
 
 
@@ -49,11 +171,79 @@ public final class ChromosomeList {
 	 */
 	public short getIndex(String chromosomeName) {
 		if ((chromosomeName != null) && (chromosomeName.length() > 0) && (chromosomeArray != null)) {
-			for (short i = 0; i < chromosomeArray.size(); i++) {
-				if (chromosomeArray.get(i).getName().equalsIgnoreCase(chromosomeName.trim())) {
-					return i;
+			// same as String.trim
+			int start = 0;
+			int stop = chromosomeName.length();
+			while ((start < stop) && (chromosomeName.charAt(start) <= ' ')) {
+				start++;
+			}
+			while ((stop > start) && (chromosomeName.charAt(stop - 1) <= ' ')) {
+				stop--;
+			}
+			int hash = 0;
+			for (int i = start; i < stop; i++) {
+				char c = chromosomeName.charAt(i);
+				if (c > 127) {
+					// the keys only contain ASCII characters
+					return -1;
+				}
+				hash = 31 * hash + toLowerCase(c);
+			}
+			int slot = mix(hash) & (hashKeys.length - 1);
+			while (hashKeys[slot] != null) {
+				byte[] key = hashKeys[slot];
+				if (key.length == stop - start) {
+					int i = 0;
+					while ((i < key.length) && (key[i] == toLowerCase(chromosomeName.charAt(start + i)))) {
+						i++;
+					}
+					if (i == key.length) {
+						return hashIndexes[slot];
+					}
+				}
+				slot = (slot + 1) & (hashKeys.length - 1);
+			}
+		}
+		// If nothing has been found
+		return -1;
+	}
+
+
+	/**
+	 * Returns the index of a chromosome from the bytes of its name.
+	 * This method doesn't create any object so it can be called for each line of a file.
+	 * @param buffer Buffer containing the name of a chromosome.
+	 * @param start Index of the first byte of the name.
+	 * @param stop Index of the byte following the name.
+	 * @return The index of this chromosome. -1 if not found.
+	 */
+	public short getIndex(byte[] buffer, int start, int stop) {
+		while ((start < stop) && (buffer[start] <= ' ') && (buffer[start] >= 0)) {
+			start++;
+		}
+		while ((stop > start) && (buffer[stop - 1] <= ' ') && (buffer[stop - 1] >= 0)) {
+			stop--;
+		}
+		if ((start == stop) || (chromosomeArray == null)) {
+			return -1;
+		}
+		int hash = 0;
+		for (int i = start; i < stop; i++) {
+			hash = 31 * hash + toLowerCase(buffer[i]);
+		}
+		int slot = mix(hash) & (hashKeys.length - 1);
+		while (hashKeys[slot] != null) {
+			byte[] key = hashKeys[slot];
+			if (key.length == stop - start) {
+				int i = 0;
+				while ((i < key.length) && (key[i] == toLowerCase(buffer[start + i]))) {
+					i++;
+				}
+				if (i == key.length) {
+					return hashIndexes[slot];
 				}
 			}
+			slot = (slot + 1) & (hashKeys.length - 1);
 		}
 		// If nothing has been found
 		return -1;
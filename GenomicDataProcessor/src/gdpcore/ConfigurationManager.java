@@ -5,6 +5,8 @@
 package gdpcore;
 
 import gdpcore.BinList.IntensityCalculation;
+import gdpcore.BinList.Precision;
+import gdpcore.BinList.Storage;
 import gdpgui.GdpBinListTrack.GraphicsType;
 
 import java.io.BufferedReader;
@@ -35,6 +37,14 @@ public final class ConfigurationManager implements Cloneable {
 	private String	bedGraphLogFile = "log.txt";				// Default bedGraph log file
 	private IntensityCalculation criterionOfCalculation =
 		IntensityCalculation.average; 							// Default way of calculating the intensity of a NimbleGene file
+	private int 	extractionThreadCount = Runtime.getRuntime().availableProcessors();	// Number of threads used to extract a file
+	private String	extractionCacheDirectory = "cache";		// Directory of the extraction cache
+	private int 	extractionCacheMaxSize = 1024;			// Maximum size of the extraction cache in MB, 0 to disable the cache
+	private int 	batchLoaderThreadCount = 2;				// Number of files loaded simultaneously by the batch loader
+	private int 	operationThreadCount = Runtime.getRuntime().availableProcessors();	// Number of threads used by the operations on the BinLists
+	private Storage	binListStorage = Storage.heap;			// Storage of the bins of the BinLists
+	private String	binListStorageDirectory = "storage";	// Directory of the memory-mapped files of the BinLists
+	private Precision	binListPrecision = Precision.float64;	// Precision of the intensities of the extracted files
 	private int 	gdpMainFramePreferredWidth = 800;			// Preferred width of the main frame
 	private int 	gdpMainFramePreferredHeight = 600;			// Preferred height of the main frame
 	private int 	gdpMainFrameMinWidth = 600;					// Minimum width of the main frame
@@ -95,8 +105,15 @@ public final class ConfigurationManager implements Cloneable {
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
+		result = prime * result + batchLoaderThreadCount;
 		result = prime * result
 				+ ((bedGraphLogFile == null) ? 0 : bedGraphLogFile.hashCode());
+		result = prime * result
+				+ ((binListPrecision == null) ? 0 : binListPrecision.hashCode());
+		result = prime * result
+				+ ((binListStorage == null) ? 0 : binListStorage.hashCode());
+		result = prime * result
+				+ ((binListStorageDirectory == null) ? 0 : binListStorageDirectory.hashCode());
 		result = prime
 				* result
 				+ ((chromoConfigFile == null) ? 0 : chromoConfigFile.hashCode());
@@ -104,6 +121,10 @@ public final class ConfigurationManager implements Cloneable {
 				* result
 				+ ((criterionOfCalculation == null) ? 0
 						: criterionOfCalculation.hashCode());
+		result = prime * result
+				+ ((extractionCacheDirectory == null) ? 0 : extractionCacheDirectory.hashCode());
+		result = prime * result + extractionCacheMaxSize;
+		result = prime * result + extractionThreadCount;
 		result = prime * result + gdpConfigMinimumSplitWidth;
 		result = prime * result + gdpConfigPreferredHeight;
 		result = prime * result + gdpConfigPreferredWidth;
@@ -139,6 +160,7 @@ public final class ConfigurationManager implements Cloneable {
 				+ ((lookAndFeel == null) ? 0 : lookAndFeel.hashCode());
 		result = prime * result
 				+ ((nimbleLogFile == null) ? 0 : nimbleLogFile.hashCode());
+		result = prime * result + operationThreadCount;
 		result = prime * result
 				+ ((solexaLogFile == null) ? 0 : solexaLogFile.hashCode());
 		result = prime * result
@@ -160,11 +182,28 @@ public final class ConfigurationManager implements Cloneable {
 		if (getClass() != obj.getClass())
 			return false;
 		ConfigurationManager other = (ConfigurationManager) obj;
+		if (batchLoaderThreadCount != other.batchLoaderThreadCount)
+			return false;
 		if (bedGraphLogFile == null) {
 			if (other.bedGraphLogFile != null)
 				return false;
 		} else if (!bedGraphLogFile.equals(other.bedGraphLogFile))
 			return false;
+		if (binListPrecision == null) {
+			if (other.binListPrecision != null)
+				return false;
+		} else if (!binListPrecision.equals(other.binListPrecision))
+			return false;
+		if (binListStorage == null) {
+			if (other.binListStorage != null)
+				return false;
+		} else if (!binListStorage.equals(other.binListStorage))
+			return false;
+		if (binListStorageDirectory == null) {
+			if (other.binListStorageDirectory != null)
+				return false;
+		} else if (!binListStorageDirectory.equals(other.binListStorageDirectory))
+			return false;
 		if (chromoConfigFile == null) {
 			if (other.chromoConfigFile != null)
 				return false;
@@ -175,6 +214,15 @@ public final class ConfigurationManager implements Cloneable {
 				return false;
 		} else if (!criterionOfCalculation.equals(other.criterionOfCalculation))
 			return false;
+		if (extractionCacheDirectory == null) {
+			if (other.extractionCacheDirectory != null)
+				return false;
+		} else if (!extractionCacheDirectory.equals(other.extractionCacheDirectory))
+			return false;
+		if (extractionCacheMaxSize != other.extractionCacheMaxSize)
+			return false;
+		if (extractionThreadCount != other.extractionThreadCount)
+			return false;
 		if (gdpConfigMinimumSplitWidth != other.gdpConfigMinimumSplitWidth)
 			return false;
 		if (gdpConfigPreferredHeight != other.gdpConfigPreferredHeight)
@@ -243,6 +291,8 @@ public final class ConfigurationManager implements Cloneable {
 				return false;
 		} else if (!nimbleLogFile.equals(other.nimbleLogFile))
 			return false;
+		if (operationThreadCount != other.operationThreadCount)
+			return false;
 		if (solexaLogFile == null) {
 			if (other.solexaLogFile != null)
 				return false;
@@ -283,6 +333,22 @@ public final class ConfigurationManager implements Cloneable {
 		writer.newLine();
 		writer.write("criterionOfCalculation\t" + criterionOfCalculation);
 		writer.newLine();
+		writer.write("extractionThreadCount\t" + extractionThreadCount);
+		writer.newLine();
+		writer.write("extractionCacheDirectory\t" + extractionCacheDirectory);
+		writer.newLine();
+		writer.write("extractionCacheMaxSize\t" + extractionCacheMaxSize);
+		writer.newLine();
+		writer.write("batchLoaderThreadCount\t" + batchLoaderThreadCount);
+		writer.newLine();
+		writer.write("operationThreadCount\t" + operationThreadCount);
+		writer.newLine();
+		writer.write("binListStorage\t" + binListStorage.name());
+		writer.newLine();
+		writer.write("binListStorageDirectory\t" + binListStorageDirectory);
+		writer.newLine();
+		writer.write("binListPrecision\t" + binListPrecision.name());
+		writer.newLine();
 		writer.write("gdpMainFramePreferredWidth\t" + gdpMainFramePreferredWidth);
 		writer.newLine();
 		writer.write("gdpMainFramePreferredHeight\t" + gdpMainFramePreferredHeight);
@@ -395,6 +461,22 @@ public final class ConfigurationManager implements Cloneable {
 			} else if (value.equals(BinList.IntensityCalculation.sum.toString())) {
 				criterionOfCalculation = IntensityCalculation.sum;
 			}
+		} else if (field.equals("extractionThreadCount")) {
+			extractionThreadCount = Integer.parseInt(value);
+		} else if (field.equals("extractionCacheDirectory")) {
+			extractionCacheDirectory = value;
+		} else if (field.equals("extractionCacheMaxSize")) {
+			extractionCacheMaxSize = Integer.parseInt(value);
+		} else if (field.equals("batchLoaderThreadCount")) {
+			batchLoaderThreadCount = Integer.parseInt(value);
+		} else if (field.equals("operationThreadCount")) {
+			operationThreadCount = Integer.parseInt(value);
+		} else if (field.equals("binListStorage")) {
+			binListStorage = Storage.valueOf(value);
+		} else if (field.equals("binListStorageDirectory")) {
+			binListStorageDirectory = value;
+		} else if (field.equals("binListPrecision")) {
+			binListPrecision = Precision.valueOf(value);
 		} else if (field.equals("gdpMainFramePreferredWidth")) {
 			gdpMainFramePreferredWidth = Integer.parseInt(value);
 		} else if (field.equals("gdpMainFramePreferredHeight")) {
@@ -588,6 +670,134 @@ public final class ConfigurationManager implements Cloneable {
 	}
 	
 	
+	/**
+	 * @return the extractionThreadCount
+	 */
+	public final int getExtractionThreadCount() {
+		return extractionThreadCount;
+	}
+	
+	
+	/**
+	 * @param extractionThreadCount the extractionThreadCount to set
+	 */
+	public final void setExtractionThreadCount(int extractionThreadCount) {
+		this.extractionThreadCount = extractionThreadCount;
+	}
+	
+	
+	/**
+	 * @return the extractionCacheDirectory
+	 */
+	public final String getExtractionCacheDirectory() {
+		return extractionCacheDirectory;
+	}
+	
+	
+	/**
+	 * @param extractionCacheDirectory the extractionCacheDirectory to set
+	 */
+	public final void setExtractionCacheDirectory(String extractionCacheDirectory) {
+		this.extractionCacheDirectory = extractionCacheDirectory;
+	}
+	
+	
+	/**
+	 * @return the extractionCacheMaxSize
+	 */
+	public final int getExtractionCacheMaxSize() {
+		return extractionCacheMaxSize;
+	}
+	
+	
+	/**
+	 * @param extractionCacheMaxSize the extractionCacheMaxSize to set
+	 */
+	public final void setExtractionCacheMaxSize(int extractionCacheMaxSize) {
+		this.extractionCacheMaxSize = extractionCacheMaxSize;
+	}
+	
+	
+	/**
+	 * @return the batchLoaderThreadCount
+	 */
+	public final int getBatchLoaderThreadCount() {
+		return batchLoaderThreadCount;
+	}
+	
+	
+	/**
+	 * @param batchLoaderThreadCount the batchLoaderThreadCount to set
+	 */
+	public final void setBatchLoaderThreadCount(int batchLoaderThreadCount) {
+		this.batchLoaderThreadCount = batchLoaderThreadCount;
+	}
+	
+	
+	/**
+	 * @return the operationThreadCount
+	 */
+	public final int getOperationThreadCount() {
+		return operationThreadCount;
+	}
+	
+	
+	/**
+	 * @param operationThreadCount the operationThreadCount to set
+	 */
+	public final void setOperationThreadCount(int operationThreadCount) {
+		this.operationThreadCount = operationThreadCount;
+	}
+	
+	
+	/**
+	 * @return the binListStorage
+	 */
+	public final Storage getBinListStorage() {
+		return binListStorage;
+	}
+	
+	
+	/**
+	 * @param binListStorage the binListStorage to set
+	 */
+	public final void setBinListStorage(Storage binListStorage) {
+		this.binListStorage = binListStorage;
+	}
+	
+	
+	/**
+	 * @return the binListStorageDirectory
+	 */
+	public final String getBinListStorageDirectory() {
+		return binListStorageDirectory;
+	}
+	
+	
+	/**
+	 * @param binListStorageDirectory the binListStorageDirectory to set
+	 */
+	public final void setBinListStorageDirectory(String binListStorageDirectory) {
+		this.binListStorageDirectory = binListStorageDirectory;
+	}
+	
+	
+	/**
+	 * @return the binListPrecision
+	 */
+	public final Precision getBinListPrecision() {
+		return binListPrecision;
+	}
+	
+	
+	/**
+	 * @param binListPrecision the binListPrecision to set
+	 */
+	public final void setBinListPrecision(Precision binListPrecision) {
+		this.binListPrecision = binListPrecision;
+	}
+	
+	
 	/**
 	 * @return the gdpMainFramePreferredWidth
 	 */
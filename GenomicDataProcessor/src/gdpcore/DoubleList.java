@@ -0,0 +1,108 @@
+/**
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+package gdpcore;
+
+import java.util.Arrays;
+
+/**
+ * The DoubleList class provides a growable list of primitive doubles.
+ * It's used to store the intensities extracted from a file without boxing.
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+public final class DoubleList {
+	private static final int DEFAULT_CAPACITY = 16; // default capacity of the list
+	private double[] data; // elements of the list
+	private int size; // number of elements in the list
+
+
+	/**
+	 * Creates an empty DoubleList.
+	 */
+	public DoubleList() {
+		this(DEFAULT_CAPACITY);
+	}
+
+
+	/**
+	 * Creates an empty DoubleList with the specified initial capacity.
+	 * @param initialCapacity Initial capacity of the list.
+	 */
+	public DoubleList(int initialCapacity) {
+		data = new double[Math.max(1, initialCapacity)];
+		size = 0;
+	}
+
+
+	/**
+	 * Increases the capacity of the list if needed.
+	 * @param minCapacity Minimum capacity needed.
+	 */
+	private void ensureCapacity(int minCapacity) {
+		if (minCapacity > data.length) {
+			int newCapacity = Math.max(minCapacity, data.length + (data.length >> 1) + 1);
+			data = Arrays.copyOf(data, newCapacity);
+		}
+	}
+
+
+	/**
+	 * Appends an element at the end of the list.
+	 * @param value Value to add.
+	 */
+	public void add(double value) {
+		if (size == data.length) {
+			ensureCapacity(size + 1);
+		}
+		data[size++] = value;
+	}
+
+
+	/**
+	 * Appends all the elements of another list at the end of the list.
+	 * @param list List to add.
+	 */
+	public void addAll(DoubleList list) {
+		ensureCapacity(size + list.size);
+		System.arraycopy(list.data, 0, data, size, list.size);
+		size += list.size;
+	}
+
+
+	/**
+	 * @param index Index of an element.
+	 * @return The element at the specified index.
+	 */
+	public double get(int index) {
+		if (index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		return data[index];
+	}
+
+
+	/**
+	 * @return The number of elements in the list.
+	 */
+	public int size() {
+		return size;
+	}
+
+
+	/**
+	 * Removes all the elements of the list.
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+
+	/**
+	 * @return An array containing the elements of the list.
+	 */
+	public double[] toArray() {
+		return Arrays.copyOf(data, size);
+	}
+}
@@ -0,0 +1,129 @@
+/**
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+package gdpcore;
+
+import gdpcore.BinList.Precision;
+
+/**
+ * The ElementKernels class computes the element-wise operations of the BinLists on blocks of values.
+ * The bins of a dense {@link BinArray} are copied by blocks of {@value #BLOCK_SIZE} doubles
+ * (see {@link BinArray#get(int, int, double[])}), the kernel is applied on the block and the block is written back.
+ * The loops of the kernels have no calls and no branches that can't be compiled as conditional moves,
+ * so the JIT compiler can vectorize them. The non-null bins of the sparse arrays are gathered in blocks
+ * for the pending operations of the BinLists (see {@link BinList}). 
+ * The subtractions and the divisions of sparse arrays keep their scalar loops.
+ * The null values stay null: a kernel returns 0 for a null value when the operation is not defined for 0.
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+final class ElementKernels {
+	static final int 	BLOCK_SIZE = 4096;			// number of values of a block
+	static final double LN2 = Math.log(2);			// natural logarithm of 2
+
+
+	/**
+	 * Private constructor. The class only contains static methods.
+	 */
+	private ElementKernels() {}
+
+
+	/**
+	 * values[i] = values[i] + constant
+	 * @param values A block of values.
+	 * @param length Number of values of the block.
+	 * @param constant A constant.
+	 */
+	static void add(double[] values, int length, double constant) {
+		for (int i = 0; i < length; i++) {
+			values[i] += constant;
+		}
+	}
+
+
+	/**
+	 * values[i] = values[i] * factor
+	 * @param values A block of values.
+	 * @param length Number of values of the block.
+	 * @param factor A factor.
+	 */
+	static void multiply(double[] values, int length, double factor) {
+		for (int i = 0; i < length; i++) {
+			values[i] *= factor;
+		}
+	}
+
+
+	/**
+	 * values1[i] = values1[i] - values2[i]
+	 * @param values1 A block of values receiving the result.
+	 * @param values2 A block of values.
+	 * @param length Number of values of the blocks.
+	 */
+	static void subtract(double[] values1, double[] values2, int length) {
+		for (int i = 0; i < length; i++) {
+			values1[i] -= values2[i];
+		}
+	}
+
+
+	/**
+	 * values1[i] = coeff * values1[i] / values2[i] if values2[i] > 0 and if values1[i] or values2[i]
+	 * is greater or equal to <i>filter</i>, 0 otherwise.
+	 * @param values1 A block of values receiving the result.
+	 * @param values2 A block of values.
+	 * @param length Number of values of the blocks.
+	 * @param coeff A factor.
+	 * @param filter Smallest value of one of the two values for the division to be computed.
+	 */
+	static void divide(double[] values1, double[] values2, int length, double coeff, double filter) {
+		for (int i = 0; i < length; i++) {
+			boolean computed = (values2[i] > 0) && ((values2[i] >= filter) || (values1[i] >= filter));
+			values1[i] = computed ? coeff * values1[i] / values2[i] : 0;
+		}
+	}
+
+
+	/**
+	 * values[i] = log2(values[i] + damper) - offset if values[i] is not null, 0 otherwise.
+	 * @param values A block of values.
+	 * @param length Number of values of the block.
+	 * @param damper Value added before the logarithm.
+	 * @param offset Value subtracted from the logarithm.
+	 */
+	static void log2(double[] values, int length, double damper, double offset) {
+		for (int i = 0; i < length; i++) {
+			values[i] = (values[i] != 0) ? Math.log(values[i] + damper) / LN2 - offset : 0;
+		}
+	}
+
+
+	/**
+	 * values[i] = values[i] rounded to the precision
+	 * @param values A block of values.
+	 * @param length Number of values of the block.
+	 * @param precision A precision.
+	 */
+	static void round(double[] values, int length, Precision precision) {
+		switch (precision) {
+		case int16:
+			for (int i = 0; i < length; i++) {
+				values[i] = (short) Math.round(values[i]);
+			}
+			break;
+		case int32:
+			for (int i = 0; i < length; i++) {
+				values[i] = (int) Math.round(values[i]);
+			}
+			break;
+		case float32:
+			for (int i = 0; i < length; i++) {
+				values[i] = (float) values[i];
+			}
+			break;
+		default:
+			break;
+		}
+	}
+}
@@ -0,0 +1,229 @@
+/**
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+package gdpcore;
+
+import gdpcore.BinList.Precision;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The ElementKernelsBenchmark class compares the element-wise operations computed by blocks
+ * with the kernels of {@link ElementKernels} and the same operations computed bin per bin
+ * with {@link BinArray#get(int)} and {@link BinArray#set(int, double)}.
+ * The bins are generated from a fixed seed and both versions write their result in a separate array
+ * like the operations of the BinLists. The checksums of the results of both versions are printed.
+ * Before the measures, both versions run on arrays of every precision so the calls of get and set see
+ * all the types of arrays, like in the application.
+ * Usage: java gdpcore.ElementKernelsBenchmark [binCount] [iterationCount]
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+public final class ElementKernelsBenchmark {
+	private static final long 	SEED = 42;				// seed of the generated bins
+	private static final int 	WARMUP_ITERATIONS = 5;	// number of iterations run before the measures
+
+
+	/**
+	 * Element-wise operation computed from one or two source arrays in a result array.
+	 * @author Julien Lajugie
+	 * @version 0.1
+	 */
+	private interface Operation {
+		/**
+		 * Computes the operation bin per bin.
+		 * @param source1 First source array.
+		 * @param source2 Second source array.
+		 * @param result Array receiving the result.
+		 */
+		public void computePerBin(BinArray source1, BinArray source2, BinArray result);
+
+		/**
+		 * Computes the operation on a block of values with a kernel.
+		 * @param values1 Block of the first source array receiving the result.
+		 * @param values2 Block of the second source array.
+		 * @param length Number of values of the blocks.
+		 */
+		public void computeBlock(double[] values1, double[] values2, int length);
+	}
+
+
+	/**
+	 * Private constructor. The class only contains static methods.
+	 */
+	private ElementKernelsBenchmark() {}
+
+
+	/**
+	 * Generates an array of bins with 30% of null bins.
+	 * @param precision Precision of the array.
+	 * @param binCount Number of bins.
+	 * @param random Generator of the values.
+	 * @return A dense array of bins.
+	 */
+	private static BinArray generateBins(Precision precision, int binCount, Random random) {
+		BinArray bins = BinArray.create(precision, binCount);
+		for (int i = 0; i < binCount; i++) {
+			bins.set(i, (random.nextInt(10) < 3) ? 0 : random.nextDouble() * 1000);
+		}
+		return bins;
+	}
+
+
+	/**
+	 * Computes an operation by blocks like the operations of the BinLists.
+	 * @param operation An operation.
+	 * @param source1 First source array.
+	 * @param source2 Second source array.
+	 * @param result Array receiving the result.
+	 */
+	private static void computeByBlocks(Operation operation, BinArray source1, BinArray source2, BinArray result) {
+		double[] values1 = new double[ElementKernels.BLOCK_SIZE];
+		double[] values2 = new double[ElementKernels.BLOCK_SIZE];
+		for (int blockStart = 0; blockStart < result.size(); blockStart += ElementKernels.BLOCK_SIZE) {
+			int blockStop = Math.min(blockStart + ElementKernels.BLOCK_SIZE, result.size());
+			source1.get(blockStart, blockStop, values1);
+			source2.get(blockStart, blockStop, values2);
+			operation.computeBlock(values1, values2, blockStop - blockStart);
+			result.set(blockStart, blockStop, values1);
+		}
+	}
+
+
+	/**
+	 * @param bins An array of bins.
+	 * @return The sum of the bins.
+	 */
+	private static double checksum(BinArray bins) {
+		double sum = 0;
+		for (int i = 0; i < bins.size(); i++) {
+			sum += bins.get(i);
+		}
+		return sum;
+	}
+
+
+	/**
+	 * Measures one version of an operation and prints the median time of the iterations.
+	 * @param name Name of the operation.
+	 * @param operation An operation.
+	 * @param blocks True to measure the kernels, false to measure the version bin per bin.
+	 * @param source1 First source array.
+	 * @param source2 Second source array.
+	 * @param result Array receiving the result.
+	 * @param iterationCount Number of measured iterations.
+	 */
+	private static void measure(String name, Operation operation, boolean blocks, BinArray source1, BinArray source2, BinArray result, int iterationCount) {
+		long[] times = new long[iterationCount];
+		for (int i = -WARMUP_ITERATIONS; i < iterationCount; i++) {
+			long start = System.nanoTime();
+			if (blocks) {
+				computeByBlocks(operation, source1, source2, result);
+			} else {
+				operation.computePerBin(source1, source2, result);
+			}
+			if (i >= 0) {
+				times[i] = System.nanoTime() - start;
+			}
+		}
+		Arrays.sort(times);
+		System.out.println(result.getPrecision() + "\t" + name + "\t" + (blocks ? "blocks " : "per bin")
+				+ "\tmedian: " + (times[iterationCount / 2] / 1e6) + " ms\tchecksum: " + checksum(result));
+	}
+
+
+	/**
+	 * @param args Number of bins (default 8388608), number of measured iterations (default 10).
+	 */
+	public static void main(String[] args) {
+		try {
+			int binCount = (args.length > 0) ? Integer.parseInt(args[0]) : 8388608;
+			int iterationCount = (args.length > 1) ? Integer.parseInt(args[1]) : 10;
+			final double factor = 1.5;
+			final double damper = 1;
+			final double coeff = 1000;
+			final double filter = 10;
+			String[] names = {"multiply", "log2", "subtract", "divide"};
+			Operation[] operations = {
+				new Operation() {
+					@Override
+					public void computePerBin(BinArray source1, BinArray source2, BinArray result) {
+						for (int i = 0; i < result.size(); i++) {
+							result.set(i, source1.get(i) * factor);
+						}
+					}
+					@Override
+					public void computeBlock(double[] values1, double[] values2, int length) {
+						ElementKernels.multiply(values1, length, factor);
+					}
+				},
+				new Operation() {
+					@Override
+					public void computePerBin(BinArray source1, BinArray source2, BinArray result) {
+						for (int i = 0; i < result.size(); i++) {
+							double value = source1.get(i);
+							result.set(i, (value != 0) ? Math.log(value + damper) / ElementKernels.LN2 : 0);
+						}
+					}
+					@Override
+					public void computeBlock(double[] values1, double[] values2, int length) {
+						ElementKernels.log2(values1, length, damper, 0);
+					}
+				},
+				new Operation() {
+					@Override
+					public void computePerBin(BinArray source1, BinArray source2, BinArray result) {
+						for (int i = 0; i < result.size(); i++) {
+							result.set(i, source1.get(i) - source2.get(i));
+						}
+					}
+					@Override
+					public void computeBlock(double[] values1, double[] values2, int length) {
+						ElementKernels.subtract(values1, values2, length);
+					}
+				},
+				new Operation() {
+					@Override
+					public void computePerBin(BinArray source1, BinArray source2, BinArray result) {
+						for (int i = 0; i < result.size(); i++) {
+							double value1 = source1.get(i);
+							double value2 = source2.get(i);
+							boolean computed = (value2 > 0) && ((value2 >= filter) || (value1 >= filter));
+							result.set(i, computed ? coeff * value1 / value2 : 0);
+						}
+					}
+					@Override
+					public void computeBlock(double[] values1, double[] values2, int length) {
+						ElementKernels.divide(values1, values2, length, coeff, filter);
+					}
+				}
+			};
+			for (Precision precision: Precision.values()) {
+				Random random = new Random(SEED);
+				BinArray source1 = generateBins(precision, ElementKernels.BLOCK_SIZE * 4, random);
+				BinArray source2 = generateBins(precision, ElementKernels.BLOCK_SIZE * 4, random);
+				BinArray result = BinArray.create(precision, ElementKernels.BLOCK_SIZE * 4);
+				for (int i = 0; i < WARMUP_ITERATIONS * 10; i++) {
+					for (Operation operation: operations) {
+						operation.computePerBin(source1, source2, result);
+						computeByBlocks(operation, source1, source2, result);
+					}
+				}
+			}
+			for (Precision precision: new Precision[] {Precision.float64, Precision.float32}) {
+				Random random = new Random(SEED);
+				BinArray source1 = generateBins(precision, binCount, random);
+				BinArray source2 = generateBins(precision, binCount, random);
+				BinArray result = BinArray.create(precision, binCount);
+				for (int i = 0; i < operations.length; i++) {
+					measure(names[i], operations[i], false, source1, source2, result, iterationCount);
+					measure(names[i], operations[i], true, source1, source2, result, iterationCount);
+				}
+			}
+		} catch (Exception e) {
+			System.out.println("Error" + e);
+		}
+	}
+}
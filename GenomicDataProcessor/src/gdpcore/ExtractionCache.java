@@ -0,0 +1,209 @@
+/**
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+package gdpcore;
+
+import gdpcore.BinList.IntensityCalculation;
+import gdpcore.BinList.Precision;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The ExtractionCache class stores the BinLists generated from the extraction of a file
+ * in a directory so a file already extracted with the same parameters doesn't need to be parsed again.
+ * The BinLists are saved with the binary format of {@link BinListBinaryFile}.
+ * The key of a BinList is computed from the path, the size, the date of modification and
+ * a hash of samples of the content of the extracted file, from the type of the file,
+ * from the window size, from the criterion of calculation of the intensities and from
+ * the name and the length of each chromosome of the ChromosomeList.
+ * When the size of the cache exceeds its maximum size the least recently used BinLists are removed.
+ * The files loaded from the cache since the start of the application are never removed
+ * because the BinLists loaded from them can still map them in memory.
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+public final class ExtractionCache {
+	private static final String FILE_EXTENSION = ".gdpb";	// extension of the files of the cache
+	private static final int 	SAMPLE_COUNT = 16;			// number of samples of the content of the extracted file included in the key
+	private static final int 	SAMPLE_SIZE = 65536;		// size of a sample in bytes
+	private static final Set<String> filesInUse = new HashSet<String>();	// paths of the files loaded from the cache since the start of the application
+	private final File 			directory;					// directory of the cache
+	private final long 			maxSize;					// maximum size of the cache in bytes
+
+
+	/**
+	 * Creates an ExtractionCache.
+	 * @param directoryPath Directory of the cache. The directory is created if it doesn't exist.
+	 * @param maxSizeMB Maximum size of the cache in MB.
+	 */
+	public ExtractionCache(String directoryPath, int maxSizeMB) {
+		directory = new File(directoryPath);
+		maxSize = maxSizeMB * 1024l * 1024l;
+	}
+
+
+	/**
+	 * Computes the key of the BinList generated from a file.
+	 * @param chromoConfig A ChromosomeConfiguration.
+	 * @param filePath Address of the extracted file.
+	 * @param fileType Type of the extracted file (eg: Solexa, Nimble).
+	 * @param windowSize Size of the bins.
+	 * @param criterion Criterion of calculation of the intensities. Null if the file contains only positions.
+	 * @param precision Precision of the intensities. Null if the file contains only positions.
+	 * @return The key of the BinList.
+	 * @throws IOException
+	 */
+	public String getKey(ChromosomeList chromoConfig, String filePath, String fileType, int windowSize, IntensityCalculation criterion, Precision precision) throws IOException {
+		File file = new File(filePath);
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException("SHA-1 not available");
+		}
+		String parameters = file.getCanonicalPath() + "\t" + file.length() + "\t" + file.lastModified()
+			+ "\t" + fileType + "\t" + windowSize + "\t" + criterion
+			+ ((precision == null) ? "" : "\t" + precision.name());
+		digest.update(parameters.getBytes("UTF-8"));
+		// the bins depend on the index and on the length of the chromosomes
+		StringBuilder chromosomes = new StringBuilder();
+		for (short i = 0; i < chromoConfig.size(); i++) {
+			chromosomes.append('\t').append(chromoConfig.get(i).getName()).append('\t').append(chromoConfig.get(i).getLength());
+		}
+		digest.update(chromosomes.toString().getBytes("UTF-8"));
+		// hash samples of the content spread over the file
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			byte[] sample = new byte[SAMPLE_SIZE];
+			long length = raf.length();
+			long step = Math.max(SAMPLE_SIZE, length / SAMPLE_COUNT);
+			for (long position = 0; position < length; position += step) {
+				raf.seek(position);
+				int byteRead = raf.read(sample);
+				if (byteRead > 0) {
+					digest.update(sample, 0, byteRead);
+				}
+			}
+		} finally {
+			raf.close();
+		}
+		StringBuilder key = new StringBuilder();
+		for (byte b: digest.digest()) {
+			key.append(Character.forDigit((b >> 4) & 0xf, 16));
+			key.append(Character.forDigit(b & 0xf, 16));
+		}
+		return key.toString();
+	}
+
+
+	/**
+	 * Returns the BinList stored with a key.
+	 * @param chromoConfig A ChromosomeConfiguration.
+	 * @param key A key returned by {@link #getKey(ChromosomeList, String, String, int, IntensityCalculation, Precision)}.
+	 * @return The BinList stored with the key, null if the cache doesn't contain the key.
+	 */
+	public BinList get(ChromosomeList chromoConfig, String key) {
+		File file = new File(directory, key + FILE_EXTENSION);
+		if (!file.isFile()) {
+			return null;
+		}
+		try {
+			BinList binList = new BinList(chromoConfig, file.getPath());
+			synchronized (filesInUse) {
+				filesInUse.add(file.getAbsolutePath());
+			}
+			// the date of modification is used for the LRU eviction
+			file.setLastModified(System.currentTimeMillis());
+			return binList;
+		} catch (IOException e) {
+			// invalid file in the cache
+			file.delete();
+			return null;
+		}
+	}
+
+
+	/**
+	 * Stores a BinList in the cache and removes the least recently used BinLists if the cache is full.
+	 * @param key A key returned by {@link #getKey(ChromosomeList, String, String, int, IntensityCalculation, Precision)}.
+	 * @param binList A BinList.
+	 * @throws IOException
+	 * @throws BinListNoDataException
+	 */
+	public void put(String key, BinList binList) throws IOException, BinListNoDataException {
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Unable to create the cache directory " + directory.getPath());
+		}
+		// the file is written under a temporary name so an incomplete file is never read
+		File tmpFile = new File(directory, key + ".tmp");
+		File file = new File(directory, key + FILE_EXTENSION);
+		if (isInUse(file)) {
+			// the file is mapped by a BinList loaded from the cache
+			return;
+		}
+		binList.printBinaryFile(tmpFile.getPath());
+		file.delete();
+		if (!tmpFile.renameTo(file)) {
+			tmpFile.delete();
+			throw new IOException("Unable to write in the cache directory " + directory.getPath());
+		}
+		evict();
+	}
+
+
+	/**
+	 * Removes the least recently used files until the size of the cache is smaller than the maximum size.
+	 * The files loaded from the cache since the start of the application are skipped.
+	 */
+	private void evict() {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			return;
+		}
+		long size = 0;
+		for (File currentFile: files) {
+			if (currentFile.getName().endsWith(FILE_EXTENSION)) {
+				size += currentFile.length();
+			}
+		}
+		if (size <= maxSize) {
+			return;
+		}
+		Arrays.sort(files, new Comparator<File>() {
+			@Override
+			public int compare(File file1, File file2) {
+				long date1 = file1.lastModified();
+				long date2 = file2.lastModified();
+				return (date1 < date2) ? -1 : ((date1 == date2) ? 0 : 1);
+			}
+		});
+		for (int i = 0; (i < files.length) && (size > maxSize); i++) {
+			if (files[i].getName().endsWith(FILE_EXTENSION) && !isInUse(files[i])) {
+				long fileSize = files[i].length();
+				if (files[i].delete()) {
+					size -= fileSize;
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * @param file A file of the cache.
+	 * @return True if the file has been loaded from the cache since the start of the application.
+	 */
+	private static boolean isInUse(File file) {
+		synchronized (filesInUse) {
+			return filesInUse.contains(file.getAbsolutePath());
+		}
+	}
+}
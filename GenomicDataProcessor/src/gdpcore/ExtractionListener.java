@@ -0,0 +1,47 @@
+/**
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+package gdpcore;
+
+/**
+ * The ExtractionListener interface is notified during the extraction of a genomic file.
+ * The methods are called from the thread extracting the file.
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+public interface ExtractionListener {
+
+	/**
+	 * Called regularly during the extraction.
+	 * @param bytesRead Number of bytes of the file read.
+	 * @param totalBytes Length of the file in bytes.
+	 * @param lineCount Number of lines extracted.
+	 * @param linesPerSecond Average number of lines extracted per second.
+	 */
+	public void progressChanged(long bytesRead, long totalBytes, int lineCount, double linesPerSecond);
+
+
+	/**
+	 * Called when a chromosome has been completely extracted.
+	 * This only happens when the file is sorted by chromosome. When the file is extracted 
+	 * in parallel the notifications happen after the merge of each chunk.
+	 * The bins of the chromosome can be retrieved during the call with 
+	 * {@link GenomicFileExtractor#getChromosomeBins(short, int, BinList.IntensityCalculation)}.
+	 * @param extractor The extractor.
+	 * @param chromosome The chromosome completely extracted.
+	 */
+	public void chromosomeExtracted(GenomicFileExtractor extractor, short chromosome);
+
+
+	/**
+	 * Called when a file that is not sorted by chromosome is extracted in parallel, 
+	 * once per merged chunk for each chromosome found in the chunk.
+	 * The bins of the chromosome retrieved during the call with 
+	 * {@link GenomicFileExtractor#getChromosomeBins(short, int, BinList.IntensityCalculation)}
+	 * only contain the data of the chunks merged so far.
+	 * @param extractor The extractor.
+	 * @param chromosome The chromosome updated.
+	 */
+	public void chromosomeUpdated(GenomicFileExtractor extractor, short chromosome);
+}
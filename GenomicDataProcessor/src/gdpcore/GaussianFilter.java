@@ -0,0 +1,224 @@
+/**
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+package gdpcore;
+
+/**
+ * The GaussianFilter class provides the engines computing the gaussian filter of a BinList
+ * in a time independent of sigma.
+ * Like {@link BinList#gauss(int)} only the non-null bins are weighted: the result of a bin is the
+ * sum of its non-null neighbors multiplied by the coefficients of the gaussian, divided by the sum of
+ * the coefficients of these neighbors. The null bins stay null.
+ * The numerator and the denominator are computed together, the values of the bins in the real part
+ * and a mask of the non-null bins in the imaginary part (FFT) or in a second array (box filter).
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+final class GaussianFilter {
+	private static final int 	MIN_FFT_SIZE = 4096;	// minimum size of the FFT blocks
+	private static final int 	BOX_PASS_COUNT = 3;		// number of passes of the box filter
+	private final double[] 		kernelRe;				// real part of the spectrum of the gaussian kernel
+	private final double[] 		kernelIm;				// imaginary part of the spectrum of the gaussian kernel
+	private final double[] 		cosTable;				// cosines used by the FFT
+	private final double[] 		sinTable;				// sines used by the FFT
+	private final int 			halfWidth;				// half width of the kernel in bins
+	private final int[] 		boxRadius;				// radius of each pass of the box filter in bins
+
+
+	/**
+	 * Creates a GaussianFilter.
+	 * @param coefTab Coefficients of the gaussian. The index corresponds to a distance in bins.
+	 * @param sigmaInBins Sigma divided by the size of the bins.
+	 */
+	GaussianFilter(double[] coefTab, double sigmaInBins) {
+		halfWidth = coefTab.length - 1;
+		// FFT: the blocks are 4 times larger than the kernel so 3/4 of each block are valid outputs
+		int kernelLength = 2 * halfWidth + 1;
+		int fftSize = MIN_FFT_SIZE;
+		while (fftSize < 4 * kernelLength) {
+			fftSize *= 2;
+		}
+		cosTable = new double[fftSize / 2];
+		sinTable = new double[fftSize / 2];
+		for (int i = 0; i < fftSize / 2; i++) {
+			cosTable[i] = Math.cos(2 * Math.PI * i / fftSize);
+			sinTable[i] = Math.sin(2 * Math.PI * i / fftSize);
+		}
+		kernelRe = new double[fftSize];
+		kernelIm = new double[fftSize];
+		for (int i = 0; i < kernelLength; i++) {
+			kernelRe[i] = coefTab[Math.abs(i - halfWidth)];
+		}
+		fft(kernelRe, kernelIm, false);
+		// box filter: widths of the passes giving a variance of sigma^2 (Kovesi, 2010)
+		double idealWidth = Math.sqrt(12 * sigmaInBins * sigmaInBins / BOX_PASS_COUNT + 1);
+		int lowWidth = (int) Math.floor(idealWidth);
+		if (lowWidth % 2 == 0) {
+			lowWidth--;
+		}
+		lowWidth = Math.max(1, lowWidth);
+		int highWidth = lowWidth + 2;
+		long lowPassCount = Math.round((12 * sigmaInBins * sigmaInBins - BOX_PASS_COUNT * lowWidth * lowWidth
+				- 4 * BOX_PASS_COUNT * lowWidth - 3 * BOX_PASS_COUNT) / (-4 * lowWidth - 4));
+		lowPassCount = Math.max(0, Math.min(BOX_PASS_COUNT, lowPassCount));
+		boxRadius = new int[BOX_PASS_COUNT];
+		for (int i = 0; i < BOX_PASS_COUNT; i++) {
+			boxRadius[i] = ((i < lowPassCount) ? lowWidth : highWidth) / 2;
+		}
+	}
+
+
+	/**
+	 * In-place iterative radix-2 FFT.
+	 * @param re Real part. The length must be the size of the FFT.
+	 * @param im Imaginary part.
+	 * @param inverse True to compute the inverse transform (not divided by the size).
+	 */
+	private void fft(double[] re, double[] im, boolean inverse) {
+		int n = re.length;
+		// bit reversal permutation
+		for (int i = 1, j = 0; i < n; i++) {
+			int bit = n >> 1;
+			for (; (j & bit) != 0; bit >>= 1) {
+				j ^= bit;
+			}
+			j ^= bit;
+			if (i < j) {
+				double tmp = re[i]; re[i] = re[j]; re[j] = tmp;
+				tmp = im[i]; im[i] = im[j]; im[j] = tmp;
+			}
+		}
+		for (int length = 2; length <= n; length <<= 1) {
+			int halfLength = length >> 1;
+			int tableStep = n / length;
+			for (int i = 0; i < n; i += length) {
+				for (int j = 0; j < halfLength; j++) {
+					double wRe = cosTable[j * tableStep];
+					double wIm = inverse ? sinTable[j * tableStep] : -sinTable[j * tableStep];
+					int k = i + j + halfLength;
+					double tRe = re[k] * wRe - im[k] * wIm;
+					double tIm = re[k] * wIm + im[k] * wRe;
+					re[k] = re[i + j] - tRe;
+					im[k] = im[i + j] - tIm;
+					re[i + j] += tRe;
+					im[i + j] += tIm;
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Computes the gaussian filter with a FFT convolution (overlap-save method).
+	 * The result is the same as the direct computation with a precision close to the precision of the doubles.
+	 * @param data Bins of a chromosome.
+	 * @param result Array where the result is written.
+	 * @param start Index of the first bin computed (included).
+	 * @param stop Index of the last bin computed (excluded).
+	 */
+	void fftFilter(BinArray data, BinArray result, int start, int stop) {
+		int fftSize = kernelRe.length;
+		int kernelLength = 2 * halfWidth + 1;
+		int outputLength = fftSize - kernelLength + 1;
+		double[] re = new double[fftSize];
+		double[] im = new double[fftSize];
+		for (int blockStart = start; blockStart < stop; blockStart += outputLength) {
+			// the first kernelLength - 1 outputs of the circular convolution are wrong, they only read the halo
+			int inputStart = blockStart - halfWidth;
+			for (int i = 0; i < fftSize; i++) {
+				int index = inputStart + i;
+				if ((index >= 0) && (index < data.size()) && (data.get(index) != 0)) {
+					re[i] = data.get(index);
+					im[i] = 1;
+				} else {
+					re[i] = 0;
+					im[i] = 0;
+				}
+			}
+			fft(re, im, false);
+			for (int i = 0; i < fftSize; i++) {
+				double tmpRe = re[i] * kernelRe[i] - im[i] * kernelIm[i];
+				im[i] = re[i] * kernelIm[i] + im[i] * kernelRe[i];
+				re[i] = tmpRe;
+			}
+			// the inverse transform is not divided by the size since only the ratio is used
+			fft(re, im, true);
+			int blockStop = Math.min(stop, blockStart + outputLength);
+			for (int j = blockStart; j < blockStop; j++) {
+				int i = j - blockStart + kernelLength - 1;
+				// the denominator is at least the coefficient of the bin itself (1) when the bin is not null
+				if ((data.get(j) != 0) && (im[i] > 0)) {
+					result.set(j, re[i] / im[i]);
+				} else {
+					result.set(j, 0);
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Computes an approximation of the gaussian filter with {@value #BOX_PASS_COUNT}
+	 * successive box filters. The time of computation doesn't depend on sigma.
+	 * The shape of the kernel is a piecewise polynomial with the same variance as the gaussian
+	 * but it is not truncated at 2 sigma like the direct computation.
+	 * @param data Bins of a chromosome.
+	 * @param result Array where the result is written.
+	 * @param start Index of the first bin computed (included).
+	 * @param stop Index of the last bin computed (excluded).
+	 */
+	void boxFilter(BinArray data, BinArray result, int start, int stop) {
+		// each pass needs boxRadius more bins on each side
+		int halo = 0;
+		for (int radius: boxRadius) {
+			halo += radius;
+		}
+		int extendedStart = Math.max(0, start - halo);
+		int extendedStop = (int) Math.min(data.size(), (long) stop + halo);
+		int length = extendedStop - extendedStart;
+		double[] values = new double[length];
+		double[] mask = new double[length];
+		for (int i = 0; i < length; i++) {
+			if (data.get(extendedStart + i) != 0) {
+				values[i] = data.get(extendedStart + i);
+				mask[i] = 1;
+			}
+		}
+		double[] prefix = new double[length + 1];
+		for (int radius: boxRadius) {
+			boxPass(values, prefix, radius);
+			boxPass(mask, prefix, radius);
+		}
+		for (int j = start; j < stop; j++) {
+			int i = j - extendedStart;
+			if ((data.get(j) != 0) && (mask[i] > 0)) {
+				result.set(j, values[i] / mask[i]);
+			} else {
+				result.set(j, 0);
+			}
+		}
+	}
+
+
+	/**
+	 * Replaces each value of an array by the sum of the values at a distance smaller than <i>radius</i>.
+	 * The values outside the array are considered null.
+	 * @param values An array.
+	 * @param prefix Array used to store the prefix sums. Its length is the length of the values plus one.
+	 * @param radius Radius of the box.
+	 */
+	private static void boxPass(double[] values, double[] prefix, int radius) {
+		if (radius == 0) {
+			return;
+		}
+		int length = values.length;
+		prefix[0] = 0;
+		for (int i = 0; i < length; i++) {
+			prefix[i + 1] = prefix[i] + values[i];
+		}
+		for (int i = 0; i < length; i++) {
+			values[i] = prefix[Math.min(length, i + radius + 1)] - prefix[Math.max(0, i - radius)];
+		}
+	}
+}
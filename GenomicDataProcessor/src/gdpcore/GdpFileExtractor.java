@@ -30,7 +30,35 @@ public final class GdpFileExtractor extends GenomicPositionIntensityFileExtracto
 	 * @throws IOException
 	 */
 	public GdpFileExtractor(String logFile, ChromosomeList chromoConfig, String addressFile) throws FileNotFoundException, IOException {
-		super(chromoConfig);		
+		this(logFile, chromoConfig, addressFile, 1);
+	}
+
+
+	/**
+	 * Extracts a Gdp file.
+	 * @param addressFile Path to a Gdp file.
+	 * @param chromoConfig A ChromosomeConfiguration.
+	 * @param threadCount Number of threads used to extract the file.
+	 * @throws FileNotFoundException
+	 * @throws IOException
+	 */
+	public GdpFileExtractor(String logFile, ChromosomeList chromoConfig, String addressFile, int threadCount) throws FileNotFoundException, IOException {
+		this(logFile, chromoConfig, addressFile, threadCount, null);
+	}
+
+
+	/**
+	 * Extracts a Gdp file and notifies a listener during the extraction.
+	 * @param addressFile Path to a Gdp file.
+	 * @param chromoConfig A ChromosomeConfiguration.
+	 * @param threadCount Number of threads used to extract the file.
+	 * @param listener Listener notified during the extraction. Can be null.
+	 * @throws FileNotFoundException
+	 * @throws IOException
+	 */
+	public GdpFileExtractor(String logFile, ChromosomeList chromoConfig, String addressFile, int threadCount, ExtractionListener listener) throws FileNotFoundException, IOException {
+		super(chromoConfig, threadCount);
+		setExtractionListener(listener);
 		extractFile(addressFile);
 		if(logFile != null) {
 			// display statistics
@@ -51,6 +79,39 @@ public final class GdpFileExtractor extends GenomicPositionIntensityFileExtracto
 	}
 
 
+	/**
+	 * Creates an extractor without extracting any file.
+	 * @param chromoConfig A ChromosomeConfiguration.
+	 */
+	private GdpFileExtractor(ChromosomeList chromoConfig) {
+		super(chromoConfig);
+	}
+
+
+	/**
+	 * @see gdpcore.GenomicFileExtractor#createChunkExtractor()
+	 */
+	@Override
+	protected GenomicFileExtractor createChunkExtractor() {
+		return new GdpFileExtractor(chromoConfig);
+	}
+
+
+	/**
+	 * Appends the data of a chunk of the file. The window size is computed from
+	 * the first chunk containing data.
+	 * @see gdpcore.GenomicPositionIntensityFileExtractor#mergeChunk(gdpcore.GenomicFileExtractor)
+	 */
+	@Override
+	protected void mergeChunk(GenomicFileExtractor chunk) {
+		GdpFileExtractor gdpChunk = (GdpFileExtractor) chunk;
+		if ((lineCount == 0) && (gdpChunk.windowSize != 0)) {
+			windowSize = gdpChunk.windowSize;
+		}
+		super.mergeChunk(chunk);
+	}
+
+
 	/**
 	 * Receives one line from the input file and tries
 	 * to extract a chromosome number, a position and an intensity.
@@ -58,24 +119,42 @@ public final class GdpFileExtractor extends GenomicPositionIntensityFileExtracto
 	 * @param extractedLine Line read from the file being extracted. 
 	 */
 	@Override
-	protected void extractLine(String extractedLine) {
+	protected void extractLine(LineTokenizer line) {
 		int chromosomeNumber;
 
-		if(extractedLine.charAt(0) == 'c') {
-			String[] splitedLine = extractedLine.split("\t");
+		if((line.length() != 0) && (line.charAt(0) == 'c')) {
 			if(lineCount == 0){
-				windowSize = Integer.parseInt(splitedLine[2]) - Integer.parseInt(splitedLine[1]); 
+				windowSize = line.getInt(2) - line.getInt(1); 
 			}
-			chromosomeNumber = chromoConfig.getIndex(splitedLine[0]);
+			chromosomeNumber = line.getChromosome(chromoConfig, 0);
 			if(chromosomeNumber != -1)  {
-				positionList.get(chromosomeNumber).add(Integer.parseInt(splitedLine[1]));
-				intensityList.get(chromosomeNumber).add(Double.parseDouble(splitedLine[3]));
+				setCurrentChromosome((short) chromosomeNumber);
+				positionList.get(chromosomeNumber).add(line.getInt(1));
+				intensityList.get(chromosomeNumber).add(line.getDouble(3));
 				lineCount++;
 			}
 		}
 	}
 
 
+	/**
+	 * Computes the bins of a chromosome with the window size of the file.
+	 * @see gdpcore.GenomicPositionIntensityFileExtractor#getChromosomeBins(short, int, gdpcore.BinList.IntensityCalculation)
+	 */
+	@Override
+	public double[] getChromosomeBins(short chromosome, int windowSize, BinList.IntensityCalculation criterion) {
+		return super.getChromosomeBins(chromosome, this.windowSize, null);
+	}
+
+
+	/**
+	 * @return The size of the windows of the file, 0 if no line has been extracted yet.
+	 */
+	public int getWindowSize() {
+		return windowSize;
+	}
+
+
 	/**
 	 * Creates a BinList object from the data extracted.
 	 * @return A BinList object generated from the extracted data.
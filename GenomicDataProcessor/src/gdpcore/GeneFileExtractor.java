@@ -44,42 +44,22 @@ public final class GeneFileExtractor extends GenomicFileExtractor {
 	 * @param extractedLine Line read from the file being extracted. 
 	 */
 	@Override
-	protected void extractLine(String extractedLine) {
-		if (extractedLine.charAt(0) != '#') {
-			String[] splitedLine = null;
-
-			splitedLine = extractedLine.split("\t");
-			int chromosomeNumber = chromoConfig.getIndex(splitedLine[1]);
+	protected void extractLine(LineTokenizer line) {
+		if ((line.length() != 0) && (line.charAt(0) != '#')) {
+			int chromosomeNumber = line.getChromosome(chromoConfig, 1);
 
 			if (chromosomeNumber != -1) {
-				String[] splitedExonStartsStr = null;
-				String[] splitedExonStopsStr = null;
-				int[] splitedExonStarts = null;
-				int[] splitedExonStops = null;
-
-				splitedExonStartsStr = splitedLine[5].split(",");
-				splitedExonStarts = new int[splitedExonStartsStr.length];
-				for (int i = 0; i < splitedExonStarts.length; i++) {
-					splitedExonStarts[i] = Integer.parseInt(splitedExonStartsStr[i]);
-				}
-				splitedExonStopsStr= splitedLine[6].split(",");
-				splitedExonStops = new int[splitedExonStopsStr.length];
-				for (int i = 0; i < splitedExonStops.length; i++) {
-					splitedExonStops[i] = Integer.parseInt(splitedExonStopsStr[i]);
-				}
-				if (splitedLine.length == 7) {
+				int[] splitedExonStarts = line.getIntArray(5, (byte) ',');
+				int[] splitedExonStops = line.getIntArray(6, (byte) ',');
+				if (line.getFieldCount() == 7) {
 				geneList.get(chromosomeNumber).add(
-						new Gene(splitedLine[0], (short)chromosomeNumber, splitedLine[2], Integer.parseInt(splitedLine[3]),  
-								Integer.parseInt(splitedLine[4]), splitedExonStarts, splitedExonStops, null));
-				} else if (splitedLine.length == 8) {
-					String[] splitedExonScoresStr= splitedLine[7].split(",");
-					double[] splitedExonScores = new double[splitedExonStopsStr.length];
-					for (int i = 0; i < splitedExonStops.length; i++) {
-						splitedExonScores[i] = Double.parseDouble(splitedExonScoresStr[i]);
-					}
+						new Gene(line.getString(0), (short)chromosomeNumber, line.getString(2), line.getInt(3),  
+								line.getInt(4), splitedExonStarts, splitedExonStops, null));
+				} else if (line.getFieldCount() == 8) {
+					double[] splitedExonScores = line.getDoubleArray(7, (byte) ',');
 					geneList.get(chromosomeNumber).add(
-							new Gene(splitedLine[0], (short)chromosomeNumber, splitedLine[2], Integer.parseInt(splitedLine[3]),  
-									Integer.parseInt(splitedLine[4]), splitedExonStarts, splitedExonStops, splitedExonScores));
+							new Gene(line.getString(0), (short)chromosomeNumber, line.getString(2), line.getInt(3),  
+									line.getInt(4), splitedExonStarts, splitedExonStops, splitedExonScores));
 				}
 				lineCount++;
 			}
@@ -4,41 +4,88 @@
  */
 package gdpcore;
 
-import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
 
 /**
- * The GenomicFileExtractor abstract class defines the common methods and 
+ * The GenomicFileExtractor abstract class defines the common methods and
  * parameters for the different kind of genomic file extractors.
  * @author Julien Lajugie
  * @version 0.1
  */
 public abstract class GenomicFileExtractor {
+	private static final long 	MIN_CHUNK_SIZE = 1048576;	// minimum size in bytes of a chunk extracted in parallel
+	private static final int 	CHUNKS_PER_THREAD = 4;		// number of chunks per thread, used to balance the load of the threads
+	private static final int 	BUFFER_SIZE = 65536;		// initial size of the buffer used to read the lines
+	private static final long 	PROGRESS_STEP = 4194304;	// number of bytes read between two notifications of the progress
 	protected ChromosomeList chromoConfig; // maximum number of chromosomes
 	protected int lineCount; // number of lines extracted from the input file
-	
+	protected int threadCount; // number of threads used to extract the file
+	private ExtractionListener listener = null; // listener notified during the extraction, null if none
+	private long fileLength; // length of the file being extracted, -1 if unknown
+	private long startTime; // time when the extraction started in ms
+	private short currentChromosome = -1; // chromosome of the last line extracted
+	private short firstChromosome = -1; // chromosome of the first line extracted
+	private boolean[] extractedChromosomes = null; // chromosomes completely extracted, null if the file is not sorted by chromosome
+	private boolean[] foundChromosomes = null; // chromosomes found in the file, null if the chromosomes are not tracked
+
 	/**
 	 * Sets the chromosome configuration.
 	 * @param chromoConfig A ChromosomeConfiguration.
 	 */
 	public GenomicFileExtractor(ChromosomeList chromoConfig) {
+		this(chromoConfig, 1);
+	}
+
+
+	/**
+	 * Sets the chromosome configuration and the number of threads used for the extraction.
+	 * @param chromoConfig A ChromosomeConfiguration.
+	 * @param threadCount Number of threads used to extract the file.
+	 */
+	public GenomicFileExtractor(ChromosomeList chromoConfig, int threadCount) {
 		this.chromoConfig = chromoConfig;
+		this.threadCount = Math.max(1, threadCount);
 	}
-	
-	
+
+
 	/**
-	 * @return Number of chromosomes. 
+	 * Sets the listener notified of the progress of the extraction and of the chromosomes completely extracted.
+	 * Must be called before the extraction.
+	 * @param listener An ExtractionListener. Null to remove the listener.
+	 */
+	protected void setExtractionListener(ExtractionListener listener) {
+		this.listener = listener;
+	}
+
+
+	/**
+	 * @return Number of chromosomes.
 	 */
 	public short getMaxChromo() {
 		return chromoConfig.size();
 	}
-	
-	
+
+
 	/**
 	 * Opens and extracts the data from a file.
+	 * The gzip and BGZF files are decompressed on the fly. The blocks of 
+	 * the BGZF files are inflated in parallel when more than one thread is available.
+	 * The uncompressed files are split in chunks extracted in parallel when more than one
+	 * thread is available and when the extractor supports it.
 	 * @param addressFile Address of the file to extract.
 	 * @throws FileNotFoundException
 	 * @throws IOException
@@ -46,20 +93,501 @@ public abstract class GenomicFileExtractor {
 	protected void extractFile(String addressFile) throws FileNotFoundException, IOException {
 		// initialize the number of read
 		lineCount = 0;
-		// try to open the input file
-		 BufferedReader reader = new BufferedReader(new FileReader(new File(addressFile)));
-		// extract data
-		String line = null;
-		while((line = reader.readLine()) != null) {
-			extractLine(line);
+		File file = new File(addressFile);
+		fileLength = file.length();
+		startTime = System.currentTimeMillis();
+		currentChromosome = -1;
+		firstChromosome = -1;
+		extractedChromosomes = (listener == null) ? null : new boolean[chromoConfig.size()];
+		foundChromosomes = (listener == null) ? null : new boolean[chromoConfig.size()];
+		boolean compressed = isGzipFile(file);
+		if (!compressed && (threadCount > 1) && (file.length() >= 2 * MIN_CHUNK_SIZE) && (createChunkExtractor() != null)) {
+			extractFileInParallel(file);
+		} else {
+			// try to open the input file
+			InputStream is = new FileInputStream(file);
+			if (listener != null) {
+				// the progress is computed from the number of bytes read in the file, compressed or not
+				is = new ProgressInputStream(is);
+			}
+			if (!compressed) {
+				// the stream is used as is
+			} else if (BgzfInputStream.isBgzfFile(file)) {
+				is = new BgzfInputStream(is, threadCount);
+			} else {
+				is = new GZIPInputStream(is, BUFFER_SIZE);
+			}
+			try {
+				// extract data
+				extractStream(is);
+			} finally {
+				is.close();
+			}
+		}
+	}
+
+
+	/**
+	 * @param file A file.
+	 * @return True if the file starts with the gzip magic number.
+	 * @throws IOException
+	 */
+	private static boolean isGzipFile(File file) throws IOException {
+		InputStream is = new FileInputStream(file);
+		try {
+			int byte1 = is.read();
+			int byte2 = is.read();
+			return (byte1 == 0x1f) && (byte2 == 0x8b);
+		} finally {
+			is.close();
+		}
+	}
+
+
+	/**
+	 * Reads the lines of a stream and extracts them. 
+	 * The lines are read in a reusable buffer and passed to the extractor 
+	 * through a {@link LineTokenizer} so no object is allocated per line.
+	 * @param is Stream to extract.
+	 * @throws IOException
+	 */
+	private void extractStream(InputStream is) throws IOException {
+		LineTokenizer tokenizer = new LineTokenizer();
+		byte[] buffer = new byte[BUFFER_SIZE];
+		int start = 0; 		// beginning of the current line in the buffer
+		int stop = 0; 		// end of the data read in the buffer
+		int searchIndex = 0;// index where the search of the next end of line starts
+		while (true) {
+			while ((searchIndex < stop) && (buffer[searchIndex] != '\n')) {
+				searchIndex++;
+			}
+			if (searchIndex < stop) {
+				extractLine(tokenizer, buffer, start, searchIndex);
+				start = searchIndex + 1;
+				searchIndex = start;
+			} else {
+				// no complete line left in the buffer, we read more data
+				if (start > 0) {
+					System.arraycopy(buffer, start, buffer, 0, stop - start);
+					stop -= start;
+					searchIndex -= start;
+					start = 0;
+				} else if (stop == buffer.length) {
+					// the line is longer than the buffer
+					buffer = Arrays.copyOf(buffer, buffer.length * 2);
+				}
+				int byteRead = is.read(buffer, stop, buffer.length - stop);
+				if (byteRead == -1) {
+					// last line without end of line character
+					if (stop > start) {
+						extractLine(tokenizer, buffer, start, stop);
+					}
+					return;
+				}
+				stop += byteRead;
+			}
+		}
+	}
+
+
+	/**
+	 * Sets a line of the buffer in the tokenizer and extracts it.
+	 * @param tokenizer Tokenizer reused for each line.
+	 * @param buffer Buffer containing the line.
+	 * @param start Index of the first byte of the line.
+	 * @param stop Index of the end of line character. 
+	 */
+	private void extractLine(LineTokenizer tokenizer, byte[] buffer, int start, int stop) {
+		// the windows end of line characters are removed
+		if ((stop > start) && (buffer[stop - 1] == '\r')) {
+			stop--;
+		}
+		tokenizer.setLine(buffer, start, stop);
+		extractLine(tokenizer);
+	}
+
+
+	/**
+	 * Splits a file in chunks aligned on the beginning of the lines, extracts
+	 * each chunk in a separate extractor and merges the results in the order of the file.
+	 * The listener is notified after each merged chunk (see {@link #notifyChunkMerged(GenomicFileExtractor)}).
+	 * @param file File to extract.
+	 * @throws FileNotFoundException
+	 * @throws IOException
+	 */
+	private void extractFileInParallel(final File file) throws FileNotFoundException, IOException {
+		long[] boundaries = computeChunkBoundaries(file);
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		try {
+			ArrayList<Future<GenomicFileExtractor>> chunkList = new ArrayList<Future<GenomicFileExtractor>>();
+			for (int i = 0; i < boundaries.length - 1; i++) {
+				final long start = boundaries[i];
+				final long stop = boundaries[i + 1];
+				chunkList.add(executor.submit(new Callable<GenomicFileExtractor>() {
+					@Override
+					public GenomicFileExtractor call() throws Exception {
+						return extractChunk(file, start, stop);
+					}
+				}));
+			}
+			// the chunks are merged in the order of the file so the result doesn't depend on the scheduling
+			for (int i = 0; i < chunkList.size(); i++) {
+				GenomicFileExtractor chunk = chunkList.get(i).get();
+				mergeChunk(chunk);
+				chunkList.set(i, null);
+				notifyChunkMerged(chunk);
+				notifyProgress(boundaries[i + 1]);
+			}
+		} catch (InterruptedException e) {
+			throw new IOException("Extraction of " + file + " interrupted");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			} else if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			} else {
+				throw new IOException(e.getCause().getMessage());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+
+	/**
+	 * Computes the positions where the file is split. Each position
+	 * is the first byte of a line, except the last one that is the length of the file.
+	 * @param file File to split.
+	 * @return The positions of the chunks. The chunk i starts at index i and ends at index i + 1 (excluded).
+	 * @throws IOException
+	 */
+	private long[] computeChunkBoundaries(File file) throws IOException {
+		long fileLength = file.length();
+		int chunkCount = (int) Math.min(threadCount * CHUNKS_PER_THREAD, fileLength / MIN_CHUNK_SIZE);
+		ArrayList<Long> boundaryList = new ArrayList<Long>();
+		boundaryList.add(0l);
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			byte[] buffer = new byte[65536];
+			for (int i = 1; i < chunkCount; i++) {
+				// we look for the first end of line starting from the byte before the theoretical boundary
+				long position = Math.max(fileLength * i / chunkCount - 1, boundaryList.get(boundaryList.size() - 1));
+				long boundary = fileLength;
+				raf.seek(position);
+				int byteRead;
+				while ((boundary == fileLength) && ((byteRead = raf.read(buffer)) != -1)) {
+					int j = 0;
+					while ((j < byteRead) && (buffer[j] != '\n')) {
+						j++;
+					}
+					if (j < byteRead) {
+						boundary = position + j + 1;
+					}
+					position += byteRead;
+				}
+				if ((boundary > boundaryList.get(boundaryList.size() - 1)) && (boundary < fileLength)) {
+					boundaryList.add(boundary);
+				}
+			}
+		} finally {
+			raf.close();
+		}
+		boundaryList.add(fileLength);
+		long[] boundaries = new long[boundaryList.size()];
+		for (int i = 0; i < boundaries.length; i++) {
+			boundaries[i] = boundaryList.get(i);
+		}
+		return boundaries;
+	}
+
+
+	/**
+	 * Extracts the lines of a chunk of a file in a new extractor.
+	 * @param file File being extracted.
+	 * @param start Position of the first byte of the chunk.
+	 * @param stop Position of the byte following the chunk.
+	 * @return An extractor containing the data of the chunk.
+	 * @throws IOException
+	 */
+	private GenomicFileExtractor extractChunk(File file, long start, long stop) throws IOException {
+		GenomicFileExtractor chunk = createChunkExtractor();
+		chunk.lineCount = 0;
+		if (listener != null) {
+			// the chromosomes of the chunk are tracked to notify the listener after the merge
+			chunk.extractedChromosomes = new boolean[chromoConfig.size()];
+			chunk.foundChromosomes = new boolean[chromoConfig.size()];
+		}
+		FileInputStream fis = new FileInputStream(file);
+		try {
+			fis.getChannel().position(start);
+			chunk.extractStream(new BoundedInputStream(fis, stop - start));
+		} finally {
+			fis.close();
+		}
+		return chunk;
+	}
+
+
+	/**
+	 * Creates an extractor of the same type as the current one without any data.
+	 * This extractor is used to extract one chunk of a file when the extraction is done in parallel.
+	 * The extractors that can't be extracted in parallel return null.
+	 * @return A new empty extractor, null if the parallel extraction isn't supported.
+	 */
+	protected GenomicFileExtractor createChunkExtractor() {
+		return null;
+	}
+
+
+	/**
+	 * Appends the data extracted from a chunk of the file to the data of the current extractor.
+	 * The chunks are merged in the order of the file.
+	 * @param chunk Extractor created by {@link #createChunkExtractor()} that extracted one chunk of the file.
+	 */
+	protected void mergeChunk(GenomicFileExtractor chunk) {
+		lineCount += chunk.lineCount;
+	}
+
+
+	/**
+	 * Notifies the listener of the progress of the extraction.
+	 * @param bytesRead Number of bytes of the file read.
+	 */
+	private void notifyProgress(long bytesRead) {
+		if (listener != null) {
+			long elapsedTime = System.currentTimeMillis() - startTime;
+			double linesPerSecond = (elapsedTime == 0) ? 0 : lineCount * 1000d / elapsedTime;
+			listener.progressChanged(bytesRead, fileLength, lineCount, linesPerSecond);
+		}
+	}
+
+
+	/**
+	 * Notifies the listener of the chromosomes of a chunk that has just been merged.
+	 * While the chunks merged are sorted by chromosome, the listener is notified of each 
+	 * chromosome completely extracted: the chromosomes finished inside the chunk and the last
+	 * chromosome of the previous chunks if the chunk starts with another chromosome.
+	 * Otherwise the listener is notified of an update of each chromosome found in the chunk.
+	 * @param chunk Extractor of a chunk of the file that has been merged.
+	 */
+	private void notifyChunkMerged(GenomicFileExtractor chunk) {
+		if ((listener == null) || (chunk.firstChromosome == -1)) {
+			return;
+		}
+		if (extractedChromosomes != null) {
+			if (chunk.extractedChromosomes == null) {
+				extractedChromosomes = null;
+			} else {
+				for (short i = 0; (i < chromoConfig.size()) && (extractedChromosomes != null); i++) {
+					// a chromosome of the previous chunks is found again in the chunk
+					if (chunk.foundChromosomes[i] && (extractedChromosomes[i] || ((i == currentChromosome) && (i != chunk.firstChromosome)))) {
+						extractedChromosomes = null;
+					}
+				}
+			}
+		}
+		if (extractedChromosomes != null) {
+			if ((currentChromosome != -1) && (currentChromosome != chunk.firstChromosome)) {
+				extractedChromosomes[currentChromosome] = true;
+				listener.chromosomeExtracted(this, currentChromosome);
+			}
+			for (short i = 0; i < chromoConfig.size(); i++) {
+				if (chunk.extractedChromosomes[i]) {
+					extractedChromosomes[i] = true;
+					listener.chromosomeExtracted(this, i);
+				}
+			}
+			currentChromosome = chunk.currentChromosome;
+		} else {
+			// the file is not sorted by chromosome: the chromosomes only contain the chunks merged so far
+			for (short i = 0; i < chromoConfig.size(); i++) {
+				if (chunk.foundChromosomes[i]) {
+					listener.chromosomeUpdated(this, i);
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Indicates the chromosome of the line being extracted. Must be called by the 
+	 * extractors for each extracted line. When the file is sorted by chromosome the 
+	 * listener is notified each time a chromosome is completely extracted.
+	 * The notifications stop if a chromosome already extracted is found again.
+	 * The extractors of the chunks only record the chromosomes found.
+	 * @param chromosome Chromosome of the line being extracted.
+	 */
+	protected void setCurrentChromosome(short chromosome) {
+		if ((foundChromosomes != null) && (chromosome != currentChromosome)) {
+			if (firstChromosome == -1) {
+				firstChromosome = chromosome;
+			}
+			foundChromosomes[chromosome] = true;
+			if (extractedChromosomes != null) {
+				if (currentChromosome != -1) {
+					extractedChromosomes[currentChromosome] = true;
+					if (listener != null) {
+						listener.chromosomeExtracted(this, currentChromosome);
+					}
+				}
+				if (extractedChromosomes[chromosome]) {
+					// the file is not sorted by chromosome
+					extractedChromosomes = null;
+				}
+			}
+			currentChromosome = chromosome;
+		}
+	}
+
+
+	/**
+	 * Computes the bins of a chromosome from the data extracted.
+	 * This method can be called by an {@link ExtractionListener} when a 
+	 * chromosome has been extracted or updated, before the end of the extraction.
+	 * @param chromosome A chromosome.
+	 * @param windowSize Size of the bins.
+	 * @param criterion Criterion of calculation of the intensities. Not used by the files containing only positions.
+	 * @return The bins of the chromosome, null if the extractor doesn't support it or if the chromosome has no data.
+	 */
+	public double[] getChromosomeBins(short chromosome, int windowSize, BinList.IntensityCalculation criterion) {
+		return null;
+	}
+
+
+	/**
+	 * Creates a list containing the list of a chromosome and empty lists for the other chromosomes.
+	 * Used to compute the bins of one chromosome with the constructors of {@link BinList}.
+	 * @param list A list of data per chromosome.
+	 * @param chromosome A chromosome.
+	 * @param emptyElement An empty element used for the other chromosomes.
+	 * @return A list with only the data of the specified chromosome.
+	 */
+	protected static <T> ArrayList<T> getChromosomeSubList(ArrayList<T> list, short chromosome, T emptyElement) {
+		ArrayList<T> subList = new ArrayList<T>(list.size());
+		for(short i = 0; i < list.size(); i++) {
+			subList.add((i == chromosome) ? list.get(i) : emptyElement);
 		}
-		reader.close();
+		return subList;
 	}
-	
+
 
 	/**
 	 * Extracts the data from one line of a genomic file.
-	 * @param extractedLine of the file being extracted.  
+	 * The tokenizer is only valid during the call and must not be kept.
+	 * @param line Tokenizer containing the line of the file being extracted.
 	 */
-	protected abstract void extractLine(String extractedLine);
+	protected abstract void extractLine(LineTokenizer line);
+
+
+	/**
+	 * InputStream counting the bytes read from another stream 
+	 * and notifying the progress of the extraction.
+	 * @author Julien Lajugie
+	 * @version 0.1
+	 */
+	private final class ProgressInputStream extends FilterInputStream {
+		private long byteCount = 0; // number of bytes read
+		private long nextNotification = PROGRESS_STEP; // number of bytes read at the next notification
+
+		/**
+		 * Creates a stream counting the bytes read from <i>in</i>.
+		 * @param in Underlying input stream.
+		 */
+		private ProgressInputStream(InputStream in) {
+			super(in);
+		}
+
+		/**
+		 * Adds the bytes read and notifies the progress when needed.
+		 * @param count Number of bytes read.
+		 */
+		private void count(long count) {
+			byteCount += count;
+			if (byteCount >= nextNotification) {
+				nextNotification = byteCount + PROGRESS_STEP;
+				notifyProgress(byteCount);
+			}
+		}
+
+		@Override
+		public int read() throws IOException {
+			int result = super.read();
+			if (result != -1) {
+				count(1);
+			}
+			return result;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int result = super.read(b, off, len);
+			if (result > 0) {
+				count(result);
+			}
+			return result;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long result = super.skip(n);
+			count(result);
+			return result;
+		}
+	}
+
+
+	/**
+	 * InputStream reading a limited number of bytes of another stream.
+	 * @author Julien Lajugie
+	 * @version 0.1
+	 */
+	private static final class BoundedInputStream extends FilterInputStream {
+		private long remaining; // number of bytes left to read
+
+		/**
+		 * Creates a stream reading at most <i>length</i> bytes from <i>in</i>.
+		 * @param in Underlying input stream.
+		 * @param length Number of bytes to read.
+		 */
+		private BoundedInputStream(InputStream in, long length) {
+			super(in);
+			remaining = length;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			int result = super.read();
+			if (result != -1) {
+				remaining--;
+			}
+			return result;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			int result = super.read(b, off, (int) Math.min(len, remaining));
+			if (result > 0) {
+				remaining -= result;
+			}
+			return result;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long result = super.skip(Math.min(n, remaining));
+			remaining -= result;
+			return result;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return (int) Math.min(super.available(), remaining);
+		}
+	}
 }
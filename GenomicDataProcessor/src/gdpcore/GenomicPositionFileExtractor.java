@@ -5,6 +5,7 @@
 package gdpcore;
 
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 /**
  * @author Julien Lajugie
@@ -13,23 +14,205 @@ import java.util.ArrayList;
  * only positions. For example the Solid and the Solexa files. 
  */
 public abstract class GenomicPositionFileExtractor extends GenomicFileExtractor {
-	protected ArrayList<ArrayList<Integer>> positionList; // array extracted positions for each chromosome
+	protected ArrayList<IntList> positionList; // array extracted positions for each chromosome
+	private final int binWindowSize; // size of the bins filled during the extraction, 0 if the positions are stored
+	private AtomicIntegerArray[] binCountList; // number of positions per bin for each chromosome when the bins are filled during the extraction, shared with the extractors of the chunks
+	private int[] maxPositionList; // greatest position extracted for each chromosome when the bins are filled during the extraction
 	
 	/**
 	 * Sets the chromosome configuration and initializes the lists of positions.
 	 * @param chromoConfig A ChromosomeConfiguration.
 	 */
 	public GenomicPositionFileExtractor(ChromosomeList chromoConfig) {
-		super(chromoConfig);
-		positionList = new ArrayList<ArrayList<Integer>>();
+		this(chromoConfig, 1);
+	}
+	
+	
+	/**
+	 * Sets the chromosome configuration, the number of threads used for the extraction 
+	 * and initializes the lists of positions.
+	 * @param chromoConfig A ChromosomeConfiguration.
+	 * @param threadCount Number of threads used to extract the file.
+	 */
+	public GenomicPositionFileExtractor(ChromosomeList chromoConfig, int threadCount) {
+		this(chromoConfig, threadCount, 0);
+	}
+	
+	
+	/**
+	 * Sets the chromosome configuration and the number of threads used for the extraction.
+	 * If a window size is specified the positions are not stored: the number of positions 
+	 * of each bin is directly incremented during the extraction. 
+	 * The bins of a chromosome are allocated from the length of the chromosome.
+	 * The positions after the end of the chromosome are stored.
+	 * @param chromoConfig A ChromosomeConfiguration.
+	 * @param threadCount Number of threads used to extract the file.
+	 * @param binWindowSize Size of the bins filled during the extraction. 0 to store the positions.
+	 */
+	public GenomicPositionFileExtractor(ChromosomeList chromoConfig, int threadCount, int binWindowSize) {
+		super(chromoConfig, threadCount);
+		this.binWindowSize = binWindowSize;
+		positionList = new ArrayList<IntList>();
 		for(short i = 0; i < chromoConfig.size(); i++)
-			positionList.add(new ArrayList<Integer>());
+			positionList.add(new IntList());
+		if (binWindowSize > 0) {
+			binCountList = new AtomicIntegerArray[chromoConfig.size()];
+			maxPositionList = new int[chromoConfig.size()];
+		}
+	}
+	
+	
+	/**
+	 * Adds a position extracted from the file. The position is stored or 
+	 * counted in its bin depending on the extraction mode.
+	 * @param chromosome Index of the chromosome.
+	 * @param position Position on the chromosome.
+	 */
+	protected void addPosition(short chromosome, int position) {
+		setCurrentChromosome(chromosome);
+		if (binWindowSize == 0) {
+			positionList.get(chromosome).add(position);
+		} else {
+			int binIndex = position / binWindowSize;
+			AtomicIntegerArray bins = binCountList[chromosome];
+			if (bins == null) {
+				// the bins are shared by the extractors of the chunks
+				synchronized (binCountList) {
+					bins = binCountList[chromosome];
+					if (bins == null) {
+						bins = new AtomicIntegerArray(chromoConfig.get(chromosome).getLength() / binWindowSize + 1);
+						binCountList[chromosome] = bins;
+					}
+				}
+			}
+			if (binIndex < bins.length()) {
+				bins.incrementAndGet(binIndex);
+			} else {
+				// the position is after the end of the chromosome in the configuration
+				positionList.get(chromosome).add(position);
+			}
+			if (position > maxPositionList[chromosome]) {
+				maxPositionList[chromosome] = position;
+			}
+		}
+	}
+	
+	
+	/**
+	 * Makes the extractor of a chunk of the file count its positions in the bins of the current extractor
+	 * when the bins are filled during the extraction, so the bins are allocated only once whatever the number of chunks.
+	 * The extractor of the chunk must be empty and must have the same size of bins.
+	 * @param chunk Extractor created by {@link #createChunkExtractor()}.
+	 */
+	protected void shareBins(GenomicPositionFileExtractor chunk) {
+		if (binWindowSize > 0) {
+			chunk.binCountList = binCountList;
+		}
+	}
+
+
+	/**
+	 * Appends the positions extracted from a chunk of the file.
+	 * When the bins are filled during the extraction the positions of the chunk 
+	 * have already been counted in the shared bins (see {@link #shareBins(GenomicPositionFileExtractor)}).
+	 * @see gdpcore.GenomicFileExtractor#mergeChunk(gdpcore.GenomicFileExtractor)
+	 */
+	@Override
+	protected void mergeChunk(GenomicFileExtractor chunk) {
+		super.mergeChunk(chunk);
+		GenomicPositionFileExtractor positionChunk = (GenomicPositionFileExtractor) chunk;
+		for(short i = 0; i < chromoConfig.size(); i++) {
+			positionList.get(i).addAll(positionChunk.positionList.get(i));
+			if (binWindowSize > 0) {
+				maxPositionList[i] = Math.max(maxPositionList[i], positionChunk.maxPositionList[i]);
+			}
+		}
+	}
+	
+	
+	/**
+	 * @return The size of the bins filled during the extraction, 0 if the positions are stored.
+	 */
+	public int getBinWindowSize() {
+		return binWindowSize;
+	}
+	
+	
+	/**
+	 * Creates a BinList containing the number of positions per bin.
+	 * If the bins were filled during the extraction the window size must be 
+	 * a multiple of the size of these bins.
+	 * @param windowSize Size of the windows in base pair.
+	 * @return A BinList Object generated from the extracted data.
+	 * @throws IllegalArgumentException if the bins were filled during the extraction and if the window size is not a multiple of their size
+	 */
+	protected BinList createMatchBinList(int windowSize) {
+		if (binWindowSize == 0) {
+			return new BinList(chromoConfig, windowSize, positionList);
+		}
+		int[][] countList = new int[chromoConfig.size()][];
+		for(short i = 0; i < chromoConfig.size(); i++) {
+			countList[i] = getCountList(i, windowSize);
+		}
+		return new BinList(chromoConfig, windowSize, countList);
 	}
+
+
+	/**
+	 * Groups the bins filled during the extraction in windows of the specified size.
+	 * @param chromosome A chromosome.
+	 * @param windowSize Size of the windows in base pair.
+	 * @return The number of positions per window of the chromosome, null if the chromosome has no bin.
+	 * @throws IllegalArgumentException if the window size is not a multiple of the size of the bins filled during the extraction
+	 */
+	private int[] getCountList(short chromosome, int windowSize) {
+		if (windowSize % binWindowSize != 0) {
+			throw new IllegalArgumentException("The window size must be a multiple of " + binWindowSize);
+		}
+		int binPerWindow = windowSize / binWindowSize;
+		// same number of bins as when the positions are stored
+		int tabLength = maxPositionList[chromosome] / windowSize + 1;
+		AtomicIntegerArray bins = binCountList[chromosome];
+		if ((bins == null) || (tabLength <= 1)) {
+			return null;
+		}
+		int[] countList = new int[tabLength];
+		// during a parallel extraction the chunks not merged yet can count positions after the greatest position merged
+		int binCount = Math.min(bins.length(), tabLength * binPerWindow);
+		for (int j = 0; j < binCount; j++) {
+			int count = bins.get(j);
+			if (count != 0) {
+				countList[j / binPerWindow] += count;
+			}
+		}
+		// positions after the end of the chromosome in the configuration
+		IntList positions = positionList.get(chromosome);
+		for (int j = 0; j < positions.size(); j++) {
+			countList[positions.get(j) / windowSize]++;
+		}
+		return countList;
+	}
+
+
+	/**
+	 * Computes the number of positions per bin of a chromosome.
+	 * @see gdpcore.GenomicFileExtractor#getChromosomeBins(short, int, gdpcore.BinList.IntensityCalculation)
+	 */
+	@Override
+	public double[] getChromosomeBins(short chromosome, int windowSize, BinList.IntensityCalculation criterion) {
+		if (binWindowSize == 0) {
+			return new BinList(chromoConfig, windowSize, getChromosomeSubList(positionList, chromosome, new IntList())).getData(chromosome);
+		}
+		int[][] countList = new int[chromoConfig.size()][];
+		countList[chromosome] = getCountList(chromosome, windowSize);
+		return new BinList(chromoConfig, windowSize, countList).getData(chromosome);
+	}
+	
 	
 	/**
-	 * @see gdpcore.GenomicFileExtractor#extractLine(java.lang.String)
+	 * @see gdpcore.GenomicFileExtractor#extractLine(gdpcore.LineTokenizer)
 	 */
 	@Override
-	abstract protected void extractLine(String extractedLine);
+	abstract protected void extractLine(LineTokenizer line);
 
 }
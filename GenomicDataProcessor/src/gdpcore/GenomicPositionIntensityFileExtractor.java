@@ -13,21 +13,62 @@ import java.util.ArrayList;
  * positions and intensity. For example the BedGraph files. 
  */
 public abstract class GenomicPositionIntensityFileExtractor extends GenomicPositionFileExtractor{
-	protected ArrayList<ArrayList<Double>> intensityList; // array extracted intensities for each chromosome
+	protected ArrayList<DoubleList> intensityList; // array extracted intensities for each chromosome
 	
 	/**
 	 * Sets the chromosome configuration and initializes the lists of positions and of intensities. 
 	 * @param chromoConfig A ChromosomeConfiguration.
 	 */
 	public GenomicPositionIntensityFileExtractor(ChromosomeList chromoConfig) {
-		super(chromoConfig);
-		intensityList = new ArrayList<ArrayList<Double>>();
+		this(chromoConfig, 1);
+	}
+	
+	
+	/**
+	 * Sets the chromosome configuration, the number of threads used for the extraction 
+	 * and initializes the lists of positions and of intensities. 
+	 * @param chromoConfig A ChromosomeConfiguration.
+	 * @param threadCount Number of threads used to extract the file.
+	 */
+	public GenomicPositionIntensityFileExtractor(ChromosomeList chromoConfig, int threadCount) {
+		super(chromoConfig, threadCount);
+		intensityList = new ArrayList<DoubleList>();
 		for(short i = 0; i < chromoConfig.size(); i++)
-			intensityList.add(new ArrayList<Double>());
+			intensityList.add(new DoubleList());
 	}
 
 	/**
-	 * @see gdpcore.GenomicFileExtractor#extractLine(java.lang.String)
+	 * Appends the positions and the intensities extracted from a chunk of the file.
+	 * @see gdpcore.GenomicPositionFileExtractor#mergeChunk(gdpcore.GenomicFileExtractor)
+	 */
+	@Override
+	protected void mergeChunk(GenomicFileExtractor chunk) {
+		super.mergeChunk(chunk);
+		GenomicPositionIntensityFileExtractor intensityChunk = (GenomicPositionIntensityFileExtractor) chunk;
+		for(short i = 0; i < chromoConfig.size(); i++)
+			intensityList.get(i).addAll(intensityChunk.intensityList.get(i));
+	}
+	
+	
+	/**
+	 * Computes the intensity of each bin of a chromosome. 
+	 * If no criterion is specified the last intensity of each bin is used.
+	 * @see gdpcore.GenomicFileExtractor#getChromosomeBins(short, int, gdpcore.BinList.IntensityCalculation)
+	 */
+	@Override
+	public double[] getChromosomeBins(short chromosome, int windowSize, BinList.IntensityCalculation criterion) {
+		ArrayList<IntList> positions = getChromosomeSubList(positionList, chromosome, new IntList());
+		ArrayList<DoubleList> intensities = getChromosomeSubList(intensityList, chromosome, new DoubleList());
+		if (criterion == null) {
+			return new BinList(chromoConfig, windowSize, positions, intensities).getData(chromosome);
+		} else {
+			return new BinList(chromoConfig, windowSize, positions, intensities, criterion).getData(chromosome);
+		}
+	}
+	
+	
+	/**
+	 * @see gdpcore.GenomicFileExtractor#extractLine(gdpcore.LineTokenizer)
 	 */
-	abstract protected void extractLine(String extractedLine);
+	abstract protected void extractLine(LineTokenizer line);
 }
@@ -14,9 +14,9 @@ import java.util.ArrayList;
  * start and stop positions associated with a score. 
  */
 public abstract class GenomicWindowFileExtractor extends GenomicFileExtractor {
-	protected ArrayList<ArrayList<Integer>> startList; 		// extracted start position organized per chromosome
-	protected ArrayList<ArrayList<Integer>> stopList;		// extracted stop positions organized per chromosome
-	protected ArrayList<ArrayList<Double>> intensityList;	// extracted intensities organized per chromosome
+	protected ArrayList<IntList> startList; 		// extracted start position organized per chromosome
+	protected ArrayList<IntList> stopList;		// extracted stop positions organized per chromosome
+	protected ArrayList<DoubleList> intensityList;	// extracted intensities organized per chromosome
 	
 	
 	/**
@@ -24,21 +24,60 @@ public abstract class GenomicWindowFileExtractor extends GenomicFileExtractor {
 	 * @param chromoConfig A ChromosomeConfiguration.
 	 */
 	public GenomicWindowFileExtractor(ChromosomeList chromoConfig) {
-		super(chromoConfig);
-		startList = new ArrayList<ArrayList<Integer>>();
-		stopList = new ArrayList<ArrayList<Integer>>();
-		intensityList = new ArrayList<ArrayList<Double>>();
+		this(chromoConfig, 1);
+	}
+	
+	
+	/**
+	 * Sets the chromosome configuration, the number of threads used for the extraction 
+	 * and initializes the data lists.
+	 * @param chromoConfig A ChromosomeConfiguration.
+	 * @param threadCount Number of threads used to extract the file.
+	 */
+	public GenomicWindowFileExtractor(ChromosomeList chromoConfig, int threadCount) {
+		super(chromoConfig, threadCount);
+		startList = new ArrayList<IntList>();
+		stopList = new ArrayList<IntList>();
+		intensityList = new ArrayList<DoubleList>();
 		for(short i = 0; i < chromoConfig.size(); i++) {
-			startList.add(new ArrayList<Integer>());
-			stopList.add(new ArrayList<Integer>());
-			intensityList.add(new ArrayList<Double>());
+			startList.add(new IntList());
+			stopList.add(new IntList());
+			intensityList.add(new DoubleList());
 		}
 	}
 
 	/**
-	 * @see gdpcore.GenomicFileExtractor#extractLine(java.lang.String)
+	 * Appends the windows extracted from a chunk of the file.
+	 * @see gdpcore.GenomicFileExtractor#mergeChunk(gdpcore.GenomicFileExtractor)
+	 */
+	@Override
+	protected void mergeChunk(GenomicFileExtractor chunk) {
+		super.mergeChunk(chunk);
+		GenomicWindowFileExtractor windowChunk = (GenomicWindowFileExtractor) chunk;
+		for(short i = 0; i < chromoConfig.size(); i++) {
+			startList.get(i).addAll(windowChunk.startList.get(i));
+			stopList.get(i).addAll(windowChunk.stopList.get(i));
+			intensityList.get(i).addAll(windowChunk.intensityList.get(i));
+		}
+	}
+	
+	
+	/**
+	 * Computes the intensity of each bin of a chromosome. 
+	 * @see gdpcore.GenomicFileExtractor#getChromosomeBins(short, int, gdpcore.BinList.IntensityCalculation)
+	 */
+	@Override
+	public double[] getChromosomeBins(short chromosome, int windowSize, BinList.IntensityCalculation criterion) {
+		return new BinList(chromoConfig, windowSize, getChromosomeSubList(startList, chromosome, new IntList()), 
+				getChromosomeSubList(stopList, chromosome, new IntList()), 
+				getChromosomeSubList(intensityList, chromosome, new DoubleList()), criterion).getData(chromosome);
+	}
+	
+	
+	/**
+	 * @see gdpcore.GenomicFileExtractor#extractLine(gdpcore.LineTokenizer)
 	 */
 	@Override
-	abstract protected void extractLine(String extractedLine);
+	abstract protected void extractLine(LineTokenizer line);
 
 }
@@ -0,0 +1,480 @@
+/**
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+package gdpcore;
+
+/**
+ * The LineTokenizer class splits a line of a genomic file in fields and parses the fields.
+ * The tokenizer works directly on the bytes read from the file and doesn't copy the line.
+ * The same tokenizer is reused for every line of a file so the extraction of a line doesn't
+ * allocate any object, except when a String is explicitly requested.
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+public final class LineTokenizer {
+	private static final double[] POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+		1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};	// powers of ten exactly representable as doubles
+	private static final int MAX_EXACT_DIGITS = 15;		// maximum number of significant digits of an exactly representable integer
+	private final byte 	delimiter;		// delimiter between two fields
+	private byte[] 		buffer;			// buffer containing the line
+	private int 		lineStart;		// index in the buffer of the first byte of the line
+	private int 		lineStop;		// index in the buffer of the byte following the line
+	private int[] 		fieldStarts;	// start of each field relative to the beginning of the line
+	private int[] 		fieldStops;		// stop (excluded) of each field relative to the beginning of the line
+	private int 		fieldCount;		// number of fields in the line
+
+
+	/**
+	 * Creates a tokenizer for tab delimited lines.
+	 */
+	public LineTokenizer() {
+		this((byte) '\t');
+	}
+
+
+	/**
+	 * Creates a tokenizer for lines with fields delimited by the specified character.
+	 * @param delimiter Delimiter between two fields.
+	 */
+	public LineTokenizer(byte delimiter) {
+		this.delimiter = delimiter;
+		fieldStarts = new int[16];
+		fieldStops = new int[16];
+	}
+
+
+	/**
+	 * Sets the line to tokenize and splits it in fields.
+	 * The line isn't copied so the buffer must not be modified while the line is processed.
+	 * @param buffer Buffer containing the line.
+	 * @param start Index of the first byte of the line.
+	 * @param stop Index of the byte following the line.
+	 */
+	public void setLine(byte[] buffer, int start, int stop) {
+		this.buffer = buffer;
+		lineStart = start;
+		lineStop = stop;
+		fieldCount = 0;
+		int fieldStart = 0;
+		int length = stop - start;
+		for (int i = 0; i <= length; i++) {
+			if ((i == length) || (buffer[start + i] == delimiter)) {
+				if (fieldCount == fieldStarts.length) {
+					int[] newStarts = new int[fieldCount * 2];
+					int[] newStops = new int[fieldCount * 2];
+					System.arraycopy(fieldStarts, 0, newStarts, 0, fieldCount);
+					System.arraycopy(fieldStops, 0, newStops, 0, fieldCount);
+					fieldStarts = newStarts;
+					fieldStops = newStops;
+				}
+				fieldStarts[fieldCount] = fieldStart;
+				fieldStops[fieldCount] = i;
+				fieldCount++;
+				fieldStart = i + 1;
+			}
+		}
+		// like String.split, the trailing empty fields are not counted
+		while ((fieldCount > 1) && (fieldStarts[fieldCount - 1] == fieldStops[fieldCount - 1])) {
+			fieldCount--;
+		}
+	}
+
+
+	/**
+	 * @return The length of the line.
+	 */
+	public int length() {
+		return lineStop - lineStart;
+	}
+
+
+	/**
+	 * @return True if the line is empty or contains only whitespaces.
+	 */
+	public boolean isBlank() {
+		for (int i = lineStart; i < lineStop; i++) {
+			if (buffer[i] > ' ') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * @param index Index of a character in the line.
+	 * @return The character at the specified index.
+	 */
+	public byte charAt(int index) {
+		if ((index < 0) || (index >= length())) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + length());
+		}
+		return buffer[lineStart + index];
+	}
+
+
+	/**
+	 * @param c A character.
+	 * @param fromIndex Index where the search starts.
+	 * @return The index of the first occurrence of the character after fromIndex in the line, -1 if not found.
+	 */
+	public int indexOf(byte c, int fromIndex) {
+		for (int i = lineStart + Math.max(0, fromIndex); i < lineStop; i++) {
+			if (buffer[i] == c) {
+				return i - lineStart;
+			}
+		}
+		return -1;
+	}
+
+
+	/**
+	 * @return The number of fields of the line. Like with String.split the trailing empty fields are not counted.
+	 */
+	public int getFieldCount() {
+		return fieldCount;
+	}
+
+
+	/**
+	 * @param field Index of a field.
+	 * @return The index in the line of the first character of the field.
+	 */
+	public int getFieldStart(int field) {
+		checkField(field);
+		return fieldStarts[field];
+	}
+
+
+	/**
+	 * @param field Index of a field.
+	 * @return The index in the line of the character following the field.
+	 */
+	public int getFieldStop(int field) {
+		checkField(field);
+		return fieldStops[field];
+	}
+
+
+	/**
+	 * @param field Index of a field.
+	 * @return The length of the field.
+	 */
+	public int getFieldLength(int field) {
+		checkField(field);
+		return fieldStops[field] - fieldStarts[field];
+	}
+
+
+	/**
+	 * @param field Index of a field.
+	 * @param value A String.
+	 * @return True if the field is equal to the String.
+	 */
+	public boolean fieldEquals(int field, String value) {
+		checkField(field);
+		int length = fieldStops[field] - fieldStarts[field];
+		if (length != value.length()) {
+			return false;
+		}
+		int offset = lineStart + fieldStarts[field];
+		for (int i = 0; i < length; i++) {
+			if (buffer[offset + i] != value.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * @param field Index of a field.
+	 * @return The field as a String.
+	 */
+	public String getString(int field) {
+		checkField(field);
+		return getString(fieldStarts[field], fieldStops[field]);
+	}
+
+
+	/**
+	 * @param start Index of the first character in the line.
+	 * @param stop Index of the character following the last character.
+	 * @return The specified part of the line as a String.
+	 */
+	public String getString(int start, int stop) {
+		return new String(buffer, lineStart + start, stop - start);
+	}
+
+
+	/**
+	 * @param chromoConfig A ChromosomeList.
+	 * @param field Index of a field containing the name of a chromosome.
+	 * @return The index of the chromosome in the chromosome list. -1 if not found.
+	 */
+	public short getChromosome(ChromosomeList chromoConfig, int field) {
+		checkField(field);
+		return getChromosome(chromoConfig, fieldStarts[field], fieldStops[field]);
+	}
+
+
+	/**
+	 * @param chromoConfig A ChromosomeList.
+	 * @param start Index in the line of the first character of the name of a chromosome.
+	 * @param stop Index in the line of the character following the name.
+	 * @return The index of the chromosome in the chromosome list. -1 if not found.
+	 */
+	public short getChromosome(ChromosomeList chromoConfig, int start, int stop) {
+		return chromoConfig.getIndex(buffer, lineStart + start, lineStart + stop);
+	}
+
+
+	/**
+	 * @param field Index of a field.
+	 * @return The field parsed as an integer.
+	 * @throws NumberFormatException if the field is not an integer
+	 */
+	public int getInt(int field) {
+		checkField(field);
+		return parseInt(fieldStarts[field], fieldStops[field]);
+	}
+
+
+	/**
+	 * Parses an integer from a part of the line.
+	 * @param start Index of the first character in the line.
+	 * @param stop Index of the character following the last character.
+	 * @return The integer value.
+	 * @throws NumberFormatException if the specified part of the line is not an integer
+	 */
+	public int parseInt(int start, int stop) {
+		int i = lineStart + start;
+		int end = lineStart + stop;
+		if (i >= end) {
+			throw new NumberFormatException("For input string: \"\"");
+		}
+		boolean negative = false;
+		if ((buffer[i] == '-') || (buffer[i] == '+')) {
+			negative = (buffer[i] == '-');
+			i++;
+			if (i == end) {
+				throw new NumberFormatException("For input string: \"" + getString(start, stop) + "\"");
+			}
+		}
+		// the value is accumulated negatively to handle Integer.MIN_VALUE
+		int result = 0;
+		while (i < end) {
+			int digit = buffer[i] - '0';
+			if ((digit < 0) || (digit > 9) || (result < (Integer.MIN_VALUE + digit) / 10)) {
+				throw new NumberFormatException("For input string: \"" + getString(start, stop) + "\"");
+			}
+			result = result * 10 - digit;
+			i++;
+		}
+		if (negative) {
+			return result;
+		} else if (result == Integer.MIN_VALUE) {
+			throw new NumberFormatException("For input string: \"" + getString(start, stop) + "\"");
+		} else {
+			return -result;
+		}
+	}
+
+
+	/**
+	 * @param field Index of a field.
+	 * @return The field parsed as a double.
+	 * @throws NumberFormatException if the field is not a number
+	 */
+	public double getDouble(int field) {
+		checkField(field);
+		return parseDouble(fieldStarts[field], fieldStops[field]);
+	}
+
+
+	/**
+	 * Parses a double from a part of the line.
+	 * The decimal numbers with at most 15 significant digits and a small exponent are
+	 * computed directly from the bytes. The result is exact because both the digits and the
+	 * power of ten are exactly representable as doubles. The other numbers are parsed
+	 * by {@link Double#parseDouble(String)}.
+	 * @param start Index of the first character in the line.
+	 * @param stop Index of the character following the last character.
+	 * @return The double value.
+	 * @throws NumberFormatException if the specified part of the line is not a number
+	 */
+	public double parseDouble(int start, int stop) {
+		int i = lineStart + start;
+		int end = lineStart + stop;
+		boolean negative = false;
+		if ((i < end) && ((buffer[i] == '-') || (buffer[i] == '+'))) {
+			negative = (buffer[i] == '-');
+			i++;
+		}
+		long mantissa = 0;
+		int significantDigits = 0;
+		int exponent = 0;
+		boolean digitFound = false;
+		while ((i < end) && (buffer[i] >= '0') && (buffer[i] <= '9')) {
+			mantissa = mantissa * 10 + (buffer[i] - '0');
+			if (mantissa != 0) {
+				significantDigits++;
+			}
+			digitFound = true;
+			i++;
+			if (significantDigits > MAX_EXACT_DIGITS) {
+				return Double.parseDouble(getString(start, stop));
+			}
+		}
+		if ((i < end) && (buffer[i] == '.')) {
+			i++;
+			while ((i < end) && (buffer[i] >= '0') && (buffer[i] <= '9')) {
+				mantissa = mantissa * 10 + (buffer[i] - '0');
+				if (mantissa != 0) {
+					significantDigits++;
+				}
+				exponent--;
+				digitFound = true;
+				i++;
+				if (significantDigits > MAX_EXACT_DIGITS) {
+					return Double.parseDouble(getString(start, stop));
+				}
+			}
+		}
+		if (digitFound && (i < end) && ((buffer[i] == 'e') || (buffer[i] == 'E'))) {
+			i++;
+			boolean negativeExponent = false;
+			if ((i < end) && ((buffer[i] == '-') || (buffer[i] == '+'))) {
+				negativeExponent = (buffer[i] == '-');
+				i++;
+			}
+			int explicitExponent = 0;
+			boolean exponentDigitFound = false;
+			while ((i < end) && (buffer[i] >= '0') && (buffer[i] <= '9') && (explicitExponent < 1000)) {
+				explicitExponent = explicitExponent * 10 + (buffer[i] - '0');
+				exponentDigitFound = true;
+				i++;
+			}
+			if (!exponentDigitFound) {
+				return Double.parseDouble(getString(start, stop));
+			}
+			exponent += negativeExponent ? -explicitExponent : explicitExponent;
+		}
+		if (!digitFound || (i != end) || (exponent < -22) || (exponent > 22)) {
+			// special values, whitespaces, type suffixes or numbers that can't be computed exactly
+			return Double.parseDouble(getString(start, stop));
+		}
+		double result = mantissa;
+		if (exponent < 0) {
+			result /= POWERS_OF_TEN[-exponent];
+		} else {
+			result *= POWERS_OF_TEN[exponent];
+		}
+		return negative ? -result : result;
+	}
+
+
+	/**
+	 * Parses a field containing a list of integers.
+	 * @param field Index of a field.
+	 * @param separator Separator between the integers.
+	 * @return An array with the integers of the field.
+	 * @throws NumberFormatException if one of the element is not an integer
+	 */
+	public int[] getIntArray(int field, byte separator) {
+		checkField(field);
+		int count = countElements(field, separator);
+		int[] result = new int[count];
+		int elementStart = fieldStarts[field];
+		for (int i = 0; i < count; i++) {
+			int elementStop = elementStop(field, elementStart, separator);
+			result[i] = parseInt(elementStart, elementStop);
+			elementStart = elementStop + 1;
+		}
+		return result;
+	}
+
+
+	/**
+	 * Parses a field containing a list of doubles.
+	 * @param field Index of a field.
+	 * @param separator Separator between the doubles.
+	 * @return An array with the doubles of the field.
+	 * @throws NumberFormatException if one of the element is not a number
+	 */
+	public double[] getDoubleArray(int field, byte separator) {
+		checkField(field);
+		int count = countElements(field, separator);
+		double[] result = new double[count];
+		int elementStart = fieldStarts[field];
+		for (int i = 0; i < count; i++) {
+			int elementStop = elementStop(field, elementStart, separator);
+			result[i] = parseDouble(elementStart, elementStop);
+			elementStart = elementStop + 1;
+		}
+		return result;
+	}
+
+
+	/**
+	 * Counts the elements of a field like String.split: the trailing empty elements are not counted.
+	 * @param field Index of a field.
+	 * @param separator Separator between the elements.
+	 * @return The number of elements of the field.
+	 */
+	private int countElements(int field, byte separator) {
+		int stop = fieldStops[field];
+		while ((stop > fieldStarts[field]) && (buffer[lineStart + stop - 1] == separator)) {
+			stop--;
+		}
+		if (stop == fieldStarts[field]) {
+			// an empty field contains one empty element
+			return (fieldStops[field] == fieldStarts[field]) ? 1 : 0;
+		}
+		int count = 1;
+		for (int i = fieldStarts[field]; i < stop; i++) {
+			if (buffer[lineStart + i] == separator) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+
+	/**
+	 * @param field Index of a field.
+	 * @param elementStart Index in the line of the first character of an element of the field.
+	 * @param separator Separator between the elements.
+	 * @return The index in the line of the character following the element.
+	 */
+	private int elementStop(int field, int elementStart, byte separator) {
+		int i = elementStart;
+		while ((i < fieldStops[field]) && (buffer[lineStart + i] != separator)) {
+			i++;
+		}
+		return i;
+	}
+
+
+	/**
+	 * Checks that a field exists.
+	 * @param field Index of a field.
+	 * @throws ArrayIndexOutOfBoundsException if the field doesn't exist
+	 */
+	private void checkField(int field) {
+		if ((field < 0) || (field >= fieldCount)) {
+			throw new ArrayIndexOutOfBoundsException(field);
+		}
+	}
+
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return getString(0, length());
+	}
+}
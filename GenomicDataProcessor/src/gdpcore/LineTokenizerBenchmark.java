@@ -0,0 +1,171 @@
+/**
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+package gdpcore;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The LineTokenizerBenchmark class compares the extraction of the lines of a bedGraph file
+ * with a {@link LineTokenizer} and with the previous parser that read each line in a String
+ * and split it with String.split.
+ * The lines are generated in memory from a fixed seed so the benchmark doesn't depend on the disk
+ * and gives the same input on every run. Both parsers compute the same checksum of the extracted values.
+ * Usage: java gdpcore.LineTokenizerBenchmark chromosomeConfigFile [lineCount] [iterationCount]
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+public final class LineTokenizerBenchmark {
+	private static final long 	SEED = 42;				// seed of the generated lines
+	private static final int 	WARMUP_ITERATIONS = 5;	// number of iterations run before the measures
+
+
+	/**
+	 * Private constructor. The class only contains static methods.
+	 */
+	private LineTokenizerBenchmark() {}
+
+
+	/**
+	 * Generates the lines of a bedGraph file.
+	 * @param chromoConfig A ChromosomeConfiguration.
+	 * @param lineCount Number of lines.
+	 * @return The content of the file.
+	 */
+	private static byte[] generateFile(ChromosomeList chromoConfig, int lineCount) {
+		Random random = new Random(SEED);
+		StringBuilder file = new StringBuilder();
+		for (int i = 0; i < lineCount; i++) {
+			short chromo = (short) random.nextInt(chromoConfig.size());
+			int start = random.nextInt(Math.max(1, chromoConfig.get(chromo).getLength()));
+			file.append(chromoConfig.get(chromo).getName()).append('\t');
+			file.append(start).append('\t');
+			file.append(start + 1 + random.nextInt(1000)).append('\t');
+			file.append(Math.round(random.nextGaussian() * 1e6) / 1e4).append('\n');
+		}
+		return file.toString().getBytes();
+	}
+
+
+	/**
+	 * Extracts the lines like the previous parser: one String per line split with String.split.
+	 * @param chromoConfig A ChromosomeConfiguration.
+	 * @param file Content of the file.
+	 * @return The checksum of the extracted values.
+	 * @throws IOException
+	 */
+	private static double extractWithSplit(ChromosomeList chromoConfig, byte[] file) throws IOException {
+		double checksum = 0;
+		BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(file)));
+		String line;
+		while ((line = reader.readLine()) != null) {
+			if ((line.length() != 0) && (line.charAt(0) == 'c')) {
+				String[] splitedLine = line.split("\t");
+				short chromosomeNumber = chromoConfig.getIndex(splitedLine[0]);
+				if (chromosomeNumber != -1) {
+					checksum += chromosomeNumber + Integer.parseInt(splitedLine[1]) + Integer.parseInt(splitedLine[2]) + Double.parseDouble(splitedLine[3]);
+				}
+			}
+		}
+		reader.close();
+		return checksum;
+	}
+
+
+	/**
+	 * Extracts the lines with a LineTokenizer working on the bytes of the file.
+	 * @param chromoConfig A ChromosomeConfiguration.
+	 * @param file Content of the file.
+	 * @return The checksum of the extracted values.
+	 */
+	private static double extractWithTokenizer(ChromosomeList chromoConfig, byte[] file) {
+		double checksum = 0;
+		LineTokenizer line = new LineTokenizer();
+		int lineStart = 0;
+		for (int i = 0; i < file.length; i++) {
+			if (file[i] == '\n') {
+				line.setLine(file, lineStart, i);
+				if ((line.length() != 0) && (line.charAt(0) == 'c')) {
+					short chromosomeNumber = line.getChromosome(chromoConfig, 0);
+					if (chromosomeNumber != -1) {
+						checksum += chromosomeNumber + line.getInt(1) + line.getInt(2) + line.getDouble(3);
+					}
+				}
+				lineStart = i + 1;
+			}
+		}
+		return checksum;
+	}
+
+
+	/**
+	 * Runs one iteration of a parser.
+	 * @param tokenizer True to run the LineTokenizer, false to run the previous parser.
+	 * @param chromoConfig A ChromosomeConfiguration.
+	 * @param file Content of the file.
+	 * @return The checksum of the extracted values.
+	 * @throws IOException
+	 */
+	private static double run(boolean tokenizer, ChromosomeList chromoConfig, byte[] file) throws IOException {
+		return tokenizer ? extractWithTokenizer(chromoConfig, file) : extractWithSplit(chromoConfig, file);
+	}
+
+
+	/**
+	 * Measures a parser and prints the median time of the iterations.
+	 * @param tokenizer True to measure the LineTokenizer, false to measure the previous parser.
+	 * @param chromoConfig A ChromosomeConfiguration.
+	 * @param file Content of the file.
+	 * @param lineCount Number of lines of the file.
+	 * @param iterationCount Number of measured iterations.
+	 * @return The checksum of the extracted values.
+	 * @throws IOException
+	 */
+	private static double measure(boolean tokenizer, ChromosomeList chromoConfig, byte[] file, int lineCount, int iterationCount) throws IOException {
+		double checksum = 0;
+		for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+			checksum = run(tokenizer, chromoConfig, file);
+		}
+		long[] times = new long[iterationCount];
+		for (int i = 0; i < iterationCount; i++) {
+			long start = System.nanoTime();
+			checksum = run(tokenizer, chromoConfig, file);
+			times[i] = System.nanoTime() - start;
+		}
+		Arrays.sort(times);
+		double median = times[iterationCount / 2] / 1e6;
+		System.out.println((tokenizer ? "LineTokenizer" : "String.split ") + "\tmedian: " + median + " ms\t"
+				+ Math.round(lineCount / median) + " lines/ms\tchecksum: " + checksum);
+		return checksum;
+	}
+
+
+	/**
+	 * @param args Path of the chromosome configuration file, number of lines (default 1000000), number of measured iterations (default 10).
+	 */
+	public static void main(String[] args) {
+		if (args.length == 0) {
+			System.out.println("Usage: java gdpcore.LineTokenizerBenchmark chromosomeConfigFile [lineCount] [iterationCount]");
+			return;
+		}
+		try {
+			ChromosomeList chromoConfig = new ChromosomeList(args[0]);
+			int lineCount = (args.length > 1) ? Integer.parseInt(args[1]) : 1000000;
+			int iterationCount = (args.length > 2) ? Integer.parseInt(args[2]) : 10;
+			byte[] file = generateFile(chromoConfig, lineCount);
+			double splitChecksum = measure(false, chromoConfig, file, lineCount, iterationCount);
+			double tokenizerChecksum = measure(true, chromoConfig, file, lineCount, iterationCount);
+			if (splitChecksum != tokenizerChecksum) {
+				System.out.println("Error: the parsers extracted different values");
+			}
+		} catch (Exception e) {
+			System.out.println("Error" + e);
+		}
+	}
+}
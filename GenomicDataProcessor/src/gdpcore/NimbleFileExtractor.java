@@ -27,8 +27,36 @@ public class NimbleFileExtractor extends GenomicPositionIntensityFileExtractor {
 	 * @throws FileNotFoundException
 	 * @throws IOException
 	 */
-	public NimbleFileExtractor(String logFile, ChromosomeList chromoConfig, String addressNimbleFile) throws FileNotFoundException, IOException{
-		super(chromoConfig);
+	public NimbleFileExtractor(String logFile, ChromosomeList chromoConfig, String addressNimbleFile) throws FileNotFoundException, IOException {
+		this(logFile, chromoConfig, addressNimbleFile, 1);
+	}
+
+
+	/**
+	 * Extracts a bedGraph file.
+	 * @param addressNimbleFile Path to a nimbleGene file.
+	 * @param chromoConfig A ChromosomeConfiguration.
+	 * @param threadCount Number of threads used to extract the file.
+	 * @throws FileNotFoundException
+	 * @throws IOException
+	 */
+	public NimbleFileExtractor(String logFile, ChromosomeList chromoConfig, String addressNimbleFile, int threadCount) throws FileNotFoundException, IOException {
+		this(logFile, chromoConfig, addressNimbleFile, threadCount, null);
+	}
+
+
+	/**
+	 * Extracts a bedGraph file and notifies a listener during the extraction.
+	 * @param addressNimbleFile Path to a nimbleGene file.
+	 * @param chromoConfig A ChromosomeConfiguration.
+	 * @param threadCount Number of threads used to extract the file.
+	 * @param listener Listener notified during the extraction. Can be null.
+	 * @throws FileNotFoundException
+	 * @throws IOException
+	 */
+	public NimbleFileExtractor(String logFile, ChromosomeList chromoConfig, String addressNimbleFile, int threadCount, ExtractionListener listener) throws FileNotFoundException, IOException {
+		super(chromoConfig, threadCount);
+		setExtractionListener(listener);
 		extractFile(addressNimbleFile);
 		if(logFile != null) {
 			// display statistics
@@ -48,43 +76,53 @@ public class NimbleFileExtractor extends GenomicPositionIntensityFileExtractor {
 		}
 	}
 
+	/**
+	 * Creates an extractor without extracting any file.
+	 * @param chromoConfig A ChromosomeConfiguration.
+	 */
+	private NimbleFileExtractor(ChromosomeList chromoConfig) {
+		super(chromoConfig);
+	}
+
+
+	/**
+	 * @see gdpcore.GenomicFileExtractor#createChunkExtractor()
+	 */
+	@Override
+	protected GenomicFileExtractor createChunkExtractor() {
+		return new NimbleFileExtractor(chromoConfig);
+	}
+
+
 	/**
 	 * Receives one line from the input file and tries
 	 * to extract a chromosome number, a position and an intensity.
 	 * @param extractedLine Line read from the file being extracted. 
 	 */
 	@Override
-	protected void extractLine(String extractedLine) {
+	protected void extractLine(LineTokenizer line) {
 		int chromosomeNumber;
-		if (extractedLine.trim().length() == 0) {
+		if (line.isBlank()) {
 			return;
 		}
 		// We don't want to extract the header lines
 		// So we extract only if the line starts with a number
-		try {
-			Integer.parseInt(extractedLine.substring(0, 1));
-		} catch (Exception e){
+		if ((line.charAt(0) < '0') || (line.charAt(0) > '9')) {
 			return;
 		}
 
-		String[] splitedLine = extractedLine.split("\t");
-		if (!splitedLine[1].equals("RANDOM")) {
-			String chromosomeChar = splitedLine[2];
-			if (chromosomeChar.trim().length() == 0) {
-				return;
-			}
-			char c = chromosomeChar.charAt(0);
-			int endIndex = 0;
-			while ((c != ':') && (endIndex< chromosomeChar.length())) {
-				endIndex++;
-				if ((endIndex < chromosomeChar.length())) {
-					c = chromosomeChar.charAt(endIndex);
-				}
+		if (!line.fieldEquals(1, "RANDOM")) {
+			int chromosomeStart = line.getFieldStart(2);
+			int chromosomeStop = line.getFieldStop(2);
+			int colon = line.indexOf((byte) ':', chromosomeStart);
+			if ((colon != -1) && (colon < chromosomeStop)) {
+				chromosomeStop = colon;
 			}
-			chromosomeNumber = chromoConfig.getIndex(chromosomeChar.substring(0, endIndex));
+			chromosomeNumber = line.getChromosome(chromoConfig, chromosomeStart, chromosomeStop);
 			if(chromosomeNumber != -1)  {
-				positionList.get(chromosomeNumber).add(Integer.parseInt(splitedLine[4]));
-				intensityList.get(chromosomeNumber).add(Double.parseDouble(splitedLine[9]));
+				setCurrentChromosome((short) chromosomeNumber);
+				positionList.get(chromosomeNumber).add(line.getInt(4));
+				intensityList.get(chromosomeNumber).add(line.getDouble(9));
 				lineCount++;
 			}			
 		}
@@ -0,0 +1,353 @@
+/**
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+package gdpcore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The Percentiles class computes the values at several ranks of the non-null bins of a BinList without sorting them.
+ * The rank of the percentile p among n values is <i>(int) (p * (n - 1))</i> like when the values are sorted.
+ * <ul>
+ * <li>For one chromosome the non-null values are copied and the ranks are selected with a multi-rank quickselect.</li>
+ * <li>For the whole genome the values are not copied: histograms of the values are computed in parallel
+ * on the chunks of {@link BinListExecutor} and merged. The range of the bucket containing a rank is refined
+ * until it contains few enough values to be copied and selected with the quickselect.</li>
+ * <li>In approximate mode only one histogram is computed and the value is interpolated in the bucket
+ * containing the rank. The error is smaller than the width of the bucket: 1 / {@value #BUCKET_COUNT}
+ * of the range of the values.</li>
+ * </ul>
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+final class Percentiles {
+	private static final int 	BUCKET_COUNT = 1024;		// number of buckets of the histograms
+	private static final int 	SELECT_THRESHOLD = 65536;	// maximum number of values copied to run the quickselect
+	private static final int 	SORT_THRESHOLD = 16;		// length under which a range is sorted by the quickselect
+
+
+	/**
+	 * Histogram of the non-null values between a lower and an upper bound.
+	 * Two histograms with the same bounds can be merged.
+	 * @author Julien Lajugie
+	 * @version 0.1
+	 */
+	private static final class Histogram {
+		private final double 	lowerBound;		// smallest value counted
+		private final double 	upperBound;		// greatest value counted
+		private final long[] 	counts;			// number of values in each bucket
+		private final double[] 	bucketMin;		// smallest value of each bucket
+		private final double[] 	bucketMax;		// greatest value of each bucket
+		private long 			total = 0;		// number of values counted
+
+
+		/**
+		 * Creates an empty Histogram.
+		 * @param lowerBound Smallest value counted.
+		 * @param upperBound Greatest value counted.
+		 */
+		private Histogram(double lowerBound, double upperBound) {
+			this.lowerBound = lowerBound;
+			this.upperBound = upperBound;
+			counts = new long[BUCKET_COUNT];
+			bucketMin = new double[BUCKET_COUNT];
+			bucketMax = new double[BUCKET_COUNT];
+		}
+
+
+		/**
+		 * Adds a value if it's between the bounds of the histogram.
+		 * The index of the bucket is a non-decreasing function of the value so the values
+		 * between the smallest and the greatest value of a bucket are all in this bucket.
+		 * @param value A value.
+		 */
+		private void add(double value) {
+			if ((value < lowerBound) || (value > upperBound)) {
+				return;
+			}
+			int bucket = (int) ((value - lowerBound) / (upperBound - lowerBound) * BUCKET_COUNT);
+			bucket = Math.min(BUCKET_COUNT - 1, Math.max(0, bucket));
+			if ((counts[bucket] == 0) || (value < bucketMin[bucket])) {
+				bucketMin[bucket] = value;
+			}
+			if ((counts[bucket] == 0) || (value > bucketMax[bucket])) {
+				bucketMax[bucket] = value;
+			}
+			counts[bucket]++;
+			total++;
+		}
+
+
+		/**
+		 * Adds the values of another histogram with the same bounds.
+		 * @param other A Histogram.
+		 */
+		private void merge(Histogram other) {
+			for (int i = 0; i < BUCKET_COUNT; i++) {
+				if (other.counts[i] > 0) {
+					if ((counts[i] == 0) || (other.bucketMin[i] < bucketMin[i])) {
+						bucketMin[i] = other.bucketMin[i];
+					}
+					if ((counts[i] == 0) || (other.bucketMax[i] > bucketMax[i])) {
+						bucketMax[i] = other.bucketMax[i];
+					}
+					counts[i] += other.counts[i];
+				}
+			}
+			total += other.total;
+		}
+	}
+
+
+	/**
+	 * Private constructor. The class only contains static methods.
+	 */
+	private Percentiles() {}
+
+
+	/**
+	 * @param count Number of values.
+	 * @param percentile A percentile between 0 and 1.
+	 * @return The rank of the percentile.
+	 */
+	private static long getRank(long count, double percentile) {
+		return (long) (percentile * (count - 1));
+	}
+
+
+	/**
+	 * Computes the values of several percentiles of the non-null bins of a chromosome.
+	 * @param data Bins of a chromosome.
+	 * @param percentiles Percentiles between 0 and 1.
+	 * @return The value of each percentile, null if the chromosome has no non-null bin.
+	 */
+	static double[] getValues(BinArray data, double[] percentiles) {
+		int count = 0;
+		for (int j = data.nextNonNullIndex(0); j < data.size(); j = data.nextNonNullIndex(j + 1)) {
+			if (data.get(j) != 0) {
+				count++;
+			}
+		}
+		if (count == 0) {
+			return null;
+		}
+		double[] values = new double[count];
+		int k = 0;
+		for (int j = data.nextNonNullIndex(0); j < data.size(); j = data.nextNonNullIndex(j + 1)) {
+			if (data.get(j) != 0) {
+				values[k++] = data.get(j);
+			}
+		}
+		long[] ranks = new long[percentiles.length];
+		for (int i = 0; i < percentiles.length; i++) {
+			ranks[i] = getRank(count, percentiles[i]);
+		}
+		return select(values, ranks);
+	}
+
+
+	/**
+	 * Computes the values of several percentiles of the non-null bins of all the chromosomes.
+	 * @param data Bins of each chromosome, null for the chromosomes without data.
+	 * @param percentiles Percentiles between 0 and 1.
+	 * @param approximate True to interpolate the values in the buckets of one histogram instead of computing the exact values.
+	 * @return The value of each percentile, null if there is no non-null bin.
+	 */
+	static double[] getValues(final BinArray[] data, double[] percentiles, boolean approximate) {
+		// number, smallest and greatest non-null values
+		double[] range = BinListExecutor.reduce(data, new BinListExecutor.Reduction<double[]>() {
+			@Override
+			public double[] compute(short chromosome, int start, int stop) {
+				double[] result = {0, 0, 0};
+				for (int j = data[chromosome].nextNonNullIndex(start); j < stop; j = data[chromosome].nextNonNullIndex(j + 1)) {
+					double value = data[chromosome].get(j);
+					if (value != 0) {
+						if ((result[0] == 0) || (value < result[1])) {
+							result[1] = value;
+						}
+						if ((result[0] == 0) || (value > result[2])) {
+							result[2] = value;
+						}
+						result[0]++;
+					}
+				}
+				return result;
+			}
+
+			@Override
+			public double[] combine(double[] result1, double[] result2) {
+				if (result1[0] == 0) {
+					return result2;
+				} else if (result2[0] == 0) {
+					return result1;
+				}
+				return new double[] {result1[0] + result2[0], Math.min(result1[1], result2[1]), Math.max(result1[2], result2[2])};
+			}
+		});
+		if ((range == null) || (range[0] == 0)) {
+			return null;
+		}
+		long count = (long) range[0];
+		double[] result = new double[percentiles.length];
+		// the first histogram is shared by all the percentiles
+		Histogram firstHistogram = (range[1] == range[2]) ? null : getHistogram(data, range[1], range[2]);
+		for (int i = 0; i < percentiles.length; i++) {
+			long rank = getRank(count, percentiles[i]);
+			double lowerBound = range[1];
+			double upperBound = range[2];
+			Histogram histogram = firstHistogram;
+			// rank of the searched value among the values between the bounds
+			long rankInRange = rank;
+			while ((lowerBound < upperBound) && (histogram.total > SELECT_THRESHOLD)) {
+				int bucket = 0;
+				while (rankInRange >= histogram.counts[bucket]) {
+					rankInRange -= histogram.counts[bucket];
+					bucket++;
+				}
+				lowerBound = histogram.bucketMin[bucket];
+				upperBound = histogram.bucketMax[bucket];
+				if (approximate) {
+					long bucketCount = histogram.counts[bucket];
+					double position = (bucketCount == 1) ? 0 : (double) rankInRange / (bucketCount - 1);
+					lowerBound = upperBound = lowerBound + position * (upperBound - lowerBound);
+				} else if (lowerBound < upperBound) {
+					histogram = getHistogram(data, lowerBound, upperBound);
+				}
+			}
+			if (lowerBound == upperBound) {
+				result[i] = lowerBound;
+			} else {
+				double[] values = getValuesBetween(data, lowerBound, upperBound, (int) histogram.total);
+				result[i] = select(values, new long[] {rankInRange})[0];
+			}
+		}
+		return result;
+	}
+
+
+	/**
+	 * Computes in parallel the histogram of the non-null values between two bounds.
+	 * @param data Bins of each chromosome, null for the chromosomes without data.
+	 * @param lowerBound Smallest value counted.
+	 * @param upperBound Greatest value counted.
+	 * @return A Histogram.
+	 */
+	private static Histogram getHistogram(final BinArray[] data, final double lowerBound, final double upperBound) {
+		return BinListExecutor.reduce(data, new BinListExecutor.Reduction<Histogram>() {
+			@Override
+			public Histogram compute(short chromosome, int start, int stop) {
+				Histogram histogram = new Histogram(lowerBound, upperBound);
+				for (int j = data[chromosome].nextNonNullIndex(start); j < stop; j = data[chromosome].nextNonNullIndex(j + 1)) {
+					if (data[chromosome].get(j) != 0) {
+						histogram.add(data[chromosome].get(j));
+					}
+				}
+				return histogram;
+			}
+
+			@Override
+			public Histogram combine(Histogram result1, Histogram result2) {
+				result1.merge(result2);
+				return result1;
+			}
+		});
+	}
+
+
+	/**
+	 * Copies the non-null values between two bounds.
+	 * @param data Bins of each chromosome, null for the chromosomes without data.
+	 * @param lowerBound Smallest value copied.
+	 * @param upperBound Greatest value copied.
+	 * @param count Number of values between the bounds.
+	 * @return An array containing the values between the bounds.
+	 */
+	private static double[] getValuesBetween(BinArray[] data, double lowerBound, double upperBound, int count) {
+		double[] values = new double[count];
+		int k = 0;
+		for (BinArray chromosome: data) {
+			if (chromosome != null) {
+				for (int j = chromosome.nextNonNullIndex(0); j < chromosome.size(); j = chromosome.nextNonNullIndex(j + 1)) {
+					double value = chromosome.get(j);
+					if ((value != 0) && (value >= lowerBound) && (value <= upperBound)) {
+						values[k++] = value;
+					}
+				}
+			}
+		}
+		return values;
+	}
+
+
+	/**
+	 * Finds the values at several ranks of an array. The array is reordered.
+	 * @param values An array.
+	 * @param ranks Ranks of the values.
+	 * @return The value at each rank, as if the array was sorted.
+	 */
+	private static double[] select(double[] values, long[] ranks) {
+		// all the ranks are found during the same recursive partition
+		ArrayList<Integer> order = new ArrayList<Integer>();
+		for (int i = 0; i < ranks.length; i++) {
+			order.add(i);
+		}
+		double[] result = new double[ranks.length];
+		select(values, 0, values.length, ranks, order, result);
+		return result;
+	}
+
+
+	/**
+	 * Finds the values at several ranks in a range of an array (multi-rank quickselect with a three-way partition).
+	 * @param values An array.
+	 * @param from First index of the range (included).
+	 * @param to Last index of the range (excluded).
+	 * @param ranks Ranks of the values.
+	 * @param order Indexes of the ranks contained in the range.
+	 * @param result Array receiving the value of each rank.
+	 */
+	private static void select(double[] values, int from, int to, long[] ranks, ArrayList<Integer> order, double[] result) {
+		if (order.isEmpty()) {
+			return;
+		}
+		if (to - from <= SORT_THRESHOLD) {
+			Arrays.sort(values, from, to);
+			for (int index: order) {
+				result[index] = values[(int) ranks[index]];
+			}
+			return;
+		}
+		// median of three as pivot
+		double a = values[from], b = values[(from + to) >>> 1], c = values[to - 1];
+		double pivot = Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+		// values[from, lower) < pivot, values[lower, i) == pivot, values(upper, to) > pivot
+		int lower = from, i = from, upper = to - 1;
+		while (i <= upper) {
+			if (values[i] < pivot) {
+				double tmp = values[lower]; values[lower] = values[i]; values[i] = tmp;
+				lower++;
+				i++;
+			} else if (values[i] > pivot) {
+				double tmp = values[upper]; values[upper] = values[i]; values[i] = tmp;
+				upper--;
+			} else {
+				i++;
+			}
+		}
+		ArrayList<Integer> orderBelow = new ArrayList<Integer>();
+		ArrayList<Integer> orderAbove = new ArrayList<Integer>();
+		for (int index: order) {
+			if (ranks[index] < lower) {
+				orderBelow.add(index);
+			} else if (ranks[index] > upper) {
+				orderAbove.add(index);
+			} else {
+				result[index] = pivot;
+			}
+		}
+		select(values, from, lower, ranks, orderBelow, result);
+		select(values, upper + 1, to, ranks, orderAbove, result);
+	}
+}
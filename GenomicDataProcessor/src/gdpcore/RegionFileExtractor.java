@@ -0,0 +1,138 @@
+/**
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+package gdpcore;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+
+
+/**
+ * The RegionFileExtractor class extracts the regions of a BED file:
+ * a chromosome, a start position, a stop position and an optional name per line.
+ * The stripe files can be extracted as regions.
+ * The regions are used to compute the statistics of a BinList on each region
+ * (see {@link BinList#printRegionStatisticsFile(String, RegionFileExtractor)}).
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+public final class RegionFileExtractor extends GenomicFileExtractor {
+	private ArrayList<IntList> 				startList;	// start positions of the regions organized per chromosome
+	private ArrayList<IntList> 				stopList;	// stop positions of the regions organized per chromosome
+	private ArrayList<ArrayList<String>> 	nameList;	// names of the regions organized per chromosome, null if the region has no name
+
+
+	/**
+	 * Extracts a BED file.
+	 * @param chromoConfig A ChromosomeConfiguration.
+	 * @param addressFile Path to a BED file.
+	 * @param threadCount Number of threads used to extract the file.
+	 * @throws FileNotFoundException
+	 * @throws IOException
+	 */
+	public RegionFileExtractor(ChromosomeList chromoConfig, String addressFile, int threadCount) throws FileNotFoundException, IOException {
+		this(chromoConfig, threadCount);
+		extractFile(addressFile);
+	}
+
+
+	/**
+	 * Creates an extractor without extracting any file.
+	 * @param chromoConfig A ChromosomeConfiguration.
+	 * @param threadCount Number of threads used to extract the file.
+	 */
+	private RegionFileExtractor(ChromosomeList chromoConfig, int threadCount) {
+		super(chromoConfig, threadCount);
+		startList = new ArrayList<IntList>();
+		stopList = new ArrayList<IntList>();
+		nameList = new ArrayList<ArrayList<String>>();
+		for(short i = 0; i < chromoConfig.size(); i++) {
+			startList.add(new IntList());
+			stopList.add(new IntList());
+			nameList.add(new ArrayList<String>());
+		}
+	}
+
+
+	/**
+	 * @see gdpcore.GenomicFileExtractor#createChunkExtractor()
+	 */
+	@Override
+	protected GenomicFileExtractor createChunkExtractor() {
+		return new RegionFileExtractor(chromoConfig, 1);
+	}
+
+
+	/**
+	 * Appends the regions extracted from a chunk of the file.
+	 * @see gdpcore.GenomicFileExtractor#mergeChunk(gdpcore.GenomicFileExtractor)
+	 */
+	@Override
+	protected void mergeChunk(GenomicFileExtractor chunk) {
+		super.mergeChunk(chunk);
+		RegionFileExtractor regionChunk = (RegionFileExtractor) chunk;
+		for(short i = 0; i < chromoConfig.size(); i++) {
+			startList.get(i).addAll(regionChunk.startList.get(i));
+			stopList.get(i).addAll(regionChunk.stopList.get(i));
+			nameList.get(i).addAll(regionChunk.nameList.get(i));
+		}
+	}
+
+
+	/**
+	 * Receives one line from the input file and tries to extract
+	 * a chromosome, a start position, a stop position and a name.
+	 * The comment lines and the track and browser lines are skipped.
+	 * @param line Line read from the file being extracted.
+	 */
+	@Override
+	protected void extractLine(LineTokenizer line) {
+		if ((line.length() != 0) && (line.charAt(0) != '#') && (line.getFieldCount() >= 3)) {
+			short chromosomeNumber = line.getChromosome(chromoConfig, 0);
+			if (chromosomeNumber != -1) {
+				setCurrentChromosome(chromosomeNumber);
+				startList.get(chromosomeNumber).add(line.getInt(1));
+				stopList.get(chromosomeNumber).add(line.getInt(2));
+				nameList.get(chromosomeNumber).add((line.getFieldCount() > 3) ? line.getString(3) : null);
+				lineCount++;
+			}
+		}
+	}
+
+
+	/**
+	 * @return The number of regions extracted.
+	 */
+	public int getRegionCount() {
+		return lineCount;
+	}
+
+
+	/**
+	 * @param chromosome A chromosome.
+	 * @return The start positions of the regions of the chromosome, in the order of the file.
+	 */
+	public IntList getStarts(short chromosome) {
+		return startList.get(chromosome);
+	}
+
+
+	/**
+	 * @param chromosome A chromosome.
+	 * @return The stop positions of the regions of the chromosome, in the order of the file.
+	 */
+	public IntList getStops(short chromosome) {
+		return stopList.get(chromosome);
+	}
+
+
+	/**
+	 * @param chromosome A chromosome.
+	 * @return The names of the regions of the chromosome, in the order of the file. Null for the regions without name.
+	 */
+	public ArrayList<String> getNames(short chromosome) {
+		return nameList.get(chromosome);
+	}
+}
@@ -35,32 +35,28 @@ public final class RepeatFileExtractor extends GenomicFileExtractor {
 
 
 	@Override
-	protected void extractLine(String extractedLine) {
-		if (extractedLine.charAt(0) != '#') {
-			String[] splitedLine = null;
+	protected void extractLine(LineTokenizer line) {
+		if ((line.length() != 0) && (line.charAt(0) != '#')) {
+			short chromosome = line.getChromosome(chromoConfig, 0);
 
-			splitedLine = extractedLine.split("\t");
-			short chromosome = chromoConfig.getIndex(splitedLine[0]);
-
-			if ((chromosome != -1) && (splitedLine.length == 4)) {
-				int start = Integer.parseInt(splitedLine[1]);
-				int stop = Integer.parseInt(splitedLine[2]);
-				String family = splitedLine[3];
+			if ((chromosome != -1) && (line.getFieldCount() == 4)) {
+				int start = line.getInt(1);
+				int stop = line.getInt(2);
 
 				if (repeatFamilyList.size() == 0) {
-					repeatFamilyList.add(new RepeatFamily(family, chromoConfig));
+					repeatFamilyList.add(new RepeatFamily(line.getString(3), chromoConfig));
 					repeatFamilyList.get(0).add(chromosome, start, stop);
 				} else {
 					int i = 0;
 					boolean familyFound = false;
 					while ((i < repeatFamilyList.size()) && (!familyFound)) {
-						familyFound = repeatFamilyList.get(i).getName().equals(family);
+						familyFound = line.fieldEquals(3, repeatFamilyList.get(i).getName());
 						i++;
 					}
 					if (familyFound) {
 						repeatFamilyList.get(i - 1).add(chromosome, start, stop);
 					} else { 
-						repeatFamilyList.add(new RepeatFamily(family, chromoConfig));
+						repeatFamilyList.add(new RepeatFamily(line.getString(3), chromoConfig));
 						repeatFamilyList.get(repeatFamilyList.size() - 1).add(chromosome, start, stop);
 					}
 				}
@@ -0,0 +1,142 @@
+/**
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+package gdpcore;
+
+/**
+ * The RollingStatistics class computes the mean and the variance of the non-null bins
+ * in a window sliding along a chromosome.
+ * The count, the sum and the sum of squares of the window are updated when a bin enters
+ * or leaves the window, so a range of bins is computed in one pass whatever the width of the window.
+ * The values are shifted by the first non-null value of the range before being summed
+ * to limit the loss of precision of the sum of squares.
+ * Only the bins that can be non-null (see {@link BinArray#nextNonNullIndex(int)}) are read.
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+final class RollingStatistics {
+
+	/**
+	 * Private constructor. The class only contains static methods.
+	 */
+	private RollingStatistics() {}
+
+
+	/**
+	 * Computes the mean and the variance of the non-null bins at a distance
+	 * smaller or equal to <i>halfWidth</i> bins of each bin between <i>start</i> and <i>stop</i>.
+	 * The mean and the variance are 0 when the window doesn't contain non-null bins.
+	 * @param data Bins of a chromosome.
+	 * @param halfWidth Half width of the window in bins.
+	 * @param start Index of the first bin computed (included).
+	 * @param stop Index of the last bin computed (excluded).
+	 * @param mean Array receiving the mean of the bin <i>start + i</i> at the index <i>i</i>. Can be null.
+	 * @param variance Array receiving the variance of the bin <i>start + i</i> at the index <i>i</i>. Can be null.
+	 */
+	static void compute(BinArray data, int halfWidth, int start, int stop, double[] mean, double[] variance) {
+		compute(data, data.size(), halfWidth, halfWidth, start, stop, mean, variance);
+	}
+
+
+	/**
+	 * Computes the mean and the variance of the non-null bins between <i>j - before</i> and <i>j + after</i> (included)
+	 * of each bin <i>j</i> between <i>start</i> and <i>stop</i>. Only the bins before <i>size</i> are in the windows.
+	 * The mean and the variance are 0 when the window doesn't contain non-null bins.
+	 * @param data Bins of a chromosome.
+	 * @param size Number of bins of the chromosome in the windows. Smaller or equal to the size of <i>data</i>.
+	 * @param before Number of bins of the window before the current bin.
+	 * @param after Number of bins of the window after the current bin. Positive or null.
+	 * @param start Index of the first bin computed (included).
+	 * @param stop Index of the last bin computed (excluded).
+	 * @param mean Array receiving the mean of the bin <i>start + i</i> at the index <i>i</i>. Can be null.
+	 * @param variance Array receiving the variance of the bin <i>start + i</i> at the index <i>i</i>. Can be null.
+	 */
+	static void compute(BinArray data, int size, int before, int after, int start, int stop, double[] mean, double[] variance) {
+		if (start >= stop) {
+			return;
+		}
+		int windowStart = Math.max(0, start - before);
+		int windowStop = (int) Math.max(windowStart, Math.min(size, (long) start + after + 1));
+		double shift = 0;
+		int rangeStop = (int) Math.min(size, (long) stop + after);
+		for (int i = data.nextNonNullIndex(windowStart); i < rangeStop; i = data.nextNonNullIndex(i + 1)) {
+			if (data.get(i) != 0) {
+				shift = data.get(i);
+				break;
+			}
+		}
+		int count = 0;
+		double sum = 0;
+		double sumOfSquares = 0;
+		for (int i = data.nextNonNullIndex(windowStart); i < windowStop; i = data.nextNonNullIndex(i + 1)) {
+			if (data.get(i) != 0) {
+				double value = data.get(i) - shift;
+				count++;
+				sum += value;
+				sumOfSquares += value * value;
+			}
+		}
+		// next bins that can be non-null leaving and entering the window
+		boolean sparse = data.isSparse();
+		int nextLeaving = data.nextNonNullIndex(windowStart);
+		int nextEntering = data.nextNonNullIndex(windowStop);
+		for (int j = start; j < stop;) {
+			if (j > start) {
+				// the window slides to the bin j
+				int leaving = j - before - 1;
+				if (leaving == nextLeaving) {
+					if ((leaving < size) && (data.get(leaving) != 0)) {
+						double value = data.get(leaving) - shift;
+						count--;
+						sum -= value;
+						sumOfSquares -= value * value;
+					}
+					nextLeaving = data.nextNonNullIndex(leaving + 1);
+				}
+				int entering = j + after;
+				if ((entering == nextEntering) && (entering < size)) {
+					if (data.get(entering) != 0) {
+						double value = data.get(entering) - shift;
+						count++;
+						sum += value;
+						sumOfSquares += value * value;
+					}
+					nextEntering = data.nextNonNullIndex(entering + 1);
+				}
+			}
+			double currentMean = 0;
+			double currentVariance = 0;
+			if (count > 0) {
+				double shiftedMean = sum / count;
+				currentMean = shiftedMean + shift;
+				// the rounding errors can make the variance slightly negative
+				currentVariance = Math.max(0, sumOfSquares / count - shiftedMean * shiftedMean);
+			} else {
+				// the window is empty: the sums are reset to remove the rounding errors
+				sum = 0;
+				sumOfSquares = 0;
+			}
+			int next = j + 1;
+			if (sparse) {
+				// the window doesn't change before the next bin that can be non-null leaves or enters it
+				long nextChange = stop;
+				if (nextLeaving < size) {
+					nextChange = Math.min(nextChange, (long) nextLeaving + before + 1);
+				}
+				if (nextEntering < size) {
+					nextChange = Math.min(nextChange, (long) nextEntering - after);
+				}
+				next = (int) Math.max(next, nextChange);
+			}
+			for (; j < next; j++) {
+				if (mean != null) {
+					mean[j - start] = currentMean;
+				}
+				if (variance != null) {
+					variance[j - start] = currentVariance;
+				}
+			}
+		}
+	}
+}
@@ -35,14 +35,55 @@ public final class SolexaFileExtractor extends GenomicPositionFileExtractor {
 	 * @throws IOException
 	 */
 	public SolexaFileExtractor(String logFile, ChromosomeList chromoConfig, String addressFile) throws FileNotFoundException, IOException {
-		super(chromoConfig);
-		// initialize the number of read per chromosome and the data for statistics
+		this(logFile, chromoConfig, addressFile, 1);
+	}
+	
+	
+	/**
+	 * Extracts the Solexa data from a file using several threads.
+	 * @param addressFile Address of a solexa file.
+	 * @param chromoConfig A ChromosomeConfiguration.
+	 * @param threadCount Number of threads used to extract the file.
+	 * @throws FileNotFoundException
+	 * @throws IOException
+	 */
+	public SolexaFileExtractor(String logFile, ChromosomeList chromoConfig, String addressFile, int threadCount) throws FileNotFoundException, IOException {
+		this(logFile, chromoConfig, addressFile, threadCount, 0);
+	}
+	
+	
+	/**
+	 * Extracts the Solexa data from a file using several threads.
+	 * If a window size is specified, the number of reads per bin is computed 
+	 * during the extraction and the positions are not stored.  
+	 * @param addressFile Address of a solexa file.
+	 * @param chromoConfig A ChromosomeConfiguration.
+	 * @param threadCount Number of threads used to extract the file.
+	 * @param windowSize Size of the bins computed during the extraction. 0 to store the positions.
+	 * @throws FileNotFoundException
+	 * @throws IOException
+	 */
+	public SolexaFileExtractor(String logFile, ChromosomeList chromoConfig, String addressFile, int threadCount, int windowSize) throws FileNotFoundException, IOException {
+		this(logFile, chromoConfig, addressFile, threadCount, windowSize, null);
+	}
+	
+	
+	/**
+	 * Extracts the Solexa data from a file and notifies a listener during the extraction.
+	 * If a window size is specified, the number of reads per bin is computed 
+	 * during the extraction and the positions are not stored.  
+	 * @param addressFile Address of a solexa file.
+	 * @param chromoConfig A ChromosomeConfiguration.
+	 * @param threadCount Number of threads used to extract the file.
+	 * @param windowSize Size of the bins computed during the extraction. 0 to store the positions.
+	 * @param listener Listener notified during the extraction. Can be null.
+	 * @throws FileNotFoundException
+	 * @throws IOException
+	 */
+	public SolexaFileExtractor(String logFile, ChromosomeList chromoConfig, String addressFile, int threadCount, int windowSize, ExtractionListener listener) throws FileNotFoundException, IOException {
+		this(chromoConfig, threadCount, windowSize);
+		setExtractionListener(listener);
 		int total0M = 0, total1M = 0, total2M = 0;
-		matchTypeCount = new int[chromoConfig.size()][3];		
-		for(short i = 0; i < chromoConfig.size(); i++) {
-			for(short j = 0; j < 3; j++)
-				matchTypeCount[i][j] = 0;
-		}
 		// extract the data file
 		extractFile(addressFile);
 		// display statistics
@@ -91,7 +132,53 @@ public final class SolexaFileExtractor extends GenomicPositionFileExtractor {
 			writer.close();
 		}
 	}
-			
+	
+	
+	/**
+	 * Initializes the number of read per chromosome and the data for statistics without extracting any file.
+	 * @param chromoConfig A ChromosomeConfiguration.
+	 * @param threadCount Number of threads used to extract the file.
+	 * @param windowSize Size of the bins computed during the extraction. 0 to store the positions.
+	 */
+	private SolexaFileExtractor(ChromosomeList chromoConfig, int threadCount, int windowSize) {
+		super(chromoConfig, threadCount, windowSize);
+		matchTypeCount = new int[chromoConfig.size()][3];		
+		for(short i = 0; i < chromoConfig.size(); i++) {
+			for(short j = 0; j < 3; j++)
+				matchTypeCount[i][j] = 0;
+		}
+	}
+	
+	
+	/**
+	 * @see gdpcore.GenomicFileExtractor#createChunkExtractor()
+	 */
+	@Override
+	protected GenomicFileExtractor createChunkExtractor() {
+		SolexaFileExtractor chunk = new SolexaFileExtractor(chromoConfig, 1, getBinWindowSize());
+		shareBins(chunk);
+		return chunk;
+	}
+	
+	
+	/**
+	 * Appends the positions and adds the statistics of a chunk of the file.
+	 * @see gdpcore.GenomicPositionFileExtractor#mergeChunk(gdpcore.GenomicFileExtractor)
+	 */
+	@Override
+	protected void mergeChunk(GenomicFileExtractor chunk) {
+		super.mergeChunk(chunk);
+		SolexaFileExtractor solexaChunk = (SolexaFileExtractor) chunk;
+		totalCount += solexaChunk.totalCount;
+		NMCount += solexaChunk.NMCount;
+		QCCount += solexaChunk.QCCount;
+		multiMatchCount += solexaChunk.multiMatchCount;
+		for(short i = 0; i < chromoConfig.size(); i++) {
+			for(short j = 0; j < 3; j++)
+				matchTypeCount[i][j] += solexaChunk.matchTypeCount[i][j];
+		}
+	}
+	
 	
 	/**
 	 * Receives one line from the input file and tries
@@ -102,94 +189,59 @@ public final class SolexaFileExtractor extends GenomicPositionFileExtractor {
 	 * @param extractedLine a line read from the file being extracted. 
 	 */
 	@Override
-	protected void extractLine(String extractedLine) {
-		byte[] line = extractedLine.getBytes();
-		byte[] matchChar = new byte[4]; 
-		byte[] chromoChar = new byte[64];
-		byte[] positionChar = new byte[10];
-		short match0MNumber, match1MNumber, match2MNumber, chromoNumber;
-		int positionNumber;
-		
+	protected void extractLine(LineTokenizer line) {
 		totalCount++;
 
-		if (line[0] == '\0')
+		if ((line.length() == 0) || (line.charAt(0) == '\0'))
 			return;
-		// skip first field
-		int i = 0;
-		while (line[i] != '\t')
-	    	i++;
-	    // skip second field
-	   	i++;
-	    while (line[i] != '\t')
-	    	i++;
-		// try to extract the number of match 0M
-		i++;
-		int j = 0;
-	    while ((line[i] != '\t') && (line[i] != ':')) {
-	    	matchChar[j] = line[i];
-	    	i++;
-	    	j++;
-	    }
-	    // case where we don't found a match
-	    if (line[i] == '\t') {
-	    	if (matchChar[0] == 'N') {
+		// the third field contains the number of match 0M:1M:2M
+		int i = line.getFieldStart(2);
+		int fieldStop = line.getFieldStop(2);
+		int separator = line.indexOf((byte) ':', i);
+		// case where we don't found a match
+	    if ((separator == -1) || (separator > fieldStop)) {
+	    	if ((i < fieldStop) && (line.charAt(i) == 'N')) {
 	    		NMCount++;
-	    	} else if (matchChar[0] == 'Q') {
+	    	} else if ((i < fieldStop) && (line.charAt(i) == 'Q')) {
 	    		QCCount++;
 	    	}
 	    	return;
 	    }
-	    match0MNumber = Short.parseShort(new String(matchChar, 0, j));
+	    // try to extract the number of match 0M
+	    short match0MNumber = (short) line.parseInt(i, separator);
 		// try to extract the number of match 1M
-	    i++;
-	    j = 0;
-	    while (line[i] != ':') {
-	    	matchChar[j] = line[i];
-	    	i++;
-	    	j++;
-	    }
-	    match1MNumber = Short.parseShort(new String(matchChar, 0, j));
+	    i = separator + 1;
+	    separator = line.indexOf((byte) ':', i);
+	    short match1MNumber = (short) line.parseInt(i, separator);
 		// try to extract the number of match 2M
-	    i++;
-	    j = 0;
-	    while (line[i] != '\t') {
-	    	matchChar[j] = line[i];
-	    	i++;
-	    	j++;
-	    }
-	    match2MNumber = Short.parseShort(new String(matchChar, 0, j));
+	    i = separator + 1;
+	    short match2MNumber = (short) line.parseInt(i, fieldStop);
 		// we only want lines that correspond to our criteria
 	    if (match0MNumber + match1MNumber + match2MNumber != 1) {
 	    	multiMatchCount++;
 	    	return;
 	    }
-	    
-	    while(line[i] != '.' )  {
-			chromoChar[j] = line[i];
-			i++;
-			j++;
-		}
-		chromoNumber = chromoConfig.getIndex(new String(chromoChar, 0, j));
-	    
+	    // the chromosome is in the next field before the ".fa:"
+	    i = fieldStop + 1;
+	    int dot = line.indexOf((byte) '.', i);
+		short chromoNumber = line.getChromosome(chromoConfig, i, dot);
 		// Case of the chromosome is not accepted in the current configuration
 		if(chromoNumber == -1)
 	    	return;	    
 	    
 		// try to extract the position number
-	    i+=4;  // we want to get rid of 'fa:'
-	    j = 0;
-	    while ((line[i] != 'F') && (line[i] != 'R')) {
-	    	positionChar[j] = line[i];
-	    	i++;
+	    i = dot + 4;  // we want to get rid of '.fa:'
+	    int j = i;
+	    while ((line.charAt(j) != 'F') && (line.charAt(j) != 'R')) {
 	    	j++;
 	    }
-	    positionNumber = Integer.parseInt(new String(positionChar, 0, j));
+	    int positionNumber = line.parseInt(i, j);
 	    // add data for the statistics
     	matchTypeCount[chromoNumber][0] += match0MNumber;
     	matchTypeCount[chromoNumber][1] += match1MNumber;
     	matchTypeCount[chromoNumber][2] += match2MNumber;
 	    // add the data
-	    positionList.get(chromoNumber).add(positionNumber);
+	    addPosition(chromoNumber, positionNumber);
     	lineCount++;
 	}	
 	
@@ -200,6 +252,6 @@ public final class SolexaFileExtractor extends GenomicPositionFileExtractor {
 	 * @return A BinList Object generated from the extracted data.
 	 */
 	public BinList getBinList(int windowSize) {
-		return new BinList(chromoConfig, windowSize, positionList);
+		return createMatchBinList(windowSize);
 	}
 }
@@ -29,7 +29,54 @@ public final class SolidFileExtractor extends GenomicPositionFileExtractor {
 	 * @throws IOException
 	 */	
 	public SolidFileExtractor(String logFile, ChromosomeList chromoConfig, String addressFile) throws IOException, FileNotFoundException {
-		super(chromoConfig);
+		this(logFile, chromoConfig, addressFile, 1);
+	}
+
+
+	/**
+	 * Extracts the Solid data from a file.
+	 * @param addressFile Address of a solid file.
+	 * @param chromoConfig A ChromosomeConfiguration.
+	 * @param threadCount Number of threads used to extract the file.
+	 * @throws FileNotFoundException
+	 * @throws IOException
+	 */	
+	public SolidFileExtractor(String logFile, ChromosomeList chromoConfig, String addressFile, int threadCount) throws IOException, FileNotFoundException {
+		this(logFile, chromoConfig, addressFile, threadCount, 0);
+	}
+
+
+	/**
+	 * Extracts the Solid data from a file.
+	 * If a window size is specified, the number of reads per bin is computed 
+	 * during the extraction and the positions are not stored.  
+	 * @param addressFile Address of a solid file.
+	 * @param chromoConfig A ChromosomeConfiguration.
+	 * @param threadCount Number of threads used to extract the file.
+	 * @param windowSize Size of the bins computed during the extraction. 0 to store the positions.
+	 * @throws FileNotFoundException
+	 * @throws IOException
+	 */	
+	public SolidFileExtractor(String logFile, ChromosomeList chromoConfig, String addressFile, int threadCount, int windowSize) throws IOException, FileNotFoundException {
+		this(logFile, chromoConfig, addressFile, threadCount, windowSize, null);
+	}
+
+
+	/**
+	 * Extracts the Solid data from a file and notifies a listener during the extraction.
+	 * If a window size is specified, the number of reads per bin is computed 
+	 * during the extraction and the positions are not stored.  
+	 * @param addressFile Address of a solid file.
+	 * @param chromoConfig A ChromosomeConfiguration.
+	 * @param threadCount Number of threads used to extract the file.
+	 * @param windowSize Size of the bins computed during the extraction. 0 to store the positions.
+	 * @param listener Listener notified during the extraction. Can be null.
+	 * @throws FileNotFoundException
+	 * @throws IOException
+	 */	
+	public SolidFileExtractor(String logFile, ChromosomeList chromoConfig, String addressFile, int threadCount, int windowSize, ExtractionListener listener) throws IOException, FileNotFoundException {
+		super(chromoConfig, threadCount, windowSize);
+		setExtractionListener(listener);
 		// extract the data file
 		extractFile(addressFile);
 		if(logFile != null) {
@@ -51,6 +98,27 @@ public final class SolidFileExtractor extends GenomicPositionFileExtractor {
 	}
 
 
+	/**
+	 * Creates an extractor without extracting any file.
+	 * @param chromoConfig A ChromosomeConfiguration.
+	 * @param windowSize Size of the bins computed during the extraction. 0 to store the positions.
+	 */
+	private SolidFileExtractor(ChromosomeList chromoConfig, int windowSize) {
+		super(chromoConfig, 1, windowSize);
+	}
+
+
+	/**
+	 * @see gdpcore.GenomicFileExtractor#createChunkExtractor()
+	 */
+	@Override
+	protected GenomicFileExtractor createChunkExtractor() {
+		SolidFileExtractor chunk = new SolidFileExtractor(chromoConfig, getBinWindowSize());
+		shareBins(chunk);
+		return chunk;
+	}
+
+
 	/**
 	 * Receives one line from the input file and tries
 	 * to extract the position number. 
@@ -59,52 +127,21 @@ public final class SolidFileExtractor extends GenomicPositionFileExtractor {
 	 * @param extractedLine a line read from the file being extracted. 
 	 */
 	@Override
-	protected void extractLine(String extractedLine) {
-		byte[] line = extractedLine.getBytes();
-		byte[] chromoChar = new byte[3];
-		byte[] positionChar = new byte[10]; 
-		int i = 0, tabCpt = 0, positionNumber;
-		short chromoNumber;
-
-		if ((line[0] == '\0') || (line[0] == '#'))
+	protected void extractLine(LineTokenizer line) {
+		if ((line.length() == 0) || (line.charAt(0) == '\0') || (line.charAt(0) == '#'))
 			return;
-		// loop until reaching the 4rd field 
-		while(tabCpt < 3) {
-			if (line[i] == '\t')
-				tabCpt++;
-			i++;
-		}		    
-		int j = 0;
-		// try to extract the position number
-		while (line[i] != '\t') {
-			positionChar[j] = line[i];
-			i++;
-			j++;
-		}		
-		positionNumber = Integer.parseInt(new String(positionChar, 0, j));
-		// loop until reaching the 9th field */
-		while(tabCpt < 8) {
-			if (line[i] == '\t')
-				tabCpt++;
-			i++;
-		}
-		// loop until reaching the chromosome field that starts with i= */
-		while(line[i] != 'i')
-			i++; 
+		// try to extract the position number in the 4th field
+		int positionNumber = line.getInt(3);
+		// loop until reaching the chromosome field that starts with i= in the 9th field
+		int i = line.indexOf((byte) 'i', line.getFieldStart(8));
 		// We want to get rid of "i="
 		i+=2;		     
-		j = 0;
 		// try to extract the chromosome number
-		while (line[i] != ';') {  
-			chromoChar[j] = line[i];
-			i++;
-			j++;
-		}
-		chromoNumber = Short.parseShort(new String(chromoChar, 0, j));
+		short chromoNumber = (short) line.parseInt(i, line.indexOf((byte) ';', i));
 		if(chromoNumber > chromoConfig.size())  
 			return;
 		// add the data
-		positionList.get(chromoNumber - 1).add(positionNumber);
+		addPosition((short) (chromoNumber - 1), positionNumber);
 		lineCount++;
 	}
 
@@ -115,6 +152,6 @@ public final class SolidFileExtractor extends GenomicPositionFileExtractor {
 	 * @return A BinList Object generated from the extracted data.
 	 */
 	public BinList getBinList(int windowSize) {
-		return new BinList(chromoConfig, windowSize, positionList);
+		return createMatchBinList(windowSize);
 	}
 }
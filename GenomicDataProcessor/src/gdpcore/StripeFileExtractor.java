@@ -44,20 +44,16 @@ public final class StripeFileExtractor extends GenomicFileExtractor {
 
 
 	@Override
-	protected void extractLine(String extractedLine) {
-		if (extractedLine.charAt(0) != '#') {
-			String[] splitedLine = null;
-
-			splitedLine = extractedLine.split("\t");
-
-			int chromosomeNumber = chromoConfig.getIndex(splitedLine[0]);
+	protected void extractLine(LineTokenizer line) {
+		if ((line.length() != 0) && (line.charAt(0) != '#')) {
+			int chromosomeNumber = line.getChromosome(chromoConfig, 0);
 
 			if (chromosomeNumber != -1) {
-				int start = Integer.parseInt(splitedLine[1]);
-				int stop = Integer.parseInt(splitedLine[2]);
+				int start = line.getInt(1);
+				int stop = line.getInt(2);
 				double score = 0;
-				if (splitedLine.length > 3) {
-					score = Double.parseDouble(splitedLine[3]);
+				if (line.getFieldCount() > 3) {
+					score = line.getDouble(3);
 				}	
 				stripeList.get(chromosomeNumber).add(new Stripe(start, stop, score));
 				if (lineCount == 0) {
@@ -1,5 +1,12 @@
 package gdpcore;
 
+import gdpcore.BinList.Precision;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
 
 public class Test {
 	public static void main(String[] args) {
@@ -8,9 +15,265 @@ public class Test {
 			BedGraphFileExtractor FE = new BedGraphFileExtractor(null, (short)24, filePath);
 			FE.getBinList().searchPeaks(5, 10);
 			System.out.println("Done!");*/
+			checkPercentiles();
+			checkPyramids();
+			checkBinaryFiles();
+			checkRollingStatistics();
+			System.out.println("Done!");
 		}
 		catch(Exception e)  {
 			System.out.println("Error" + e);
 		}
 	}
+
+
+	/**
+	 * Throws an exception if a condition is false.
+	 * @param condition A condition.
+	 * @param message Message of the exception.
+	 */
+	private static void check(boolean condition, String message) {
+		if (!condition) {
+			throw new IllegalStateException(message);
+		}
+	}
+
+
+	/**
+	 * Generates the bins of a chromosome with duplicated, negative and null values.
+	 * @param random A random generator.
+	 * @param size Number of bins.
+	 * @param density Proportion of non-null bins.
+	 * @return The bins, sparse if there are few non-null bins.
+	 */
+	private static BinArray generateBins(Random random, int size, double density) {
+		double[] data = new double[size];
+		for (int i = 0; i < size; i++) {
+			if (random.nextDouble() < density) {
+				data[i] = random.nextBoolean() ? random.nextInt(20) - 5 : random.nextGaussian() * 100;
+			}
+		}
+		return BinArray.valueOf(data).compact();
+	}
+
+
+	/**
+	 * @param data Bins of each chromosome, null for the chromosomes without data.
+	 * @return The non-null bins sorted.
+	 */
+	private static double[] sortNonNullBins(BinArray[] data) {
+		int count = 0;
+		for (BinArray bins: data) {
+			for (int j = 0; (bins != null) && (j < bins.size()); j++) {
+				if (bins.get(j) != 0) {
+					count++;
+				}
+			}
+		}
+		double[] values = new double[count];
+		int k = 0;
+		for (BinArray bins: data) {
+			for (int j = 0; (bins != null) && (j < bins.size()); j++) {
+				if (bins.get(j) != 0) {
+					values[k++] = bins.get(j);
+				}
+			}
+		}
+		Arrays.sort(values);
+		return values;
+	}
+
+
+	/**
+	 * Compares the percentiles with the values at the same ranks after a full sort of the non-null bins.
+	 */
+	private static void checkPercentiles() {
+		Random random = new Random(1);
+		double[] percentiles = {0, 0.001, 0.01, 0.25, 0.5, 0.75, 0.99, 0.999, 1};
+		for (int test = 0; test < 20; test++) {
+			BinArray[] data = new BinArray[4];
+			for (int i = 0; i < data.length; i++) {
+				if (random.nextInt(4) != 0) {
+					data[i] = generateBins(random, random.nextInt(200000) + 1, random.nextDouble() * random.nextDouble());
+				}
+			}
+			// percentiles of each chromosome
+			for (int i = 0; i < data.length; i++) {
+				if (data[i] != null) {
+					double[] sorted = sortNonNullBins(new BinArray[] {data[i]});
+					double[] values = Percentiles.getValues(data[i], percentiles);
+					check((values == null) == (sorted.length == 0), "Percentiles of an empty chromosome");
+					for (int p = 0; (values != null) && (p < percentiles.length); p++) {
+						check(values[p] == sorted[(int) (percentiles[p] * (sorted.length - 1))], "Percentile " + percentiles[p] + " of a chromosome");
+					}
+				}
+			}
+			// exact and approximate percentiles of the genome
+			double[] sorted = sortNonNullBins(data);
+			double[] values = Percentiles.getValues(data, percentiles, false);
+			double[] approximateValues = Percentiles.getValues(data, percentiles, true);
+			check((values == null) == (sorted.length == 0), "Percentiles of an empty genome");
+			for (int p = 0; (values != null) && (p < percentiles.length); p++) {
+				double expected = sorted[(int) (percentiles[p] * (sorted.length - 1))];
+				check(values[p] == expected, "Percentile " + percentiles[p] + " of the genome");
+				// the error of the approximation is smaller than the width of a bucket
+				double bucketWidth = (sorted[sorted.length - 1] - sorted[0]) / 1024;
+				check(Math.abs(approximateValues[p] - expected) <= bucketWidth, "Approximate percentile " + percentiles[p] + " of the genome");
+			}
+		}
+	}
+
+
+	/**
+	 * Compares the aggregates of the pyramids with the sum, number, smallest and greatest value of the non-null bins
+	 * computed bin per bin, on random ranges and on the ranges aligned on the groups of the pyramids.
+	 */
+	private static void checkPyramids() {
+		Random random = new Random(2);
+		for (int test = 0; test < 20; test++) {
+			// integer values so the sums are exact whatever the order of the additions
+			double[] values = new double[random.nextInt(100000) + 1];
+			double density = random.nextDouble();
+			for (int i = 0; i < values.length; i++) {
+				if (random.nextDouble() < density) {
+					values[i] = random.nextInt(2001) - 1000;
+				}
+			}
+			BinArray data = BinArray.valueOf(values).compact();
+			BinPyramid pyramid = new BinPyramid(data);
+			double[] result = new double[4];
+			for (int range = 0; range < 2000; range++) {
+				int start;
+				int stop;
+				if (range % 2 == 0) {
+					start = random.nextInt(values.length + 1);
+					stop = start + random.nextInt(values.length - start + 1);
+				} else {
+					int groupSize = BinPyramid.MIN_LEVEL_SIZE << random.nextInt(8);
+					start = Math.min(values.length, groupSize * random.nextInt(values.length / groupSize + 1));
+					stop = Math.min(values.length, start + groupSize * (random.nextInt(4) + 1));
+				}
+				double sum = 0;
+				long count = 0;
+				double min = Double.POSITIVE_INFINITY;
+				double max = Double.NEGATIVE_INFINITY;
+				for (int j = start; j < stop; j++) {
+					if (values[j] != 0) {
+						sum += values[j];
+						count++;
+						min = Math.min(min, values[j]);
+						max = Math.max(max, values[j]);
+					}
+				}
+				pyramid.aggregate(start, stop, result);
+				String rangeName = "[" + start + ", " + stop + "[ of " + values.length + " bins";
+				check(result[0] == sum, "Sum of the pyramid on " + rangeName);
+				check(result[1] == count, "Number of non-null bins of the pyramid on " + rangeName);
+				check(result[2] == min, "Smallest value of the pyramid on " + rangeName);
+				check(result[3] == max, "Greatest value of the pyramid on " + rangeName);
+			}
+		}
+	}
+
+
+	/**
+	 * Writes random BinLists in binary files with each precision, reads the files
+	 * and compares the header, the smallest and greatest values and the bins with the written data.
+	 * @throws IOException
+	 */
+	private static void checkBinaryFiles() throws IOException {
+		Random random = new Random(3);
+		File file = File.createTempFile("test", ".gdpb");
+		try {
+			for (int test = 0; test < 8; test++) {
+				Precision precision = Precision.values()[test % Precision.values().length];
+				String[] names = {"chr1", "chr2", "chrX", "chr_\u00e9"};
+				BinArray[] data = new BinArray[names.length];
+				for (int i = 0; i < data.length; i++) {
+					if (random.nextInt(4) != 0) {
+						BinArray bins = generateBins(random, random.nextInt(200000) + 1, (i == 0) ? 0 : random.nextDouble());
+						// the bins have the precision of the file
+						data[i] = BinArray.create(precision, bins.size());
+						for (int j = 0; j < bins.size(); j++) {
+							data[i].set(j, bins.get(j));
+						}
+						data[i] = data[i].compact();
+					}
+				}
+				int windowSize = random.nextInt(10000) + 1;
+				double intensityCount = random.nextDouble() * 1000;
+				BinListBinaryFile.write(file.getPath(), windowSize, intensityCount, precision, names, data);
+				BinListBinaryFile binaryFile = new BinListBinaryFile(file.getPath());
+				check(binaryFile.getWindowSize() == windowSize, "Window size of the binary file");
+				check(binaryFile.getIntensityCount() == intensityCount, "Intensity count of the binary file");
+				check(binaryFile.getPrecision() == precision, "Precision of the binary file");
+				for (int i = 0; i < data.length; i++) {
+					BinArray readData = binaryFile.getData(names[i]);
+					check((readData == null) == (data[i] == null), "Chromosome " + names[i] + " of the binary file");
+					if (data[i] != null) {
+						check(readData.size() == data[i].size(), "Number of bins of " + names[i] + " in the binary file");
+						double[] expected = new double[data[i].size()];
+						data[i].get(0, expected.length, expected);
+						double min = 0;
+						double max = 0;
+						for (int j = 0; j < expected.length; j++) {
+							check(readData.get(j) == expected[j], "Bin " + j + " of " + names[i] + " in the binary file");
+							min = (j == 0) ? expected[j] : Math.min(min, expected[j]);
+							max = (j == 0) ? expected[j] : Math.max(max, expected[j]);
+						}
+						check(binaryFile.getMin(names[i]) == min, "Smallest value of " + names[i] + " in the binary file");
+						check(binaryFile.getMax(names[i]) == max, "Greatest value of " + names[i] + " in the binary file");
+					}
+				}
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+
+	/**
+	 * Compares the rolling mean and variance with the mean and variance of the non-null bins
+	 * of each window computed bin per bin, for symmetric windows and for the windows of searchPeaks.
+	 */
+	private static void checkRollingStatistics() {
+		Random random = new Random(4);
+		for (int test = 0; test < 40; test++) {
+			BinArray data = generateBins(random, random.nextInt(5000) + 1, random.nextDouble() * random.nextDouble());
+			int halfWidth = random.nextInt(200) + 1;
+			// symmetric window on the whole chromosome, or window of searchPeaks on all the bins but the last one
+			boolean symmetric = (test % 2 == 0);
+			int size = symmetric ? data.size() : data.size() - 1;
+			int after = symmetric ? halfWidth : halfWidth - 1;
+			int start = random.nextInt(data.size());
+			int stop = start + random.nextInt(data.size() - start) + 1;
+			double[] mean = new double[stop - start];
+			double[] variance = new double[stop - start];
+			RollingStatistics.compute(data, size, halfWidth, after, start, stop, mean, variance);
+			for (int j = start; j < stop; j++) {
+				int windowStart = Math.max(0, j - halfWidth);
+				int windowStop = Math.min(size, j + after + 1);
+				double sum = 0;
+				int count = 0;
+				for (int k = windowStart; k < windowStop; k++) {
+					if (data.get(k) != 0) {
+						sum += data.get(k);
+						count++;
+					}
+				}
+				double expectedMean = (count == 0) ? 0 : sum / count;
+				double sumOfSquares = 0;
+				for (int k = windowStart; k < windowStop; k++) {
+					if (data.get(k) != 0) {
+						sumOfSquares += (data.get(k) - expectedMean) * (data.get(k) - expectedMean);
+					}
+				}
+				double expectedVariance = (count == 0) ? 0 : sumOfSquares / count;
+				// the rolling sums are updated with additions and subtractions: the results are compared with a tolerance
+				double tolerance = 1e-9 * (1 + Math.abs(expectedMean) + expectedVariance);
+				check(Math.abs(mean[j - start] - expectedMean) <= tolerance, "Rolling mean of the bin " + j);
+				check(Math.abs(variance[j - start] - expectedVariance) <= tolerance, "Rolling variance of the bin " + j);
+			}
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,138 @@
+/**
+ * Contains the GUI files of the Genomic Data Processor.
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+package gdpgui;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.Frame;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.File;
+
+import javax.swing.BorderFactory;
+import javax.swing.DefaultListModel;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JList;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.JScrollPane;
+
+
+/**
+ * Progress dialog displayed during the loading of a batch of files.
+ * Shows the state of each file and the number of files loaded.
+ * The methods of this class must be called from the event dispatch thread.
+ * @author Julien Lajugie
+ * @version 0.1
+ */
+public final class GdpBatchProgressBar extends JDialog {
+
+	private static final long 	serialVersionUID = 2436540912754187371L;	// Generated serial number
+	private final File[]		files;										// Files loaded
+	private final DefaultListModel<String> fileStates;						// State of each file
+	private final JList<String>	jlFiles;									// List of the files
+	private final JProgressBar 	jpbTotal;									// Aggregate progress bar
+	private final JButton 		jbClose;									// Button close
+	private int 				finishedCount = 0;							// Number of files loaded or failed
+	private int 				errorCount = 0;								// Number of files that couldn't be loaded
+
+
+	/**
+	 * Shows the progress of the loading of a batch of files.
+	 * @param parentFrame Frame displaying the dialog.
+	 * @param files Files loaded.
+	 */
+	public GdpBatchProgressBar(Frame parentFrame, File[] files) {
+		super(parentFrame, "Batch loading");
+		this.files = files;
+		setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
+
+		// Create the list of files
+		fileStates = new DefaultListModel<String>();
+		for (File file: files) {
+			fileStates.addElement(file.getName() + " - waiting");
+		}
+		jlFiles = new JList<String>(fileStates);
+		JScrollPane jspFiles = new JScrollPane(jlFiles);
+		jspFiles.setPreferredSize(new Dimension(400, 200));
+
+		// Create the aggregate progress bar
+		jpbTotal = new JProgressBar(0, files.length);
+		jpbTotal.setStringPainted(true);
+		jpbTotal.setString("0 / " + files.length + " files loaded");
+
+		// Create the close button, enabled when all the files are finished
+		jbClose = new JButton("Close");
+		jbClose.setEnabled(false);
+		jbClose.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				dispose();
+			}
+		});
+
+		JPanel jp = new JPanel(new BorderLayout(0, 5));
+		jp.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+		jp.add(jspFiles, BorderLayout.CENTER);
+		jp.add(jpbTotal, BorderLayout.NORTH);
+		jp.add(jbClose, BorderLayout.SOUTH);
+		add(jp);
+		pack();
+		setLocationRelativeTo(parentFrame);
+		setVisible(true);
+	}
+
+
+	/**
+	 * Sets the state of a file.
+	 * @param index Index of the file.
+	 * @param state State of the file.
+	 */
+	public void setFileState(int index, String state) {
+		fileStates.set(index, files[index].getName() + " - " + state);
+	}
+
+
+	/**
+	 * Indicates that a file has been loaded.
+	 * @param index Index of the file.
+	 */
+	public void fileLoaded(int index) {
+		setFileState(index, "loaded");
+		fileFinished();
+	}
+
+
+	/**
+	 * Indicates that a file couldn't be loaded.
+	 * @param index Index of the file.
+	 */
+	public void fileFailed(int index) {
+		setFileState(index, "error");
+		errorCount++;
+		fileFinished();
+	}
+
+
+	/**
+	 * Updates the aggregate progress bar when a file is finished.
+	 * The dialog is closed when all the files are loaded without error.
+	 */
+	private void fileFinished() {
+		finishedCount++;
+		jpbTotal.setValue(finishedCount);
+		jpbTotal.setString(finishedCount + " / " + files.length + " files loaded");
+		if (finishedCount == files.length) {
+			if (errorCount == 0) {
+				dispose();
+			} else {
+				jpbTotal.setString(errorCount + " file(s) couldn't be loaded");
+				jbClose.setEnabled(true);
+			}
+		}
+	}
+}
@@ -7,8 +7,13 @@ package gdpgui;
 
 import gdpcore.BinList;
 import gdpcore.BinListDifferentWindowSizeException;
+import gdpcore.BinListNoDataException;
+import gdpcore.BinListRegionStatistics;
 import gdpcore.ConfigurationManager;
 import gdpcore.History;
+import gdpcore.RegionFileExtractor;
+import gdpcore.BinList.GaussEngine;
+import gdpcore.BinList.IntensityCalculation;
 
 import java.awt.BasicStroke;
 import java.awt.Color;
@@ -57,6 +62,8 @@ public final class GdpBinListTrack extends GdpTrack {
 	private boolean				showHorizontalGrid = false;		// Shows horizontal grid if true 
 	private double[] 			data = null;					// Data to display
 	private Integer 			windowData = null;				// Size of the window of the data to display
+	private int 				dataStart = 0;					// Index of the window of the first value of data
+	private int 				dataStop = 0;					// Index of the window following the range of data requested
 	private Short 				chromoData = null;				// Chromosome to display
 	private History				history = null;					// History containing a description of the actions done
 	private boolean 			retrieveData = false;			// True if the data needs to be retrived
@@ -129,6 +136,7 @@ public final class GdpBinListTrack extends GdpTrack {
 	/**
 	 * Check if the data to display changed.
 	 * Change the size of window if there is more data than pixels(width). 
+	 * Only the displayed range and a margin of one screen on each side are retrieved.
 	 */
 	private void checkData() {
 		int currentMinX = displayedXWindow.getStart();
@@ -163,8 +171,17 @@ public final class GdpBinListTrack extends GdpTrack {
 			retrieveData = true;
 			windowData = newWindowSize;
 		}
+		int firstIndex = Math.max(0, currentMinX / windowData);
+		// the curves need the value following the last displayed window
+		int lastIndex = currentMaxX / windowData + 2;
+		if ((firstIndex < dataStart) || (lastIndex > dataStop)) {
+			retrieveData = true;
+		}
 		if (retrieveData) {
-			data = binList.getData(chromoData, newWindowSize / windowSize);
+			int margin = lastIndex - firstIndex;
+			dataStart = Math.max(0, firstIndex - margin);
+			dataStop = lastIndex + margin;
+			data = binList.getData(chromoData, newWindowSize / windowSize, dataStart, dataStop);
 		}
 		retrieveData = false;
 	}
@@ -190,8 +207,8 @@ public final class GdpBinListTrack extends GdpTrack {
 			int currentGenomePosition = firstGenomePosition;		
 			int i = 0;
 			while (currentGenomePosition < currentMaxX) {
-				int currentIndex = currentGenomePosition / windowData;
-				if ((currentGenomePosition >= 0) && (currentIndex < data.length)){
+				int currentIndex = currentGenomePosition / windowData - dataStart;
+				if ((currentGenomePosition >= 0) && (currentIndex >= 0) && (currentIndex < data.length)){
 					double currentIntensity = data[currentIndex];
 					int screenXPosition = genomePosToScreenPos(currentGenomePosition);
 					int screenXWidth = twoGenomePosToScreenWidth(currentGenomePosition, currentGenomePosition + windowData);
@@ -227,8 +244,8 @@ public final class GdpBinListTrack extends GdpTrack {
 			int currentGenomePosition = firstGenomePosition;		
 			int i = 0;
 			while (currentGenomePosition < currentMaxX) {
-				int currentIndex = currentGenomePosition / windowData;
-				if ((currentGenomePosition >= 0) && (currentIndex < data.length)){
+				int currentIndex = currentGenomePosition / windowData - dataStart;
+				if ((currentGenomePosition >= 0) && (currentIndex >= 0) && (currentIndex < data.length)){
 					double currentIntensity = data[currentIndex];
 					int screenX1Position = genomePosToScreenPos(currentGenomePosition);
 					int screenX2Position = genomePosToScreenPos(currentGenomePosition + windowData);
@@ -257,9 +274,9 @@ public final class GdpBinListTrack extends GdpTrack {
 			int currentGenomePosition = firstGenomePosition;		
 			int i = 0;
 			while (currentGenomePosition < currentMaxX) {
-				int currentIndex = currentGenomePosition / windowData;
-				int nextIndex = (currentGenomePosition + windowData) / windowData;
-				if ((currentGenomePosition >= 0) && (nextIndex < data.length)){
+				int currentIndex = currentGenomePosition / windowData - dataStart;
+				int nextIndex = (currentGenomePosition + windowData) / windowData - dataStart;
+				if ((currentGenomePosition >= 0) && (currentIndex >= 0) && (nextIndex < data.length)){
 					double currentIntensity = data[currentIndex];
 					double nextIntensity = data[nextIndex];
 					int screenX1Position = genomePosToScreenPos(currentGenomePosition);
@@ -294,8 +311,8 @@ public final class GdpBinListTrack extends GdpTrack {
 			int currentGenomePosition = firstGenomePosition;		
 			int i = 0;
 			while (currentGenomePosition < currentMaxX) {
-				int currentIndex = currentGenomePosition / windowData;
-				if ((currentGenomePosition >= 0) && (currentIndex < data.length)){
+				int currentIndex = currentGenomePosition / windowData - dataStart;
+				if ((currentGenomePosition >= 0) && (currentIndex >= 0) && (currentIndex < data.length)){
 					double currentIntensity = data[currentIndex];
 					int screenXPosition = genomePosToScreenPos(currentGenomePosition);
 					int screenXWidth = twoGenomePosToScreenWidth(currentGenomePosition, currentGenomePosition + windowData);
@@ -368,10 +385,7 @@ public final class GdpBinListTrack extends GdpTrack {
 
 		g2D.setColor(Color.RED);
 		Integer Xmid = (currentMaxX + currentMinX) / 2;
-		Double Ymid = new Double(0);
-		if ((binList.getData()[currentChromosome] != null) && ((Xmid / binList.getWindowSize()) < binList.getData()[currentChromosome].length)){ 
-			Ymid = binList.getData()[currentChromosome][Xmid / binList.getWindowSize()];
-		}
+		Double Ymid = binList.getValue((short) currentChromosome, Xmid / binList.getWindowSize());
 		DecimalFormat dc = new DecimalFormat("###,###,###");
 		g2D.drawString("x=" + dc.format(Xmid), 2, getHeight() - 24);
 		g2D.drawString("y=" + Ymid.toString(), 2, getHeight() - 12);
@@ -463,6 +477,22 @@ public final class GdpBinListTrack extends GdpTrack {
 	}
 
 
+	/**
+	 * Replaces the data of a track that is still being loaded. 
+	 * The new BinList becomes the original BinList of the track.
+	 * @param aBinList A BinList.
+	 * @throws BinListNoDataException
+	 */
+	public void setLoadingBinList(BinList aBinList) throws BinListNoDataException {
+		initialBinList = aBinList;
+		binList = initialBinList.clone();
+		minY = binList.min();
+		maxY = binList.max();
+		retrieveData = true;
+		repaint();
+	}
+
+
 	/**
 	 * Resets the BinList. Copies the value of the original BinList into the current value. 
 	 */
@@ -524,14 +554,19 @@ public final class GdpBinListTrack extends GdpTrack {
 	/**
 	 * Gausses the BinList.
 	 * @param sigma Value of the parameter sigma of the gaussian filter.
-	 * @see BinList#gauss(int)
+	 * @param engine Engine computing the gaussian filter.
+	 * @see BinList#gauss(int, GaussEngine)
 	 */
-	public void gauss(int sigma) {
+	public void gauss(int sigma, GaussEngine engine) {
 		try {
-			history.add("Gauss(sigma = " + sigma + ")");
+			if (engine == GaussEngine.direct) {
+				history.add("Gauss(sigma = " + sigma + ")");
+			} else {
+				history.add("Gauss(sigma = " + sigma + ", " + engine + ")");
+			}
 			undoBinList = binList;
 			redoBinList = null;
-			binList = binList.gauss(sigma);
+			binList = binList.gauss(sigma, engine);
 			minY = binList.min();
 			maxY = binList.max();
 			retrieveData = true;
@@ -592,6 +627,29 @@ public final class GdpBinListTrack extends GdpTrack {
 	}
 
 
+	/**
+	 * Changes the size of the bins of the BinList.
+	 * @param windowSize New size of the bins in bp.
+	 * @param criterion Criterion of calculation of the new bins.
+	 * @see BinList#changeWindowSize(int, IntensityCalculation)
+	 */
+	public void changeWindowSize(int windowSize, IntensityCalculation criterion) {
+		try {
+			history.add("change window size(window size = " + windowSize + ", " + criterion + ")");
+			undoBinList = binList;
+			redoBinList = null;
+			binList = binList.changeWindowSize(windowSize, criterion);
+			minY = binList.min();
+			maxY = binList.max();
+			retrieveData = true;
+			repaint();
+		} catch (Exception e) {
+			handleException(e, "Error while changing the window size");
+			history.setLastAsError();
+		}
+	}
+
+
 	/**
 	 * Normalizes the BinList.
 	 * @param factor Multiplication factor of the normalization.
@@ -708,6 +766,35 @@ public final class GdpBinListTrack extends GdpTrack {
 	}
 
 
+	/**
+	 * Generates a file with the statistics of the track on each region of a BED file.
+	 * @param filePath Path of the output file.
+	 * @param regions Regions extracted from a BED file.
+	 * @see BinList#printRegionStatisticsFile(String, RegionFileExtractor)
+	 */
+	public void printRegionStatistics(String filePath, RegionFileExtractor regions) {
+		try {
+			binList.printRegionStatisticsFile(filePath, regions);
+		} catch (Exception e) {
+			handleException(e, "Error while generating the region statistics file");
+		}
+	}
+
+
+	/**
+	 * Generates a binary file.
+	 * @param filePath Path of the output file.
+	 * @see BinList#printBinaryFile(String)
+	 */
+	public void printBinary(String filePath) {
+		try {
+			binList.printBinaryFile(filePath);
+		} catch (Exception e) {
+			handleException(e, "Error while generating the binary file");
+		}
+	}
+
+
 	/**
 	 * Generate a file containing the repartition of the bins.
 	 * @param intensityBin Bins of intensity. 
@@ -828,6 +915,25 @@ public final class GdpBinListTrack extends GdpTrack {
 	}
 
 
+	/**
+	 * @return The minimum and the maximum values of the region displayed by the track, 
+	 * null if the region has no data.
+	 * @see BinList#getRegionStatistics(short, int, int)
+	 */
+	public double[] minMaxDisplayedRegion() {
+		try {
+			BinListRegionStatistics regionStatistics = binList.getRegionStatistics(displayedXWindow.getChromosome(), displayedXWindow.getStart(), displayedXWindow.getStop());
+			if (regionStatistics.getBinCount() == 0) {
+				return null;
+			}
+			return new double[] {regionStatistics.getMin(), regionStatistics.getMax()};
+		} catch (Exception e) {
+			handleException(e, "Error while searching the minimum and the maximum of the displayed region");
+			return null;
+		}
+	}
+
+
 	/**
 	 * Undoes last action. 
 	 */
@@ -6,18 +6,23 @@
 package gdpgui;
 
 import gdpcore.ConfigurationManager;
+import gdpcore.BinList.Precision;
+import gdpcore.BinList.Storage;
 
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Insets;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.ItemEvent;
+import java.awt.event.ItemListener;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.io.File;
 import java.text.DecimalFormat;
 
 import javax.swing.JButton;
+import javax.swing.JComboBox;
 import javax.swing.JFileChooser;
 import javax.swing.JFormattedTextField;
 import javax.swing.JLabel;
@@ -38,6 +43,18 @@ public final class GdpConfigGeneral extends GdpConfigPanel {
 	private JButton 			jbBrowse;			// Button browse
 	private JLabel 				jlWindowSize;		// Label window size 
 	private JFormattedTextField jftfWindowSize;		// TextField window size
+	private JLabel 				jlExtractionThreadCount;	// Label extraction thread count
+	private JFormattedTextField jftfExtractionThreadCount;	// TextField extraction thread count
+	private JLabel 				jlExtractionCacheMaxSize;	// Label extraction cache size
+	private JFormattedTextField jftfExtractionCacheMaxSize;	// TextField extraction cache size
+	private JLabel 				jlBatchLoaderThreadCount;	// Label batch loader thread count
+	private JFormattedTextField jftfBatchLoaderThreadCount;	// TextField batch loader thread count
+	private JLabel 				jlOperationThreadCount;		// Label operation thread count
+	private JFormattedTextField jftfOperationThreadCount;	// TextField operation thread count
+	private JLabel 				jlBinListPrecision;			// Label precision of the intensities
+	private JComboBox<Precision> jcBinListPrecision;		// ComboBox precision of the intensities
+	private JLabel 				jlBinListStorage;			// Label storage of the bins
+	private JComboBox<Storage> 	jcBinListStorage;			// ComboBox storage of the bins
 
 	
 	/**
@@ -84,6 +101,88 @@ public final class GdpConfigGeneral extends GdpConfigPanel {
 		// Create jlWindowSize
 		jlWindowSize = new JLabel("Default size of the windows: ");	
 		
+		// Create jftfExtractionThreadCount
+		NumberFormatter threadFormatter = new NumberFormatter(new DecimalFormat("###"));
+		threadFormatter.setMinimum(1);
+		threadFormatter.setMaximum(256);
+		jftfExtractionThreadCount = new JFormattedTextField(threadFormatter);
+		jftfExtractionThreadCount.setValue(cm.getExtractionThreadCount());
+		jftfExtractionThreadCount.setColumns(6);
+		jftfExtractionThreadCount.addPropertyChangeListener(new PropertyChangeListener() {
+			@Override
+			public void propertyChange(PropertyChangeEvent arg0) {
+				cm.setExtractionThreadCount(((Number)jftfExtractionThreadCount.getValue()).intValue());
+			}
+		});
+		// Create jlExtractionThreadCount
+		jlExtractionThreadCount = new JLabel("Number of threads for the extraction: ");
+		
+		// Create jftfExtractionCacheMaxSize
+		NumberFormatter cacheFormatter = new NumberFormatter(new DecimalFormat("###,###"));
+		cacheFormatter.setMinimum(0);
+		cacheFormatter.setMaximum(Integer.MAX_VALUE);
+		jftfExtractionCacheMaxSize = new JFormattedTextField(cacheFormatter);
+		jftfExtractionCacheMaxSize.setValue(cm.getExtractionCacheMaxSize());
+		jftfExtractionCacheMaxSize.setColumns(6);
+		jftfExtractionCacheMaxSize.addPropertyChangeListener(new PropertyChangeListener() {
+			@Override
+			public void propertyChange(PropertyChangeEvent arg0) {
+				cm.setExtractionCacheMaxSize(((Number)jftfExtractionCacheMaxSize.getValue()).intValue());
+			}
+		});
+		// Create jlExtractionCacheMaxSize
+		jlExtractionCacheMaxSize = new JLabel("Size of the extraction cache in MB (0 = disabled): ");
+		
+		// Create jftfBatchLoaderThreadCount
+		jftfBatchLoaderThreadCount = new JFormattedTextField(threadFormatter);
+		jftfBatchLoaderThreadCount.setValue(cm.getBatchLoaderThreadCount());
+		jftfBatchLoaderThreadCount.setColumns(6);
+		jftfBatchLoaderThreadCount.addPropertyChangeListener(new PropertyChangeListener() {
+			@Override
+			public void propertyChange(PropertyChangeEvent arg0) {
+				cm.setBatchLoaderThreadCount(((Number)jftfBatchLoaderThreadCount.getValue()).intValue());
+			}
+		});
+		// Create jlBatchLoaderThreadCount
+		jlBatchLoaderThreadCount = new JLabel("Number of files loaded simultaneously: ");
+		
+		// Create jftfOperationThreadCount
+		jftfOperationThreadCount = new JFormattedTextField(threadFormatter);
+		jftfOperationThreadCount.setValue(cm.getOperationThreadCount());
+		jftfOperationThreadCount.setColumns(6);
+		jftfOperationThreadCount.addPropertyChangeListener(new PropertyChangeListener() {
+			@Override
+			public void propertyChange(PropertyChangeEvent arg0) {
+				cm.setOperationThreadCount(((Number)jftfOperationThreadCount.getValue()).intValue());
+			}
+		});
+		// Create jlOperationThreadCount
+		jlOperationThreadCount = new JLabel("Number of threads for the operations: ");
+		
+		// Create jcBinListPrecision. The counts of reads are always stored as integers
+		jcBinListPrecision = new JComboBox<Precision>(new Precision[] {Precision.float32, Precision.float64});
+		jcBinListPrecision.setSelectedItem(cm.getBinListPrecision());
+		jcBinListPrecision.addItemListener(new ItemListener() {
+			@Override
+			public void itemStateChanged(ItemEvent e) {
+				cm.setBinListPrecision((Precision) jcBinListPrecision.getSelectedItem());
+			}
+		});
+		// Create jlBinListPrecision
+		jlBinListPrecision = new JLabel("Precision of the extracted intensities: ");
+		
+		// Create jcBinListStorage
+		jcBinListStorage = new JComboBox<Storage>(Storage.values());
+		jcBinListStorage.setSelectedItem(cm.getBinListStorage());
+		jcBinListStorage.addItemListener(new ItemListener() {
+			@Override
+			public void itemStateChanged(ItemEvent e) {
+				cm.setBinListStorage((Storage) jcBinListStorage.getSelectedItem());
+			}
+		});
+		// Create jlBinListStorage
+		jlBinListStorage = new JLabel("Storage of the bins: ");
+		
 		setLayout(new GridBagLayout());
 		GridBagConstraints c = new GridBagConstraints();
 
@@ -118,6 +217,78 @@ public final class GdpConfigGeneral extends GdpConfigPanel {
 		c.insets = new Insets(10, 20, 0, 0);
 		add(jftfWindowSize, c);		
 		
+		c.gridx = 0;
+		c.gridy = 4;
+		c.anchor = GridBagConstraints.LINE_START;
+		c.insets = new Insets(10, 0, 0, 20);
+		add(jlExtractionThreadCount, c);
+		
+		c.gridx = 1;
+		c.gridy = 4;
+		c.anchor = GridBagConstraints.LINE_END;
+		c.insets = new Insets(10, 20, 0, 0);
+		add(jftfExtractionThreadCount, c);
+		
+		c.gridx = 0;
+		c.gridy = 5;
+		c.anchor = GridBagConstraints.LINE_START;
+		c.insets = new Insets(10, 0, 0, 20);
+		add(jlExtractionCacheMaxSize, c);
+		
+		c.gridx = 1;
+		c.gridy = 5;
+		c.anchor = GridBagConstraints.LINE_END;
+		c.insets = new Insets(10, 20, 0, 0);
+		add(jftfExtractionCacheMaxSize, c);
+		
+		c.gridx = 0;
+		c.gridy = 6;
+		c.anchor = GridBagConstraints.LINE_START;
+		c.insets = new Insets(10, 0, 0, 20);
+		add(jlBatchLoaderThreadCount, c);
+		
+		c.gridx = 1;
+		c.gridy = 6;
+		c.anchor = GridBagConstraints.LINE_END;
+		c.insets = new Insets(10, 20, 0, 0);
+		add(jftfBatchLoaderThreadCount, c);
+		
+		c.gridx = 0;
+		c.gridy = 7;
+		c.anchor = GridBagConstraints.LINE_START;
+		c.insets = new Insets(10, 0, 0, 20);
+		add(jlOperationThreadCount, c);
+		
+		c.gridx = 1;
+		c.gridy = 7;
+		c.anchor = GridBagConstraints.LINE_END;
+		c.insets = new Insets(10, 20, 0, 0);
+		add(jftfOperationThreadCount, c);
+		
+		c.gridx = 0;
+		c.gridy = 8;
+		c.anchor = GridBagConstraints.LINE_START;
+		c.insets = new Insets(10, 0, 0, 20);
+		add(jlBinListPrecision, c);
+		
+		c.gridx = 1;
+		c.gridy = 8;
+		c.anchor = GridBagConstraints.LINE_END;
+		c.insets = new Insets(10, 20, 0, 0);
+		add(jcBinListPrecision, c);
+		
+		c.gridx = 0;
+		c.gridy = 9;
+		c.anchor = GridBagConstraints.LINE_START;
+		c.insets = new Insets(10, 0, 0, 20);
+		add(jlBinListStorage, c);
+		
+		c.gridx = 1;
+		c.gridy = 9;
+		c.anchor = GridBagConstraints.LINE_END;
+		c.insets = new Insets(10, 20, 0, 0);
+		add(jcBinListStorage, c);
+		
 		setVisible(true);
 	}
 	
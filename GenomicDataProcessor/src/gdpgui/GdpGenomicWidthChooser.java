@@ -5,6 +5,8 @@
  */
 package gdpgui;
 
+import gdpcore.BinList.GaussEngine;
+
 import java.awt.Dimension;
 import java.awt.Frame;
 import java.awt.GridBagConstraints;
@@ -18,6 +20,7 @@ import java.beans.PropertyChangeListener;
 import java.text.DecimalFormat;
 
 import javax.swing.JButton;
+import javax.swing.JComboBox;
 import javax.swing.JDialog;
 import javax.swing.JFormattedTextField;
 import javax.swing.JOptionPane;
@@ -34,12 +37,15 @@ public final class GdpGenomicWidthChooser extends JDialog {
 	private static final long 			serialVersionUID = -1145665933228762636L; 	// Generated serial number
 	private static JScrollBar 			jsbGenomicWidth;							// ScrollBar use to choose sigma 
 	private static JFormattedTextField 	jftfGenomicWidth;							// TextField for the value of sigma 
+	private static JComboBox<GaussEngine> jcbGaussEngine;						// ComboBox for the engine of the gaussian filter
 	private static JButton 				jbOk;										// Button Ok
 	private static JButton 				jbCancel;									// Button Cancel
 	private static int 					windowSize;									// Greatest bin size of the selected curves
 	private static Integer 				validGenomicWidth;							// A valid value for sigma
 	private static boolean 				validated;									// True if OK has been pressed
 	private static String				type; 										// Describe the data asked.
+	private static boolean 				engineChoice = false;						// True if the engine of the gaussian filter is asked
+	private static GaussEngine 			gaussEngine = GaussEngine.direct;			// Engine of the gaussian filter
 	
 	/**
 	 * Private constructor. Used internally to create a GdpSigmaChooser dialog. 
@@ -79,6 +85,10 @@ public final class GdpGenomicWidthChooser extends JDialog {
 			}
 		});
 
+		jcbGaussEngine = new JComboBox<GaussEngine>(GaussEngine.values());
+		jcbGaussEngine.setSelectedItem(gaussEngine);
+		jcbGaussEngine.setToolTipText("FFT and box filter are faster for large sigma values, the box filter is an approximation");
+
 		jbOk = new JButton("OK");
 		jbOk.setPreferredSize(new Dimension(75, 30));
 		jbOk.addActionListener(new ActionListener() {
@@ -115,12 +125,20 @@ public final class GdpGenomicWidthChooser extends JDialog {
 		c.anchor = GridBagConstraints.CENTER;
 		add(jftfGenomicWidth, c);	
 
+		if (engineChoice) {
+			c.gridx = 0;
+			c.gridy = 2;
+			c.gridwidth = 3;
+			add(jcbGaussEngine, c);
+			c.gridwidth = 1;
+		}
+
 		c.gridx = 0;
-		c.gridy = 2;
+		c.gridy = 3;
 		add(jbOk, c);		
 
 		c.gridx = 2;
-		c.gridy = 2;
+		c.gridy = 3;
 		add(jbCancel, c);
 
 		this.pack();
@@ -142,6 +160,7 @@ public final class GdpGenomicWidthChooser extends JDialog {
 	 */
 	private void jbOkActionPerformed() {
 		validated = true;
+		gaussEngine = (GaussEngine) jcbGaussEngine.getSelectedItem();
 		this.dispose();		
 	}
 
@@ -183,6 +202,7 @@ public final class GdpGenomicWidthChooser extends JDialog {
 		windowSize = aWindowSize;
 		validGenomicWidth = windowSize * 10;
 		type = "Sigma";
+		engineChoice = true;
 		GdpGenomicWidthChooser FS = new GdpGenomicWidthChooser(parentFrame);
 		FS.setVisible(true);
 		if(validated)
@@ -203,6 +223,7 @@ public final class GdpGenomicWidthChooser extends JDialog {
 		windowSize = aWindowSize;
 		validGenomicWidth = windowSize * 2;
 		type = "Moving std deviation width";
+		engineChoice = false;
 		GdpGenomicWidthChooser FS = new GdpGenomicWidthChooser(parentFrame);
 		FS.setVisible(true);
 		if(validated)
@@ -210,4 +231,12 @@ public final class GdpGenomicWidthChooser extends JDialog {
 		else
 			return null;
 	}
+	
+	
+	/**
+	 * @return The engine of the gaussian filter selected the last time a value for sigma was chosen.
+	 */
+	public static GaussEngine getGaussEngine() {
+		return gaussEngine;
+	}
 }
@@ -6,18 +6,26 @@
 package gdpgui;
 
 import gdpcore.BedGraphFileExtractor;
+import gdpcore.BinArray;
 import gdpcore.BinList;
+import gdpcore.BinListExecutor;
 import gdpcore.BinListNoDataException;
 import gdpcore.ChromosomeList;
 import gdpcore.ConfigurationManager;
+import gdpcore.ExtractionCache;
+import gdpcore.ExtractionListener;
 import gdpcore.GdpFileExtractor;
+import gdpcore.GenomicFileExtractor;
 import gdpcore.GeneFileExtractor;
+import gdpcore.RegionFileExtractor;
 import gdpcore.RepeatFileExtractor;
 import gdpcore.StripeFileExtractor;
 import gdpcore.NimbleFileExtractor;
 import gdpcore.SolexaFileExtractor;
 import gdpcore.SolidFileExtractor;
+import gdpcore.BinList.GaussEngine;
 import gdpcore.BinList.IntensityCalculation;
+import gdpcore.BinList.Precision;
 import gdpgui.GdpBinListTrack.GraphicsType;
 
 import java.awt.Color;
@@ -28,6 +36,8 @@ import java.io.File;
 import java.io.IOException;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
@@ -57,6 +67,33 @@ public final class GdpMainFrame extends JFrame {
 		});
 	}
 
+	/**
+	 * Types of the files that can be extracted into a BinList.
+	 * @author Julien Lajugie
+	 * @version 0.1
+	 */
+	public enum FileType {
+		gdp ("Gdp"),
+		solexa ("Solexa"),
+		solid ("Solid"),
+		nimbleGene ("NimbleGene"),
+		bedGraph ("BedGraph");
+
+		private final String name;	// name of the type
+
+		/**
+		 * @param name Name of the type.
+		 */
+		private FileType(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	};
+
 	private static final long serialVersionUID = 8413763896102640886L;	// Generated serial number
 	private GdpMainPanel 					gdpMainPanel;			// Main panel of the application
 	private GdpMenuBar 						gdpMenuBar;				// Menu bar of the application
@@ -81,6 +118,8 @@ public final class GdpMainFrame extends JFrame {
 
 		//Load the look and feel
 		changeLookAndFeel();
+		BinListExecutor.setThreadCount(cm.getOperationThreadCount());
+		BinArray.setStorage(cm.getBinListStorage(), cm.getBinListStorageDirectory());
 
 		// Create the menu bar
 		gdpMenuBar = new GdpMenuBar(this);
@@ -196,11 +235,237 @@ public final class GdpMainFrame extends JFrame {
 	}
 
 
+	/**
+	 * @param type Type of a file.
+	 * @return The criterion of calculation of the intensities used to extract the type of file, null for the files containing only positions.
+	 */
+	private IntensityCalculation getCriterion(FileType type) {
+		// TODO: option intensity configuration
+		if (type == FileType.bedGraph) {
+			return IntensityCalculation.sum;
+		} else if (type == FileType.nimbleGene) {
+			return IntensityCalculation.average;
+		} else {
+			return null;
+		}
+	}
+
+
+	/**
+	 * Extracts a file into a BinList. The BinList is read from the extraction cache
+	 * when the file has already been extracted with the same parameters.
+	 * @param type Type of the file.
+	 * @param addressFile Address of the file.
+	 * @param windowSize Size of the bins. Not used for the Gdp files.
+	 * @param threadCount Number of threads used to extract the file.
+	 * @param listener Listener notified during the extraction. Can be null.
+	 * @return A BinList.
+	 * @throws Exception
+	 */
+	private BinList extractBinList(FileType type, String addressFile, int windowSize, int threadCount, ExtractionListener listener) throws Exception {
+		if (type == FileType.gdp) {
+			// the window size is defined in the file
+			GdpFileExtractor gfe = new GdpFileExtractor(null, chromoConfig, addressFile, threadCount, listener);
+			return gfe.getBinList().convert(cm.getBinListPrecision());
+		}
+		IntensityCalculation criterion = getCriterion(type);
+		// the files without intensities are extracted in BinLists of integers
+		Precision precision = (criterion == null) ? null : cm.getBinListPrecision();
+		ExtractionCache cache = getExtractionCache();
+		String key = (cache == null) ? null : cache.getKey(chromoConfig, addressFile, type.toString(), windowSize, criterion, precision);
+		BinList bl = (cache == null) ? null : cache.get(chromoConfig, key);
+		if (bl == null) {
+			switch (type) {
+			case solexa:
+				SolexaFileExtractor solexaFE = new SolexaFileExtractor(cm.getSolexaLogFile(), chromoConfig, addressFile, threadCount, windowSize, listener);
+				bl = solexaFE.getBinList(windowSize);
+				break;
+			case solid:
+				SolidFileExtractor solidFE = new SolidFileExtractor(cm.getSolidLogFile(), chromoConfig, addressFile, threadCount, windowSize, listener);
+				bl = solidFE.getBinList(windowSize);
+				break;
+			case nimbleGene:
+				NimbleFileExtractor nfe = new NimbleFileExtractor(cm.getNimbleLogFile(), chromoConfig, addressFile, threadCount, listener);
+				bl = nfe.getBinList(windowSize, criterion).convert(precision);
+				break;
+			case bedGraph:
+				BedGraphFileExtractor bgfe = new BedGraphFileExtractor(cm.getBedGraphLogFile(), chromoConfig, addressFile, threadCount, listener);
+				bl = bgfe.getBinList(windowSize, criterion).convert(precision);
+				break;
+			default:
+				throw new IllegalArgumentException("Invalid file type: " + type);
+			}
+			addToExtractionCache(cache, key, bl);
+		}
+		return bl;
+	}
+
+
+	/**
+	 * @return The cache of the extracted files, null if the cache is disabled.
+	 */
+	private ExtractionCache getExtractionCache() {
+		if (cm.getExtractionCacheMaxSize() <= 0) {
+			return null;
+		}
+		return new ExtractionCache(cm.getExtractionCacheDirectory(), cm.getExtractionCacheMaxSize());
+	}
+
+
+	/**
+	 * Adds a BinList to the cache of the extracted files.
+	 * An error while writing the cache doesn't prevent the loading of the file.
+	 * @param cache The cache of the extracted files, null if the cache is disabled.
+	 * @param key Key of the BinList in the cache.
+	 * @param binList BinList extracted from the file.
+	 */
+	private void addToExtractionCache(ExtractionCache cache, String key, BinList binList) {
+		if ((cache != null) && (binList != null)) {
+			try {
+				cache.put(key, binList);
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+
+	/**
+	 * Listener displaying the progress of the extraction of a file in a progress bar.
+	 * When the file is sorted by chromosome, the chromosomes already extracted 
+	 * are displayed in a temporary track until the end of the extraction.
+	 * @author Julien Lajugie
+	 * @version 0.1
+	 */
+	private final class ProgressiveLoadingListener implements ExtractionListener {
+		private final GdpProgressBar 		progressBar;			// progress bar of the loading
+		private final String 				trackName;				// name of the temporary track
+		private int 						windowSize;				// size of the bins, 0 until the first line of a Gdp file is extracted
+		private final IntensityCalculation 	criterion;				// criterion of calculation of the intensities
+		private final double[][] 			data;					// bins of the chromosomes already extracted
+		private GdpBinListTrackContainer 	trackContainer = null;	// temporary track, null if not created
+		private boolean 					finished = false;		// true when the extraction is finished
+		private boolean 					updatePending = false;	// true when an update of the temporary track is scheduled
+
+
+		/**
+		 * Creates a ProgressiveLoadingListener.
+		 * @param progressBar Progress bar of the loading.
+		 * @param addressFile Address of the file being extracted.
+		 * @param windowSize Size of the bins, 0 if defined by the file (the size is then read from the extractor).
+		 * @param criterion Criterion of calculation of the intensities.
+		 */
+		private ProgressiveLoadingListener(GdpProgressBar progressBar, String addressFile, int windowSize, IntensityCalculation criterion) {
+			this.progressBar = progressBar;
+			this.trackName = new File(addressFile).getName() + " (loading)";
+			this.windowSize = windowSize;
+			this.criterion = criterion;
+			this.data = new double[chromoConfig.size()][];
+		}
+
+
+		@Override
+		public void progressChanged(final long bytesRead, final long totalBytes, final int lineCount, final double linesPerSecond) {
+			SwingUtilities.invokeLater(new Runnable() {
+				@Override
+				public void run() {
+					progressBar.setProgress(bytesRead, totalBytes, lineCount, linesPerSecond);
+				}
+			});
+		}
+
+
+		@Override
+		public void chromosomeExtracted(GenomicFileExtractor extractor, short chromosome) {
+			showChromosome(extractor, chromosome);
+		}
+
+
+		@Override
+		public void chromosomeUpdated(GenomicFileExtractor extractor, short chromosome) {
+			showChromosome(extractor, chromosome);
+		}
+
+
+		/**
+		 * Computes the bins of a chromosome extracted or updated and displays them in the temporary track.
+		 * @param extractor The extractor.
+		 * @param chromosome A chromosome.
+		 */
+		private void showChromosome(GenomicFileExtractor extractor, final short chromosome) {
+			// the window size of the Gdp files is defined by the file
+			final int binSize = (extractor instanceof GdpFileExtractor) ? ((GdpFileExtractor) extractor).getWindowSize() : windowSize;
+			if (binSize == 0) {
+				return;
+			}
+			// the bins are computed by the extracting thread
+			final double[] bins = extractor.getChromosomeBins(chromosome, binSize, criterion);
+			SwingUtilities.invokeLater(new Runnable() {
+				@Override
+				public void run() {
+					windowSize = binSize;
+					data[chromosome] = bins;
+					if (!updatePending) {
+						// the track is rebuilt once for all the chromosomes received in the meantime
+						updatePending = true;
+						SwingUtilities.invokeLater(new Runnable() {
+							@Override
+							public void run() {
+								updatePending = false;
+								showTemporaryTrack();
+							}
+						});
+					}
+				}
+			});
+		}
+
+
+		/**
+		 * Creates or updates the temporary track with the chromosomes already extracted.
+		 */
+		private void showTemporaryTrack() {
+			if (finished) {
+				return;
+			}
+			try {
+				BinList binList = new BinList(chromoConfig, windowSize, data.clone());
+				if (trackContainer == null) {
+					gdpMainPanel.addBinListTrack(cm, binList, trackName);
+					ArrayList<GdpBinListTrackContainer> list = gdpMainPanel.getGdpListOfTrackContainers().getAllBinListTC();
+					trackContainer = list.get(list.size() - 1);
+				} else {
+					trackContainer.getTrack().setLoadingBinList(binList);
+					trackContainer.setMinMaxY(binList.min(), binList.max());
+				}
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+
+
+		/**
+		 * Removes the temporary track at the end of the extraction.
+		 */
+		private void removeTemporaryTrack() {
+			finished = true;
+			if (trackContainer != null) {
+				gdpMainPanel.getGdpListOfTrackContainers().removeTrackContainer(trackContainer);
+				trackContainer = null;
+				if (gdpMainPanel.getGdpListOfTrackContainers().isEmpty()) {
+					gdpMainPanel.reset();
+				}
+			}
+		}
+	}
+
+
 	/**
 	 * Disables the main windows before the loading of a file.
 	 */
 	private void loadingFileStart() {
-		setEnabled(false);
+		// the tracks stay visible so the chromosomes already extracted can be displayed
+		gdpMenuBar.setMenusEnabled(false);
 	}	
 
 
@@ -209,16 +474,13 @@ public final class GdpMainFrame extends JFrame {
 	 * @param worker
 	 */
 	private void loadingFileDone(SwingWorker<BinList, Void> worker, String addressFile) {
-		setEnabled(true);
+		gdpMenuBar.setMenusEnabled(true);
 		// "new File(addressFile).getName()" extracts the file name without the path
 		String curveName = getTrackName(new File(addressFile).getName());
 		if (curveName != null) {
 			try {	
-				gdpMainPanel.addBinListTrack(cm, worker.get(), curveName);
+				addBinListTrack(worker.get(), curveName);
 				System.gc();
-				gdpMenuBar.set1BinListAtLeastEnable(true);
-				gdpMenuBar.set1TrackAtLeastEnable(true);
-				refreshStripes();
 			} catch(Exception e) {
 				JOptionPane.showMessageDialog(getContentPane(), "Error while loading the file", "Incorrect file", JOptionPane.ERROR_MESSAGE);
 				e.printStackTrace();
@@ -227,6 +489,106 @@ public final class GdpMainFrame extends JFrame {
 	}
 
 	
+	/**
+	 * Adds a track showing a BinList that has been loaded.
+	 * @param binList A BinList.
+	 * @param curveName Name of the track.
+	 */
+	private void addBinListTrack(BinList binList, String curveName) {
+		gdpMainPanel.addBinListTrack(cm, binList, curveName);
+		gdpMenuBar.set1BinListAtLeastEnable(true);
+		gdpMenuBar.set1TrackAtLeastEnable(true);
+		refreshStripes();
+	}
+
+
+	/**
+	 * Loads several files of the same type simultaneously.
+	 * The number of files extracted at the same time is defined in the configuration.
+	 * A track is added as soon as a file is loaded.
+	 */
+	public void loadBatch() {
+		final FileType type = (FileType) JOptionPane.showInputDialog(getRootPane(), "Type of the files:", "Batch loading", 
+				JOptionPane.QUESTION_MESSAGE, null, FileType.values(), FileType.solexa);
+		if (type == null) {
+			return;
+		}
+		JFileChooser jfc = new JFileChooser();
+		jfc.setFileSelectionMode(JFileChooser.FILES_ONLY);
+		jfc.setMultiSelectionEnabled(true);
+		jfc.setDialogTitle("Open " + type + " files");
+		if ((jfc.showOpenDialog(getRootPane()) != JFileChooser.APPROVE_OPTION) || (jfc.getSelectedFiles().length == 0)) {
+			return;
+		}
+		final File[] files = jfc.getSelectedFiles();
+		Integer windowSize = 0;
+		if (type != FileType.gdp) {
+			windowSize = GdpNumberOptionPane.getValueWindow(this, cm.getWindowSize());
+			if (windowSize == null) {
+				return;
+			}
+		}
+		final int aWindowSize = windowSize;
+		int batchThreadCount = Math.max(1, Math.min(cm.getBatchLoaderThreadCount(), files.length));
+		// the extraction threads are shared between the files loaded simultaneously
+		final int extractionThreadCount = Math.max(1, cm.getExtractionThreadCount() / batchThreadCount);
+		final GdpBatchProgressBar progressBar = new GdpBatchProgressBar(this, files);
+		ExecutorService executor = Executors.newFixedThreadPool(batchThreadCount);
+		for (int i = 0; i < files.length; i++) {
+			final int index = i;
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					SwingUtilities.invokeLater(new Runnable() {
+						@Override
+						public void run() {
+							progressBar.setFileState(index, "loading");
+						}
+					});
+					try {
+						final BinList bl = extractBinList(type, files[index].getPath(), aWindowSize, extractionThreadCount, new ExtractionListener() {
+							@Override
+							public void progressChanged(long bytesRead, long totalBytes, int lineCount, double linesPerSecond) {
+								if (totalBytes > 0) {
+									final long percentage = Math.min(100, bytesRead * 100 / totalBytes);
+									SwingUtilities.invokeLater(new Runnable() {
+										@Override
+										public void run() {
+											progressBar.setFileState(index, "loading " + percentage + "%");
+										}
+									});
+								}
+							}
+
+							@Override
+							public void chromosomeExtracted(GenomicFileExtractor extractor, short chromosome) {}
+
+							@Override
+							public void chromosomeUpdated(GenomicFileExtractor extractor, short chromosome) {}
+						});
+						SwingUtilities.invokeLater(new Runnable() {
+							@Override
+							public void run() {
+								addBinListTrack(bl, files[index].getName());
+								progressBar.fileLoaded(index);
+							}
+						});
+					} catch (Exception e) {
+						e.printStackTrace();
+						SwingUtilities.invokeLater(new Runnable() {
+							@Override
+							public void run() {
+								progressBar.fileFailed(index);
+							}
+						});
+					}
+				}
+			});
+		}
+		executor.shutdown();
+	}
+
+
 	/**
 	 * Loads a Gdp file.
 	 */
@@ -234,13 +596,39 @@ public final class GdpMainFrame extends JFrame {
 		final String addressFile = chooseFileToLoad("Gdp");
 		if (addressFile != null) {
 				final GdpProgressBar progressBar = new GdpProgressBar(this);
+				final ProgressiveLoadingListener listener = new ProgressiveLoadingListener(progressBar, addressFile, 0, getCriterion(FileType.gdp));
 				SwingWorker<BinList, Void> worker = new SwingWorker<BinList, Void>() {		
 					@Override
 					protected BinList doInBackground() throws Exception {
 						loadingFileStart();
-						GdpFileExtractor gfe = new GdpFileExtractor(null, chromoConfig, addressFile);
-						BinList bl = gfe.getBinList();
-						return bl;
+						return extractBinList(FileType.gdp, addressFile, 0, cm.getExtractionThreadCount(), listener);
+					}
+
+					@Override
+					protected void done() {
+						progressBar.dispose();
+						listener.removeTemporaryTrack();
+						loadingFileDone(this, addressFile);
+					}
+
+				};	
+				worker.execute();
+		}		
+	}
+
+	/**
+	 * Loads a binary file saved by GDP.
+	 */
+	public void loadBinary() {
+		final String addressFile = chooseFileToLoad("binary");
+		if (addressFile != null) {
+				final GdpProgressBar progressBar = new GdpProgressBar(this);
+				SwingWorker<BinList, Void> worker = new SwingWorker<BinList, Void>() {		
+					@Override
+					protected BinList doInBackground() throws Exception {
+						loadingFileStart();
+						// the chromosomes are loaded from the file when they are first displayed
+						return new BinList(chromoConfig, addressFile);
 					}
 
 					@Override
@@ -263,18 +651,18 @@ public final class GdpMainFrame extends JFrame {
 			final Integer aWindowSize = GdpNumberOptionPane.getValueWindow(this, cm.getWindowSize());
 			if(aWindowSize != null) {
 				final GdpProgressBar progressBar = new GdpProgressBar(this);
+				final ProgressiveLoadingListener listener = new ProgressiveLoadingListener(progressBar, addressFile, aWindowSize, getCriterion(FileType.solid));
 				SwingWorker<BinList, Void> worker = new SwingWorker<BinList, Void>() {		
 					@Override
 					protected BinList doInBackground() throws Exception {
 						loadingFileStart();
-						SolidFileExtractor sfe = new SolidFileExtractor(cm.getSolidLogFile(), chromoConfig, addressFile);
-						BinList bl = sfe.getBinList(aWindowSize);
-						return bl;
+						return extractBinList(FileType.solid, addressFile, aWindowSize, cm.getExtractionThreadCount(), listener);
 					}
 
 					@Override
 					protected void done() {
 						progressBar.dispose();
+						listener.removeTemporaryTrack();
 						loadingFileDone(this, addressFile);
 					}
 
@@ -294,19 +682,18 @@ public final class GdpMainFrame extends JFrame {
 			final Integer aWindowSize = GdpNumberOptionPane.getValueWindow(this, cm.getWindowSize());
 			if(aWindowSize != null) {
 				final GdpProgressBar progressBar = new GdpProgressBar(this);
+				final ProgressiveLoadingListener listener = new ProgressiveLoadingListener(progressBar, addressFile, aWindowSize, getCriterion(FileType.bedGraph));
 				SwingWorker<BinList, Void> worker = new SwingWorker<BinList, Void>() {			
 					@Override
 					protected BinList doInBackground() throws Exception {
 						loadingFileStart();
-						BedGraphFileExtractor bgfe = new BedGraphFileExtractor(cm.getBedGraphLogFile(), chromoConfig, addressFile);
-						// TODO: option intensity configuration
-						BinList bl = bgfe.getBinList(aWindowSize, IntensityCalculation.sum);
-						return bl;
+						return extractBinList(FileType.bedGraph, addressFile, aWindowSize, cm.getExtractionThreadCount(), listener);
 					}
 
 					@Override
 					protected void done() {
 						progressBar.dispose();
+						listener.removeTemporaryTrack();
 						loadingFileDone(this, addressFile);
 					}
 				};
@@ -326,18 +713,18 @@ public final class GdpMainFrame extends JFrame {
 			final Integer aWindowSize = GdpNumberOptionPane.getValueWindow(this, cm.getWindowSize());
 			if(aWindowSize != null) {	
 				final GdpProgressBar progressBar = new GdpProgressBar(this);
+				final ProgressiveLoadingListener listener = new ProgressiveLoadingListener(progressBar, addressFile, aWindowSize, getCriterion(FileType.nimbleGene));
 				SwingWorker<BinList, Void> worker = new SwingWorker<BinList, Void>() {			
 					@Override
 					protected BinList doInBackground() throws Exception {
 						loadingFileStart();
-						NimbleFileExtractor nfe = new NimbleFileExtractor(cm.getNimbleLogFile(), chromoConfig, addressFile);
-						BinList bl = nfe.getBinList(aWindowSize, BinList.IntensityCalculation.average);
-						return bl;
+						return extractBinList(FileType.nimbleGene, addressFile, aWindowSize, cm.getExtractionThreadCount(), listener);
 					}
 
 					@Override
 					protected void done() {
 						progressBar.dispose();
+						listener.removeTemporaryTrack();
 						loadingFileDone(this, addressFile);
 					}
 				};
@@ -357,18 +744,18 @@ public final class GdpMainFrame extends JFrame {
 			final Integer aWindowSize = GdpNumberOptionPane.getValueWindow(this, cm.getWindowSize());
 			if(aWindowSize != null) {
 				final GdpProgressBar progressBar = new GdpProgressBar(this);
+				final ProgressiveLoadingListener listener = new ProgressiveLoadingListener(progressBar, addressFile, aWindowSize, getCriterion(FileType.solexa));
 				SwingWorker<BinList, Void> worker = new SwingWorker<BinList, Void>() {			
 					@Override
 					protected BinList doInBackground() throws Exception {
 						loadingFileStart();
-						SolexaFileExtractor sfe = new SolexaFileExtractor(cm.getSolexaLogFile(), chromoConfig, addressFile);
-						BinList bl = sfe.getBinList(aWindowSize);
-						return bl;
+						return extractBinList(FileType.solexa, addressFile, aWindowSize, cm.getExtractionThreadCount(), listener);
 					}
 
 					@Override
 					protected void done() {
 						progressBar.dispose();
+						listener.removeTemporaryTrack();
 						loadingFileDone(this, addressFile);
 					}
 				};
@@ -393,9 +780,10 @@ public final class GdpMainFrame extends JFrame {
 		if(maxWindow > 0) {
 			Integer sigma = GdpGenomicWidthChooser.getSigma(this, maxWindow);
 			if(sigma != null) {
+				GaussEngine engine = GdpGenomicWidthChooser.getGaussEngine();
 				for(GdpBinListTrackContainer aCCP : list) {
 					this.setEnabled(false);
-					aCCP.getTrack().gauss(sigma);
+					aCCP.getTrack().gauss(sigma, engine);
 					this.setEnabled(true);
 				}
 				setUndoRedoEnableDisable();
@@ -596,6 +984,28 @@ public final class GdpMainFrame extends JFrame {
 	}
 
 
+	/**
+	 * Saves the selected files as binary files.
+	 */
+	public void exportBinarySelectedCurves() {
+		ArrayList<GdpBinListTrackContainer> list = this.gdpMainPanel.getGdpListOfTrackContainers().getSelectedBinListTC();
+		for(GdpBinListTrackContainer aCCP : list) {
+			JFileChooser saveFC = new JFileChooser();
+			saveFC.setFileSelectionMode(JFileChooser.FILES_ONLY);
+			saveFC.setDialogTitle("Save " + aCCP.getTrackName());
+			saveFC.setSelectedFile(new File(aCCP.getTrackName() + ".gdpb"));
+			int returnVal = saveFC.showSaveDialog(this);
+			if(returnVal == JFileChooser.APPROVE_OPTION) {
+				if (!cancelBecauseFileExist(saveFC.getSelectedFile())) {
+					gdpMenuBar.setEnabled(false);
+					aCCP.getTrack().printBinary(saveFC.getSelectedFile().toString());
+					gdpMenuBar.setEnabled(true);
+				}
+			}
+		}
+	}
+
+
 	/**
 	 * Saves the selected files as BedGraph files.
 	 */
@@ -619,6 +1029,54 @@ public final class GdpMainFrame extends JFrame {
 	}
 
 
+	/**
+	 * Saves the statistics of the selected curves on each region of a BED file.
+	 */
+	public void regionStatisticsSelectedCurves() {
+		final ArrayList<GdpBinListTrackContainer> list = this.gdpMainPanel.getGdpListOfTrackContainers().getSelectedBinListTC();
+		final String addressFile  = chooseFileToLoad("BED");
+		if ((list.size() > 0) && (addressFile != null)) {
+			final GdpProgressBar progressBar = new GdpProgressBar(this);
+			SwingWorker<RegionFileExtractor, Void> worker = new SwingWorker<RegionFileExtractor, Void>() {			
+				@Override
+				protected RegionFileExtractor doInBackground() throws Exception {
+					setEnabled(false);
+					return new RegionFileExtractor(chromoConfig, addressFile, cm.getExtractionThreadCount());
+				}
+
+				@Override
+				protected void done() {					
+					setEnabled(true);
+					progressBar.dispose();
+					RegionFileExtractor regions;
+					try {
+						regions = this.get();
+					} catch (Exception e) {
+						JOptionPane.showMessageDialog(getRootPane(), "Error while loading the BED file", "Error", JOptionPane.ERROR_MESSAGE);
+						e.printStackTrace();
+						return;
+					}
+					for (GdpBinListTrackContainer aCCP : list) {
+						JFileChooser saveFC = new JFileChooser();
+						saveFC.setFileSelectionMode(JFileChooser.FILES_ONLY);
+						saveFC.setDialogTitle("Save the region statistics of " + aCCP.getTrackName());
+						saveFC.setSelectedFile(new File(aCCP.getTrackName() + "_regions.txt"));
+						int returnVal = saveFC.showSaveDialog(getRootPane());
+						if (returnVal == JFileChooser.APPROVE_OPTION) {
+							if (!cancelBecauseFileExist(saveFC.getSelectedFile())) {
+								gdpMenuBar.setEnabled(false);
+								aCCP.getTrack().printRegionStatistics(saveFC.getSelectedFile().toString(), regions);
+								gdpMenuBar.setEnabled(true);
+							}
+						}
+					}
+				}
+			};
+			worker.execute();
+		}
+	}
+
+
 	/**
 	 * Removes the selected curves.
 	 */
@@ -695,6 +1153,47 @@ public final class GdpMainFrame extends JFrame {
 	}
 
 
+	/**
+	 * Scales the intensity axis of the selected curves to the minimum and maximum values of the displayed region.
+	 */
+	public void autoscaleSelectedCurves() {
+		ArrayList<GdpBinListTrackContainer> list = this.gdpMainPanel.getGdpListOfTrackContainers().getSelectedBinListTC();
+		for (GdpBinListTrackContainer aCCP : list) {
+			double[] minMax = aCCP.getTrack().minMaxDisplayedRegion();
+			// the axis can't be scaled to a region with a constant value
+			if ((minMax != null) && (minMax[0] < minMax[1])) {
+				aCCP.setMinMaxY(minMax[0], minMax[1]);
+			}
+		}
+	}
+
+
+	/**
+	 * Changes the size of the bins of the selected curves.
+	 */
+	public void changeWindowSizeSelectedCurves() {
+		ArrayList<GdpBinListTrackContainer> list = this.gdpMainPanel.getGdpListOfTrackContainers().getSelectedBinListTC();
+		if (list.size() > 0) {
+			Number windowSize = GdpNumberOptionPane.getValue(this, "Window size", "Enter the new size of the bins in bp:", new DecimalFormat("0"), 1, 1000000000, list.get(0).getTrack().getBinList().getWindowSize());
+			if (windowSize != null) {
+				IntensityCalculation criterion = (IntensityCalculation) JOptionPane.showInputDialog(getRootPane(), "Value of the new bins:", "Window size", 
+						JOptionPane.QUESTION_MESSAGE, null, IntensityCalculation.values(), IntensityCalculation.average);
+				if (criterion != null) {
+					for (GdpBinListTrackContainer aCCP : list) {
+						aCCP.getTrack().changeWindowSize(windowSize.intValue(), criterion);
+						try {
+							aCCP.setMinMaxY(aCCP.getTrack().getBinList().min(), aCCP.getTrack().getBinList().max());
+						} catch (BinListNoDataException e) {
+							e.printStackTrace();
+						}
+					}
+					setUndoRedoEnableDisable();
+				}
+			}
+		}
+	}
+
+
 	/**
 	 * Normalizes the selected curves.
 	 */
@@ -850,6 +1349,12 @@ public final class GdpMainFrame extends JFrame {
 				if (! cm.getGdpCurveGraphicGraphicsType().equals(oldCm.getGdpCurveGraphicGraphicsType())) {
 					changeGraphicsType();
 				}
+				if (cm.getOperationThreadCount() != oldCm.getOperationThreadCount()) {
+					BinListExecutor.setThreadCount(cm.getOperationThreadCount());
+				}
+				if ((cm.getBinListStorage() != oldCm.getBinListStorage()) || (!cm.getBinListStorageDirectory().equals(oldCm.getBinListStorageDirectory()))) {
+					BinArray.setStorage(cm.getBinListStorage(), cm.getBinListStorageDirectory());
+				}
 				if (cm.getGdpCurveContainerPreferredHeight() != oldCm.getGdpCurveContainerPreferredHeight()) {
 					for (GdpBinListTrackContainer gcc : gdpMainPanel.getGdpListOfTrackContainers().getAllBinListTC()) {
 						gcc.setPreferredHeight(cm.getGdpCurveContainerPreferredHeight());
@@ -33,11 +33,12 @@ public final class GdpMenuBar extends JMenuBar {
 								jmiGauss, jmiDivideBy, jmiSubtract, jmiIndex, 
 								jmiIndexByChromo, jmiLog, jmiLogDamper, jmiPreferences, 
 								jmiExportBedGraph, jmiExportCSV, jmiRemove,	
-								jmiReset, jmiDuplicate, jmiMax, jmiMin, jmiNormalize, 
-								jmiRepartition, jmiCorrelation, jmiTrackConfiguration,
+								jmiReset, jmiDuplicate, jmiMax, jmiMin, jmiAutoscale, jmiNormalize, jmiWindowSize, 
+								jmiRepartition, jmiCorrelation, jmiRegionStatistics, jmiTrackConfiguration,
 								jmiUndo, jmiRedo, jmiSaveAsImage, jmiAddDumper, 
 								jmiRenameCurves, jmiShowHistory, jmiSelectAll,
-								jmiLoadRepeats;
+								jmiLoadRepeats, jmiLoadBinary, jmiExportBinary,
+								jmiLoadBatch;
 	private JCheckBoxMenuItem 	jcbmiShowStripes;					// CheckBoxes
 	
 	
@@ -54,6 +55,17 @@ public final class GdpMenuBar extends JMenuBar {
 	}
 
 
+	/**
+	 * Enables or disables all the menus of the menu bar.
+	 * @param b True to enable the menus, false to disable them.
+	 */
+	public void setMenusEnabled(boolean b) {
+		for (int i = 0; i < getMenuCount(); i++) {
+			getMenu(i).setEnabled(b);
+		}
+	}
+	
+	
 	/**
 	 * Creates File menu.  
 	 */
@@ -119,6 +131,27 @@ public final class GdpMenuBar extends JMenuBar {
 			}
 		});
 		
+		// Build jmi Load binary file.
+		jmiLoadBinary = new JMenuItem("from a binary file");
+		jmiLoadBinary.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				parentFrame.loadBinary();				
+			}
+		});
+		jmFileImport.add(jmiLoadBinary);
+		
+		// Build jmi Load batch.
+		jmiLoadBatch = new JMenuItem("from several files (batch)");
+		jmiLoadBatch.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				parentFrame.loadBatch();				
+			}
+		});
+		jmFileImport.addSeparator();
+		jmFileImport.add(jmiLoadBatch);
+		
 		// Create menu load gene file
 		jmiLoadGenes = new JMenuItem("Load gene file");
 		jmiLoadGenes.addActionListener(new ActionListener() {			
@@ -164,6 +197,15 @@ public final class GdpMenuBar extends JMenuBar {
 			}
 		});	
 		jmFileExport.add(jmiExportCSV);
+		// Build jmi export binary
+		jmiExportBinary = new JMenuItem("Binary");
+		jmiExportBinary.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				parentFrame.exportBinarySelectedCurves();					
+			}
+		});	
+		jmFileExport.add(jmiExportBinary);
 		
 		// Build Save as image
 		jmiSaveAsImage = new JMenuItem("Save as image");
@@ -426,6 +468,16 @@ public final class GdpMenuBar extends JMenuBar {
 		});
 		jmOperation.add(jmiNormalize);
 		
+		// Build sub-menu Window size.
+		jmiWindowSize = new JMenuItem("Change window size");
+		jmiWindowSize.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				parentFrame.changeWindowSizeSelectedCurves();			
+			}
+		});
+		jmOperation.add(jmiWindowSize);
+		
 		// Build sub-menu Repartition.
 		jmiRepartition = new JMenuItem("Repartition");
 		jmiRepartition.addActionListener(new ActionListener() {
@@ -458,6 +510,16 @@ public final class GdpMenuBar extends JMenuBar {
 		});
 		jmOperation.add(jmiMax);
 		
+		// Build sub-menu Autoscale.
+		jmiAutoscale = new JMenuItem("Autoscale");
+		jmiAutoscale.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				parentFrame.autoscaleSelectedCurves();			
+			}
+		});
+		jmOperation.add(jmiAutoscale);
+		
 		jmOperation.addSeparator();
 
 		// Build sub-menu Divide.
@@ -499,6 +561,16 @@ public final class GdpMenuBar extends JMenuBar {
 			}
 		});
 		jmOperation.add(jmiCorrelation);		
+		
+		// Build sub-menu Region statistics.
+		jmiRegionStatistics = new JMenuItem("Region statistics");
+		jmiRegionStatistics.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				parentFrame.regionStatisticsSelectedCurves();			
+			}
+		});
+		jmOperation.add(jmiRegionStatistics);
 	}
 	
 	
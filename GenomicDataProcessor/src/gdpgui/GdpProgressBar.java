@@ -7,6 +7,7 @@ package gdpgui;
 
 
 import java.awt.*;
+import java.text.DecimalFormat;
 
 import javax.swing.*; 
 import javax.swing.border.EtchedBorder;
@@ -59,6 +60,26 @@ public final class GdpProgressBar extends JDialog {
 		pack();
 		setLocationRelativeTo(parentFrame);
 		setVisible(true);
-	}	
+	}
+	
+	
+	/**
+	 * Displays the progress of the loading. 
+	 * The progress bar stays indeterminate if the length of the file is unknown.
+	 * @param bytesRead Number of bytes read.
+	 * @param totalBytes Length of the file.
+	 * @param lineCount Number of lines extracted.
+	 * @param linesPerSecond Number of lines extracted per second.
+	 */
+	public void setProgress(long bytesRead, long totalBytes, int lineCount, double linesPerSecond) {
+		DecimalFormat df = new DecimalFormat("###,###,###");
+		String text = "Loading in progress... " + df.format(lineCount) + " lines (" + df.format(linesPerSecond) + " lines/s)";
+		if ((totalBytes > 0) && (bytesRead <= totalBytes)) {
+			jpbWait.setIndeterminate(false);
+			jpbWait.setValue((int) (bytesRead * 100 / totalBytes));
+		}
+		jlWait.setText(text);
+		pack();
+	}
 }
 